@@ -0,0 +1,357 @@
+package org.openstreetmap.atlas.checks.atlas.layers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.openstreetmap.atlas.checks.utility.ContainmentGrid;
+import org.openstreetmap.atlas.exception.CoreException;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.MultiPolygon;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.items.Area;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.items.LineItem;
+import org.openstreetmap.atlas.geography.atlas.items.Relation;
+import org.openstreetmap.atlas.geography.atlas.items.complex.RelationOrAreaToMultiPolygonConverter;
+import org.openstreetmap.atlas.geography.converters.jts.JtsPolyLineConverter;
+import org.openstreetmap.atlas.geography.converters.jts.JtsPolygonConverter;
+import org.openstreetmap.atlas.utilities.scalars.Surface;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of the geometries of the entities of an
+ * {@link org.openstreetmap.atlas.geography.atlas.Atlas}. Checks comparing an entity against many
+ * neighbours convert the same entities over and over; this keeps the atlas geometry, its JTS
+ * equivalent and derived values of recently used entities instead. Use
+ * {@link AtlasLayers#geometries()} to get the cache of an atlas.
+ * <p>
+ * Geometries with many points are also prepared on first use, so that testing many small
+ * geometries against the same large polygon or line, like an ocean or a coastline, is logarithmic
+ * instead of linear in its number of points. Polygons with many points also get a
+ * {@link ContainmentGrid}, so that testing many locations against the same polygon, like a large
+ * landuse or water body, is close to constant time.
+ * <p>
+ * Multipolygon {@link Relation}s are assembled once too, and the cache keeps their
+ * {@link MultiPolygon}s up to a total number of points, along with the relations that failed to
+ * assemble.
+ *
+ * @author agent
+ */
+public final class AtlasGeometries
+{
+    /**
+     * The cached geometry of an entity, with its JTS equivalent, derived values and prepared
+     * geometry computed on first use
+     *
+     * @author agent
+     * @param <T>
+     *            the type of the atlas geometry
+     */
+    public static final class CachedGeometry<T extends PolyLine>
+    {
+        private final T geometry;
+        private final Function<T, Geometry> converter;
+        private volatile Rectangle bounds;
+        private volatile Geometry jts;
+        private volatile PreparedGeometry prepared;
+        private volatile ContainmentGrid containmentGrid;
+        private volatile Surface surface;
+
+        private CachedGeometry(final T geometry, final Function<T, Geometry> converter)
+        {
+            this.geometry = geometry;
+            this.converter = converter;
+        }
+
+        /**
+         * @return the atlas geometry
+         */
+        public T asGeometry()
+        {
+            return this.geometry;
+        }
+
+        /**
+         * @return the JTS equivalent of the geometry. It is shared, and must not be modified.
+         */
+        public Geometry asJts()
+        {
+            if (this.jts == null)
+            {
+                this.jts = this.converter.apply(this.geometry);
+            }
+            return this.jts;
+        }
+
+        /**
+         * @return the bounds of the geometry
+         */
+        public Rectangle bounds()
+        {
+            if (this.bounds == null)
+            {
+                this.bounds = this.geometry.bounds();
+            }
+            return this.bounds;
+        }
+
+        /**
+         * @param location
+         *            a {@link Location}
+         * @return true if this geometry is a {@link Polygon} and fully encloses the location
+         */
+        public boolean covers(final Location location)
+        {
+            if (!(this.geometry instanceof Polygon))
+            {
+                return false;
+            }
+            if (this.geometry.size() >= CONTAINMENT_GRID_MINIMUM_SIZE)
+            {
+                return this.containmentGrid().covers(location);
+            }
+            return ((Polygon) this.geometry).fullyGeometricallyEncloses(location);
+        }
+
+        /**
+         * @param other
+         *            another geometry
+         * @return true if this geometry is a {@link Polygon} and fully encloses the other geometry
+         */
+        public boolean covers(final CachedGeometry<?> other)
+        {
+            if (!(this.geometry instanceof Polygon))
+            {
+                return false;
+            }
+            if (this.isPrepared())
+            {
+                return this.prepared().covers(other.asJts());
+            }
+            return ((Polygon) this.geometry).fullyGeometricallyEncloses(other.asGeometry());
+        }
+
+        /**
+         * @param other
+         *            another geometry
+         * @return true if the geometries intersect. A {@link Polygon} also intersects the
+         *         geometries it encloses.
+         */
+        public boolean intersects(final CachedGeometry<?> other)
+        {
+            if (this.isPrepared())
+            {
+                return this.prepared().intersects(other.asJts());
+            }
+            return this.geometry instanceof Polygon
+                    ? ((Polygon) this.geometry).overlaps(other.asGeometry())
+                    : this.geometry.intersects(other.asGeometry());
+        }
+
+        /**
+         * @return true if this geometry is large enough to be tested through a prepared geometry
+         */
+        public boolean isPrepared()
+        {
+            return this.geometry.size() >= PREPARED_MINIMUM_SIZE;
+        }
+
+        /**
+         * @return the surface of the geometry if it is a {@link Polygon}, or an empty surface
+         */
+        public Surface surface()
+        {
+            if (this.surface == null)
+            {
+                this.surface = this.geometry instanceof Polygon
+                        ? ((Polygon) this.geometry).surface()
+                        : Surface.forDm7Squared(0);
+            }
+            return this.surface;
+        }
+
+        private ContainmentGrid containmentGrid()
+        {
+            if (this.containmentGrid == null)
+            {
+                this.containmentGrid = ContainmentGrid.forPolygon((Polygon) this.geometry);
+            }
+            return this.containmentGrid;
+        }
+
+        private PreparedGeometry prepared()
+        {
+            if (this.prepared == null)
+            {
+                this.prepared = PreparedGeometryFactory.prepare(this.asJts());
+            }
+            return this.prepared;
+        }
+    }
+
+    /**
+     * The outcome of assembling a multipolygon {@link Relation}, either the {@link MultiPolygon} or
+     * the exception thrown by the assembly
+     *
+     * @author agent
+     */
+    private static final class Assembly
+    {
+        private final MultiPolygon multiPolygon;
+        private final RuntimeException failure;
+
+        static Assembly of(final Relation relation)
+        {
+            try
+            {
+                return new Assembly(MULTI_POLYGON_CONVERTER.convert(relation), null);
+            }
+            catch (final RuntimeException exception)
+            {
+                return new Assembly(null, exception);
+            }
+        }
+
+        private Assembly(final MultiPolygon multiPolygon, final RuntimeException failure)
+        {
+            this.multiPolygon = multiPolygon;
+            this.failure = failure;
+        }
+
+        int weight()
+        {
+            if (this.multiPolygon == null)
+            {
+                return 1;
+            }
+            return Math.max(1, Stream.concat(this.multiPolygon.outers().stream(),
+                    this.multiPolygon.inners().stream()).mapToInt(Polygon::size).sum());
+        }
+    }
+
+    // Bounds the number of entities cached per type, per atlas
+    private static final long MAXIMUM_SIZE = 50_000;
+    // Bounds the total number of points of the multipolygons cached per atlas
+    private static final long MAXIMUM_MULTI_POLYGON_POINTS = 5_000_000;
+    // Geometries with fewer points are cheap enough to test directly
+    private static final int PREPARED_MINIMUM_SIZE = 500;
+    // Polygons with fewer points are cheap enough to test locations against directly
+    private static final int CONTAINMENT_GRID_MINIMUM_SIZE = 64;
+    private static final RelationOrAreaToMultiPolygonConverter MULTI_POLYGON_CONVERTER = new RelationOrAreaToMultiPolygonConverter();
+    private static final JtsPolygonConverter POLYGON_CONVERTER = new JtsPolygonConverter();
+    private static final JtsPolyLineConverter POLYLINE_CONVERTER = new JtsPolyLineConverter();
+
+    private final Cache<Long, CachedGeometry<Polygon>> areas = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE).build();
+    private final Cache<Long, CachedGeometry<PolyLine>> edges = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE).build();
+    private final Cache<Long, CachedGeometry<PolyLine>> lines = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE).build();
+    private final Cache<Long, Assembly> relations = CacheBuilder.newBuilder()
+            .maximumWeight(MAXIMUM_MULTI_POLYGON_POINTS)
+            .weigher((final Long identifier, final Assembly assembly) -> assembly.weight()).build();
+
+    /**
+     * Wraps a {@link Polygon} that is not the geometry of an entity, without caching it
+     *
+     * @param polygon
+     *            a {@link Polygon}
+     * @return the geometry of the polygon
+     */
+    public static CachedGeometry<Polygon> forPolygon(final Polygon polygon)
+    {
+        return new CachedGeometry<>(polygon, POLYGON_CONVERTER::convert);
+    }
+
+    /**
+     * Wraps a {@link PolyLine} that is not the geometry of an entity, without caching it
+     *
+     * @param polyLine
+     *            a {@link PolyLine}
+     * @return the geometry of the polyline
+     */
+    public static CachedGeometry<PolyLine> forPolyLine(final PolyLine polyLine)
+    {
+        return new CachedGeometry<>(polyLine, POLYLINE_CONVERTER::convert);
+    }
+
+    AtlasGeometries()
+    {
+    }
+
+    /**
+     * Assembles a multipolygon {@link Relation} once, and shares the result with every check.
+     * Failures are cached too: a relation that can not be assembled throws the same exception
+     * again, without being assembled again.
+     *
+     * @param relation
+     *            a multipolygon {@link Relation} of the atlas
+     * @return the {@link MultiPolygon} of the relation. It is shared, and must not be modified.
+     * @throws RuntimeException
+     *             the exception thrown when assembling the relation, usually a
+     *             {@link CoreException}
+     */
+    public MultiPolygon multiPolygon(final Relation relation)
+    {
+        final Assembly assembly;
+        try
+        {
+            assembly = this.relations.get(relation.getIdentifier(), () -> Assembly.of(relation));
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new CoreException("Unable to assemble relation {}", exception.getCause(),
+                    relation.getIdentifier());
+        }
+        if (assembly.failure != null)
+        {
+            throw assembly.failure;
+        }
+        return assembly.multiPolygon;
+    }
+
+    /**
+     * @param area
+     *            an {@link Area} of the atlas
+     * @return the cached geometry of the area
+     */
+    public CachedGeometry<Polygon> polygon(final Area area)
+    {
+        return this.get(this.areas, area.getIdentifier(),
+                () -> forPolygon(area.asPolygon()));
+    }
+
+    /**
+     * @param line
+     *            a {@link LineItem} of the atlas
+     * @return the cached geometry of the line item
+     */
+    public CachedGeometry<PolyLine> polyLine(final LineItem line)
+    {
+        return this.get(line instanceof Edge ? this.edges : this.lines, line.getIdentifier(),
+                () -> forPolyLine(line.asPolyLine()));
+    }
+
+    private <T extends PolyLine> CachedGeometry<T> get(final Cache<Long, CachedGeometry<T>> cache,
+            final long identifier, final Callable<CachedGeometry<T>> loader)
+    {
+        try
+        {
+            return cache.get(identifier, loader);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new CoreException("Unable to get the geometry of {}", exception.getCause(),
+                    identifier);
+        }
+    }
+}
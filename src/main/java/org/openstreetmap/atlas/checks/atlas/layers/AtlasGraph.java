@@ -0,0 +1,335 @@
+package org.openstreetmap.atlas.checks.atlas.layers;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.items.Node;
+import org.openstreetmap.atlas.tags.HighwayTag;
+
+/**
+ * A compact snapshot of the {@link Edge} graph of an {@link Atlas}, for checks walking the road
+ * network. Edges and {@link Node}s are numbered by increasing identifier, and the edges starting
+ * and ending at each node are kept in compressed sparse row form, along with primitive columns of
+ * the edge attributes checks filter on. Walking the graph through these indices allocates nothing,
+ * unlike {@link Edge#connectedEdges()}, {@link Edge#inEdges()} and {@link Edge#outEdges()}, which
+ * build new sets of entities on every call. Use {@link AtlasLayers#graph()} to get the graph of an
+ * atlas.
+ * <p>
+ * The graph is immutable once built, and can be walked from multiple threads.
+ *
+ * @author agent
+ */
+public final class AtlasGraph
+{
+    /**
+     * The index of an edge or a node that is not in the graph
+     */
+    public static final int NONE = -1;
+    private static final HighwayTag[] HIGHWAYS = HighwayTag.values();
+
+    private final Atlas atlas;
+    private final long[] edgeIdentifiers;
+    private final long[] osmIdentifiers;
+    private final long[] nodeIdentifiers;
+    private final int[] starts;
+    private final int[] ends;
+    // The edges starting at each node, and the edges ending at each node
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    // Attribute columns
+    private final byte[] highways;
+    private final BitSet mainEdges = new BitSet();
+    private final BitSet carNavigableEdges = new BitSet();
+
+    /**
+     * Groups edges by node, in compressed sparse row form
+     *
+     * @param nodes
+     *            the node of each edge
+     * @param nodeCount
+     *            the number of nodes
+     * @param offsets
+     *            filled with the offsets of the edges of each node
+     * @return the edges of all the nodes, by increasing index for each node
+     */
+    private static int[] group(final int[] nodes, final int nodeCount, final int[] offsets)
+    {
+        for (final int node : nodes)
+        {
+            offsets[node + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++)
+        {
+            offsets[node + 1] += offsets[node];
+        }
+        final int[] cursors = Arrays.copyOf(offsets, nodeCount);
+        final int[] edges = new int[nodes.length];
+        for (int edge = 0; edge < nodes.length; edge++)
+        {
+            edges[cursors[nodes[edge]]++] = edge;
+        }
+        return edges;
+    }
+
+    /**
+     * Builds the graph of an {@link Atlas}. Prefer {@link AtlasLayers#graph()}, which shares it.
+     *
+     * @param atlas
+     *            the {@link Atlas} to snapshot
+     */
+    public AtlasGraph(final Atlas atlas)
+    {
+        this.atlas = atlas;
+        final int edgeCount = (int) atlas.numberOfEdges();
+        final int nodeCount = (int) atlas.numberOfNodes();
+        this.nodeIdentifiers = new long[nodeCount];
+        int count = 0;
+        for (final Node node : atlas.nodes())
+        {
+            this.nodeIdentifiers[count++] = node.getIdentifier();
+        }
+        Arrays.sort(this.nodeIdentifiers);
+        final Edge[] edges = new Edge[edgeCount];
+        count = 0;
+        for (final Edge edge : atlas.edges())
+        {
+            edges[count++] = edge;
+        }
+        Arrays.sort(edges, (one, other) -> Long.compare(one.getIdentifier(),
+                other.getIdentifier()));
+
+        this.edgeIdentifiers = new long[edgeCount];
+        this.osmIdentifiers = new long[edgeCount];
+        this.starts = new int[edgeCount];
+        this.ends = new int[edgeCount];
+        this.highways = new byte[edgeCount];
+        for (int index = 0; index < edgeCount; index++)
+        {
+            final Edge edge = edges[index];
+            this.edgeIdentifiers[index] = edge.getIdentifier();
+            this.osmIdentifiers[index] = edge.getOsmIdentifier();
+            this.starts[index] = this.nodeIndex(edge.start().getIdentifier());
+            this.ends[index] = this.nodeIndex(edge.end().getIdentifier());
+            this.highways[index] = (byte) edge.highwayTag().ordinal();
+            this.mainEdges.set(index, edge.isMainEdge());
+            this.carNavigableEdges.set(index, HighwayTag.isCarNavigableHighway(edge));
+        }
+        this.outOffsets = new int[nodeCount + 1];
+        this.outEdges = group(this.starts, nodeCount, this.outOffsets);
+        this.inOffsets = new int[nodeCount + 1];
+        this.inEdges = group(this.ends, nodeCount, this.inOffsets);
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the {@link Edge}
+     */
+    public Edge edge(final int edge)
+    {
+        return this.atlas.edge(this.edgeIdentifiers[edge]);
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int edgeCount()
+    {
+        return this.edgeIdentifiers.length;
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the identifier of the edge
+     */
+    public long edgeIdentifier(final int edge)
+    {
+        return this.edgeIdentifiers[edge];
+    }
+
+    /**
+     * @param identifier
+     *            an {@link Edge} identifier
+     * @return the index of the edge, or {@link #NONE} if it is not in the atlas
+     */
+    public int edgeIndex(final long identifier)
+    {
+        final int index = Arrays.binarySearch(this.edgeIdentifiers, identifier);
+        return index < 0 ? NONE : index;
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the node index of the end of the edge
+     */
+    public int end(final int edge)
+    {
+        return this.ends[edge];
+    }
+
+    /**
+     * Calls a consumer with each edge starting or ending at a node, once, like
+     * {@link Node#connectedEdges()}
+     *
+     * @param node
+     *            a node index
+     * @param consumer
+     *            the consumer of the edge indices
+     */
+    public void forEachEdge(final int node, final IntConsumer consumer)
+    {
+        for (int position = this.outOffsets[node]; position < this.outOffsets[node + 1]; position++)
+        {
+            consumer.accept(this.outEdges[position]);
+        }
+        for (int position = this.inOffsets[node]; position < this.inOffsets[node + 1]; position++)
+        {
+            // Loops start and end at the node, and were already given
+            if (this.starts[this.inEdges[position]] != node)
+            {
+                consumer.accept(this.inEdges[position]);
+            }
+        }
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the {@link HighwayTag} of the edge, {@link HighwayTag#NO} if it has none
+     */
+    public HighwayTag highway(final int edge)
+    {
+        return HIGHWAYS[this.highways[edge]];
+    }
+
+    /**
+     * @param node
+     *            a node index
+     * @return the number of edges ending at the node
+     */
+    public int inDegree(final int node)
+    {
+        return this.inOffsets[node + 1] - this.inOffsets[node];
+    }
+
+    /**
+     * @param node
+     *            a node index
+     * @param position
+     *            a position, from 0 to the in degree of the node
+     * @return the index of the edge ending at the node at that position
+     */
+    public int inEdge(final int node, final int position)
+    {
+        return this.inEdges[this.inOffsets[node] + position];
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return {@code true} if the edge is car navigable
+     * @see HighwayTag#isCarNavigableHighway
+     */
+    public boolean isCarNavigable(final int edge)
+    {
+        return this.carNavigableEdges.get(edge);
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return {@code true} if the edge is a main edge
+     */
+    public boolean isMainEdge(final int edge)
+    {
+        return this.mainEdges.get(edge);
+    }
+
+    /**
+     * @param node
+     *            a node index
+     * @return the {@link Node}
+     */
+    public Node node(final int node)
+    {
+        return this.atlas.node(this.nodeIdentifiers[node]);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int nodeCount()
+    {
+        return this.nodeIdentifiers.length;
+    }
+
+    /**
+     * @param identifier
+     *            a {@link Node} identifier
+     * @return the index of the node, or {@link #NONE} if it is not in the atlas
+     */
+    public int nodeIndex(final long identifier)
+    {
+        final int index = Arrays.binarySearch(this.nodeIdentifiers, identifier);
+        return index < 0 ? NONE : index;
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the OSM identifier of the way the edge is a section of
+     */
+    public long osmIdentifier(final int edge)
+    {
+        return this.osmIdentifiers[edge];
+    }
+
+    /**
+     * @param node
+     *            a node index
+     * @return the number of edges starting at the node
+     */
+    public int outDegree(final int node)
+    {
+        return this.outOffsets[node + 1] - this.outOffsets[node];
+    }
+
+    /**
+     * @param node
+     *            a node index
+     * @param position
+     *            a position, from 0 to the out degree of the node
+     * @return the index of the edge starting at the node at that position
+     */
+    public int outEdge(final int node, final int position)
+    {
+        return this.outEdges[this.outOffsets[node] + position];
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the index of the reverse of the edge, or {@link #NONE} if it has none
+     */
+    public int reverse(final int edge)
+    {
+        return this.edgeIndex(-this.edgeIdentifiers[edge]);
+    }
+
+    /**
+     * @param edge
+     *            an edge index
+     * @return the node index of the start of the edge
+     */
+    public int start(final int edge)
+    {
+        return this.starts[edge];
+    }
+}
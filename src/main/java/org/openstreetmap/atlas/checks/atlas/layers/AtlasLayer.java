@@ -0,0 +1,114 @@
+package org.openstreetmap.atlas.checks.atlas.layers;
+
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+import org.openstreetmap.atlas.geography.GeometricSurface;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.index.PackedSpatialIndex;
+import org.openstreetmap.atlas.geography.index.RTree;
+import org.openstreetmap.atlas.geography.index.SpatialIndex;
+
+/**
+ * A subset of the entities of an {@link org.openstreetmap.atlas.geography.atlas.Atlas}, with its
+ * own packed spatial index. Querying a layer only visits the entities of the layer, instead of
+ * every entity of the same type in the atlas. A layer is immutable once built, and can be queried
+ * from multiple threads.
+ *
+ * @author agent
+ * @param <T>
+ *            the type of the entities in the layer
+ */
+public final class AtlasLayer<T extends AtlasEntity>
+{
+    private final SpatialIndex<T> index;
+    private final int size;
+
+    /**
+     * Builds a layer
+     *
+     * @param entities
+     *            the entities in the layer
+     * @param restore
+     *            gets an entity back from the atlas using its identifier
+     */
+    AtlasLayer(final Iterable<T> entities, final LongFunction<T> restore)
+    {
+        this.index = new PackedSpatialIndex<T, Long>(new RTree<>())
+        {
+            private static final long serialVersionUID = 2318810427407383504L;
+
+            @Override
+            protected Long compress(final T item)
+            {
+                return item.getIdentifier();
+            }
+
+            @Override
+            protected boolean isValid(final T item, final Rectangle bounds)
+            {
+                return item.intersects(bounds);
+            }
+
+            @Override
+            protected T restore(final Long packed)
+            {
+                return restore.apply(packed);
+            }
+        };
+        int count = 0;
+        for (final T entity : entities)
+        {
+            this.index.add(entity);
+            count++;
+        }
+        this.size = count;
+        // Queries build the underlying tree, do it once before the layer is shared
+        this.index.get(Location.CENTER.bounds());
+    }
+
+    /**
+     * @param bounds
+     *            the {@link Rectangle} to query
+     * @return the entities of the layer intersecting the bounds
+     */
+    public Iterable<T> intersecting(final Rectangle bounds)
+    {
+        return this.index.get(bounds);
+    }
+
+    /**
+     * @param bounds
+     *            the {@link Rectangle} to query
+     * @param matcher
+     *            a filter on the entities
+     * @return the entities of the layer intersecting the bounds and matching the filter
+     */
+    public Iterable<T> intersecting(final Rectangle bounds, final Predicate<T> matcher)
+    {
+        return this.index.get(bounds, matcher);
+    }
+
+    /**
+     * @param surface
+     *            the {@link GeometricSurface} to query
+     * @param matcher
+     *            a filter on the entities
+     * @return the entities of the layer intersecting the surface and matching the filter
+     */
+    public Iterable<T> intersecting(final GeometricSurface surface, final Predicate<T> matcher)
+    {
+        return this.index.get(surface.bounds(),
+                entity -> entity.intersects(surface) && matcher.test(entity));
+    }
+
+    /**
+     * @return the number of entities in the layer
+     */
+    public int size()
+    {
+        return this.size;
+    }
+}
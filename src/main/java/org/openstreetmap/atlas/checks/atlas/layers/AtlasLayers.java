@@ -0,0 +1,242 @@
+package org.openstreetmap.atlas.checks.atlas.layers;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Area;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.items.Relation;
+import org.openstreetmap.atlas.tags.BuildingTag;
+import org.openstreetmap.atlas.tags.HighwayTag;
+import org.openstreetmap.atlas.utilities.time.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registry of the {@link AtlasLayer}s, {@link AtlasGeometries} and {@link AtlasGraph} derived
+ * from an {@link Atlas}. Layers are built lazily the first time they are requested, once per atlas,
+ * and then shared by all the checks running on that atlas. Each value is built under its own lock,
+ * so building one value never blocks requests for the others.
+ * <p>
+ * The layers and derived values refer to the entities of the atlas, and so keep it reachable. The
+ * registry of an atlas is then kept until {@link #release(Atlas)} is called, which whoever runs the
+ * checks on the atlas must do once they are all done.
+ *
+ * @author agent
+ */
+public final class AtlasLayers
+{
+    /**
+     * The layers shared between checks
+     *
+     * @author agent
+     */
+    private enum Layer
+    {
+        BUILDINGS,
+        BUILDING_RELATIONS,
+        CAR_NAVIGABLE_EDGES,
+        CORE_WAY_EDGES
+    }
+
+    /**
+     * A value built once, on first use, under its own lock
+     *
+     * @author agent
+     * @param <T>
+     *            the type of the value
+     */
+    private static final class Memo<T>
+    {
+        private volatile T value;
+
+        T get(final Supplier<T> builder)
+        {
+            T result = this.value;
+            if (result == null)
+            {
+                synchronized (this)
+                {
+                    result = this.value;
+                    if (result == null)
+                    {
+                        result = builder.get();
+                        this.value = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AtlasLayers.class);
+    // Atlases are compared by identity
+    private static final Map<Atlas, AtlasLayers> REGISTRIES = Collections
+            .synchronizedMap(new IdentityHashMap<>());
+
+    private final Atlas atlas;
+    private final AtlasGeometries geometries = new AtlasGeometries();
+    private final Map<Object, Memo<AtlasLayer<?>>> layers = new ConcurrentHashMap<>();
+    private final Map<Object, Memo<Object>> derived = new ConcurrentHashMap<>();
+    private final Memo<AtlasGraph> graph = new Memo<>();
+
+    /**
+     * @param atlas
+     *            an {@link Atlas}
+     * @return the {@link AtlasLayers} of the atlas, kept until the atlas is released
+     */
+    public static AtlasLayers forAtlas(final Atlas atlas)
+    {
+        return REGISTRIES.computeIfAbsent(atlas, AtlasLayers::new);
+    }
+
+    /**
+     * Drops the {@link AtlasLayers} of an {@link Atlas}, once all the checks running on it are
+     * done. Later requests for the atlas build new layers.
+     *
+     * @param atlas
+     *            an {@link Atlas}
+     */
+    public static void release(final Atlas atlas)
+    {
+        REGISTRIES.remove(atlas);
+    }
+
+    private AtlasLayers(final Atlas atlas)
+    {
+        this.atlas = atlas;
+    }
+
+    /**
+     * Gets a custom layer of {@link Area}s. Checks with a configurable filter should use a key
+     * that is specific to their configuration, such as the filter itself.
+     *
+     * @param key
+     *            the key identifying the layer
+     * @param filter
+     *            selects the {@link Area}s of the layer, only used when the layer is built
+     * @return the {@link AtlasLayer} of the {@link Area}s matching the filter
+     */
+    @SuppressWarnings("unchecked")
+    public AtlasLayer<Area> areas(final Object key, final Predicate<Area> filter)
+    {
+        return (AtlasLayer<Area>) this.layer(key,
+                () -> this.build(key, this.atlas.areas(filter::test), this.atlas::area));
+    }
+
+    /**
+     * @return the {@link AtlasLayer} of building {@link Area}s
+     */
+    public AtlasLayer<Area> buildings()
+    {
+        return this.areas(Layer.BUILDINGS, BuildingTag::isBuilding);
+    }
+
+    /**
+     * @return the {@link AtlasLayer} of building multipolygon {@link Relation}s
+     */
+    @SuppressWarnings("unchecked")
+    public AtlasLayer<Relation> buildingRelations()
+    {
+        return (AtlasLayer<Relation>) this.layer(Layer.BUILDING_RELATIONS,
+                () -> this.build(Layer.BUILDING_RELATIONS,
+                        this.atlas.relations(relation -> relation.isMultiPolygon()
+                                && BuildingTag.isBuilding(relation)),
+                        this.atlas::relation));
+    }
+
+    /**
+     * @return the {@link AtlasLayer} of car navigable {@link Edge}s
+     */
+    public AtlasLayer<Edge> carNavigableEdges()
+    {
+        return this.edges(Layer.CAR_NAVIGABLE_EDGES, HighwayTag::isCarNavigableHighway);
+    }
+
+    /**
+     * @return the {@link AtlasLayer} of core way {@link Edge}s
+     */
+    public AtlasLayer<Edge> coreWayEdges()
+    {
+        return this.edges(Layer.CORE_WAY_EDGES, HighwayTag::isCoreWay);
+    }
+
+    /**
+     * Gets any other value derived from the atlas, computed once and then shared. Checks should
+     * use a key that is specific to them and to their configuration. Builders may use layers, the
+     * graph and other derived values, but not their own.
+     *
+     * @param key
+     *            the key identifying the value
+     * @param builder
+     *            computes the value from the atlas, only called once per key
+     * @param <T>
+     *            the type of the value
+     * @return the derived value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derived(final Object key, final Function<Atlas, T> builder)
+    {
+        return (T) this.derived.computeIfAbsent(key, value -> new Memo<>()).get(() ->
+        {
+            final Time time = Time.now();
+            final T result = builder.apply(this.atlas);
+            logger.debug("Derived {} for {} in {}", key, this.atlas.getName(),
+                    time.elapsedSince());
+            return result;
+        });
+    }
+
+    /**
+     * @return the {@link AtlasGeometries} cache of the atlas
+     */
+    public AtlasGeometries geometries()
+    {
+        return this.geometries;
+    }
+
+    /**
+     * @return the {@link AtlasGraph} of the edges of the atlas, built on first use
+     */
+    public AtlasGraph graph()
+    {
+        return this.graph.get(() ->
+        {
+            final Time time = Time.now();
+            final AtlasGraph result = new AtlasGraph(this.atlas);
+            logger.debug("Built graph of {} edges for {} in {}", result.edgeCount(),
+                    this.atlas.getName(), time.elapsedSince());
+            return result;
+        });
+    }
+
+    private <T extends AtlasEntity> AtlasLayer<T> build(final Object key,
+            final Iterable<T> entities, final LongFunction<T> restore)
+    {
+        final Time time = Time.now();
+        final AtlasLayer<T> layer = new AtlasLayer<>(entities, restore);
+        logger.debug("Built layer {} of {} entities for {} in {}", key, layer.size(),
+                this.atlas.getName(), time.elapsedSince());
+        return layer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtlasLayer<Edge> edges(final Layer key, final Predicate<Edge> filter)
+    {
+        return (AtlasLayer<Edge>) this.layer(key,
+                () -> this.build(key, this.atlas.edges(filter::test), this.atlas::edge));
+    }
+
+    private AtlasLayer<?> layer(final Object key, final Supplier<AtlasLayer<?>> builder)
+    {
+        return this.layers.computeIfAbsent(key, value -> new Memo<>()).get(builder);
+    }
+}
@@ -19,7 +19,9 @@ import org.openstreetmap.atlas.checks.maproulette.serializer.ChallengeDeserializ
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasItem;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
+import org.openstreetmap.atlas.tags.ISOCountryTag;
 import org.openstreetmap.atlas.tags.ManMadeTag;
 import org.openstreetmap.atlas.tags.filters.TaggableFilter;
 import org.openstreetmap.atlas.utilities.collections.Iterables;
@@ -27,9 +29,11 @@ import org.openstreetmap.atlas.utilities.collections.MultiIterable;
 import org.openstreetmap.atlas.utilities.collections.OptionalIterable;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 import org.openstreetmap.atlas.utilities.filters.AtlasEntityPolygonsFilter;
+import org.openstreetmap.atlas.utilities.scalars.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -45,13 +49,18 @@ import com.google.gson.GsonBuilder;
 public abstract class BaseCheck<T> implements Check, Serializable
 {
     public static final String PARAMETER_ACCEPT_PIERS = "accept.piers";
+    public static final String PARAMETER_CACHE_VERSION = "cache.version";
     public static final String PARAMETER_DENYLIST_COUNTRIES = "countries.denylist";
     public static final String PARAMETER_CHALLENGE = "challenge";
     public static final String PARAMETER_FLAG = "flags";
+    public static final String PARAMETER_MAXIMUM_FLAGS = "max.flags";
+    public static final String PARAMETER_MAXIMUM_RUNTIME = "max.runtime.minutes";
     public static final String PARAMETER_PERMITLIST_COUNTRIES = "countries.permitlist";
     public static final String PARAMETER_PERMITLIST_TAGS = "tags.filter";
     private static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
     private static final String PARAMETER_LOCALE_KEY = "locale";
+    // Budgets of zero or less are unlimited
+    private static final long UNLIMITED_BUDGET = 0L;
     private static final Logger logger = LoggerFactory.getLogger(BaseCheck.class);
     private static final long serialVersionUID = 4427673331949586822L;
     private final boolean acceptPiers;
@@ -68,6 +77,13 @@ public abstract class BaseCheck<T> implements Check, Serializable
     // geo filter for all checks
     private final AtlasEntityPolygonsFilter globalPolygonFilter;
     private TaggableFilter tagFilter = null;
+    // local directory for cached results of local checks, empty when caching is disabled
+    private final String resultCacheDirectory;
+    private final long configurationHash;
+    // result caches by country of the checked atlas
+    private transient Map<String, CheckResultCache> resultCaches = null;
+    private final long maximumFlags;
+    private final long maximumRuntimeMinutes;
 
     /**
      * Default constructor
@@ -113,6 +129,19 @@ public abstract class BaseCheck<T> implements Check, Serializable
                 configurationValue(configuration,
                         AtlasEntityPolygonsFilter.EXCLUDED_MULTIPOLYGONS_KEY,
                         Collections.emptyMap()));
+        this.resultCacheDirectory = configuration.get(CheckResultCache.DIRECTORY_KEY, "")
+                .value();
+        // The cache does not know about code changes, bumping the version of a check whose logic
+        // changed discards its cached results
+        this.configurationHash = Hashing.murmur3_128().newHasher()
+                .putUnencodedChars(String.valueOf(
+                        configuration.get(this.getCheckName(), Collections.emptyMap()).value()))
+                .putLong(configurationValue(configuration, PARAMETER_CACHE_VERSION, 0L))
+                .hash().asLong();
+        this.maximumFlags = configurationValue(configuration, PARAMETER_MAXIMUM_FLAGS,
+                UNLIMITED_BUDGET);
+        this.maximumRuntimeMinutes = configurationValue(configuration, PARAMETER_MAXIMUM_RUNTIME,
+                UNLIMITED_BUDGET);
     }
 
     @Override
@@ -122,7 +151,8 @@ public abstract class BaseCheck<T> implements Check, Serializable
         {
             if (this.checkObjectFilter().test(object))
             {
-                return this.flag(object);
+                return this.usesResultCache(object) ? this.cachedFlag((AtlasItem) object)
+                        : this.flag(object);
             }
         }
         catch (final Exception oops)
@@ -151,6 +181,10 @@ public abstract class BaseCheck<T> implements Check, Serializable
     public void clear()
     {
         clearFlaggedIdentifiers();
+        if (this.resultCaches != null)
+        {
+            this.resultCaches.values().forEach(CheckResultCache::persist);
+        }
     }
 
     @Override
@@ -243,6 +277,21 @@ public abstract class BaseCheck<T> implements Check, Serializable
         return this.formatInstruction(instructionFormat, objects);
     }
 
+    @Override
+    public Optional<Long> getMaximumFlags()
+    {
+        return this.maximumFlags > UNLIMITED_BUDGET ? Optional.of(this.maximumFlags)
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<Duration> getMaximumRuntime()
+    {
+        return this.maximumRuntimeMinutes > UNLIMITED_BUDGET
+                ? Optional.of(Duration.minutes(this.maximumRuntimeMinutes))
+                : Optional.empty();
+    }
+
     @Override
     public void logStatus()
     {
@@ -456,6 +505,19 @@ public abstract class BaseCheck<T> implements Check, Serializable
         }
     }
 
+    /**
+     * Checks whose verdict for an object depends only on that object's own tags and geometry can
+     * override this to return {@code true}. Their results are then cached on disk when a
+     * {@link CheckResultCache#DIRECTORY_KEY} is configured, and {@link #flag(AtlasObject)} is
+     * skipped for objects unchanged since a previous run.
+     *
+     * @return {@code true} if this check only looks at the object being checked
+     */
+    protected boolean isLocal()
+    {
+        return false;
+    }
+
     protected final boolean isFlagged(final T identifier)
     {
         return this.getFlaggedIdentifiers().contains(identifier);
@@ -466,6 +528,46 @@ public abstract class BaseCheck<T> implements Check, Serializable
         this.getFlaggedIdentifiers().add(identifier);
     }
 
+    /**
+     * Called when a flag is restored from the {@link CheckResultCache} instead of being computed.
+     * Local checks that keep track of flagged identifiers to avoid duplicate flags should mark the
+     * object as flagged here, the same way they do in {@link #flag(AtlasObject)}.
+     *
+     * @param object
+     *            the {@link AtlasObject} the cached flag belongs to
+     */
+    protected void restoreCachedFlag(final AtlasObject object)
+    {
+    }
+
+    /**
+     * Looks up the result for an {@link AtlasItem} in the {@link CheckResultCache}, computing and
+     * caching it on a miss.
+     *
+     * @param item
+     *            {@link AtlasItem} to check
+     * @return an {@link Optional} {@link CheckFlag}
+     */
+    private Optional<CheckFlag> cachedFlag(final AtlasItem item)
+    {
+        final CheckResultCache cache = this.getResultCache(item.getAtlas().metaData()
+                .getCountry().orElse(ISOCountryTag.COUNTRY_MISSING));
+        final String identifier = this.getUniqueObjectIdentifier(item);
+        final long contentHash = CheckResultCache.contentHash(item);
+        if (cache.contains(identifier, contentHash))
+        {
+            final Optional<CheckFlag> flag = cache.get(identifier);
+            if (flag.isPresent())
+            {
+                this.restoreCachedFlag(item);
+            }
+            return flag;
+        }
+        final Optional<CheckFlag> flag = this.flag(item);
+        cache.put(identifier, contentHash, flag);
+        return flag;
+    }
+
     /**
      * Utility method to concisely construct a instruction from a {@link MessageFormat} style string
      * and a varying number of objects.
@@ -489,4 +591,22 @@ public abstract class BaseCheck<T> implements Check, Serializable
     {
         return String.format("%s.%s", name, key);
     }
+
+    private synchronized CheckResultCache getResultCache(final String country)
+    {
+        if (this.resultCaches == null)
+        {
+            this.resultCaches = new ConcurrentHashMap<>();
+        }
+        return this.resultCaches.computeIfAbsent(country,
+                key -> new CheckResultCache(this.resultCacheDirectory, this.getCheckName(), key,
+                        this.configurationHash));
+    }
+
+    private boolean usesResultCache(final AtlasObject object)
+    {
+        return this.isLocal() && !this.resultCacheDirectory.isEmpty()
+                && object instanceof AtlasEntity
+                && CheckResultCache.isCacheable((AtlasEntity) object);
+    }
 }
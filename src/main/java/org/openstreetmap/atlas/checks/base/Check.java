@@ -11,6 +11,7 @@ import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
 import org.openstreetmap.atlas.geography.atlas.items.complex.ComplexEntity;
 import org.openstreetmap.atlas.geography.atlas.items.complex.Finder;
+import org.openstreetmap.atlas.utilities.scalars.Duration;
 
 /**
  * The check interface has one method that will execute the check against an atlas entity and return
@@ -49,6 +50,28 @@ public interface Check extends Serializable
         return Optional.empty();
     }
 
+    /**
+     * Gets the maximum number of flags this check may produce in a run over one atlas, a country or
+     * a shard. Once reached, the run of the check is truncated.
+     *
+     * @return the maximum number of flags, empty when unlimited
+     */
+    default Optional<Long> getMaximumFlags()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the maximum time this check may run for over one atlas, a country or a shard. Once
+     * elapsed, the run of the check is truncated.
+     *
+     * @return the maximum run time, empty when unlimited
+     */
+    default Optional<Duration> getMaximumRuntime()
+    {
+        return Optional.empty();
+    }
+
     /**
      * Compute and return all the {@link CheckFlag}s from this check, given {@link AtlasEntity}s and
      * {@link Relation}s. {@link ComplexEntity}s can be added as well, using the appropriate
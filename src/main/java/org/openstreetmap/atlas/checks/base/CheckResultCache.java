@@ -0,0 +1,294 @@
+package org.openstreetmap.atlas.checks.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
+import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.exception.CoreException;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasItem;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.walker.OsmWayWalker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * An on-disk cache of check results for checks whose verdict depends only on an object's own tags
+ * and geometry. Each check, country and configuration gets its own cache file inside the configured
+ * directory, holding per entity the content hash that was checked and either "no flag" or the
+ * serialized {@link CheckFlag}. A lookup only hits when the content hash of the entity is
+ * unchanged.
+ * Configuration:
+ *
+ * <pre>
+ * {
+ *   "CheckResultCache": {
+ *     "directory": "/tmp/atlas-checks-cache"
+ *   }
+ * }
+ * </pre>
+ *
+ * The cache is not aware of code changes, the directory should be cleared when checks are updated,
+ * or the {@code cache.version} of the updated checks bumped.
+ *
+ * @author agent
+ */
+public class CheckResultCache
+{
+    /**
+     * A cached verdict for one entity
+     */
+    private static final class CachedResult implements Serializable
+    {
+        private static final long serialVersionUID = 6044893232436196474L;
+        private final long contentHash;
+        // Serialized flag, null when the entity was not flagged
+        private final byte[] flag;
+
+        CachedResult(final long contentHash, final byte[] flag)
+        {
+            this.contentHash = contentHash;
+            this.flag = flag;
+        }
+    }
+
+    public static final String DIRECTORY_KEY = "CheckResultCache.directory";
+    private static final String CACHE_FILE_FORMAT = "%s-%s-%016x.cache";
+    private static final String TEMPORARY_FILE_FORMAT = "%s.%d.tmp";
+    // Key of the content hashes of the OSM ways of an atlas, in its AtlasLayers
+    private static final String WAY_HASHES_KEY = "CheckResultCache.wayHashes";
+    private static final Logger logger = LoggerFactory.getLogger(CheckResultCache.class);
+
+    private final Path file;
+    private final Map<String, CachedResult> entries = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> updates = new ConcurrentHashMap<>();
+
+    /**
+     * Hashes the tags and geometry of an {@link AtlasItem}. {@link Edge}s are hashed along with
+     * all the other {@link Edge}s of their OSM way, as local checks flag whole ways. The hash of a
+     * way is computed once per atlas and shared by all its edges.
+     *
+     * @param item
+     *            the {@link AtlasItem} to hash
+     * @return a 64 bit content hash
+     */
+    public static long contentHash(final AtlasItem item)
+    {
+        if (item instanceof Edge)
+        {
+            final Edge edge = (Edge) item;
+            return AtlasLayers.forAtlas(edge.getAtlas())
+                    .derived(WAY_HASHES_KEY, atlas -> new ConcurrentHashMap<Long, Long>())
+                    .computeIfAbsent(edge.getOsmIdentifier(), identifier -> wayHash(edge));
+        }
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        putItem(hasher, item);
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Checks that an {@link AtlasEntity} can be cached. Only {@link AtlasItem}s are, as the
+     * verdict for a relation depends on its members.
+     *
+     * @param entity
+     *            the {@link AtlasEntity} to test
+     * @return {@code true} if results for the entity can be cached
+     */
+    static boolean isCacheable(final AtlasEntity entity)
+    {
+        return entity instanceof AtlasItem;
+    }
+
+    private static CheckFlag deserialize(final byte[] bytes)
+    {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return (CheckFlag) input.readObject();
+        }
+        catch (final IOException | ClassNotFoundException exception)
+        {
+            throw new CoreException("Unable to deserialize cached flag", exception);
+        }
+    }
+
+    private static void putItem(final Hasher hasher, final AtlasItem item)
+    {
+        hasher.putLong(item.getIdentifier());
+        new TreeMap<>(item.getTags()).forEach((key, value) -> hasher.putUnencodedChars(key)
+                .putChar('=').putUnencodedChars(value).putChar(';'));
+        for (final Location location : item.getRawGeometry())
+        {
+            hasher.putLong(location.getLatitude().asDm7());
+            hasher.putLong(location.getLongitude().asDm7());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, CachedResult> read(final Path file)
+    {
+        if (!Files.exists(file))
+        {
+            return new HashMap<>();
+        }
+        try (InputStream stream = Files.newInputStream(file);
+                ObjectInputStream input = new ObjectInputStream(stream))
+        {
+            return (Map<String, CachedResult>) input.readObject();
+        }
+        catch (final IOException | ClassNotFoundException | ClassCastException exception)
+        {
+            logger.warn("Ignoring unreadable check result cache {}", file, exception);
+            return new HashMap<>();
+        }
+    }
+
+    private static byte[] serialize(final CheckFlag flag)
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes))
+        {
+            output.writeObject(flag);
+        }
+        catch (final IOException exception)
+        {
+            throw new CoreException("Unable to serialize flag {}", exception, flag);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long wayHash(final Edge edge)
+    {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        new OsmWayWalker(edge).collectEdges().stream()
+                .sorted(Comparator.comparingLong(Edge::getIdentifier))
+                .forEach(wayEdge -> putItem(hasher, wayEdge));
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Default constructor, loading any results already stored for the check, country and
+     * configuration
+     *
+     * @param directory
+     *            local directory holding the cache files
+     * @param checkName
+     *            name of the cached check
+     * @param country
+     *            country of the checked atlas, as country overrides change the effective
+     *            configuration of the check; results from other countries are ignored
+     * @param configurationHash
+     *            hash of the check configuration; results from other configurations are ignored
+     */
+    public CheckResultCache(final String directory, final String checkName,
+            final String country, final long configurationHash)
+    {
+        this.file = Paths.get(directory,
+                String.format(CACHE_FILE_FORMAT, checkName, country, configurationHash));
+        this.entries.putAll(read(this.file));
+        logger.debug("Loaded {} cached results from {}", this.entries.size(), this.file);
+    }
+
+    /**
+     * Checks whether a result is cached for the current content of an entity
+     *
+     * @param identifier
+     *            unique identifier of the entity
+     * @param contentHash
+     *            current content hash of the entity, see {@link #contentHash(AtlasItem)}
+     * @return {@code true} if the entity was checked before with the same content
+     */
+    public boolean contains(final String identifier, final long contentHash)
+    {
+        final CachedResult result = this.entries.get(identifier);
+        return result != null && result.contentHash == contentHash;
+    }
+
+    /**
+     * Gets the cached flag of an entity. Use {@link #contains(String, long)} first to know whether
+     * the entity has a valid cached result.
+     *
+     * @param identifier
+     *            unique identifier of the entity
+     * @return the cached {@link CheckFlag}, empty if the entity was not flagged or is not cached
+     */
+    public Optional<CheckFlag> get(final String identifier)
+    {
+        return Optional.ofNullable(this.entries.get(identifier)).map(result -> result.flag)
+                .map(CheckResultCache::deserialize);
+    }
+
+    /**
+     * Writes all results added since the cache was loaded to disk. Results written concurrently by
+     * other instances of the same check are merged; the cache file is replaced atomically.
+     */
+    public synchronized void persist()
+    {
+        if (this.updates.isEmpty())
+        {
+            return;
+        }
+        final Map<String, CachedResult> merged = read(this.file);
+        merged.putAll(this.updates);
+        final Path temporary = this.file.resolveSibling(String.format(TEMPORARY_FILE_FORMAT,
+                this.file.getFileName(), Thread.currentThread().getId()));
+        try
+        {
+            Files.createDirectories(this.file.getParent());
+            try (OutputStream stream = Files.newOutputStream(temporary);
+                    ObjectOutputStream output = new ObjectOutputStream(stream))
+            {
+                output.writeObject(merged);
+            }
+            Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Persisted {} cached results to {}", merged.size(), this.file);
+            this.updates.clear();
+        }
+        catch (final IOException exception)
+        {
+            logger.warn("Unable to persist check result cache {}", this.file, exception);
+        }
+    }
+
+    /**
+     * Stores the result of checking an entity. A complete copy of the flag is stored, so it no
+     * longer references the {@link org.openstreetmap.atlas.geography.atlas.Atlas} it came from,
+     * and the flag itself is left untouched.
+     *
+     * @param identifier
+     *            unique identifier of the entity
+     * @param contentHash
+     *            content hash of the entity that was checked
+     * @param flag
+     *            the result of the check
+     */
+    public void put(final String identifier, final long contentHash,
+            final Optional<CheckFlag> flag)
+    {
+        final CachedResult result = new CachedResult(contentHash,
+                flag.map(CheckFlag::completeCopy).map(CheckResultCache::serialize).orElse(null));
+        this.entries.put(identifier, result);
+        this.updates.put(identifier, result);
+    }
+}
@@ -0,0 +1,299 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToLongBiFunction;
+
+import org.openstreetmap.atlas.checks.constants.CommonConstants;
+import org.openstreetmap.atlas.checks.distributed.RunnableCheck;
+import org.openstreetmap.atlas.checks.event.MetricEvent;
+
+/**
+ * A per-check cost model, fitted on the run times of past runs. The run time of a check is modeled
+ * as proportional to the number of entities it runs on, and the cost per entity of each check is
+ * fitted by least squares over all the countries or shards it ran on before. Checks without any
+ * history fall back to the median cost of the other checks.
+ *
+ * @author agent
+ */
+public class CheckCostModel
+{
+    /**
+     * A number of executors and cores per executor, with the runtime and the memory per executor
+     * estimated for it
+     */
+    public static final class Layout
+    {
+        private final int executors;
+        private final int cores;
+        private final long runtime;
+        private final double memory;
+
+        Layout(final int executors, final int cores, final long runtime, final double memory)
+        {
+            this.executors = executors;
+            this.cores = cores;
+            this.runtime = runtime;
+            this.memory = memory;
+        }
+
+        public int getCores()
+        {
+            return this.cores;
+        }
+
+        public int getExecutors()
+        {
+            return this.executors;
+        }
+
+        /**
+         * @return the memory each executor needs, in bytes
+         */
+        public double getMemory()
+        {
+            return this.memory;
+        }
+
+        /**
+         * @return the estimated runtime in milliseconds
+         */
+        public long getRuntime()
+        {
+            return this.runtime;
+        }
+
+        private int totalCores()
+        {
+            return this.executors * this.cores;
+        }
+
+        private double totalMemory()
+        {
+            return this.executors * this.memory;
+        }
+    }
+
+    /**
+     * A past run time of a check, over some number of entities
+     */
+    private static final class Sample
+    {
+        private final long entities;
+        private final long milliseconds;
+
+        Sample(final long entities, final long milliseconds)
+        {
+            this.entities = entities;
+            this.milliseconds = milliseconds;
+        }
+    }
+
+    // Infix of the metrics recording truncated checks, which are not run times
+    private static final String TRUNCATED_METRIC_MARKER = String
+            .format(RunnableCheck.TRUNCATED_METRIC_FORMAT, "", "");
+    private static final int NAME_INDEX = 0;
+    private static final int DURATION_INDEX = 1;
+    private static final int METRIC_COLUMNS = 2;
+
+    private final Map<String, List<Sample>> samples = new HashMap<>();
+    private final Map<String, Double> costs = new HashMap<>();
+    private double defaultCost = 0.0;
+
+    /**
+     * Computes the time a set of tasks takes on some parallel slots, assigning the longest tasks
+     * first to the least loaded slot
+     *
+     * @param durations
+     *            durations of the tasks
+     * @param slots
+     *            number of tasks that can run at the same time
+     * @return the estimated total duration
+     */
+    public static long makespan(final Collection<Long> durations, final int slots)
+    {
+        final List<Long> sorted = new ArrayList<>(durations);
+        sorted.sort(Collections.reverseOrder());
+        final PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int slot = 0; slot < Math.max(1, slots); slot++)
+        {
+            loads.add(0L);
+        }
+        sorted.forEach(duration -> loads.add(loads.poll() + duration));
+        return Collections.max(loads);
+    }
+
+    /**
+     * Parses the lines of a metric file written by the
+     * {@link org.openstreetmap.atlas.checks.event.MetricFileGenerator}. Truncation metrics are
+     * skipped.
+     *
+     * @param lines
+     *            lines of the metric file
+     * @return run times in milliseconds per check name
+     */
+    public static Map<String, Long> parseRunTimes(final Iterable<String> lines)
+    {
+        final Map<String, Long> runTimes = new HashMap<>();
+        for (final String line : lines)
+        {
+            final String[] columns = line.split(CommonConstants.COMMA);
+            if (columns.length == METRIC_COLUMNS && !line.equals(MetricEvent.header())
+                    && !columns[NAME_INDEX].contains(TRUNCATED_METRIC_MARKER))
+            {
+                try
+                {
+                    runTimes.merge(columns[NAME_INDEX],
+                            Long.valueOf(columns[DURATION_INDEX].trim()), Long::sum);
+                }
+                catch (final NumberFormatException exception)
+                {
+                    // Not a metric line
+                }
+            }
+        }
+        return runTimes;
+    }
+
+    /**
+     * Searches the executor layouts for the smallest one worth running. Layouts are compared by
+     * their total number of cores, then by their total memory, then by their number of executors,
+     * as each executor has its own overhead. The smallest layout that meets the target runtime is
+     * returned, or, if none does, the smallest one with the best runtime of all, past which adding
+     * executors or cores stops improving the runtime.
+     *
+     * @param maximumExecutors
+     *            the largest number of executors to search
+     * @param maximumCores
+     *            the largest number of cores per executor to search
+     * @param memoryLimit
+     *            the memory available to an executor, in bytes
+     * @param targetRuntime
+     *            the runtime to meet, in milliseconds
+     * @param memoryPerExecutor
+     *            the memory an executor needs, in bytes, given its number of cores
+     * @param runtime
+     *            the runtime in milliseconds, given a number of executors and of cores per
+     *            executor
+     * @return the smallest {@link Layout}, or empty if no executor fits in the memory limit
+     */
+    public static Optional<Layout> smallestLayout(final int maximumExecutors,
+            final int maximumCores, final double memoryLimit, final long targetRuntime,
+            final IntToDoubleFunction memoryPerExecutor,
+            final ToLongBiFunction<Integer, Integer> runtime)
+    {
+        final List<Layout> layouts = new ArrayList<>();
+        for (int cores = 1; cores <= maximumCores; cores++)
+        {
+            final double memory = memoryPerExecutor.applyAsDouble(cores);
+            if (memory > memoryLimit)
+            {
+                continue;
+            }
+            for (int executors = 1; executors <= maximumExecutors; executors++)
+            {
+                layouts.add(new Layout(executors, cores, runtime.applyAsLong(executors, cores),
+                        memory));
+            }
+        }
+        layouts.sort(Comparator.comparingInt(Layout::totalCores)
+                .thenComparingDouble(Layout::totalMemory).thenComparingInt(Layout::getExecutors));
+        if (layouts.isEmpty())
+        {
+            return Optional.empty();
+        }
+        final long bestRuntime = layouts.stream().mapToLong(Layout::getRuntime).min()
+                .getAsLong();
+        return layouts.stream().filter(layout -> layout.getRuntime() <= targetRuntime
+                || layout.getRuntime() == bestRuntime).findFirst();
+    }
+
+    /**
+     * Adds the run times of a past run over some entities
+     *
+     * @param entities
+     *            number of entities the checks ran on
+     * @param runTimes
+     *            run times in milliseconds per check name
+     */
+    public void addRun(final long entities, final Map<String, Long> runTimes)
+    {
+        if (entities <= 0)
+        {
+            return;
+        }
+        runTimes.forEach((check, milliseconds) -> this.samples
+                .computeIfAbsent(check, key -> new ArrayList<>())
+                .add(new Sample(entities, milliseconds)));
+        this.costs.clear();
+    }
+
+    /**
+     * Gets the fitted cost of a check
+     *
+     * @param check
+     *            name of the check
+     * @return milliseconds per entity for the check, or the median cost of all the checks with a
+     *         history if the check has none
+     */
+    public double cost(final String check)
+    {
+        this.fit();
+        return this.costs.getOrDefault(check, this.defaultCost);
+    }
+
+    /**
+     * Estimates the run time of a check
+     *
+     * @param check
+     *            name of the check
+     * @param entities
+     *            number of entities to run the check on
+     * @return the estimated run time in milliseconds
+     */
+    public long estimate(final String check, final long entities)
+    {
+        return Math.round(this.cost(check) * entities);
+    }
+
+    /**
+     * @param check
+     *            name of the check
+     * @return the number of past runs the cost of the check is fitted on
+     */
+    public int history(final String check)
+    {
+        return Optional.ofNullable(this.samples.get(check)).map(List::size).orElse(0);
+    }
+
+    private void fit()
+    {
+        if (!this.costs.isEmpty() || this.samples.isEmpty())
+        {
+            return;
+        }
+        // Least squares fit of milliseconds = cost * entities
+        this.samples.forEach((check, checkSamples) ->
+        {
+            double weightedSum = 0.0;
+            double squaredSum = 0.0;
+            for (final Sample sample : checkSamples)
+            {
+                weightedSum += (double) sample.milliseconds * sample.entities;
+                squaredSum += (double) sample.entities * sample.entities;
+            }
+            this.costs.put(check, weightedSum / squaredSum);
+        });
+        final List<Double> sorted = new ArrayList<>(this.costs.values());
+        Collections.sort(sorted);
+        this.defaultCost = sorted.get(sorted.size() / 2);
+    }
+}
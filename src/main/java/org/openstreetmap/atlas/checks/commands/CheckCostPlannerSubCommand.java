@@ -0,0 +1,410 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openstreetmap.atlas.checks.base.Check;
+import org.openstreetmap.atlas.checks.base.CheckResourceLoader;
+import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
+import org.openstreetmap.atlas.checks.constants.CommonConstants;
+import org.openstreetmap.atlas.checks.distributed.IntegrityCheckSparkJob;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.AtlasMetaData;
+import org.openstreetmap.atlas.geography.atlas.AtlasResourceLoader;
+import org.openstreetmap.atlas.geography.atlas.builder.AtlasSize;
+import org.openstreetmap.atlas.streaming.resource.File;
+import org.openstreetmap.atlas.streaming.resource.FileSuffix;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.AbstractAtlasShellToolsCommand;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.CommandOutputDelegate;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.OptionAndArgumentDelegate;
+import org.openstreetmap.atlas.utilities.command.parsing.OptionOptionality;
+import org.openstreetmap.atlas.utilities.configuration.Configuration;
+import org.openstreetmap.atlas.utilities.configuration.StandardConfiguration;
+import org.openstreetmap.atlas.utilities.scalars.Duration;
+
+/**
+ * Plans a run of the checks without running them. The size of the input atlas files is read from
+ * their metadata, and the run times of past runs are read from their metric files to fit a
+ * {@link CheckCostModel}. The estimated runtime and peak memory are then printed per check and per
+ * country, along with the smallest executor layout for both the country and the sharded Spark
+ * jobs that meets a target runtime, or past which more executors or cores stop helping.
+ *
+ * @author agent
+ */
+public class CheckCostPlannerSubCommand extends AbstractAtlasShellToolsCommand
+{
+    private static final String INPUT_OPTION = "input";
+    private static final String COUNTRIES_OPTION = "countries";
+    private static final String CONFIGURATION_OPTION = "config";
+    private static final String METRICS_OPTION = "metrics";
+    private static final String EXECUTORS_OPTION = "executors";
+    private static final String CORES_OPTION = "cores";
+    private static final String MEMORY_FACTOR_OPTION = "memory-factor";
+    private static final String EXECUTOR_MEMORY_OPTION = "executor-memory";
+    private static final String TARGET_OPTION = "target";
+    private static final String DEFAULT_EXECUTORS = "10";
+    private static final String DEFAULT_CORES = "4";
+    private static final String DEFAULT_MEMORY_FACTOR = "4.0";
+    // A shard is checked with the neighbouring shards loaded around it
+    private static final int SHARD_NEIGHBOURHOOD = 9;
+    private static final double BYTES_PER_GIGABYTE = 1024.0 * 1024.0 * 1024.0;
+    private static final double MICROSECONDS_PER_MILLISECOND = 1000.0;
+    // Metric files are named [shard_]check-run-time-<timestamp>.csv
+    private static final Pattern METRIC_FILE_PATTERN = Pattern.compile(String.format(
+            "^(?:(.+)%s)?%s-[0-9]+%s$", CommonConstants.UNDERSCORE,
+            IntegrityCheckSparkJob.METRICS_FILENAME.replace(FileSuffix.CSV.toString(), ""),
+            Pattern.quote(FileSuffix.CSV.toString())));
+    private static final String GIGABYTES_FORMAT = "%.1f GB";
+    private final OptionAndArgumentDelegate optionAndArgumentDelegate;
+    private final CommandOutputDelegate outputDelegate;
+
+    public static void main(final String[] args)
+    {
+        new CheckCostPlannerSubCommand().runSubcommandAndExit(args);
+    }
+
+    private static long entityCount(final Path atlasFile)
+    {
+        final Atlas atlas = new AtlasResourceLoader().load(new File(atlasFile.toString()));
+        final AtlasSize size = Optional.ofNullable(atlas).map(Atlas::metaData)
+                .map(AtlasMetaData::getSize).orElse(null);
+        if (size == null)
+        {
+            return 0L;
+        }
+        return size.getNodeNumber() + size.getEdgeNumber() + size.getAreaNumber()
+                + size.getLineNumber() + size.getPointNumber() + size.getRelationNumber();
+    }
+
+    private static String gigabytes(final double bytes)
+    {
+        return String.format(GIGABYTES_FORMAT, bytes / BYTES_PER_GIGABYTE);
+    }
+
+    private static List<Path> list(final Path directory, final String suffix)
+    {
+        if (!Files.isDirectory(directory))
+        {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(suffix))
+                    .collect(Collectors.toList());
+        }
+        catch (final IOException exception)
+        {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static String unitName(final Path atlasFile)
+    {
+        final String name = atlasFile.getFileName().toString();
+        return name.substring(0, name.indexOf(FileSuffix.ATLAS.toString()));
+    }
+
+    public CheckCostPlannerSubCommand()
+    {
+        this.optionAndArgumentDelegate = this.getOptionAndArgumentDelegate();
+        this.outputDelegate = this.getCommandOutputDelegate();
+    }
+
+    @Override
+    @SuppressWarnings("squid:S3655")
+    public int execute()
+    {
+        final Path input = Paths
+                .get(this.optionAndArgumentDelegate.getOptionArgument(INPUT_OPTION).get());
+        final Set<String> countries = new TreeSet<>(Stream
+                .of(this.optionAndArgumentDelegate.getOptionArgument(COUNTRIES_OPTION).get()
+                        .split(CommonConstants.COMMA))
+                .map(String::trim).collect(Collectors.toList()));
+        final Configuration configuration = this.optionAndArgumentDelegate
+                .getOptionArgument(CONFIGURATION_OPTION)
+                .<Configuration> map(path -> new StandardConfiguration(new File(path)))
+                .orElse(ConfigurationResolver.emptyConfiguration());
+        final int executors = Integer.parseInt(this.optionAndArgumentDelegate
+                .getOptionArgument(EXECUTORS_OPTION).orElse(DEFAULT_EXECUTORS));
+        final int cores = Integer.parseInt(this.optionAndArgumentDelegate
+                .getOptionArgument(CORES_OPTION).orElse(DEFAULT_CORES));
+        final double memoryFactor = Double.parseDouble(this.optionAndArgumentDelegate
+                .getOptionArgument(MEMORY_FACTOR_OPTION).orElse(DEFAULT_MEMORY_FACTOR));
+        final double memoryLimit = this.optionAndArgumentDelegate
+                .getOptionArgument(EXECUTOR_MEMORY_OPTION)
+                .map(gigabytes -> Double.parseDouble(gigabytes) * BYTES_PER_GIGABYTE)
+                .orElse(Double.MAX_VALUE);
+        final long targetRuntime = this.optionAndArgumentDelegate.getOptionArgument(TARGET_OPTION)
+                .map(minutes -> Duration.minutes(Double.parseDouble(minutes)).asMilliseconds())
+                .orElse(0L);
+
+        // Sizes of every shard, and of every country as a whole
+        final Map<String, Long> entities = new HashMap<>();
+        final Map<String, Long> bytes = new HashMap<>();
+        final Map<String, List<String>> countryShards = new HashMap<>();
+        for (final String country : countries)
+        {
+            for (final Path atlasFile : list(input.resolve(country), FileSuffix.ATLAS.toString()))
+            {
+                final String shard = unitName(atlasFile);
+                final long shardEntities = entityCount(atlasFile);
+                final long shardBytes = atlasFile.toFile().length();
+                entities.put(shard, shardEntities);
+                bytes.put(shard, shardBytes);
+                entities.merge(country, shardEntities, Long::sum);
+                bytes.merge(country, shardBytes, Long::sum);
+                countryShards.computeIfAbsent(country, key -> new ArrayList<>()).add(shard);
+            }
+            if (!countryShards.containsKey(country))
+            {
+                this.outputDelegate.printlnStderr(
+                        String.format("No atlas files found for %s in %s", country, input));
+            }
+        }
+        if (countryShards.isEmpty())
+        {
+            this.outputDelegate.printlnStderr("No atlas files found");
+            return 1;
+        }
+
+        final CheckCostModel model = this.fitModel(entities);
+        final CheckResourceLoader loader = new CheckResourceLoader(configuration);
+        final Map<String, List<String>> countryChecks = new HashMap<>();
+        countryShards.keySet().forEach(country -> countryChecks.put(country,
+                loader.loadChecksForCountry(country).stream().map(Check::getCheckName)
+                        .sorted().collect(Collectors.toList())));
+
+        this.printChecks(model, countryChecks);
+        this.printCountryJob(model, countryChecks, entities, bytes, memoryFactor, executors, cores,
+                memoryLimit, targetRuntime);
+        this.printShardedJob(model, countryChecks, countryShards, entities, bytes, memoryFactor,
+                executors, cores, memoryLimit, targetRuntime);
+        return 0;
+    }
+
+    @Override
+    public String getCommandName()
+    {
+        return "plan-checks";
+    }
+
+    @Override
+    public String getSimpleDescription()
+    {
+        return "estimate the runtime and memory of a run of the checks from past runs";
+    }
+
+    @Override
+    public void registerManualPageSections()
+    {
+        this.addManualPageSection("DESCRIPTION", CheckCostPlannerSubCommand.class
+                .getResourceAsStream("CheckCostPlannerSubCommandDescriptionSection.txt"));
+        this.addManualPageSection("EXAMPLES", CheckCostPlannerSubCommand.class
+                .getResourceAsStream("CheckCostPlannerSubCommandExamplesSection.txt"));
+    }
+
+    @Override
+    public void registerOptionsAndArguments()
+    {
+        this.registerOptionWithRequiredArgument(INPUT_OPTION, 'i',
+                "A folder of country folders containing atlas files.", OptionOptionality.REQUIRED,
+                INPUT_OPTION);
+        this.registerOptionWithRequiredArgument(COUNTRIES_OPTION, 'c',
+                "A comma separated list of the ISO3 codes of the countries to plan.",
+                OptionOptionality.REQUIRED, COUNTRIES_OPTION);
+        this.registerOptionWithRequiredArgument(CONFIGURATION_OPTION, 'f',
+                "The checks configuration file.", OptionOptionality.OPTIONAL,
+                CONFIGURATION_OPTION);
+        this.registerOptionWithRequiredArgument(METRICS_OPTION, 'm',
+                "The metric output folder of past runs, with a folder of metric files per country.",
+                OptionOptionality.OPTIONAL, METRICS_OPTION);
+        this.registerOptionWithRequiredArgument(EXECUTORS_OPTION, 'e',
+                "The largest number of executors to plan for, defaults to " + DEFAULT_EXECUTORS
+                        + ".",
+                OptionOptionality.OPTIONAL, EXECUTORS_OPTION);
+        this.registerOptionWithRequiredArgument(CORES_OPTION, 'k',
+                "The largest number of cores per executor, defaults to " + DEFAULT_CORES + ".",
+                OptionOptionality.OPTIONAL, CORES_OPTION);
+        this.registerOptionWithRequiredArgument(EXECUTOR_MEMORY_OPTION, 'x',
+                "The memory available to an executor in GB, unlimited by default.",
+                OptionOptionality.OPTIONAL, EXECUTOR_MEMORY_OPTION);
+        this.registerOptionWithRequiredArgument(TARGET_OPTION, 't',
+                "The runtime to meet in minutes. By default, the smallest layout with the best"
+                        + " runtime is recommended.",
+                OptionOptionality.OPTIONAL, TARGET_OPTION);
+        this.registerOptionWithRequiredArgument(MEMORY_FACTOR_OPTION, 'r',
+                "The ratio of in memory atlas size to atlas file size, defaults to "
+                        + DEFAULT_MEMORY_FACTOR + ".",
+                OptionOptionality.OPTIONAL, MEMORY_FACTOR_OPTION);
+        super.registerOptionsAndArguments();
+    }
+
+    /**
+     * Fits a {@link CheckCostModel} on the metric files of past runs, matching each metric file to
+     * the size of the country or shard it was produced for
+     *
+     * @param entities
+     *            number of entities per country and per shard
+     * @return the fitted {@link CheckCostModel}
+     */
+    private CheckCostModel fitModel(final Map<String, Long> entities)
+    {
+        final CheckCostModel model = new CheckCostModel();
+        final Optional<String> metrics = this.optionAndArgumentDelegate
+                .getOptionArgument(METRICS_OPTION);
+        if (!metrics.isPresent())
+        {
+            this.outputDelegate.printlnStderr(
+                    "No past metrics given, all checks are assumed to cost 0 ms per entity");
+            return model;
+        }
+        for (final Path metricFile : list(Paths.get(metrics.get()), FileSuffix.CSV.toString()))
+        {
+            final Matcher matcher = METRIC_FILE_PATTERN
+                    .matcher(metricFile.getFileName().toString());
+            if (matcher.matches())
+            {
+                final String country = metricFile.getParent().getFileName().toString();
+                final String unit = matcher.group(1) == null ? country
+                        : country + CommonConstants.UNDERSCORE + matcher.group(1);
+                try
+                {
+                    model.addRun(entities.getOrDefault(unit, 0L),
+                            CheckCostModel.parseRunTimes(Files.readAllLines(metricFile)));
+                }
+                catch (final IOException exception)
+                {
+                    this.outputDelegate.printlnStderr(
+                            String.format("Unable to read %s: %s", metricFile, exception));
+                }
+            }
+        }
+        return model;
+    }
+
+    private void printChecks(final CheckCostModel model,
+            final Map<String, List<String>> countryChecks)
+    {
+        this.outputDelegate.printlnStdout("Check costs:");
+        countryChecks.values().stream().flatMap(List::stream).distinct().sorted()
+                .forEach(check -> this.outputDelegate.printlnStdout(String.format(
+                        "  %s: %.3f us per entity, fitted on %d past runs", check,
+                        model.cost(check) * MICROSECONDS_PER_MILLISECOND,
+                        model.history(check))));
+    }
+
+    private void printCountryJob(final CheckCostModel model,
+            final Map<String, List<String>> countryChecks, final Map<String, Long> entities,
+            final Map<String, Long> bytes, final double memoryFactor, final int executors,
+            final int cores, final double memoryLimit, final long targetRuntime)
+    {
+        this.outputDelegate.printlnStdout("IntegrityCheckSparkJob, one task per country:");
+        final List<List<Long>> countryCheckTimes = new ArrayList<>();
+        double peakMemory = 0.0;
+        for (final Map.Entry<String, List<String>> entry : new TreeMap<>(countryChecks)
+                .entrySet())
+        {
+            final String country = entry.getKey();
+            final List<Long> checkTimes = entry.getValue().stream()
+                    .map(check -> model.estimate(check, entities.get(country)))
+                    .collect(Collectors.toList());
+            final double memory = bytes.get(country) * memoryFactor;
+            countryCheckTimes.add(checkTimes);
+            peakMemory = Math.max(peakMemory, memory);
+            this.outputDelegate.printlnStdout(String.format(
+                    "  %s: %d entities, %s, about %s on %d cores", country,
+                    entities.get(country), gigabytes(memory),
+                    Duration.milliseconds(CheckCostModel.makespan(checkTimes, cores)), cores));
+        }
+        // All the checks of a country run in parallel on the cores of its executor, which holds
+        // one country at a time whatever its number of cores
+        final double executorMemory = peakMemory;
+        this.printLayout(CheckCostModel.smallestLayout(
+                Math.min(executors, countryCheckTimes.size()), cores, memoryLimit, targetRuntime,
+                layoutCores -> executorMemory,
+                (layoutExecutors, layoutCores) -> CheckCostModel.makespan(countryCheckTimes
+                        .stream()
+                        .map(checkTimes -> CheckCostModel.makespan(checkTimes, layoutCores))
+                        .collect(Collectors.toList()), layoutExecutors)),
+                executorMemory, memoryLimit);
+    }
+
+    /**
+     * Prints the recommended executor layout of a job
+     *
+     * @param layout
+     *            the smallest layout worth running, if any fits in the memory limit
+     * @param smallestMemory
+     *            the memory needed by an executor of one core
+     * @param memoryLimit
+     *            the memory available to an executor
+     */
+    private void printLayout(final Optional<CheckCostModel.Layout> layout,
+            final double smallestMemory, final double memoryLimit)
+    {
+        if (layout.isPresent())
+        {
+            this.outputDelegate.printlnStdout(String.format(
+                    "  Recommended %d executors of %d cores and %s each, about %s",
+                    layout.get().getExecutors(), layout.get().getCores(),
+                    gigabytes(layout.get().getMemory()),
+                    Duration.milliseconds(layout.get().getRuntime())));
+        }
+        else
+        {
+            this.outputDelegate.printlnStdout(String.format(
+                    "  No executor fits in %s, one core needs %s", gigabytes(memoryLimit),
+                    gigabytes(smallestMemory)));
+        }
+    }
+
+    private void printShardedJob(final CheckCostModel model,
+            final Map<String, List<String>> countryChecks,
+            final Map<String, List<String>> countryShards, final Map<String, Long> entities,
+            final Map<String, Long> bytes, final double memoryFactor, final int executors,
+            final int cores, final double memoryLimit, final long targetRuntime)
+    {
+        this.outputDelegate.printlnStdout("ShardedIntegrityChecksSparkJob, one task per shard:");
+        final List<Long> shardTimes = new ArrayList<>();
+        double peakShardMemory = 0.0;
+        for (final Map.Entry<String, List<String>> entry : countryShards.entrySet())
+        {
+            final List<String> checks = countryChecks.get(entry.getKey());
+            for (final String shard : entry.getValue())
+            {
+                shardTimes.add(checks.stream()
+                        .mapToLong(check -> model.estimate(check, entities.get(shard))).sum());
+                peakShardMemory = Math.max(peakShardMemory,
+                        bytes.get(shard) * memoryFactor * SHARD_NEIGHBOURHOOD);
+            }
+        }
+        this.outputDelegate.printlnStdout(String.format(
+                "  %d shards, longest about %s, largest neighbourhood %s", shardTimes.size(),
+                Duration.milliseconds(shardTimes.stream().mapToLong(Long::longValue).max()
+                        .orElse(0L)),
+                gigabytes(peakShardMemory)));
+        // Each core of an executor checks its own shard, with its own neighbourhood loaded
+        final double shardMemory = peakShardMemory;
+        this.printLayout(CheckCostModel.smallestLayout(executors, cores, memoryLimit,
+                targetRuntime, layoutCores -> shardMemory * layoutCores,
+                (layoutExecutors, layoutCores) -> CheckCostModel.makespan(shardTimes,
+                        layoutExecutors * layoutCores)),
+                shardMemory, memoryLimit);
+    }
+}
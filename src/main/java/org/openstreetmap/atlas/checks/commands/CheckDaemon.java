@@ -0,0 +1,315 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
+import org.openstreetmap.atlas.checks.base.Check;
+import org.openstreetmap.atlas.checks.event.CheckFlagEvent;
+import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.exception.CoreException;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
+import org.openstreetmap.atlas.geography.atlas.items.ItemType;
+import org.openstreetmap.atlas.geography.atlas.items.complex.ComplexEntity;
+import org.openstreetmap.atlas.utilities.collections.Iterables;
+import org.openstreetmap.atlas.utilities.collections.MultiIterable;
+import org.openstreetmap.atlas.utilities.time.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Keeps an {@link Atlas} and a set of {@link Check}s resident in memory, and runs the checks on
+ * demand over the objects of a bounding box or a list of identifiers. The atlas spatial indices and
+ * the complex entities found by the check finders are built once, so each request only pays for
+ * running the checks on the requested objects. Results are served as a GeoJSON FeatureCollection
+ * over a local HTTP endpoint:
+ *
+ * <pre>
+ * GET /flags?bounds=minLat,minLon:maxLat,maxLon
+ * GET /flags?ids=123000000,456000000
+ * </pre>
+ *
+ * @author agent
+ */
+public class CheckDaemon implements Closeable
+{
+    public static final String FLAGS_PATH = "/flags";
+    static final String BOUNDS_PARAMETER = "bounds";
+    static final String IDENTIFIERS_PARAMETER = "ids";
+    private static final String FEATURES = "features";
+    private static final String FEATURE_COLLECTION = "FeatureCollection";
+    private static final String TYPE = "type";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String GEOJSON_CONTENT_TYPE = "application/geo+json";
+    private static final String TEXT_CONTENT_TYPE = "text/plain";
+    private static final String PARAMETER_SEPARATOR = "&";
+    private static final String VALUE_SEPARATOR = "=";
+    private static final String LIST_SEPARATOR = ",";
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_ALLOWED = 405;
+    private static final int HTTP_ERROR = 500;
+    private static final Logger logger = LoggerFactory.getLogger(CheckDaemon.class);
+
+    private final Atlas atlas;
+    private final Collection<? extends Check> checks;
+    private final Map<Check, List<AtlasObject>> complexEntities = new HashMap<>();
+    // Guards the state a check keeps between objects, like what it flagged, during one request
+    private final Map<Check, Object> checkLocks = new HashMap<>();
+    private HttpServer server;
+
+    /**
+     * Parses a URL query string into a map of parameters
+     *
+     * @param query
+     *            raw query of a URI, may be null
+     * @return a {@link Map} of parameter names to decoded values
+     */
+    static Map<String, String> parseQuery(final String query)
+    {
+        if (query == null || query.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        for (final String parameter : query.split(PARAMETER_SEPARATOR))
+        {
+            final int separator = parameter.indexOf(VALUE_SEPARATOR);
+            if (separator > 0)
+            {
+                parameters.put(decode(parameter.substring(0, separator)),
+                        decode(parameter.substring(separator + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(final String value)
+    {
+        try
+        {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        }
+        catch (final UnsupportedEncodingException exception)
+        {
+            throw new CoreException("Unable to decode {}", exception, value);
+        }
+    }
+
+    /**
+     * Default constructor
+     *
+     * @param atlas
+     *            the {@link Atlas} to keep resident
+     * @param checks
+     *            the {@link Check}s to run on requests
+     */
+    public CheckDaemon(final Atlas atlas, final Collection<? extends Check> checks)
+    {
+        this.atlas = atlas;
+        this.checks = checks;
+        this.checks.forEach(check -> this.checkLocks.put(check, new Object()));
+        final Time timer = Time.now();
+        // Warm up the spatial indices once, instead of on the first request
+        Iterables.size(this.atlas.itemsIntersecting(this.atlas.bounds()));
+        this.checks.forEach(check -> check.<ComplexEntity> finder()
+                .ifPresent(finder -> this.complexEntities.put(check,
+                        new ArrayList<>(Iterables.asList(finder.find(this.atlas))))));
+        logger.info("Warmed up {} checks on {} in {}", this.checks.size(), this.atlas.getName(),
+                timer.elapsedSince());
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.server != null)
+        {
+            this.server.stop(0);
+            this.server = null;
+        }
+        AtlasLayers.release(this.atlas);
+    }
+
+    /**
+     * Runs all the checks on the objects within some bounds
+     *
+     * @param bounds
+     *            {@link Rectangle} to check
+     * @return a GeoJSON FeatureCollection of the resulting flags
+     */
+    public JsonObject flags(final Rectangle bounds)
+    {
+        final Iterable<AtlasObject> objects = new MultiIterable<>(
+                this.atlas.itemsIntersecting(bounds),
+                this.atlas.relationsWithEntitiesIntersecting(bounds));
+        return this.flags(objects, complex -> bounds.overlaps(complex.bounds()));
+    }
+
+    /**
+     * Runs all the checks on the entities with the given Atlas identifiers, of any type
+     *
+     * @param identifiers
+     *            Atlas identifiers of the entities to check
+     * @return a GeoJSON FeatureCollection of the resulting flags
+     */
+    public JsonObject flags(final List<Long> identifiers)
+    {
+        final List<AtlasObject> objects = identifiers.stream()
+                .flatMap(identifier -> Stream.of(ItemType.values())
+                        .<AtlasObject> map(type -> type.entityForIdentifier(this.atlas,
+                                identifier)))
+                .filter(Objects::nonNull).collect(Collectors.toList());
+        return this.flags(objects, complex -> objects.stream()
+                .anyMatch(object -> object.getIdentifier() == complex.getIdentifier()));
+    }
+
+    /**
+     * Starts serving requests on the loopback interface
+     *
+     * @param port
+     *            port to listen on
+     * @param threads
+     *            number of request threads
+     */
+    public void start(final int port, final int threads)
+    {
+        try
+        {
+            this.server = HttpServer
+                    .create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        }
+        catch (final IOException exception)
+        {
+            throw new CoreException("Unable to listen on port {}", exception, port);
+        }
+        this.server.createContext(FLAGS_PATH, this::handle);
+        this.server.setExecutor(Executors.newFixedThreadPool(threads));
+        this.server.start();
+        logger.info("Serving flags on http://{}:{}{}",
+                InetAddress.getLoopbackAddress().getHostName(), port, FLAGS_PATH);
+    }
+
+    /**
+     * Runs the checks over some objects. Each check is run in parallel and cleared once done. The
+     * checks keep track of what they flagged, so a check only runs for one request at a time, while
+     * concurrent requests run their other checks.
+     *
+     * @param objects
+     *            the {@link AtlasObject}s to check
+     * @param complexFilter
+     *            selects the complex entities to check among the ones found at start up
+     * @return a GeoJSON FeatureCollection of the resulting flags
+     */
+    private JsonObject flags(final Iterable<AtlasObject> objects,
+            final Predicate<AtlasEntity> complexFilter)
+    {
+        final List<CheckFlagEvent> events = this.checks.parallelStream().flatMap(check ->
+        {
+            final List<CheckFlagEvent> checkEvents = new ArrayList<>();
+            final Iterable<AtlasObject> complex = Iterables.filter(
+                    this.complexEntities.getOrDefault(check, Collections.emptyList()),
+                    object -> complexFilter.test((AtlasEntity) object));
+            synchronized (this.checkLocks.get(check))
+            {
+                for (final AtlasObject object : new MultiIterable<>(objects, complex))
+                {
+                    final Optional<CheckFlag> flag = check.check(object);
+                    flag.ifPresent(checkFlag -> checkEvents
+                            .add(new CheckFlagEvent(check.getCheckName(), checkFlag)));
+                }
+                check.clear();
+            }
+            return checkEvents.stream();
+        }).collect(Collectors.toList());
+
+        final JsonArray features = new JsonArray();
+        events.forEach(event -> features.add(event.toGeoJsonFeature()));
+        final JsonObject collection = new JsonObject();
+        collection.addProperty(TYPE, FEATURE_COLLECTION);
+        collection.add(FEATURES, features);
+        return collection;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException
+    {
+        final Time timer = Time.now();
+        try
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                this.respond(exchange, HTTP_NOT_ALLOWED, TEXT_CONTENT_TYPE,
+                        "Only GET is supported");
+                return;
+            }
+            final Map<String, String> parameters = parseQuery(
+                    exchange.getRequestURI().getRawQuery());
+            final JsonObject result;
+            if (parameters.containsKey(BOUNDS_PARAMETER))
+            {
+                result = this.flags(Rectangle.forString(parameters.get(BOUNDS_PARAMETER)));
+            }
+            else if (parameters.containsKey(IDENTIFIERS_PARAMETER))
+            {
+                result = this.flags(Stream
+                        .of(parameters.get(IDENTIFIERS_PARAMETER).split(LIST_SEPARATOR))
+                        .map(String::trim).map(Long::valueOf).collect(Collectors.toList()));
+            }
+            else
+            {
+                this.respond(exchange, HTTP_BAD_REQUEST, TEXT_CONTENT_TYPE, String.format(
+                        "Expected a %s or %s parameter", BOUNDS_PARAMETER, IDENTIFIERS_PARAMETER));
+                return;
+            }
+            this.respond(exchange, HTTP_OK, GEOJSON_CONTENT_TYPE, result.toString());
+            logger.info("Served {} flags for {} in {}", result.getAsJsonArray(FEATURES).size(),
+                    exchange.getRequestURI(), timer.elapsedSince());
+        }
+        catch (final IllegalArgumentException | CoreException exception)
+        {
+            this.respond(exchange, HTTP_BAD_REQUEST, TEXT_CONTENT_TYPE, exception.getMessage());
+        }
+        catch (final Exception exception)
+        {
+            logger.error("Failed to serve {}", exchange.getRequestURI(), exception);
+            this.respond(exchange, HTTP_ERROR, TEXT_CONTENT_TYPE, String.valueOf(exception));
+        }
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String contentType,
+            final String body) throws IOException
+    {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(CONTENT_TYPE, contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody())
+        {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.openstreetmap.atlas.checks.base.Check;
+import org.openstreetmap.atlas.checks.base.CheckResourceLoader;
+import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
+import org.openstreetmap.atlas.checks.distributed.AtlasDataSource;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.streaming.resource.File;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.AbstractAtlasShellToolsCommand;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.CommandOutputDelegate;
+import org.openstreetmap.atlas.utilities.command.abstractcommand.OptionAndArgumentDelegate;
+import org.openstreetmap.atlas.utilities.command.parsing.OptionOptionality;
+import org.openstreetmap.atlas.utilities.configuration.Configuration;
+import org.openstreetmap.atlas.utilities.configuration.StandardConfiguration;
+import org.openstreetmap.atlas.utilities.time.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts a long lived {@link CheckDaemon} that keeps an atlas and the enabled checks warm, and
+ * serves flags for bounding boxes or identifiers over a local HTTP endpoint.
+ *
+ * @author agent
+ */
+public class CheckDaemonSubCommand extends AbstractAtlasShellToolsCommand
+{
+    private static final String INPUT_OPTION = "input";
+    private static final String COUNTRY_OPTION = "country";
+    private static final String CONFIGURATION_OPTION = "config";
+    private static final String PORT_OPTION = "port";
+    private static final String THREADS_OPTION = "threads";
+    private static final String DEFAULT_PORT = "8077";
+    private static final String DEFAULT_THREADS = "4";
+    private static final Logger logger = LoggerFactory.getLogger(CheckDaemonSubCommand.class);
+    private final OptionAndArgumentDelegate optionAndArgumentDelegate;
+    private final CommandOutputDelegate outputDelegate;
+
+    public static void main(final String[] args)
+    {
+        new CheckDaemonSubCommand().runSubcommandAndExit(args);
+    }
+
+    public CheckDaemonSubCommand()
+    {
+        this.optionAndArgumentDelegate = this.getOptionAndArgumentDelegate();
+        this.outputDelegate = this.getCommandOutputDelegate();
+    }
+
+    @Override
+    @SuppressWarnings("squid:S3655")
+    public int execute()
+    {
+        final Time timer = Time.now();
+        final String input = this.optionAndArgumentDelegate.getOptionArgument(INPUT_OPTION).get();
+        final String country = this.optionAndArgumentDelegate.getOptionArgument(COUNTRY_OPTION)
+                .get();
+        final int port = Integer.parseInt(this.optionAndArgumentDelegate
+                .getOptionArgument(PORT_OPTION).orElse(DEFAULT_PORT));
+        final int threads = Integer.parseInt(this.optionAndArgumentDelegate
+                .getOptionArgument(THREADS_OPTION).orElse(DEFAULT_THREADS));
+        final Configuration configuration = this.optionAndArgumentDelegate
+                .getOptionArgument(CONFIGURATION_OPTION)
+                .<Configuration> map(path -> new StandardConfiguration(new File(path)))
+                .orElse(ConfigurationResolver.emptyConfiguration());
+
+        final Atlas atlas = new AtlasDataSource(Collections.emptyMap(), configuration)
+                .load(input, country);
+        if (atlas == null)
+        {
+            this.outputDelegate.printlnStderr(
+                    String.format("Could not find %s Atlas files in %s", country, input));
+            return 1;
+        }
+        final Set<Check> checks = new CheckResourceLoader(configuration)
+                .loadChecksForCountry(country);
+        if (checks.isEmpty())
+        {
+            this.outputDelegate.printlnStderr(String.format("No checks enabled for %s", country));
+            return 1;
+        }
+
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        try (CheckDaemon daemon = new CheckDaemon(atlas, checks))
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread(shutdown::countDown));
+            daemon.start(port, threads);
+            logger.info("Check daemon ready in {}", timer.elapsedSince());
+            shutdown.await();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    @Override
+    public String getCommandName()
+    {
+        return "check-daemon";
+    }
+
+    @Override
+    public String getSimpleDescription()
+    {
+        return "serve flags for an atlas kept in memory over a local HTTP endpoint";
+    }
+
+    @Override
+    public void registerManualPageSections()
+    {
+        this.addManualPageSection("DESCRIPTION", CheckDaemonSubCommand.class
+                .getResourceAsStream("CheckDaemonSubCommandDescriptionSection.txt"));
+        this.addManualPageSection("EXAMPLES", CheckDaemonSubCommand.class
+                .getResourceAsStream("CheckDaemonSubCommandExamplesSection.txt"));
+    }
+
+    @Override
+    public void registerOptionsAndArguments()
+    {
+        this.registerOptionWithRequiredArgument(INPUT_OPTION, 'i',
+                "An atlas file, or a folder of country folders containing atlas files.",
+                OptionOptionality.REQUIRED, INPUT_OPTION);
+        this.registerOptionWithRequiredArgument(COUNTRY_OPTION, 'c',
+                "The ISO3 code of the country to load.", OptionOptionality.REQUIRED,
+                COUNTRY_OPTION);
+        this.registerOptionWithRequiredArgument(CONFIGURATION_OPTION, 'f',
+                "The checks configuration file.", OptionOptionality.OPTIONAL,
+                CONFIGURATION_OPTION);
+        this.registerOptionWithRequiredArgument(PORT_OPTION, 'p',
+                "The local port to listen on, defaults to " + DEFAULT_PORT + ".",
+                OptionOptionality.OPTIONAL, PORT_OPTION);
+        this.registerOptionWithRequiredArgument(THREADS_OPTION, 't',
+                "The number of request threads, defaults to " + DEFAULT_THREADS + ".",
+                OptionOptionality.OPTIONAL, THREADS_OPTION);
+        super.registerOptionsAndArguments();
+    }
+}
@@ -8,16 +8,19 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.JavaPairRDD;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.base.CheckResourceLoader;
 import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
 import org.openstreetmap.atlas.checks.constants.CommonConstants;
+import org.openstreetmap.atlas.checks.event.CheckFlagEvent;
 import org.openstreetmap.atlas.checks.event.CheckFlagFileProcessor;
 import org.openstreetmap.atlas.checks.event.CheckFlagGeoJsonProcessor;
 import org.openstreetmap.atlas.checks.event.CheckFlagTippecanoeProcessor;
@@ -25,6 +28,8 @@ import org.openstreetmap.atlas.checks.event.MetricFileGenerator;
 import org.openstreetmap.atlas.checks.maproulette.MapRouletteClient;
 import org.openstreetmap.atlas.checks.maproulette.MapRouletteConfiguration;
 import org.openstreetmap.atlas.event.EventService;
+import org.openstreetmap.atlas.event.Processor;
+import org.openstreetmap.atlas.event.ShutdownEvent;
 import org.openstreetmap.atlas.exception.CoreException;
 import org.openstreetmap.atlas.generator.tools.spark.SparkJob;
 import org.openstreetmap.atlas.generator.tools.spark.utilities.SparkFileHelper;
@@ -48,6 +53,9 @@ import org.openstreetmap.atlas.utilities.time.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
 import scala.Tuple2;
 
 /**
@@ -92,16 +100,21 @@ public class IntegrityCheckSparkJob extends IntegrityChecksCommandArguments
      *            the set of {@link BaseCheck}s to execute
      * @param configuration
      *            {@link MapRouletteConfiguration} to create a new {@link MapRouletteClient}s
+     * @param sampling
+     *            {@link SamplingFilter} selecting the objects to check
      */
     @SuppressWarnings("rawtypes")
     private static void executeChecks(final String country, final Atlas atlas,
-            final Set<BaseCheck> checksToRun, final MapRouletteConfiguration configuration)
+            final Set<BaseCheck> checksToRun, final MapRouletteConfiguration configuration,
+            final SamplingFilter sampling)
     {
         final Pool checkExecutionPool = new Pool(checksToRun.size(), "Check execution pool",
                 POOL_DURATION_BEFORE_KILL);
         checksToRun.forEach(check -> checkExecutionPool.queue(new RunnableCheck(country, check,
-                objectsToCheck(atlas, check), MapRouletteClient.instance(configuration))));
+                objectsToCheck(atlas, check, atlasEntity -> true, sampling),
+                MapRouletteClient.instance(configuration))));
         checkExecutionPool.close();
+        AtlasLayers.release(atlas);
     }
 
     private static SparkFilePath initializeOutput(final String output, final TaskContext context,
@@ -169,6 +182,18 @@ public class IntegrityCheckSparkJob extends IntegrityChecksCommandArguments
                 .orElse(Rectangle.MAXIMUM);
         final boolean compressOutput = Boolean
                 .parseBoolean((String) commandMap.get(SparkJob.COMPRESS_OUTPUT));
+        final SamplingFilter requestedSampling = samplingFilter(commandMap);
+        final SamplingFilter sampling;
+        if (requestedSampling.isSamplingShards())
+        {
+            logger.warn("Shards can only be sampled by the sharded job, sampling objects instead");
+            sampling = new SamplingFilter(requestedSampling.getRatio(),
+                    SamplingFilter.Mode.OBJECTS);
+        }
+        else
+        {
+            sampling = requestedSampling;
+        }
 
         final Map<String, String> sparkContext = configurationMap();
         final CheckResourceLoader checkLoader = new CheckResourceLoader(checksConfiguration);
@@ -202,6 +227,10 @@ public class IntegrityCheckSparkJob extends IntegrityChecksCommandArguments
                 .collect(Collectors.joining(","));
         logger.info("Initialized countries: {}", infoMessage1);
         logger.info("Initialized checks: {}", infoMessage2);
+        if (sampling.isSampling())
+        {
+            logger.info("Checking a {}", sampling);
+        }
 
         // Parallelize on the countries
         final JavaPairRDD<String, Set<BaseCheck>> countryCheckRDD = getContext()
@@ -296,6 +325,29 @@ public class IntegrityCheckSparkJob extends IntegrityChecksCommandArguments
                 tippecanoeOutput = null;
             }
 
+            // Count flags per check to extrapolate them when sampling
+            final Map<String, Long> flagCounts = new ConcurrentHashMap<>();
+            if (sampling.isSampling())
+            {
+                EventService.get(country).register(new Processor<CheckFlagEvent>()
+                {
+                    @Override
+                    @Subscribe
+                    public void process(final ShutdownEvent event)
+                    {
+                        sampling.logEstimates(country, flagCounts);
+                    }
+
+                    @Override
+                    @Subscribe
+                    @AllowConcurrentEvents
+                    public void process(final CheckFlagEvent event)
+                    {
+                        flagCounts.merge(event.getCheckName(), 1L, Long::sum);
+                    }
+                });
+            }
+
             final Consumer<Atlas> intermediateAtlasHandler;
             if (saveIntermediateAtlas)
             {
@@ -323,7 +375,7 @@ public class IntegrityCheckSparkJob extends IntegrityChecksCommandArguments
                 }
                 else
                 {
-                    executeChecks(country, atlas, checks, mapRouletteConfiguration);
+                    executeChecks(country, atlas, checks, mapRouletteConfiguration, sampling);
                     // Add output folders for handling later
                     Stream.of(flagOutput, metricOutput, geoJsonOutput, tippecanoeOutput)
                             .filter(Objects::nonNull).forEach(resultingFiles::add);
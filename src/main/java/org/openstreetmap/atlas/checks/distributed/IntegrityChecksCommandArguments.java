@@ -21,6 +21,7 @@ import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
+import org.openstreetmap.atlas.geography.atlas.items.complex.ComplexEntity;
 import org.openstreetmap.atlas.geography.sharding.Shard;
 import org.openstreetmap.atlas.geography.sharding.SlippyTile;
 import org.openstreetmap.atlas.utilities.collections.Iterables;
@@ -29,6 +30,7 @@ import org.openstreetmap.atlas.utilities.collections.StringList;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 import org.openstreetmap.atlas.utilities.conversion.StringConverter;
 import org.openstreetmap.atlas.utilities.maps.MultiMap;
+import org.openstreetmap.atlas.utilities.runtime.CommandMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,6 +92,13 @@ public abstract class IntegrityChecksCommandArguments extends SparkJob
     static final Switch<Boolean> PBF_SAVE_INTERMEDIATE_ATLAS = new Switch<>("savePbfAtlas",
             "Saves intermediate atlas files created when processing OSM protobuf data.",
             Boolean::valueOf, Optionality.OPTIONAL, "false");
+    static final Switch<SamplingFilter.Mode> SAMPLE_MODE = new Switch<>("sampleMode",
+            "What the sample ratio applies to (objects, shards). Shards are only sampled by the sharded job.",
+            mode -> Enum.valueOf(SamplingFilter.Mode.class, mode.toUpperCase()),
+            Optionality.OPTIONAL, "objects");
+    static final Switch<Double> SAMPLE_RATIO = new Switch<>("sampleRatio",
+            "Deterministic fraction of the data to check, in (0, 1]. Flag counts are extrapolated to the whole data in the logs.",
+            Double::valueOf, Optionality.OPTIONAL, "1.0");
     private static final String ATLAS_FILENAME_PATTERN_FORMAT = "^%s_([0-9]+)-([0-9]+)-([0-9]+)";
     private static final Logger logger = LoggerFactory
             .getLogger(IntegrityChecksCommandArguments.class);
@@ -172,6 +181,45 @@ public abstract class IntegrityChecksCommandArguments extends SparkJob
                 check.finder().map(finder -> finder.find(atlas)).orElse(Collections.emptyList()));
     }
 
+    /**
+     * Gets the objects to run a check on, keeping only the ones selected by a
+     * {@link SamplingFilter}. Complex entities found by the check are sampled too.
+     *
+     * @param atlas
+     *            the {@link Atlas} to check
+     * @param check
+     *            the {@link Check} to run
+     * @param geoFilter
+     *            a filter on the location of the {@link AtlasEntity}s
+     * @param sampling
+     *            the {@link SamplingFilter} of the run
+     * @return the {@link AtlasObject}s to check
+     */
+    protected static Iterable<AtlasObject> objectsToCheck(final Atlas atlas, final Check check,
+            final Predicate<AtlasEntity> geoFilter, final SamplingFilter sampling)
+    {
+        if (!sampling.isSampling())
+        {
+            return objectsToCheck(atlas, check, geoFilter);
+        }
+        return new MultiIterable<>(Iterables.filter(atlas.entities(), geoFilter.and(sampling)),
+                Iterables.filter(check.<ComplexEntity> finder().map(finder -> finder.find(atlas))
+                        .orElse(Collections.emptyList()), sampling::test));
+    }
+
+    /**
+     * Reads the {@link SamplingFilter} of a run from its arguments
+     *
+     * @param commandMap
+     *            the command arguments
+     * @return the {@link SamplingFilter} to use, keeping everything by default
+     */
+    protected static SamplingFilter samplingFilter(final CommandMap commandMap)
+    {
+        return new SamplingFilter((Double) commandMap.get(SAMPLE_RATIO),
+                (SamplingFilter.Mode) commandMap.get(SAMPLE_MODE));
+    }
+
     /**
      * Gets the {@link AtlasDataSource} object to load the Atlas from
      *
@@ -194,6 +242,6 @@ public abstract class IntegrityChecksCommandArguments extends SparkJob
     {
         return super.switches().with(ATLAS_FOLDER, MAP_ROULETTE, COUNTRIES, CONFIGURATION_FILES,
                 CONFIGURATION_JSON, PBF_BOUNDING_BOX, PBF_SAVE_INTERMEDIATE_ATLAS, OUTPUT_FORMATS,
-                CHECK_FILTER);
+                CHECK_FILTER, SAMPLE_RATIO, SAMPLE_MODE);
     }
 }
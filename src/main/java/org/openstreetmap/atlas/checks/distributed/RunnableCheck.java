@@ -1,5 +1,6 @@
 package org.openstreetmap.atlas.checks.distributed;
 
+import java.util.Iterator;
 import java.util.Optional;
 
 import org.openstreetmap.atlas.checks.base.Check;
@@ -24,7 +25,12 @@ import org.slf4j.LoggerFactory;
  */
 public final class RunnableCheck extends RunnableCheckBase<Check> implements Runnable
 {
+    public static final String TRUNCATED_METRIC_FORMAT = "%s.truncated.%s";
+    static final String FLAGS_BUDGET = "flags";
+    static final String RUNTIME_BUDGET = "runtime";
     private static final Logger logger = LoggerFactory.getLogger(RunnableCheck.class);
+    private final Optional<Long> maximumFlags;
+    private final Optional<Duration> maximumRuntime;
 
     /**
      * Default constructor
@@ -42,6 +48,8 @@ public final class RunnableCheck extends RunnableCheckBase<Check> implements Run
             final Iterable<AtlasObject> objects, final MapRouletteClient client)
     {
         super(country, check, objects, client);
+        this.maximumFlags = check.getMaximumFlags();
+        this.maximumRuntime = check.getMaximumRuntime();
     }
 
     /**
@@ -60,11 +68,15 @@ public final class RunnableCheck extends RunnableCheckBase<Check> implements Run
             final Iterable<AtlasObject> objects, final EventService eventService)
     {
         super(country, check, objects, null, eventService);
+        this.maximumFlags = check.getMaximumFlags();
+        this.maximumRuntime = check.getMaximumRuntime();
     }
 
     /**
      * Runs the {@link Check} over {@link AtlasObject}s, posting resulting {@link CheckFlag}s to
-     * {@link RunnableCheckBase#eventService} and {@link MapRouletteClient}
+     * {@link RunnableCheckBase#eventService} and {@link MapRouletteClient}. The run is truncated
+     * once the check exceeds its flag or runtime budget, which is recorded as an extra
+     * {@link MetricEvent} named after the check and the exceeded budget.
      */
     @Override
     public void run()
@@ -72,19 +84,35 @@ public final class RunnableCheck extends RunnableCheckBase<Check> implements Run
         try
         {
             final Time timer = Time.now();
-            this.getObjects().forEach(object ->
+            final Iterator<AtlasObject> objects = this.getObjects().iterator();
+            long flagCount = 0;
+            Optional<String> exceededBudget = Optional.empty();
+            while (!exceededBudget.isPresent() && objects.hasNext())
             {
-                final Optional<CheckFlag> flag = this.getCheck().check(object);
+                final Optional<CheckFlag> flag = this.getCheck().check(objects.next());
                 if (flag.isPresent())
                 {
                     this.addTask(flag.get());
                     this.getEventService().post(new CheckFlagEvent(this.getName(), flag.get()));
+                    flagCount++;
                 }
-            });
+                exceededBudget = this.exceededBudget(flagCount, timer);
+            }
 
             this.getCheck().clear();
             final Duration checkRunTime = timer.elapsedSince();
-            logger.info("{} completed in {}.", this.getName(), checkRunTime);
+            if (exceededBudget.isPresent() && objects.hasNext())
+            {
+                logger.warn("{} truncated after {} flags in {}, exceeding its {} budget.",
+                        this.getName(), flagCount, checkRunTime, exceededBudget.get());
+                this.getEventService().post(new MetricEvent(String
+                        .format(TRUNCATED_METRIC_FORMAT, this.getName(), exceededBudget.get()),
+                        checkRunTime));
+            }
+            else
+            {
+                logger.info("{} completed in {}.", this.getName(), checkRunTime);
+            }
             this.getEventService().post(new MetricEvent(this.getName(), checkRunTime));
 
             this.uploadTasks();
@@ -94,4 +122,27 @@ public final class RunnableCheck extends RunnableCheckBase<Check> implements Run
             logger.error(String.format("%s failed to complete.", this.getName()), e);
         }
     }
+
+    /**
+     * Checks whether the {@link Check} went over one of its budgets
+     *
+     * @param flagCount
+     *            number of flags produced so far
+     * @param start
+     *            {@link Time} the check started at
+     * @return the name of the exceeded budget, empty if the check can keep running
+     */
+    private Optional<String> exceededBudget(final long flagCount, final Time start)
+    {
+        if (this.maximumFlags.isPresent() && flagCount >= this.maximumFlags.get())
+        {
+            return Optional.of(FLAGS_BUDGET);
+        }
+        if (this.maximumRuntime.isPresent() && start.elapsedSince()
+                .asMilliseconds() >= this.maximumRuntime.get().asMilliseconds())
+        {
+            return Optional.of(RUNTIME_BUDGET);
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,187 @@
+package org.openstreetmap.atlas.checks.distributed;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import org.openstreetmap.atlas.exception.CoreException;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.sharding.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Deterministically selects a fraction of the objects or shards of a run, to preview the flags of
+ * a configuration without checking a whole country. Selection is based on a hash of the OSM
+ * identifier (or of the shard name), so repeated runs with the same ratio check the same objects,
+ * and all the Atlas entities made from one OSM feature are kept or dropped together. Flag counts
+ * observed on the sample can be extrapolated to the whole data set with {@link #estimate(long)}.
+ *
+ * @author agent
+ */
+public final class SamplingFilter implements Predicate<AtlasEntity>, Serializable
+{
+    /**
+     * What the sampling ratio applies to
+     *
+     * @author agent
+     */
+    public enum Mode
+    {
+        OBJECTS,
+        SHARDS
+    }
+
+    // z-score of a two sided 95% confidence interval
+    private static final double CONFIDENCE_Z_SCORE = 1.96;
+    // Converts the top 53 bits of a hash into a double in [0, 1)
+    private static final int DOUBLE_MANTISSA_SHIFT = 11;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final Logger logger = LoggerFactory.getLogger(SamplingFilter.class);
+    private static final long serialVersionUID = -3271553003412707593L;
+
+    private final double ratio;
+    private final Mode mode;
+
+    /**
+     * @return a {@link SamplingFilter} that keeps everything
+     */
+    public static SamplingFilter all()
+    {
+        return new SamplingFilter(1.0, Mode.OBJECTS);
+    }
+
+    private static double position(final long hash)
+    {
+        return (hash >>> DOUBLE_MANTISSA_SHIFT) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Default constructor
+     *
+     * @param ratio
+     *            fraction of the objects or shards to keep, in (0, 1]
+     * @param mode
+     *            {@link Mode} of sampling
+     */
+    public SamplingFilter(final double ratio, final Mode mode)
+    {
+        if (!(ratio > 0.0 && ratio <= 1.0))
+        {
+            throw new CoreException("Sampling ratio must be in (0, 1], got {}", ratio);
+        }
+        this.ratio = ratio;
+        this.mode = mode;
+    }
+
+    /**
+     * Extrapolates a number of flags observed on the sample to the whole data set
+     *
+     * @param observed
+     *            number of flags found in the sample
+     * @return the estimated number of flags without sampling
+     */
+    public double estimate(final long observed)
+    {
+        return observed / this.ratio;
+    }
+
+    public Mode getMode()
+    {
+        return this.mode;
+    }
+
+    public double getRatio()
+    {
+        return this.ratio;
+    }
+
+    /**
+     * @param shard
+     *            a {@link Shard} to test
+     * @return {@code true} if the shard is part of the sample. Always {@code true} unless sampling
+     *         shards.
+     */
+    public boolean includes(final Shard shard)
+    {
+        return this.mode != Mode.SHARDS || this.ratio >= 1.0
+                || position(HASH_FUNCTION.hashString(shard.getName(), StandardCharsets.UTF_8)
+                        .asLong()) < this.ratio;
+    }
+
+    /**
+     * @return {@code true} if only a fraction of the data is checked
+     */
+    public boolean isSampling()
+    {
+        return this.ratio < 1.0;
+    }
+
+    /**
+     * @return {@code true} if whole shards are left out of the sample. A ratio of 1.0 keeps every
+     *         shard.
+     */
+    public boolean isSamplingShards()
+    {
+        return this.mode == Mode.SHARDS && this.isSampling();
+    }
+
+    /**
+     * Logs the extrapolated flag count of each check
+     *
+     * @param country
+     *            country the flags were found in
+     * @param flagCounts
+     *            number of flags found in the sample, per check name
+     */
+    public void logEstimates(final String country, final Map<String, Long> flagCounts)
+    {
+        if (!this.isSampling())
+        {
+            return;
+        }
+        logger.info("[{}] Flag counts extrapolated from a {}", country, this);
+        new TreeMap<>(flagCounts).forEach((checkName, observed) -> logger.info(
+                "[{}] {}: {} flags sampled, about {} +/- {} in total", country, checkName, observed,
+                Math.round(this.estimate(observed)), Math.round(this.marginOfError(observed))));
+    }
+
+    /**
+     * Approximates the half width of the 95% confidence interval of {@link #estimate(long)},
+     * assuming each flag is kept independently with probability equal to the ratio. When sampling
+     * shards, flags are kept in clusters and the actual interval is wider.
+     *
+     * @param observed
+     *            number of flags found in the sample
+     * @return the margin of error of the estimate
+     */
+    public double marginOfError(final long observed)
+    {
+        return CONFIDENCE_Z_SCORE * Math.sqrt(observed * (1.0 - this.ratio)) / this.ratio;
+    }
+
+    /**
+     * @param entity
+     *            an {@link AtlasEntity} to test
+     * @return {@code true} if the entity is part of the sample. Always {@code true} unless sampling
+     *         objects.
+     */
+    @Override
+    public boolean test(final AtlasEntity entity)
+    {
+        return this.mode != Mode.OBJECTS || this.ratio >= 1.0 || position(
+                HASH_FUNCTION.hashLong(entity.getOsmIdentifier()).asLong()) < this.ratio;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s sample of %s", this.mode.name().toLowerCase(), this.ratio);
+    }
+}
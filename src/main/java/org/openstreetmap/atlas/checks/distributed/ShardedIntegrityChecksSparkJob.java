@@ -15,6 +15,7 @@ import java.util.stream.StreamSupport;
 import org.apache.spark.api.java.function.PairFunction;
 import org.apache.spark.api.java.function.VoidFunction;
 import org.apache.spark.broadcast.Broadcast;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.Check;
 import org.openstreetmap.atlas.checks.base.CheckResourceLoader;
 import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
@@ -149,6 +150,11 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
                 this.configurationMap());
         final Broadcast<Sharding> shardingBroadcast = this.getContext().broadcast(sharding);
         final Distance distanceToLoadShards = (Distance) commandMap.get(EXPANSION_DISTANCE);
+        final SamplingFilter sampling = samplingFilter(commandMap);
+        if (sampling.isSampling())
+        {
+            logger.info("Checking a {}", sampling);
+        }
 
         // Check inputs
         if (countries.isEmpty())
@@ -197,12 +203,17 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
             {
                 checkPool.queue(() ->
                 {
-                    // Generate a task for each shard
+                    // Generate a task for each sampled shard
                     final List<ShardedCheckFlagsTask> tasksForCountry = countryShard.getValue()
-                            .stream()
+                            .stream().filter(sampling::includes)
                             .map(shard -> new ShardedCheckFlagsTask(countryShard.getKey(), shard,
                                     this.countryChecks.get(countryShard.getKey())))
                             .collect(Collectors.toList());
+                    if (tasksForCountry.isEmpty())
+                    {
+                        logger.warn("No shards of {} were sampled", countryShard.getKey());
+                        return;
+                    }
 
                     // Set spark UI job title
                     this.getContext().setLocalProperty("callSite.short", String
@@ -211,10 +222,10 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
                     this.getContext().parallelize(tasksForCountry, tasksForCountry.size())
                             .mapToPair(produceFlags(input, output, this.configurationMap(),
                                     fileHelper, shardingBroadcast, distanceToLoadShards,
-                                    (Boolean) commandMap.get(MULTI_ATLAS)))
+                                    (Boolean) commandMap.get(MULTI_ATLAS), sampling))
                             .reduceByKey(UniqueCheckFlagContainer::combine)
                             // Generate outputs
-                            .foreach(processFlags(output, fileHelper, outputFormats));
+                            .foreach(processFlags(output, fileHelper, outputFormats, sampling));
                 });
             }
         }
@@ -260,18 +271,27 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
      * @param outputFormats
      *            {@link Set} of
      *            {@link org.openstreetmap.atlas.checks.distributed.IntegrityChecksCommandArguments.OutputFormats}
+     * @param sampling
+     *            {@link SamplingFilter} of the run, used to extrapolate flag counts
      * @return {@link VoidFunction} that takes a {@link Tuple2} of a {@link String} country code and
      *         a {@link UniqueCheckFlagContainer}
      */
     @SuppressWarnings("unchecked")
     private VoidFunction<Tuple2<String, UniqueCheckFlagContainer>> processFlags(final String output,
-            final SparkFileHelper fileHelper, final Set<OutputFormats> outputFormats)
+            final SparkFileHelper fileHelper, final Set<OutputFormats> outputFormats,
+            final SamplingFilter sampling)
     {
         return tuple ->
         {
             final String country = tuple._1();
             final UniqueCheckFlagContainer flagContainer = tuple._2();
             final EventService<CheckFlagEvent> eventService = EventService.get(country);
+            if (sampling.isSampling())
+            {
+                sampling.logEstimates(country,
+                        flagContainer.reconstructEvents().collect(Collectors
+                                .groupingBy(CheckFlagEvent::getCheckName, Collectors.counting())));
+            }
 
             if (outputFormats.contains(OutputFormats.FLAGS))
             {
@@ -315,6 +335,8 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
      *            {@link Distance} to expand the shard group
      * @param multiAtlas
      *            boolean whether to use a multi or dynamic Atlas
+     * @param sampling
+     *            {@link SamplingFilter} selecting the objects to check
      * @return {@link PairFunction} that takes {@link ShardedCheckFlagsTask} and returns a
      *         {@link Tuple2} of a {@link String} country code and {@link UniqueCheckFlagContainer}
      */
@@ -322,7 +344,8 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
     private PairFunction<ShardedCheckFlagsTask, String, UniqueCheckFlagContainer> produceFlags(
             final String input, final String output, final Map<String, String> configurationMap,
             final SparkFileHelper fileHelper, final Broadcast<Sharding> sharding,
-            final Distance shardDistanceExpansion, final boolean multiAtlas)
+            final Distance shardDistanceExpansion, final boolean multiAtlas,
+            final SamplingFilter sampling)
     {
         return task ->
         {
@@ -389,9 +412,11 @@ public class ShardedIntegrityChecksSparkJob extends IntegrityChecksCommandArgume
                 for (final Check check : task.getChecks())
                 {
                     checkPool.queue(new RunnableCheck(task.getCountry(), check,
-                            objectsToCheck(atlas, check, boundaryFilter), eventService));
+                            objectsToCheck(atlas, check, boundaryFilter, sampling),
+                            eventService));
                 }
             }
+            AtlasLayers.release(atlas);
 
             eventService.complete();
             return new Tuple2<>(task.getCountry(), container);
@@ -485,6 +485,23 @@ public class CheckFlag implements Iterable<Location>, Located, Serializable
         return this;
     }
 
+    /**
+     * Copies this {@link CheckFlag} decoupled from any
+     * {@link org.openstreetmap.atlas.geography.atlas.Atlas}s, leaving this flag unchanged.
+     *
+     * @return a copy with all the {@link FlaggedObject}s complete
+     * @see #makeComplete()
+     */
+    public CheckFlag completeCopy()
+    {
+        final CheckFlag copy = new CheckFlag(this.identifier);
+        copy.challengeName = this.challengeName;
+        copy.instructions.addAll(this.instructions);
+        this.flaggedObjects.forEach(flaggedObject -> copy.flaggedObjects
+                .add(flaggedObject.getAsCompleteFlaggedObject()));
+        return copy;
+    }
+
     /**
      * Writes the string value of this {@link CheckFlag} to the {@link WritableResource}
      *
@@ -6,6 +6,7 @@ import static org.openstreetmap.atlas.geography.geojson.GeoJsonUtils.feature;
 import java.util.Map;
 import java.util.Optional;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.exception.CoreException;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.MultiPolygon;
@@ -201,7 +202,11 @@ public class FlaggedRelation extends FlaggedObject
         {
             try
             {
-                return MULTI_POLYGON_CONVERTER.convert(relation);
+                // Complete relations are not backed by an atlas, so there is no shared geometry
+                return relation instanceof CompleteRelation
+                        ? MULTI_POLYGON_CONVERTER.convert(relation)
+                        : AtlasLayers.forAtlas(relation.getAtlas()).geometries()
+                                .multiPolygon(relation);
             }
             catch (final CoreException exception)
             {
@@ -0,0 +1,96 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.openstreetmap.atlas.geography.Rectangle;
+
+/**
+ * A sweep over the bounds of a set of items, finding every pair of items with overlapping bounds in
+ * a single pass. Items are sorted by their western edge, and the sweep keeps the items whose
+ * bounds still span the current longitude; each new item is only compared against those. For
+ * sparse data this is close to linear, compared to one spatial index query per item.
+ *
+ * @author agent
+ */
+public final class BoundsSweep
+{
+    /**
+     * An item with its bounds in dm7
+     *
+     * @param <T>
+     *            the type of the item
+     */
+    private static final class Bounded<T>
+    {
+        private final T item;
+        private final long minimumLongitude;
+        private final long maximumLongitude;
+        private final long minimumLatitude;
+        private final long maximumLatitude;
+
+        Bounded(final T item, final Rectangle bounds)
+        {
+            this.item = item;
+            this.minimumLongitude = bounds.lowerLeft().getLongitude().asDm7();
+            this.maximumLongitude = bounds.upperRight().getLongitude().asDm7();
+            this.minimumLatitude = bounds.lowerLeft().getLatitude().asDm7();
+            this.maximumLatitude = bounds.upperRight().getLatitude().asDm7();
+        }
+
+        boolean overlapsLatitude(final Bounded<T> other)
+        {
+            return this.minimumLatitude <= other.maximumLatitude
+                    && other.minimumLatitude <= this.maximumLatitude;
+        }
+    }
+
+    /**
+     * Calls a consumer once for every pair of items whose bounds overlap, including bounds that
+     * only touch. The order of the two items of a pair is unspecified.
+     *
+     * @param items
+     *            the items to sweep
+     * @param bounds
+     *            gets the bounds of an item
+     * @param consumer
+     *            called with every pair of overlapping items
+     * @param <T>
+     *            the type of the items
+     */
+    public static <T> void forEachOverlappingPair(final Iterable<T> items,
+            final Function<T, Rectangle> bounds, final BiConsumer<T, T> consumer)
+    {
+        final List<Bounded<T>> sorted = new ArrayList<>();
+        items.forEach(item -> sorted.add(new Bounded<>(item, bounds.apply(item))));
+        sorted.sort(Comparator.comparingLong(bounded -> bounded.minimumLongitude));
+
+        final List<Bounded<T>> active = new ArrayList<>();
+        for (final Bounded<T> current : sorted)
+        {
+            final Iterator<Bounded<T>> iterator = active.iterator();
+            while (iterator.hasNext())
+            {
+                final Bounded<T> candidate = iterator.next();
+                // The candidate ends west of this item, and of all the following ones
+                if (candidate.maximumLongitude < current.minimumLongitude)
+                {
+                    iterator.remove();
+                }
+                else if (candidate.overlapsLatitude(current))
+                {
+                    consumer.accept(candidate.item, current.item);
+                }
+            }
+            active.add(current);
+        }
+    }
+
+    private BoundsSweep()
+    {
+    }
+}
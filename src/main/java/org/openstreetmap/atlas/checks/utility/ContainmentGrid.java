@@ -0,0 +1,391 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Polygon;
+
+/**
+ * Answers point-in-polygon queries against a large {@link Polygon} in close to constant time. The
+ * bounds of the polygon are split into a grid of cells, and each cell is either inside, outside,
+ * or on the boundary, with the list of the edges going through it. A location in an inside or
+ * outside cell is answered directly. In a boundary cell, the answer is known for a reference point
+ * of the cell, and flips each time the segment from the reference point to the location crosses
+ * one of the edges of the cell. Orientation tests are exact on the dm7 coordinates, and the rare
+ * degenerate cases, like a segment going through a shape point, fall back to a full crossing
+ * number test.
+ * <p>
+ * Locations found on the boundary of the polygon are answered by
+ * {@link Polygon#fullyGeometricallyEncloses(Location)}, so that the grid agrees with it on shape
+ * points and along edges whatever the number of shape points. The grid is immutable once built, so
+ * it can be queried from multiple threads.
+ *
+ * @author agent
+ */
+public final class ContainmentGrid
+{
+    private static final byte OUTSIDE = 0;
+    private static final byte INSIDE = 1;
+    // Boundary cells also tell whether their reference point is inside
+    private static final byte BOUNDARY_OUTSIDE = 2;
+    private static final byte BOUNDARY_INSIDE = 3;
+    // Boundary cells with their reference point on an edge
+    private static final byte BOUNDARY_UNKNOWN = 4;
+    private static final int MINIMUM_CELLS_PER_SIDE = 4;
+    private static final int MAXIMUM_CELLS_PER_SIDE = 512;
+
+    private final Polygon polygon;
+    // The shape points, with the first one repeated at the end
+    private final long[] longitudes;
+    private final long[] latitudes;
+    private final int edgeCount;
+    private final long minimumLongitude;
+    private final long minimumLatitude;
+    // Cells hold the dm7 coordinates from their south west corner to their north east corner
+    // excluded, but their edges go all the way to the next cell
+    private final long cellWidth;
+    private final long cellHeight;
+    private final int columns;
+    private final int rows;
+    private final byte[] states;
+    // The edges going through each cell are edges[offsets[cell]] to edges[offsets[cell + 1] - 1]
+    private final int[] offsets;
+    private final int[] edges;
+
+    /**
+     * @param polygon
+     *            a {@link Polygon}
+     * @return the containment grid of the polygon
+     */
+    public static ContainmentGrid forPolygon(final Polygon polygon)
+    {
+        return new ContainmentGrid(polygon);
+    }
+
+    private static boolean isBetween(final long value, final long bound, final long otherBound)
+    {
+        return Math.min(bound, otherBound) <= value && value <= Math.max(bound, otherBound);
+    }
+
+    /**
+     * @return the side of the segment from the first to the second point the third point is on: 1
+     *         on the left, -1 on the right and 0 if collinear
+     */
+    private static int orientation(final long fromLongitude, final long fromLatitude,
+            final long toLongitude, final long toLatitude, final long longitude,
+            final long latitude)
+    {
+        return MonotoneChains.compareProducts(toLongitude - fromLongitude,
+                latitude - fromLatitude, toLatitude - fromLatitude, longitude - fromLongitude);
+    }
+
+    private ContainmentGrid(final Polygon polygon)
+    {
+        this.polygon = polygon;
+        this.edgeCount = polygon.size();
+        this.longitudes = new long[this.edgeCount + 1];
+        this.latitudes = new long[this.edgeCount + 1];
+        int index = 0;
+        for (final Location location : polygon)
+        {
+            this.longitudes[index] = location.getLongitude().asDm7();
+            this.latitudes[index] = location.getLatitude().asDm7();
+            index++;
+        }
+        if (this.edgeCount > 0)
+        {
+            this.longitudes[this.edgeCount] = this.longitudes[0];
+            this.latitudes[this.edgeCount] = this.latitudes[0];
+        }
+        this.minimumLongitude = Arrays.stream(this.longitudes).min().orElse(0L);
+        this.minimumLatitude = Arrays.stream(this.latitudes).min().orElse(0L);
+        final long longitudeSpan = Arrays.stream(this.longitudes).max().orElse(0L)
+                - this.minimumLongitude;
+        final long latitudeSpan = Arrays.stream(this.latitudes).max().orElse(0L)
+                - this.minimumLatitude;
+
+        // About two cells per side for each square root of the number of edges
+        final int cellsPerSide = Math.max(MINIMUM_CELLS_PER_SIDE, Math.min(MAXIMUM_CELLS_PER_SIDE,
+                2 * (int) Math.ceil(Math.sqrt(this.edgeCount))));
+        this.cellWidth = longitudeSpan / cellsPerSide + 1;
+        this.cellHeight = latitudeSpan / cellsPerSide + 1;
+        this.columns = (int) (longitudeSpan / this.cellWidth) + 1;
+        this.rows = (int) (latitudeSpan / this.cellHeight) + 1;
+
+        final int cellCount = this.columns * this.rows;
+        this.offsets = new int[cellCount + 1];
+        for (int edge = 0; edge < this.edgeCount; edge++)
+        {
+            this.forEachCell(edge, cell -> this.offsets[cell + 1]++);
+        }
+        for (int cell = 0; cell < cellCount; cell++)
+        {
+            this.offsets[cell + 1] += this.offsets[cell];
+        }
+        this.edges = new int[this.offsets[cellCount]];
+        final int[] filled = Arrays.copyOf(this.offsets, cellCount);
+        for (int edge = 0; edge < this.edgeCount; edge++)
+        {
+            final int current = edge;
+            this.forEachCell(edge, cell -> this.edges[filled[cell]++] = current);
+        }
+
+        this.states = new byte[cellCount];
+        final int[] seen = new int[this.edgeCount];
+        Arrays.fill(seen, -1);
+        for (int row = 0; row < this.rows; row++)
+        {
+            this.classifyRow(row, seen);
+        }
+    }
+
+    /**
+     * @param location
+     *            a {@link Location}
+     * @return true if the location is inside the polygon, or on its boundary where
+     *         {@link Polygon#fullyGeometricallyEncloses(Location)} covers it
+     */
+    public boolean covers(final Location location)
+    {
+        final long longitude = location.getLongitude().asDm7();
+        final long latitude = location.getLatitude().asDm7();
+        if (this.edgeCount == 0 || longitude < this.minimumLongitude
+                || latitude < this.minimumLatitude)
+        {
+            return false;
+        }
+        final long column = (longitude - this.minimumLongitude) / this.cellWidth;
+        final long row = (latitude - this.minimumLatitude) / this.cellHeight;
+        if (column >= this.columns || row >= this.rows)
+        {
+            return false;
+        }
+        final int cell = (int) (row * this.columns + column);
+        final byte state = this.states[cell];
+        if (state == INSIDE || state == OUTSIDE)
+        {
+            return state == INSIDE;
+        }
+        for (int index = this.offsets[cell]; index < this.offsets[cell + 1]; index++)
+        {
+            if (this.isOnEdge(this.edges[index], longitude, latitude))
+            {
+                return this.polygon.fullyGeometricallyEncloses(location);
+            }
+        }
+        if (state == BOUNDARY_UNKNOWN)
+        {
+            return this.crossingNumberCovers(location);
+        }
+        final long referenceLongitude = this.referenceLongitude((int) column);
+        final long referenceLatitude = this.referenceLatitude((int) row);
+        boolean inside = state == BOUNDARY_INSIDE;
+        for (int index = this.offsets[cell]; index < this.offsets[cell + 1]; index++)
+        {
+            final int edge = this.edges[index];
+            final int startSide = orientation(referenceLongitude, referenceLatitude, longitude,
+                    latitude, this.longitudes[edge], this.latitudes[edge]);
+            final int endSide = orientation(referenceLongitude, referenceLatitude, longitude,
+                    latitude, this.longitudes[edge + 1], this.latitudes[edge + 1]);
+            if (startSide == 0 || endSide == 0)
+            {
+                // The segment may go through a shape point, or along the edge
+                if (this.touchesEdgeEnd(edge, referenceLongitude, referenceLatitude, longitude,
+                        latitude))
+                {
+                    return this.crossingNumberCovers(location);
+                }
+            }
+            else if (startSide != endSide && this.orientation(edge, referenceLongitude,
+                    referenceLatitude) != this.orientation(edge, longitude, latitude))
+            {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Sets the state of every cell of a row. Walking west to east along the horizontal line through
+     * the reference points of the row, the edges crossing the line between two reference points go
+     * through one of their two cells, so the whole row is classified from the edges of its cells.
+     */
+    private void classifyRow(final int row, final int[] seen)
+    {
+        final long latitude = this.referenceLatitude(row);
+        // Whether the number of crossings west of the reference point is odd
+        boolean inside = false;
+        for (int column = 0; column < this.columns; column++)
+        {
+            final int cell = row * this.columns + column;
+            final long longitude = this.referenceLongitude(column);
+            final long previous = column == 0 ? 0L : this.referenceLongitude(column - 1);
+            // Count the crossings west of this reference point, but not west of the previous one
+            final int from = column == 0 ? this.offsets[cell] : this.offsets[cell - 1];
+            for (int index = from; index < this.offsets[cell + 1]; index++)
+            {
+                final int edge = this.edges[index];
+                if (seen[edge] != cell && this.crossesLatitude(edge, latitude)
+                        && this.upwardOrientation(edge, longitude, latitude) < 0
+                        && (column == 0
+                                || this.upwardOrientation(edge, previous, latitude) >= 0))
+                {
+                    inside = !inside;
+                }
+                seen[edge] = cell;
+            }
+            boolean unknown = false;
+            for (int index = this.offsets[cell]; index < this.offsets[cell + 1]; index++)
+            {
+                unknown |= this.isOnEdge(this.edges[index], longitude, latitude);
+            }
+            if (this.offsets[cell] == this.offsets[cell + 1])
+            {
+                this.states[cell] = inside ? INSIDE : OUTSIDE;
+            }
+            else if (unknown)
+            {
+                this.states[cell] = BOUNDARY_UNKNOWN;
+            }
+            else
+            {
+                this.states[cell] = inside ? BOUNDARY_INSIDE : BOUNDARY_OUTSIDE;
+            }
+        }
+    }
+
+    /**
+     * @return true if the edge crosses the horizontal line, counting shape points on the line as
+     *         below it so that each crossing is counted once
+     */
+    private boolean crossesLatitude(final int edge, final long latitude)
+    {
+        return this.latitudes[edge] > latitude != this.latitudes[edge + 1] > latitude;
+    }
+
+    /**
+     * Counts the edges crossing the horizontal ray going west from the location, for the locations
+     * the grid can not answer directly
+     */
+    private boolean crossingNumberCovers(final Location location)
+    {
+        final long longitude = location.getLongitude().asDm7();
+        final long latitude = location.getLatitude().asDm7();
+        boolean inside = false;
+        for (int edge = 0; edge < this.edgeCount; edge++)
+        {
+            if (this.isOnEdge(edge, longitude, latitude))
+            {
+                return this.polygon.fullyGeometricallyEncloses(location);
+            }
+            if (this.crossesLatitude(edge, latitude)
+                    && this.upwardOrientation(edge, longitude, latitude) < 0)
+            {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Calls the consumer with each cell the edge goes through, borders included
+     */
+    private void forEachCell(final int edge, final IntConsumer consumer)
+    {
+        final long west = Math.min(this.longitudes[edge], this.longitudes[edge + 1])
+                - this.minimumLongitude;
+        final long east = Math.max(this.longitudes[edge], this.longitudes[edge + 1])
+                - this.minimumLongitude;
+        final long south = Math.min(this.latitudes[edge], this.latitudes[edge + 1])
+                - this.minimumLatitude;
+        final long north = Math.max(this.latitudes[edge], this.latitudes[edge + 1])
+                - this.minimumLatitude;
+        // An edge on the western or southern border of a cell also touches the previous cell
+        final int firstColumn = (int) Math.max(0L, (west - 1) / this.cellWidth);
+        final int lastColumn = (int) (east / this.cellWidth);
+        final int firstRow = (int) Math.max(0L, (south - 1) / this.cellHeight);
+        final int lastRow = (int) (north / this.cellHeight);
+        for (int row = firstRow; row <= lastRow; row++)
+        {
+            for (int column = firstColumn; column <= lastColumn; column++)
+            {
+                // An edge spanning a single row or column goes through all of its cells
+                if (firstRow == lastRow || firstColumn == lastColumn
+                        || this.isCrossingCell(edge, column, row))
+                {
+                    consumer.accept(row * this.columns + column);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the line of the edge does not leave every corner of the cell strictly on
+     *         the same side, which means the edge goes through the cell when their bounds overlap
+     */
+    private boolean isCrossingCell(final int edge, final int column, final int row)
+    {
+        final long west = this.minimumLongitude + column * this.cellWidth;
+        final long east = west + this.cellWidth;
+        final long south = this.minimumLatitude + row * this.cellHeight;
+        final long north = south + this.cellHeight;
+        final int southWest = this.orientation(edge, west, south);
+        return southWest == 0 || southWest != this.orientation(edge, east, south)
+                || southWest != this.orientation(edge, west, north)
+                || southWest != this.orientation(edge, east, north);
+    }
+
+    private boolean isOnEdge(final int edge, final long longitude, final long latitude)
+    {
+        return isBetween(longitude, this.longitudes[edge], this.longitudes[edge + 1])
+                && isBetween(latitude, this.latitudes[edge], this.latitudes[edge + 1])
+                && this.orientation(edge, longitude, latitude) == 0;
+    }
+
+    private int orientation(final int edge, final long longitude, final long latitude)
+    {
+        return orientation(this.longitudes[edge], this.latitudes[edge], this.longitudes[edge + 1],
+                this.latitudes[edge + 1], longitude, latitude);
+    }
+
+    private long referenceLatitude(final int row)
+    {
+        return this.minimumLatitude + row * this.cellHeight + (this.cellHeight - 1) / 2;
+    }
+
+    private long referenceLongitude(final int column)
+    {
+        return this.minimumLongitude + column * this.cellWidth + (this.cellWidth - 1) / 2;
+    }
+
+    /**
+     * @return true if one end of the edge lies on the segment from the reference point to the
+     *         location
+     */
+    private boolean touchesEdgeEnd(final int edge, final long referenceLongitude,
+            final long referenceLatitude, final long longitude, final long latitude)
+    {
+        for (int end = edge; end <= edge + 1; end++)
+        {
+            if (isBetween(this.longitudes[end], referenceLongitude, longitude)
+                    && isBetween(this.latitudes[end], referenceLatitude, latitude)
+                    && orientation(referenceLongitude, referenceLatitude, longitude, latitude,
+                            this.longitudes[end], this.latitudes[end]) == 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the side of the edge, walked northward, the point is on. For a point on a horizontal
+     *         line crossed by the edge, 1 means the crossing is east of the point and -1 west.
+     */
+    private int upwardOrientation(final int edge, final long longitude, final long latitude)
+    {
+        final int side = this.orientation(edge, longitude, latitude);
+        return this.latitudes[edge] < this.latitudes[edge + 1] ? side : -side;
+    }
+}
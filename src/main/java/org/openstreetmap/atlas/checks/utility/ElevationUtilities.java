@@ -3,32 +3,82 @@ package org.openstreetmap.atlas.checks.utility;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.Longitude;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 import org.openstreetmap.atlas.utilities.scalars.Distance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Used to determine assumed direction for some features (e.g. waterways). Assumptions are that any
  * SRTM file follows the specification here:
  * https://dds.cr.usgs.gov/srtm/version2_1/Documentation/Quickstart.pdf
+ * <p>
+ * Tiles are memory-mapped instead of being read on the heap. Compressed or archived tiles are
+ * decompressed once into a local cache directory, and mapped from there. A bounded number of
+ * mapped tiles is kept, the least recently used ones being dropped first, and reading the
+ * elevation of a loaded tile takes no lock, so checks running on many threads can share the same
+ * tiles.
  *
  * @author Taylor Smock
  */
 public final class ElevationUtilities implements Serializable
 {
+    /**
+     * A read-only height map, indexed like {@link #getIndex(Location, int)}
+     *
+     * @author agent
+     */
+    private static final class Tile
+    {
+        private final ShortBuffer heights;
+        private final int size;
+
+        Tile(final ShortBuffer heights)
+        {
+            this.heights = heights;
+            // Incomplete tiles are padded with zeros up to the next square
+            this.size = (int) Math.ceil(Math.sqrt(heights.limit()));
+        }
+
+        short get(final int latitude, final int longitude)
+        {
+            final int index = latitude * this.size + longitude;
+            // Absolute reads do not change the buffer, so threads can share it
+            return index < this.heights.limit() ? this.heights.get(index) : 0;
+        }
+
+        short[][] toArray()
+        {
+            final short[][] map = new short[this.size][this.size];
+            for (int latitude = 0; latitude < this.size; latitude++)
+            {
+                for (int longitude = 0; longitude < this.size; longitude++)
+                {
+                    map[latitude][longitude] = this.get(latitude, longitude);
+                }
+            }
+            return map;
+        }
+    }
+
     private static final long serialVersionUID = -5929570973909280629L;
+    private static final Logger logger = LoggerFactory.getLogger(ElevationUtilities.class);
     /**
      * The assumed file extension
      */
@@ -45,11 +95,21 @@ public final class ElevationUtilities implements Serializable
 
     private static final short[][] EMPTY_MAP = new short[][] {};
 
+    private static final Tile EMPTY_TILE = new Tile(ShortBuffer.allocate(0));
+
     /** Just an int for converting a decimal to a percentage */
     private static final int DECIMAL_TO_PERCENTAGE = 100;
 
-    /** A map of {lat, lon} pairs with a loaded srtm in a byte array */
-    private final Map<Pair<Integer, Integer>, short[][]> loadedSrtm = new HashMap<>();
+    /** The default directory where compressed tiles are decompressed */
+    private static final String CACHE_PATH_DEFAULT = Paths
+            .get(System.getProperty("java.io.tmpdir"), "atlas-checks-elevation").toString();
+
+    /** The default maximum number of tiles kept mapped at once */
+    private static final long CACHE_TILES_DEFAULT = 256;
+
+    private static final int LONGITUDE_BITS = 32;
+
+    private static final long LONGITUDE_MASK = 0xFFFFFFFFL;
 
     private final double srtmExtent;
 
@@ -57,6 +117,16 @@ public final class ElevationUtilities implements Serializable
 
     private final String srtmPath;
 
+    private final String cachePath;
+
+    private final long cacheTiles;
+
+    /**
+     * The loaded tiles, keyed by their lower left {lat, lon} packed in a long. The cache is not
+     * serialized, and is built again on first use.
+     */
+    private transient volatile Cache<Long, Tile> tiles;
+
     /**
      * Configuration Keys in the Integrity Framework are based on the check simple classname.
      *
@@ -80,6 +150,11 @@ public final class ElevationUtilities implements Serializable
         return String.format("%s.%s", name, key);
     }
 
+    private static long key(final int latitude, final int longitude)
+    {
+        return (long) latitude << LONGITUDE_BITS | longitude & LONGITUDE_MASK;
+    }
+
     /**
      * Create a configured ElevationUtilities
      *
@@ -93,8 +168,11 @@ public final class ElevationUtilities implements Serializable
                 configurationValue(configuration, "elevation.srtm_ext", SRTM_EXTENSION,
                         Function.identity()),
                 configurationValue(configuration, "elevation.path", "elevation",
+                        Function.identity()),
+                configurationValue(configuration, "elevation.cache.path", CACHE_PATH_DEFAULT,
+                        Function.identity()),
+                configurationValue(configuration, "elevation.cache.tiles", CACHE_TILES_DEFAULT,
                         Function.identity()));
-
     }
 
     /**
@@ -110,10 +188,34 @@ public final class ElevationUtilities implements Serializable
      */
     public ElevationUtilities(final double srtmExtent, final String srtmExtension,
             final String srtmPath)
+    {
+        this(srtmExtent, srtmExtension, srtmPath, CACHE_PATH_DEFAULT, CACHE_TILES_DEFAULT);
+    }
+
+    /**
+     * Create a configured ElevationUtilities
+     *
+     * @param srtmExtent
+     *            The extent of the files. The units are in degrees, and the default is 1 degree.
+     * @param srtmExtension
+     *            The extension of the files. Archive/compression file endings are not required
+     *            (they will be automatically detected).
+     * @param srtmPath
+     *            The path for the files.
+     * @param cachePath
+     *            The path where compressed or archived files are decompressed before being
+     *            mapped.
+     * @param cacheTiles
+     *            The maximum number of tiles kept mapped at once.
+     */
+    public ElevationUtilities(final double srtmExtent, final String srtmExtension,
+            final String srtmPath, final String cachePath, final long cacheTiles)
     {
         this.srtmExtension = srtmExtension;
         this.srtmExtent = srtmExtent;
         this.srtmPath = srtmPath;
+        this.cachePath = cachePath;
+        this.cacheTiles = cacheTiles;
     }
 
     /**
@@ -125,13 +227,13 @@ public final class ElevationUtilities implements Serializable
      */
     public short getElevation(final Location location)
     {
-        final short[][] map = getMap(location);
-        if (Arrays.equals(EMPTY_MAP, map))
+        final Tile tile = this.getTile(location);
+        if (tile.size == 0)
         {
             return NO_ELEVATION;
         }
-        final int[] index = getIndex(location, map.length);
-        return map[index[0]][index[1]];
+        return tile.get(this.latitudeIndex(location.getLatitude().asDegrees(), tile.size),
+                this.longitudeIndex(location.getLongitude().asDegrees(), tile.size));
     }
 
     /**
@@ -170,29 +272,17 @@ public final class ElevationUtilities implements Serializable
      */
     public int[] getIndex(final Location location, final int mapSize)
     {
-        final double latDegrees = location.getLatitude().asDegrees();
-        final double lonDegrees = location.getLongitude().asDegrees();
-
-        final float fraction = ((float) this.srtmExtent) / mapSize;
-        int latitude = (int) Math.floor(Math.abs(latDegrees - (int) latDegrees) / fraction);
-        int longitude = (int) Math.floor(Math.abs(lonDegrees - (int) lonDegrees) / fraction);
-        if (latDegrees >= 0)
-        {
-            latitude = mapSize - 1 - latitude;
-        }
-        if (lonDegrees < 0)
-        {
-            longitude = mapSize - 1 - longitude;
-        }
-        return new int[] { latitude, longitude };
+        return new int[] { this.latitudeIndex(location.getLatitude().asDegrees(), mapSize),
+                this.longitudeIndex(location.getLongitude().asDegrees(), mapSize) };
     }
 
     /**
-     * Get the map for a specified location. Unless you need the raw map, you should prefer
-     * {@link #getElevation}. This also allows you to directly modify a map (i.e., you know that
-     * there is elevation data around a point, but the point is in a {@link #NO_ELEVATION} area). To
-     * get the index of a {@link Location}, use {@link #getIndex(Location, int)}. You need the
-     * {@code short[][]} from this method.
+     * Get a copy of the map for a specified location. Unless you need the raw map, you should
+     * prefer {@link #getElevation}. Tiles are read-only, so to modify a map (i.e., you know that
+     * there is elevation data around a point, but the point is in a {@link #NO_ELEVATION} area),
+     * modify the copy and give it back with {@link #putMap(Location, short[][])}. To get the index
+     * of a {@link Location}, use {@link #getIndex(Location, int)}. You need the {@code short[][]}
+     * from this method.
      *
      * @param location
      *            The location to get the height map for
@@ -200,12 +290,8 @@ public final class ElevationUtilities implements Serializable
      */
     public short[][] getMap(final Location location)
     {
-        final double latDegrees = location.getLatitude().asDegrees();
-        final double lonDegrees = location.getLongitude().asDegrees();
-        final int lat = (int) Math.floor(latDegrees);
-        final int lon = (int) Math.floor(lonDegrees);
-        return this.loadedSrtm.computeIfAbsent(Pair.of(lat, lon),
-                pair -> loadMap(pair.getLeft(), pair.getRight()));
+        final Tile tile = this.getTile(location);
+        return tile.size == 0 ? EMPTY_MAP : tile.toArray();
     }
 
     /**
@@ -217,12 +303,12 @@ public final class ElevationUtilities implements Serializable
      */
     public Distance getResolution(final Location location)
     {
-        final short[][] map = getMap(location);
-        if (Arrays.equals(EMPTY_MAP, map))
+        final Tile tile = this.getTile(location);
+        if (tile.size == 0)
         {
             return Distance.MAXIMUM;
         }
-        final float difference = ((float) this.srtmExtent) / map.length;
+        final float difference = ((float) this.srtmExtent) / tile.size;
         final Location temp = new Location(location.getLatitude(),
                 Longitude.degrees(location.getLongitude().asDegrees() + difference));
         return temp.distanceTo(location);
@@ -270,23 +356,21 @@ public final class ElevationUtilities implements Serializable
      */
     public boolean inSameDataPoint(final Location one, final Location two)
     {
-        final short[][] mapOne = getMap(one);
-        final short[][] mapTwo = getMap(two);
-        if (Arrays.equals(mapOne, mapTwo) && !Arrays.equals(EMPTY_MAP, mapOne))
+        final Tile tileOne = this.getTile(one);
+        final Tile tileTwo = this.getTile(two);
+        if (tileOne == tileTwo && tileOne.size != 0)
         {
-            final int[] indexOne = getIndex(one, mapOne.length);
-            final int[] indexTwo = getIndex(two, mapTwo.length);
-            if (Arrays.equals(indexOne, indexTwo))
-            {
-                return true;
-            }
+            final int[] indexOne = getIndex(one, tileOne.size);
+            final int[] indexTwo = getIndex(two, tileTwo.size);
+            return indexOne[0] == indexTwo[0] && indexOne[1] == indexTwo[1];
         }
         return false;
     }
 
     /**
      * Associate a map with a location. This is mostly useful for test methods. You should use
-     * {@link #getElevation} instead (it automatically loads appropriate maps).
+     * {@link #getElevation} instead (it automatically loads appropriate maps). The map is copied,
+     * and like loaded tiles, it may be dropped when too many tiles are in use.
      *
      * @param location
      *            The location to use for the map location (uses the lower-left corner of the 1
@@ -300,19 +384,93 @@ public final class ElevationUtilities implements Serializable
         final double lonDegrees = location.getLongitude().asDegrees();
         final int lat = (int) Math.floor(latDegrees);
         final int lon = (int) Math.floor(lonDegrees);
-        this.loadedSrtm.put(Pair.of(lat, lon), map);
+        final ShortBuffer heights = ShortBuffer.allocate(map.length * map.length);
+        for (final short[] row : map)
+        {
+            heights.put(row, 0, map.length);
+        }
+        heights.flip();
+        this.tiles().put(key(lat, lon), new Tile(heights.asReadOnlyBuffer()));
     }
 
     /**
-     * Load a map for a specified latitude and longitude
+     * Decompress a file into the cache directory, unless an earlier run already did. The file is
+     * written under a temporary name first, so that other threads or processes never map a
+     * partial file.
+     *
+     * @param path
+     *            The compressed or archived file
+     * @param filename
+     *            The name of the uncompressed file
+     * @return The path of the uncompressed file
+     * @throws IOException
+     *             If the file cannot be decompressed
+     */
+    private Path decompress(final Path path, final String filename) throws IOException
+    {
+        final Path directory = Paths.get(this.cachePath);
+        final Path uncompressed = directory.resolve(filename);
+        if (Files.isRegularFile(uncompressed))
+        {
+            return uncompressed;
+        }
+        Files.createDirectories(directory);
+        final Path temporary = Files.createTempFile(directory, filename, ".tmp");
+        try (InputStream inputStream = CompressionUtilities
+                .getUncompressedInputStream(Files.newInputStream(path)))
+        {
+            Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, uncompressed, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary);
+        }
+        return uncompressed;
+    }
+
+    private Tile getTile(final Location location)
+    {
+        final int lat = (int) Math.floor(location.getLatitude().asDegrees());
+        final int lon = (int) Math.floor(location.getLongitude().asDegrees());
+        final long key = key(lat, lon);
+        final Cache<Long, Tile> cache = this.tiles();
+        final Tile tile = cache.getIfPresent(key);
+        if (tile != null)
+        {
+            return tile;
+        }
+        try
+        {
+            // Only the threads asking for the same tile wait for it to load
+            return cache.get(key, () -> this.loadTile(lat, lon));
+        }
+        catch (final ExecutionException exception)
+        {
+            logger.warn("Unable to load the elevation tile {}", this.getSrtmFileName(lat, lon),
+                    exception.getCause());
+            return EMPTY_TILE;
+        }
+    }
+
+    private int latitudeIndex(final double latDegrees, final int mapSize)
+    {
+        final float fraction = ((float) this.srtmExtent) / mapSize;
+        final int latitude = (int) Math.floor(Math.abs(latDegrees - (int) latDegrees) / fraction);
+        return latDegrees >= 0 ? mapSize - 1 - latitude : latitude;
+    }
+
+    /**
+     * Map the tile for a specified latitude and longitude
      *
      * @param lat
      *            The latitude to use
      * @param lon
      *            The longitude to use
-     * @return A short[latitude][longitude] = height in meters array
+     * @return The tile, or an empty tile if there is no file for it
      */
-    private synchronized short[][] loadMap(final int lat, final int lon)
+    private Tile loadTile(final int lat, final int lon)
     {
         final String filename = getSrtmFileName(lat, lon);
         Path path = Paths.get(this.srtmPath, filename);
@@ -329,55 +487,48 @@ public final class ElevationUtilities implements Serializable
         }
         if (!path.toFile().isFile())
         {
-            return EMPTY_MAP;
+            return EMPTY_TILE;
         }
-        try (InputStream is = CompressionUtilities
-                .getUncompressedInputStream(Files.newInputStream(path)))
+        try
         {
-            return readStream(is);
+            final Path uncompressed = path.getFileName().toString().equals(filename) ? path
+                    : this.decompress(path, filename);
+            try (FileChannel channel = FileChannel.open(uncompressed, StandardOpenOption.READ))
+            {
+                // The mapping stays valid after the channel is closed
+                return new Tile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                        .order(ByteOrder.BIG_ENDIAN).asShortBuffer());
+            }
         }
-        catch (final IOException e)
+        catch (final IOException exception)
         {
-            return EMPTY_MAP;
+            logger.warn("Unable to read the elevation tile {}", path, exception);
+            return EMPTY_TILE;
         }
     }
 
-    /**
-     * Read an input stream into a short[][]
-     *
-     * @param inputStream
-     *            The inputstream to read
-     * @return A short[][] where short[latitude][longitude] = height in meters
-     * @throws IOException
-     *             If the inputstream throws an IOException
-     */
-    private short[][] readStream(final InputStream inputStream) throws IOException
+    private int longitudeIndex(final double lonDegrees, final int mapSize)
     {
-        int squareSize = 1;
-        short[] data = new short[(int) Math.pow(squareSize, 2)];
-        // srtm (hgt) is in big-endian
-        int index = 0;
-        final ByteBuffer byteBuffer = ByteBuffer.wrap(inputStream.readAllBytes());
-        byteBuffer.order(ByteOrder.BIG_ENDIAN);
-        while (byteBuffer.hasRemaining())
-        {
-            data[index] = byteBuffer.getShort();
-            index++;
-            if (index >= data.length && byteBuffer.hasRemaining())
-            {
-                squareSize += 1;
-                data = Arrays.copyOf(data, (int) Math.pow(squareSize, 2));
-            }
-        }
+        final float fraction = ((float) this.srtmExtent) / mapSize;
+        final int longitude = (int) Math.floor(Math.abs(lonDegrees - (int) lonDegrees) / fraction);
+        return lonDegrees < 0 ? mapSize - 1 - longitude : longitude;
+    }
 
-        final short[][] realData = new short[squareSize][squareSize];
-        for (int latitude = 0; latitude < squareSize; latitude++)
+    private Cache<Long, Tile> tiles()
+    {
+        Cache<Long, Tile> cache = this.tiles;
+        if (cache == null)
         {
-            for (int longitude = 0; longitude < squareSize; longitude++)
+            synchronized (this)
             {
-                realData[latitude][longitude] = data[latitude * squareSize + longitude];
+                cache = this.tiles;
+                if (cache == null)
+                {
+                    cache = CacheBuilder.newBuilder().maximumSize(this.cacheTiles).build();
+                    this.tiles = cache;
+                }
             }
         }
-        return realData;
+        return cache;
     }
 }
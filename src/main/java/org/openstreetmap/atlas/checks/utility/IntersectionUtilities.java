@@ -1,13 +1,21 @@
 package org.openstreetmap.atlas.checks.utility;
 
+import java.util.OptionalDouble;
 import java.util.Set;
 
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.TopologyException;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.LineItem;
 import org.openstreetmap.atlas.geography.clipping.Clip;
+import org.openstreetmap.atlas.geography.converters.jts.JtsPolygonConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +27,55 @@ import org.slf4j.LoggerFactory;
 public final class IntersectionUtilities
 {
     private static final Logger logger = LoggerFactory.getLogger(IntersectionUtilities.class);
+    private static final JtsPolygonConverter JTS_POLYGON_CONVERTER = new JtsPolygonConverter();
+
+    /**
+     * Find the percentage of overlap for given {@link Area}s. Same as
+     * {@link #findIntersectionPercentage(Polygon, Polygon)}, but uses the cached geometries of the
+     * {@link Area}s instead of converting them again on every call.
+     *
+     * @param area
+     *            {@link Area} to check for intersection
+     * @param otherArea
+     *            Another {@link Area} to check against for intersection
+     * @return percentage of overlap as a double; 0 if unable to clip
+     */
+    public static double findIntersectionPercentage(final Area area, final Area otherArea)
+    {
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(area.getAtlas()).geometries();
+        return intersectionPercentage(geometries.polygon(area), geometries.polygon(otherArea));
+    }
+
+    /**
+     * Find the percentage of overlap for given {@link Area}s, unless it is already known to be under
+     * a threshold. The intersection is within the bounds of both {@link Area}s, so when the overlap
+     * of their bounds is under the threshold the {@link Area}s are rejected without intersecting
+     * them. Otherwise the intersection is computed once, and its exact percentage returned.
+     *
+     * @param area
+     *            {@link Area} to check for intersection
+     * @param otherArea
+     *            Another {@link Area} to check against for intersection
+     * @param threshold
+     *            the minimum percentage of overlap of interest, as a double
+     * @return the percentage of overlap as a double, 0 if unable to clip, or empty if the overlap
+     *         is under the threshold from the bounds alone
+     */
+    public static OptionalDouble findIntersectionPercentage(final Area area,
+            final Area otherArea, final double threshold)
+    {
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(area.getAtlas()).geometries();
+        final CachedGeometry<Polygon> polygon = geometries.polygon(area);
+        final CachedGeometry<Polygon> otherPolygon = geometries.polygon(otherArea);
+        final long baselineArea = baselineArea(polygon, otherPolygon);
+        if (threshold > 0.0 && baselineArea > 0
+                && Math.min(boundsOverlap(polygon.bounds(), otherPolygon.bounds()),
+                        baselineArea) < threshold * baselineArea)
+        {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(intersectionPercentage(polygon, otherPolygon));
+    }
 
     /**
      * Find the percentage of overlap for given {@link Polygon}s.
@@ -72,6 +129,31 @@ public final class IntersectionUtilities
         return (double) intersectionArea / baselineArea;
     }
 
+    /**
+     * Tells if the overlap of given {@link Area}s is at least a given percentage, without always
+     * computing the intersection. Callers that also need the percentage should use
+     * {@link #findIntersectionPercentage(Area, Area, double)} instead, which intersects the
+     * {@link Area}s at most once.
+     *
+     * @param area
+     *            {@link Area} to check for intersection
+     * @param otherArea
+     *            Another {@link Area} to check against for intersection
+     * @param threshold
+     *            the minimum percentage of overlap, as a double
+     * @return true if the percentage of overlap is at least the threshold
+     */
+    public static boolean isIntersectionPercentageAtLeast(final Area area, final Area otherArea,
+            final double threshold)
+    {
+        if (threshold <= 0.0)
+        {
+            return true;
+        }
+        final OptionalDouble percentage = findIntersectionPercentage(area, otherArea, threshold);
+        return percentage.isPresent() && percentage.getAsDouble() >= threshold;
+    }
+
     /**
      * Verifies intersections of given {@link PolyLine} and {@link LineItem} are explicit
      * {@link Location}s for both items
@@ -132,6 +214,88 @@ public final class IntersectionUtilities
         return true;
     }
 
+    private static long baselineArea(final CachedGeometry<Polygon> polygon,
+            final CachedGeometry<Polygon> otherPolygon)
+    {
+        return Math.min(polygon.surface().asDm7Squared(), otherPolygon.surface().asDm7Squared());
+    }
+
+    // The area of the overlap of two rectangles in dm7 squared, as a double since large rectangles
+    // overflow a long
+    private static double boundsOverlap(final Rectangle bounds, final Rectangle otherBounds)
+    {
+        final double width = (double) Math.min(bounds.upperRight().getLongitude().asDm7(),
+                otherBounds.upperRight().getLongitude().asDm7())
+                - Math.max(bounds.lowerLeft().getLongitude().asDm7(),
+                        otherBounds.lowerLeft().getLongitude().asDm7());
+        final double height = (double) Math.min(bounds.upperRight().getLatitude().asDm7(),
+                otherBounds.upperRight().getLatitude().asDm7())
+                - Math.max(bounds.lowerLeft().getLatitude().asDm7(),
+                        otherBounds.lowerLeft().getLatitude().asDm7());
+        return width <= 0 || height <= 0 ? 0.0 : width * height;
+    }
+
+    private static double intersectionPercentage(final CachedGeometry<Polygon> polygon,
+            final CachedGeometry<Polygon> otherPolygon)
+    {
+        // Large polygons are tested against their prepared geometry first, which avoids computing
+        // the intersection when they are disjoint or one covers the other
+        if (polygon.isPrepared() || otherPolygon.isPrepared())
+        {
+            final CachedGeometry<Polygon> prepared = polygon.isPrepared() ? polygon
+                    : otherPolygon;
+            final CachedGeometry<Polygon> tested = prepared == polygon ? otherPolygon : polygon;
+            if (!prepared.intersects(tested))
+            {
+                return 0.0;
+            }
+            // The covered polygon is the smaller one, and is entirely in the intersection
+            if (prepared.covers(tested) && tested.surface().asDm7Squared() > 0)
+            {
+                return 1.0;
+            }
+        }
+
+        Geometry intersection = null;
+        try
+        {
+            intersection = polygon.asJts().intersection(otherPolygon.asJts());
+        }
+        catch (final TopologyException e)
+        {
+            logger.warn(String.format("Skipping intersection check. Error clipping [%s] and [%s].",
+                    polygon.asGeometry(), otherPolygon.asGeometry()), e);
+        }
+
+        // Skip if nothing is returned
+        if (intersection == null)
+        {
+            return 0.0;
+        }
+
+        // Sum intersection area
+        long intersectionArea = 0;
+        for (int index = 0; index < intersection.getNumGeometries(); index++)
+        {
+            final Geometry part = intersection.getGeometryN(index);
+            if (part instanceof org.locationtech.jts.geom.Polygon)
+            {
+                intersectionArea += JTS_POLYGON_CONVERTER
+                        .backwardConvert((org.locationtech.jts.geom.Polygon) part).surface()
+                        .asDm7Squared();
+            }
+        }
+
+        // Avoid division by zero
+        if (intersectionArea == 0)
+        {
+            return 0.0;
+        }
+
+        // Pick the smaller building's area as baseline
+        return (double) intersectionArea / baselineArea(polygon, otherPolygon);
+    }
+
     private IntersectionUtilities()
     {
     }
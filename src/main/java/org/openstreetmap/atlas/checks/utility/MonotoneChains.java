@@ -0,0 +1,354 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+
+/**
+ * Finds the self-intersections of a {@link PolyLine} by splitting it into monotone chains. A chain
+ * is a run of segments that never goes back on either axis, so two segments of the same chain can
+ * only meet at their shared shape point. Only chains with overlapping bounds are compared, found
+ * with a sweep, and the segments of two chains are merged in order along the longitude axis like
+ * two sorted lists. This is close to O(n log n) for long ways, instead of comparing every pair of
+ * segments. Coordinates are kept in primitive dm7 arrays, and orientation tests are exact.
+ * <p>
+ * Consecutive duplicate shape points are ignored, and the first and last segments of a closed
+ * {@link PolyLine} or of a {@link Polygon} are considered adjacent.
+ *
+ * @author agent
+ */
+public final class MonotoneChains
+{
+    private final long[] latitudes;
+    private final long[] longitudes;
+    private final int segmentCount;
+    private final boolean closed;
+    private final List<int[]> chains = new ArrayList<>();
+    private final Set<Location> intersections = new HashSet<>();
+
+    /**
+     * Finds the locations where a {@link PolyLine} crosses or touches itself, other than the shape
+     * points shared by consecutive segments. Crossings between shape points are reported at their
+     * closest dm7 {@link Location}, and overlapping segments at the ends of their overlap.
+     *
+     * @param polyLine
+     *            the {@link PolyLine} or {@link Polygon} to check
+     * @return the self-intersection {@link Location}s
+     */
+    public static Set<Location> selfIntersections(final PolyLine polyLine)
+    {
+        final int size = polyLine.size();
+        final long[] latitudes = new long[size + 1];
+        final long[] longitudes = new long[size + 1];
+        int count = 0;
+        for (final Location location : polyLine)
+        {
+            final long latitude = location.getLatitude().asDm7();
+            final long longitude = location.getLongitude().asDm7();
+            if (count == 0 || latitude != latitudes[count - 1]
+                    || longitude != longitudes[count - 1])
+            {
+                latitudes[count] = latitude;
+                longitudes[count] = longitude;
+                count++;
+            }
+        }
+        // Polygons have an implicit closing segment
+        if (polyLine instanceof Polygon && count > 1
+                && (latitudes[0] != latitudes[count - 1] || longitudes[0] != longitudes[count - 1]))
+        {
+            latitudes[count] = latitudes[0];
+            longitudes[count] = longitudes[0];
+            count++;
+        }
+        return new MonotoneChains(latitudes, longitudes, count).find();
+    }
+
+    /**
+     * @return the sign of {@code first * second - third * fourth}, computed on 128 bits
+     */
+    static int compareProducts(final long first, final long second, final long third,
+            final long fourth)
+    {
+        final long high = Math.multiplyHigh(first, second);
+        final long otherHigh = Math.multiplyHigh(third, fourth);
+        if (high != otherHigh)
+        {
+            return Long.compare(high, otherHigh);
+        }
+        return Long.compareUnsigned(first * second, third * fourth);
+    }
+
+    private static int direction(final long from, final long to)
+    {
+        return Long.compare(to, from);
+    }
+
+    private MonotoneChains(final long[] latitudes, final long[] longitudes, final int count)
+    {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.segmentCount = Math.max(0, count - 1);
+        this.closed = count > 2 && latitudes[0] == latitudes[count - 1]
+                && longitudes[0] == longitudes[count - 1];
+    }
+
+    private void addIfOnSegment(final int segment, final int point, final int orientation,
+            final int shared)
+    {
+        if (orientation == 0 && this.isWithinBounds(segment, point)
+                && (shared < 0 || !this.isSamePoint(point, shared)))
+        {
+            this.intersections.add(this.location(point));
+        }
+    }
+
+    private void compareChains(final int[] chain, final int[] otherChain)
+    {
+        final int[] segments = this.segmentsByLongitude(chain);
+        final int[] otherSegments = this.segmentsByLongitude(otherChain);
+        int start = 0;
+        for (final int segment : segments)
+        {
+            // Segments of a chain are sorted by longitude, skip the ones west of this segment
+            while (start < otherSegments.length && this
+                    .maximumLongitude(otherSegments[start]) < this.minimumLongitude(segment))
+            {
+                start++;
+            }
+            for (int index = start; index < otherSegments.length; index++)
+            {
+                final int otherSegment = otherSegments[index];
+                if (this.minimumLongitude(otherSegment) > this.maximumLongitude(segment))
+                {
+                    break;
+                }
+                if (this.overlapsLatitude(segment, otherSegment))
+                {
+                    this.compareSegments(Math.min(segment, otherSegment),
+                            Math.max(segment, otherSegment));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the self-intersections of two segments, with {@code first < second}
+     */
+    private void compareSegments(final int first, final int second)
+    {
+        // The shape point shared by adjacent segments, if any
+        final int shared;
+        if (second == first + 1)
+        {
+            shared = second;
+        }
+        else if (this.closed && first == 0 && second == this.segmentCount - 1)
+        {
+            shared = first;
+        }
+        else
+        {
+            shared = -1;
+        }
+        final int firstOrientationStart = this.orientation(first, second);
+        final int firstOrientationEnd = this.orientation(first, second + 1);
+        final int secondOrientationStart = this.orientation(second, first);
+        final int secondOrientationEnd = this.orientation(second, first + 1);
+        if (firstOrientationStart * firstOrientationEnd < 0
+                && secondOrientationStart * secondOrientationEnd < 0)
+        {
+            this.intersections.add(this.crossing(first, second));
+            return;
+        }
+        // Touching or overlapping segments meet at shape points, other than the shared one
+        this.addIfOnSegment(first, second, firstOrientationStart, shared);
+        this.addIfOnSegment(first, second + 1, firstOrientationEnd, shared);
+        this.addIfOnSegment(second, first, secondOrientationStart, shared);
+        this.addIfOnSegment(second, first + 1, secondOrientationEnd, shared);
+    }
+
+    private Location crossing(final int first, final int second)
+    {
+        final double longitude = this.longitudes[first];
+        final double latitude = this.latitudes[first];
+        final double deltaLongitude = (double) this.longitudes[first + 1] - longitude;
+        final double deltaLatitude = (double) this.latitudes[first + 1] - latitude;
+        final double otherDeltaLongitude = (double) this.longitudes[second + 1]
+                - this.longitudes[second];
+        final double otherDeltaLatitude = (double) this.latitudes[second + 1]
+                - this.latitudes[second];
+        final double ratio = ((this.longitudes[second] - longitude) * otherDeltaLatitude
+                - (this.latitudes[second] - latitude) * otherDeltaLongitude)
+                / (deltaLongitude * otherDeltaLatitude - deltaLatitude * otherDeltaLongitude);
+        return new Location(Latitude.dm7(Math.round(latitude + ratio * deltaLatitude)),
+                Longitude.dm7(Math.round(longitude + ratio * deltaLongitude)));
+    }
+
+    private Set<Location> find()
+    {
+        if (this.segmentCount < 2)
+        {
+            return this.intersections;
+        }
+        this.split();
+        // Sweep the chains by their western edge, like BoundsSweep on primitive bounds
+        final List<int[]> sorted = new ArrayList<>(this.chains);
+        sorted.sort(Comparator.comparingLong(this::minimumLongitude));
+        final List<int[]> active = new ArrayList<>();
+        for (final int[] chain : sorted)
+        {
+            final Iterator<int[]> iterator = active.iterator();
+            while (iterator.hasNext())
+            {
+                final int[] candidate = iterator.next();
+                if (this.maximumLongitude(candidate) < this.minimumLongitude(chain))
+                {
+                    iterator.remove();
+                }
+                else if (this.minimumLatitude(candidate) <= this.maximumLatitude(chain)
+                        && this.minimumLatitude(chain) <= this.maximumLatitude(candidate))
+                {
+                    this.compareChains(candidate, chain);
+                }
+            }
+            active.add(chain);
+        }
+        return this.intersections;
+    }
+
+    private boolean isSamePoint(final int point, final int otherPoint)
+    {
+        return this.latitudes[point] == this.latitudes[otherPoint]
+                && this.longitudes[point] == this.longitudes[otherPoint];
+    }
+
+    private boolean isWithinBounds(final int segment, final int point)
+    {
+        return this.minimumLongitude(segment) <= this.longitudes[point]
+                && this.longitudes[point] <= this.maximumLongitude(segment)
+                && this.minimumLatitude(segment) <= this.latitudes[point]
+                && this.latitudes[point] <= this.maximumLatitude(segment);
+    }
+
+    private Location location(final int point)
+    {
+        return new Location(Latitude.dm7(this.latitudes[point]),
+                Longitude.dm7(this.longitudes[point]));
+    }
+
+    // Chains are {first segment, last segment}, and their bounds are those of their end points
+    private long maximumLatitude(final int[] chain)
+    {
+        return Math.max(this.latitudes[chain[0]], this.latitudes[chain[1] + 1]);
+    }
+
+    private long maximumLatitude(final int segment)
+    {
+        return Math.max(this.latitudes[segment], this.latitudes[segment + 1]);
+    }
+
+    private long maximumLongitude(final int[] chain)
+    {
+        return Math.max(this.longitudes[chain[0]], this.longitudes[chain[1] + 1]);
+    }
+
+    private long maximumLongitude(final int segment)
+    {
+        return Math.max(this.longitudes[segment], this.longitudes[segment + 1]);
+    }
+
+    private long minimumLatitude(final int[] chain)
+    {
+        return Math.min(this.latitudes[chain[0]], this.latitudes[chain[1] + 1]);
+    }
+
+    private long minimumLatitude(final int segment)
+    {
+        return Math.min(this.latitudes[segment], this.latitudes[segment + 1]);
+    }
+
+    private long minimumLongitude(final int[] chain)
+    {
+        return Math.min(this.longitudes[chain[0]], this.longitudes[chain[1] + 1]);
+    }
+
+    private long minimumLongitude(final int segment)
+    {
+        return Math.min(this.longitudes[segment], this.longitudes[segment + 1]);
+    }
+
+    /**
+     * @return the side of the segment the point is on: 1 on the left, -1 on the right and 0 if
+     *         collinear
+     */
+    private int orientation(final int segment, final int point)
+    {
+        return compareProducts(this.longitudes[segment + 1] - this.longitudes[segment],
+                this.latitudes[point] - this.latitudes[segment],
+                this.latitudes[segment + 1] - this.latitudes[segment],
+                this.longitudes[point] - this.longitudes[segment]);
+    }
+
+    private boolean overlapsLatitude(final int segment, final int otherSegment)
+    {
+        return this.minimumLatitude(segment) <= this.maximumLatitude(otherSegment)
+                && this.minimumLatitude(otherSegment) <= this.maximumLatitude(segment);
+    }
+
+    /**
+     * @return the segments of a chain, sorted by increasing longitude
+     */
+    private int[] segmentsByLongitude(final int[] chain)
+    {
+        final int length = chain[1] - chain[0] + 1;
+        final int[] segments = new int[length];
+        final boolean westward = this.longitudes[chain[1] + 1] < this.longitudes[chain[0]];
+        for (int index = 0; index < length; index++)
+        {
+            segments[index] = westward ? chain[1] - index : chain[0] + index;
+        }
+        return segments;
+    }
+
+    private void split()
+    {
+        int start = 0;
+        int longitudeDirection = 0;
+        int latitudeDirection = 0;
+        for (int segment = 0; segment < this.segmentCount; segment++)
+        {
+            final int segmentLongitudeDirection = direction(this.longitudes[segment],
+                    this.longitudes[segment + 1]);
+            final int segmentLatitudeDirection = direction(this.latitudes[segment],
+                    this.latitudes[segment + 1]);
+            // A chain ends when the segment goes back on either axis
+            if (longitudeDirection * segmentLongitudeDirection < 0
+                    || latitudeDirection * segmentLatitudeDirection < 0)
+            {
+                this.chains.add(new int[] { start, segment - 1 });
+                start = segment;
+                longitudeDirection = 0;
+                latitudeDirection = 0;
+            }
+            if (segmentLongitudeDirection != 0)
+            {
+                longitudeDirection = segmentLongitudeDirection;
+            }
+            if (segmentLatitudeDirection != 0)
+            {
+                latitudeDirection = segmentLatitudeDirection;
+            }
+        }
+        this.chains.add(new int[] { start, this.segmentCount - 1 });
+    }
+}
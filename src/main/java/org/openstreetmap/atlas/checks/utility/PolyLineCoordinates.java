@@ -0,0 +1,228 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Segment;
+import org.openstreetmap.atlas.utilities.scalars.Angle;
+import org.openstreetmap.atlas.utilities.scalars.Distance;
+import org.openstreetmap.atlas.utilities.tuples.Tuple;
+
+/**
+ * The coordinates of a {@link PolyLine}, pulled once into primitive arrays, to compute segment
+ * lengths, headings and turn angles in plain loops. Walking {@link Segment}s instead allocates
+ * several {@link Location}, {@link Segment}, {@link Distance} and {@link Angle} objects per shape
+ * point. The formulas are the same as the {@link Location} ones: haversine distances and initial
+ * great circle headings, in meters and degrees.
+ * <p>
+ * The coordinates of a {@link Polygon} end with its first shape point again, so that its segments
+ * include the closing segment, like {@link Polygon#segments()}.
+ *
+ * @author agent
+ */
+public final class PolyLineCoordinates
+{
+    private static final double EARTH_RADIUS_METERS = Distance.AVERAGE_EARTH_RADIUS.asMeters();
+    private static final double HALF_CIRCLE_DEGREES = 180.0;
+    private static final double FULL_CIRCLE_DEGREES = 360.0;
+
+    private final int size;
+    private final long[] latitudes;
+    private final long[] longitudes;
+    private final double[] latitudeRadians;
+    private final double[] longitudeRadians;
+    private final double[] latitudeSines;
+    private final double[] latitudeCosines;
+
+    /**
+     * @param heading
+     *            a heading in degrees
+     * @param otherHeading
+     *            another heading in degrees
+     * @return the smallest angle between the two headings in degrees, from 0 to 180, or NaN if
+     *         either heading is NaN
+     */
+    public static double difference(final double heading, final double otherHeading)
+    {
+        final double difference = Math.abs(heading - otherHeading) % FULL_CIRCLE_DEGREES;
+        return difference > HALF_CIRCLE_DEGREES ? FULL_CIRCLE_DEGREES - difference : difference;
+    }
+
+    /**
+     * @param polyLine
+     *            a {@link PolyLine} or {@link Polygon}
+     * @return the coordinates of the {@link PolyLine}
+     */
+    public static PolyLineCoordinates forPolyLine(final PolyLine polyLine)
+    {
+        return new PolyLineCoordinates(polyLine);
+    }
+
+    private PolyLineCoordinates(final PolyLine polyLine)
+    {
+        final boolean closing = polyLine instanceof Polygon && polyLine.size() > 0;
+        this.size = polyLine.size() + (closing ? 1 : 0);
+        this.latitudes = new long[this.size];
+        this.longitudes = new long[this.size];
+        this.latitudeRadians = new double[this.size];
+        this.longitudeRadians = new double[this.size];
+        this.latitudeSines = new double[this.size];
+        this.latitudeCosines = new double[this.size];
+        int index = 0;
+        for (final Location location : polyLine)
+        {
+            this.set(index++, location);
+        }
+        if (closing)
+        {
+            this.set(index, polyLine.first());
+        }
+    }
+
+    /**
+     * Finds the shape points where the heading changes by at least a given {@link Angle}, like
+     * {@link PolyLine#anglesGreaterThanOrEqualTo(Angle)}. Zero length segments have no heading and
+     * are skipped.
+     *
+     * @param target
+     *            the minimum change of heading
+     * @return the change of heading and the {@link Location} of each matching shape point
+     */
+    public List<Tuple<Angle, Location>> anglesGreaterThanOrEqualTo(final Angle target)
+    {
+        final List<Tuple<Angle, Location>> result = new ArrayList<>();
+        final double targetDegrees = target.asDegrees();
+        final double[] headings = this.segmentHeadings();
+        for (int segment = 1; segment < headings.length; segment++)
+        {
+            final double difference = difference(headings[segment - 1], headings[segment]);
+            if (difference >= targetDegrees)
+            {
+                result.add(Tuple.createTuple(Angle.degrees(difference), this.location(segment)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param from
+     *            the index of a shape point
+     * @param to
+     *            the index of another shape point
+     * @return the haversine distance between the shape points, in meters
+     */
+    public double distance(final int from, final int to)
+    {
+        final double halfLatitudeSine = Math
+                .sin((this.latitudeRadians[to] - this.latitudeRadians[from]) / 2);
+        final double halfLongitudeSine = Math
+                .sin((this.longitudeRadians[to] - this.longitudeRadians[from]) / 2);
+        final double haversine = halfLatitudeSine * halfLatitudeSine + this.latitudeCosines[from]
+                * this.latitudeCosines[to] * halfLongitudeSine * halfLongitudeSine;
+        return EARTH_RADIUS_METERS * 2
+                * Math.atan2(Math.sqrt(haversine), Math.sqrt(1 - haversine));
+    }
+
+    /**
+     * @param from
+     *            the index of a shape point
+     * @param to
+     *            the index of another shape point
+     * @return the initial heading from one shape point to the other in degrees, from -180 to 180,
+     *         or NaN if they are at the same {@link Location}
+     */
+    public double heading(final int from, final int to)
+    {
+        if (this.latitudes[from] == this.latitudes[to]
+                && this.longitudes[from] == this.longitudes[to])
+        {
+            return Double.NaN;
+        }
+        final double deltaLongitude = this.longitudeRadians[to] - this.longitudeRadians[from];
+        final double east = Math.sin(deltaLongitude) * this.latitudeCosines[to];
+        final double north = this.latitudeCosines[from] * this.latitudeSines[to]
+                - this.latitudeSines[from] * this.latitudeCosines[to] * Math.cos(deltaLongitude);
+        return Math.toDegrees(Math.atan2(east, north));
+    }
+
+    /**
+     * @return the total length of the segments, in meters
+     */
+    public double length()
+    {
+        double length = 0.0;
+        for (int segment = 0; segment < this.segmentCount(); segment++)
+        {
+            length += this.distance(segment, segment + 1);
+        }
+        return length;
+    }
+
+    /**
+     * @param index
+     *            the index of a shape point
+     * @return the {@link Location} of the shape point
+     */
+    public Location location(final int index)
+    {
+        return new Location(Latitude.dm7(this.latitudes[index]),
+                Longitude.dm7(this.longitudes[index]));
+    }
+
+    /**
+     * @return the number of segments, which go from each shape point to the next one
+     */
+    public int segmentCount()
+    {
+        return Math.max(0, this.size - 1);
+    }
+
+    /**
+     * @return the heading of each segment in degrees, NaN for zero length segments
+     */
+    public double[] segmentHeadings()
+    {
+        final double[] headings = new double[this.segmentCount()];
+        for (int segment = 0; segment < headings.length; segment++)
+        {
+            headings[segment] = this.heading(segment, segment + 1);
+        }
+        return headings;
+    }
+
+    /**
+     * @return the length of each segment in meters
+     */
+    public double[] segmentLengths()
+    {
+        final double[] lengths = new double[this.segmentCount()];
+        for (int segment = 0; segment < lengths.length; segment++)
+        {
+            lengths[segment] = this.distance(segment, segment + 1);
+        }
+        return lengths;
+    }
+
+    /**
+     * @return the number of shape points, including the repeated first one of a {@link Polygon}
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    private void set(final int index, final Location location)
+    {
+        this.latitudes[index] = location.getLatitude().asDm7();
+        this.longitudes[index] = location.getLongitude().asDm7();
+        this.latitudeRadians[index] = location.getLatitude().asRadians();
+        this.longitudeRadians[index] = location.getLongitude().asRadians();
+        this.latitudeSines[index] = Math.sin(this.latitudeRadians[index]);
+        this.latitudeCosines[index] = Math.cos(this.latitudeRadians[index]);
+    }
+}
@@ -0,0 +1,153 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * An index from undirected segments to the {@link Edge}s containing them. Each segment is hashed
+ * to a long from its two end {@link Location}s in dm7, ordered so that both directions of a
+ * segment have the same hash. Edges sharing a segment are then found with a binary search instead
+ * of a spatial query. The index is kept in two sorted primitive arrays, and is immutable once
+ * built.
+ * <p>
+ * Different segments can collide on the same hash, so the edges returned by the index are
+ * candidates that still have to be verified against their geometry.
+ *
+ * @author agent
+ */
+public final class SegmentHashIndex
+{
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final long[] hashes;
+    private final long[] identifiers;
+
+    /**
+     * Hashes an undirected segment
+     *
+     * @param start
+     *            one end of the segment
+     * @param end
+     *            the other end of the segment
+     * @return the same hash for the segment and its reverse
+     */
+    public static long hash(final Location start, final Location end)
+    {
+        final boolean ordered = start.getLatitude().asDm7() < end.getLatitude().asDm7()
+                || start.getLatitude().asDm7() == end.getLatitude().asDm7()
+                        && start.getLongitude().asDm7() <= end.getLongitude().asDm7();
+        final Location first = ordered ? start : end;
+        final Location second = ordered ? end : start;
+        return HASH_FUNCTION.newHasher().putLong(first.getLatitude().asDm7())
+                .putLong(first.getLongitude().asDm7()).putLong(second.getLatitude().asDm7())
+                .putLong(second.getLongitude().asDm7()).hash().asLong();
+    }
+
+    /**
+     * Indexes the segments of some {@link Edge}s
+     *
+     * @param edges
+     *            the {@link Edge}s to index
+     */
+    public SegmentHashIndex(final Iterable<Edge> edges)
+    {
+        final List<long[]> entries = new ArrayList<>();
+        for (final Edge edge : edges)
+        {
+            Location start = null;
+            for (final Location end : edge.asPolyLine())
+            {
+                if (start != null)
+                {
+                    entries.add(new long[] { hash(start, end), edge.getIdentifier() });
+                }
+                start = end;
+            }
+        }
+        final int[] order = IntStream.range(0, entries.size()).boxed()
+                .sorted(Comparator.comparingLong(index -> entries.get(index)[0]))
+                .mapToInt(Integer::intValue).toArray();
+        this.hashes = new long[order.length];
+        this.identifiers = new long[order.length];
+        for (int index = 0; index < order.length; index++)
+        {
+            this.hashes[index] = entries.get(order[index])[0];
+            this.identifiers[index] = entries.get(order[index])[1];
+        }
+    }
+
+    /**
+     * @param start
+     *            one end of a segment
+     * @param end
+     *            the other end of the segment
+     * @return the identifiers of the indexed {@link Edge}s that may contain the segment, in any
+     *         direction
+     */
+    public Set<Long> candidates(final Location start, final Location end)
+    {
+        final Set<Long> candidates = new HashSet<>();
+        this.addCandidates(hash(start, end), candidates);
+        return candidates;
+    }
+
+    /**
+     * @param polyLine
+     *            a {@link PolyLine}
+     * @return the identifiers of the indexed {@link Edge}s that may share at least one segment
+     *         with the {@link PolyLine}
+     */
+    public Set<Long> candidates(final PolyLine polyLine)
+    {
+        final Set<Long> candidates = new HashSet<>();
+        Location start = null;
+        for (final Location end : polyLine)
+        {
+            if (start != null)
+            {
+                this.addCandidates(hash(start, end), candidates);
+            }
+            start = end;
+        }
+        return candidates;
+    }
+
+    /**
+     * @return the number of indexed segments
+     */
+    public int size()
+    {
+        return this.hashes.length;
+    }
+
+    private void addCandidates(final long hash, final Set<Long> candidates)
+    {
+        int index = Arrays.binarySearch(this.hashes, hash);
+        if (index < 0)
+        {
+            return;
+        }
+        // Binary search lands on any of the equal hashes, go back to the first one
+        while (index > 0 && this.hashes[index - 1] == hash)
+        {
+            index--;
+        }
+        while (index < this.hashes.length && this.hashes[index] == hash)
+        {
+            candidates.add(this.identifiers[index]);
+            index++;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.Rectangle;
+
+/**
+ * A spatial self-join, finding every pair of items with overlapping bounds. Items are partitioned
+ * into tiles with the Sort-Tile-Recursive algorithm on the centers of their bounds. Every tile is
+ * then joined with itself and with each tile its bounds overlap, in parallel. Each item belongs to
+ * exactly one tile, so each candidate pair is emitted exactly once. The bounds of the items are
+ * computed once, and kept as primitive arrays.
+ *
+ * @author agent
+ * @param <T>
+ *            the type of the items
+ */
+public final class SpatialSelfJoin<T>
+{
+    private static final int DEFAULT_TILE_CAPACITY = 64;
+
+    private final List<T> items = new ArrayList<>();
+    private final long[] minimumLongitudes;
+    private final long[] maximumLongitudes;
+    private final long[] minimumLatitudes;
+    private final long[] maximumLatitudes;
+    private final List<int[]> tiles;
+
+    /**
+     * @param items
+     *            the items to join
+     * @param bounds
+     *            gets the bounds of an item
+     */
+    public SpatialSelfJoin(final Iterable<T> items, final Function<T, Rectangle> bounds)
+    {
+        this(items, bounds, DEFAULT_TILE_CAPACITY);
+    }
+
+    /**
+     * @param items
+     *            the items to join
+     * @param bounds
+     *            gets the bounds of an item
+     * @param tileCapacity
+     *            the maximum number of items per tile
+     */
+    public SpatialSelfJoin(final Iterable<T> items, final Function<T, Rectangle> bounds,
+            final int tileCapacity)
+    {
+        items.forEach(this.items::add);
+        final int size = this.items.size();
+        this.minimumLongitudes = new long[size];
+        this.maximumLongitudes = new long[size];
+        this.minimumLatitudes = new long[size];
+        this.maximumLatitudes = new long[size];
+        for (int index = 0; index < size; index++)
+        {
+            final Rectangle rectangle = bounds.apply(this.items.get(index));
+            this.minimumLongitudes[index] = rectangle.lowerLeft().getLongitude().asDm7();
+            this.maximumLongitudes[index] = rectangle.upperRight().getLongitude().asDm7();
+            this.minimumLatitudes[index] = rectangle.lowerLeft().getLatitude().asDm7();
+            this.maximumLatitudes[index] = rectangle.upperRight().getLatitude().asDm7();
+        }
+        this.tiles = this.partition(Math.max(1, tileCapacity));
+    }
+
+    /**
+     * Calls a consumer once for every pair of items whose bounds overlap and that match a
+     * predicate. Pairs are processed in parallel, so the predicate and the consumer have to be
+     * thread safe. The order of the two items of a pair is unspecified.
+     *
+     * @param matcher
+     *            filters the candidate pairs
+     * @param consumer
+     *            called with every matching pair
+     */
+    public void forEachPair(final BiPredicate<T, T> matcher, final BiConsumer<T, T> consumer)
+    {
+        final List<int[][]> tilePairs = new ArrayList<>();
+        this.tiles.forEach(tile -> tilePairs.add(new int[][] { tile, tile }));
+        BoundsSweep.forEachOverlappingPair(this.tiles, this::tileBounds,
+                (tile, otherTile) -> tilePairs.add(new int[][] { tile, otherTile }));
+        tilePairs.parallelStream()
+                .forEach(pair -> this.joinTiles(pair[0], pair[1], matcher, consumer));
+    }
+
+    /**
+     * Gets the neighbours of every item. The relation is directed: for each pair of items with
+     * overlapping bounds, the second item is a neighbour of the first one if
+     * {@code matcher.test(first, second)}, and the first item is a neighbour of the second one if
+     * {@code matcher.test(second, first)}.
+     *
+     * @param matcher
+     *            tells if an item is a neighbour of another one, it has to be thread safe
+     * @return the neighbours of each item that has any
+     */
+    public Map<T, Set<T>> neighbours(final BiPredicate<T, T> matcher)
+    {
+        final Map<T, Set<T>> neighbours = new ConcurrentHashMap<>();
+        this.forEachPair((item, other) -> true, (item, other) ->
+        {
+            if (matcher.test(item, other))
+            {
+                neighbours.computeIfAbsent(item, key -> ConcurrentHashMap.newKeySet()).add(other);
+            }
+            if (matcher.test(other, item))
+            {
+                neighbours.computeIfAbsent(other, key -> ConcurrentHashMap.newKeySet()).add(item);
+            }
+        });
+        return neighbours;
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int size()
+    {
+        return this.items.size();
+    }
+
+    private long centerLatitude(final int index)
+    {
+        return (this.minimumLatitudes[index] + this.maximumLatitudes[index]) / 2;
+    }
+
+    private long centerLongitude(final int index)
+    {
+        return (this.minimumLongitudes[index] + this.maximumLongitudes[index]) / 2;
+    }
+
+    private void joinTiles(final int[] tile, final int[] otherTile,
+            final BiPredicate<T, T> matcher, final BiConsumer<T, T> consumer)
+    {
+        final boolean sameTile = tile == otherTile;
+        for (int first = 0; first < tile.length; first++)
+        {
+            final int item = tile[first];
+            for (int second = sameTile ? first + 1 : 0; second < otherTile.length; second++)
+            {
+                final int other = otherTile[second];
+                if (this.overlap(item, other)
+                        && matcher.test(this.items.get(item), this.items.get(other)))
+                {
+                    consumer.accept(this.items.get(item), this.items.get(other));
+                }
+            }
+        }
+    }
+
+    private boolean overlap(final int item, final int other)
+    {
+        return this.minimumLongitudes[item] <= this.maximumLongitudes[other]
+                && this.minimumLongitudes[other] <= this.maximumLongitudes[item]
+                && this.minimumLatitudes[item] <= this.maximumLatitudes[other]
+                && this.minimumLatitudes[other] <= this.maximumLatitudes[item];
+    }
+
+    private List<int[]> partition(final int tileCapacity)
+    {
+        final int size = this.items.size();
+        if (size == 0)
+        {
+            return Collections.emptyList();
+        }
+        // Sort-Tile-Recursive: vertical slabs by longitude, then tiles by latitude in each slab
+        final Integer[] indices = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Arrays.sort(indices, Comparator.comparingLong(this::centerLongitude));
+        final int tileCount = (size + tileCapacity - 1) / tileCapacity;
+        final int slabCount = (int) Math.ceil(Math.sqrt(tileCount));
+        final int slabSize = slabCount * tileCapacity;
+        final List<int[]> result = new ArrayList<>(tileCount);
+        for (int slabStart = 0; slabStart < size; slabStart += slabSize)
+        {
+            final int slabEnd = Math.min(size, slabStart + slabSize);
+            Arrays.sort(indices, slabStart, slabEnd,
+                    Comparator.comparingLong(this::centerLatitude));
+            for (int tileStart = slabStart; tileStart < slabEnd; tileStart += tileCapacity)
+            {
+                final int tileEnd = Math.min(slabEnd, tileStart + tileCapacity);
+                result.add(Arrays.stream(indices, tileStart, tileEnd).mapToInt(Integer::intValue)
+                        .toArray());
+            }
+        }
+        return result;
+    }
+
+    private Rectangle tileBounds(final int[] tile)
+    {
+        long minimumLongitude = Long.MAX_VALUE;
+        long maximumLongitude = Long.MIN_VALUE;
+        long minimumLatitude = Long.MAX_VALUE;
+        long maximumLatitude = Long.MIN_VALUE;
+        for (final int index : tile)
+        {
+            minimumLongitude = Math.min(minimumLongitude, this.minimumLongitudes[index]);
+            maximumLongitude = Math.max(maximumLongitude, this.maximumLongitudes[index]);
+            minimumLatitude = Math.min(minimumLatitude, this.minimumLatitudes[index]);
+            maximumLatitude = Math.max(maximumLatitude, this.maximumLatitudes[index]);
+        }
+        return Rectangle.forCorners(
+                new Location(Latitude.dm7(minimumLatitude), Longitude.dm7(minimumLongitude)),
+                new Location(Latitude.dm7(maximumLatitude), Longitude.dm7(maximumLongitude)));
+    }
+}
@@ -0,0 +1,145 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.items.Point;
+import org.openstreetmap.atlas.tags.AddressStreetTag;
+import org.openstreetmap.atlas.tags.names.NameTag;
+import org.openstreetmap.atlas.utilities.scalars.Distance;
+
+/**
+ * An index of the street names of an {@link Atlas}, shared by the address checks. It keeps a grid
+ * of the {@link Point}s with an {@code addr:street} tag, a grid of the main {@link Edge}s with a
+ * name tag, and a grid per normalized name of the {@link Edge}s carrying that name in any of their
+ * name tags. Matching an address against the surrounding streets is then a hash lookup followed by
+ * a search in a small local grid, instead of a spatial query on the whole atlas. Long streets are
+ * kept in the coarser levels of the grids, so a search only visits a few cells however long the
+ * named edges around it are.
+ * <p>
+ * The index is immutable once built, and can be searched from multiple threads.
+ *
+ * @author agent
+ */
+public final class StreetNameIndex
+{
+    // About the search distance of the address checks, searches only visit a few cells
+    private static final Distance CELL_SIZE = Distance.meters(100);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final UniformGrid<Point> addressPoints;
+    private final UniformGrid<Edge> namedEdges;
+    private final Map<String, UniformGrid<Edge>> edgesByName;
+
+    /**
+     * Gets the index of an {@link Atlas}, built once per atlas and shared by every check
+     *
+     * @param atlas
+     *            an {@link Atlas}
+     * @return the {@link StreetNameIndex} of the atlas
+     */
+    public static StreetNameIndex forAtlas(final Atlas atlas)
+    {
+        return AtlasLayers.forAtlas(atlas).derived(StreetNameIndex.class, StreetNameIndex::new);
+    }
+
+    /**
+     * Normalizes a street name, so that names only differing by their Unicode composition or by
+     * their spacing match. Case is kept, as it is a real difference between an address and a
+     * street.
+     *
+     * @param name
+     *            a street name
+     * @return the normalized name
+     */
+    public static String normalize(final String name)
+    {
+        return WHITESPACE.matcher(Normalizer.normalize(name, Normalizer.Form.NFC)).replaceAll(" ")
+                .trim();
+    }
+
+    /**
+     * @param edge
+     *            an {@link Edge}
+     * @return the normalized values of all the name tags of the edge, including localized names
+     */
+    private static Set<String> names(final Edge edge)
+    {
+        return edge.getTags(tag -> tag.startsWith(NameTag.KEY)).values().stream()
+                .map(StreetNameIndex::normalize).collect(Collectors.toSet());
+    }
+
+    /**
+     * Builds the index of an {@link Atlas}. Prefer {@link #forAtlas(Atlas)}, which shares it.
+     *
+     * @param atlas
+     *            the {@link Atlas} to index
+     */
+    public StreetNameIndex(final Atlas atlas)
+    {
+        this.addressPoints = UniformGrid.forLocations(
+                atlas.points(point -> point.getTag(AddressStreetTag.KEY).isPresent()),
+                Point::getLocation, CELL_SIZE);
+        final List<Edge> edges = new ArrayList<>();
+        final Map<String, List<Edge>> groups = new HashMap<>();
+        for (final Edge edge : atlas.edges(Edge::isMainEdge))
+        {
+            final Set<String> names = names(edge);
+            if (!names.isEmpty())
+            {
+                edges.add(edge);
+                names.forEach(name -> groups.computeIfAbsent(name, key -> new ArrayList<>())
+                        .add(edge));
+            }
+        }
+        this.namedEdges = new UniformGrid<>(edges, Edge::bounds, CELL_SIZE);
+        this.edgesByName = new HashMap<>(groups.size());
+        groups.forEach((name, group) -> this.edgesByName.put(name,
+                new UniformGrid<>(group, Edge::bounds, CELL_SIZE)));
+    }
+
+    /**
+     * @param box
+     *            the box to search
+     * @return the {@link Point}s with an {@code addr:street} tag inside the box
+     */
+    public List<Point> addressPoints(final Rectangle box)
+    {
+        return this.addressPoints.get(box, point -> point.intersects(box));
+    }
+
+    /**
+     * @param name
+     *            a street name, normalized by this method
+     * @param box
+     *            the box to search
+     * @return the main {@link Edge}s intersecting the box with the name in any of their name tags
+     */
+    public List<Edge> edgesNamed(final String name, final Rectangle box)
+    {
+        final UniformGrid<Edge> grid = this.edgesByName.get(normalize(name));
+        return grid == null ? Collections.emptyList() : grid.get(box, edge -> edge.intersects(box));
+    }
+
+    /**
+     * @param box
+     *            the box to search
+     * @return the main {@link Edge}s intersecting the box with at least one name tag, including
+     *         localized names
+     */
+    public List<Edge> namedEdges(final Rectangle box)
+    {
+        return this.namedEdges.get(box, edge -> edge.intersects(box));
+    }
+}
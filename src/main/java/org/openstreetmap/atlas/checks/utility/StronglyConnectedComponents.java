@@ -0,0 +1,155 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.Arrays;
+
+/**
+ * The strongly connected components of a directed graph, found with an iterative version of
+ * Tarjan's algorithm. The graph is given in compressed sparse row form: the successors of node
+ * {@code i} are {@code targets[offsets[i]]} to {@code targets[offsets[i + 1] - 1]}. It runs in
+ * linear time, only allocates primitive arrays, and does not recurse, so it can handle graphs of
+ * any depth.
+ * <p>
+ * Components are numbered in reverse topological order: any edge between two different components
+ * goes from a component to one with a lower number. In particular, component 0 is a sink.
+ *
+ * @author agent
+ */
+public final class StronglyConnectedComponents
+{
+    private static final int UNVISITED = -1;
+
+    private final int[] components;
+    private final int count;
+
+    /**
+     * Finds the components of a graph
+     *
+     * @param offsets
+     *            the offsets of the successors of each node in the targets, with one more entry
+     *            than there are nodes
+     * @param targets
+     *            the successors of all the nodes
+     */
+    public StronglyConnectedComponents(final int[] offsets, final int[] targets)
+    {
+        final int size = offsets.length - 1;
+        this.components = new int[size];
+        Arrays.fill(this.components, UNVISITED);
+        final int[] indices = new int[size];
+        Arrays.fill(indices, UNVISITED);
+        final int[] lowLinks = new int[size];
+        // The next successor to visit for each node on the call stack
+        final int[] cursors = new int[size];
+        final int[] callStack = new int[size];
+        final int[] stack = new int[size];
+        int depth = 0;
+        int stackSize = 0;
+        int index = 0;
+        int component = 0;
+        for (int root = 0; root < size; root++)
+        {
+            if (indices[root] != UNVISITED)
+            {
+                continue;
+            }
+            indices[root] = index;
+            lowLinks[root] = index++;
+            cursors[root] = offsets[root];
+            stack[stackSize++] = root;
+            callStack[depth++] = root;
+            while (depth > 0)
+            {
+                final int node = callStack[depth - 1];
+                if (cursors[node] < offsets[node + 1])
+                {
+                    final int next = targets[cursors[node]++];
+                    if (indices[next] == UNVISITED)
+                    {
+                        indices[next] = index;
+                        lowLinks[next] = index++;
+                        cursors[next] = offsets[next];
+                        stack[stackSize++] = next;
+                        callStack[depth++] = next;
+                    }
+                    else if (this.components[next] == UNVISITED)
+                    {
+                        // Visited without a component yet, so still on the stack
+                        lowLinks[node] = Math.min(lowLinks[node], indices[next]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (lowLinks[node] == indices[node])
+                {
+                    int member;
+                    do
+                    {
+                        member = stack[--stackSize];
+                        this.components[member] = component;
+                    }
+                    while (member != node);
+                    component++;
+                }
+                if (depth > 0)
+                {
+                    final int parent = callStack[depth - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+                }
+            }
+        }
+        this.count = component;
+    }
+
+    /**
+     * @param node
+     *            a node of the graph
+     * @return the component of the node
+     */
+    public int component(final int node)
+    {
+        return this.components[node];
+    }
+
+    /**
+     * @return the number of components
+     */
+    public int count()
+    {
+        return this.count;
+    }
+
+    /**
+     * Groups the nodes by component, in compressed sparse row form like the graph
+     *
+     * @return the offsets of the members of each component, with one more entry than there are
+     *         components, followed by the members of all the components, in increasing order
+     *         within each component
+     */
+    public int[][] members()
+    {
+        final int[] offsets = new int[this.count + 1];
+        for (final int component : this.components)
+        {
+            offsets[component + 1]++;
+        }
+        for (int component = 0; component < this.count; component++)
+        {
+            offsets[component + 1] += offsets[component];
+        }
+        final int[] cursors = Arrays.copyOf(offsets, this.count);
+        final int[] members = new int[this.components.length];
+        for (int node = 0; node < this.components.length; node++)
+        {
+            members[cursors[this.components[node]]++] = node;
+        }
+        return new int[][] { offsets, members };
+    }
+
+    /**
+     * @return the number of nodes of the graph
+     */
+    public int size()
+    {
+        return this.components.length;
+    }
+}
@@ -0,0 +1,332 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.utilities.scalars.Distance;
+
+/**
+ * A hierarchy of hashed uniform grids over the bounds of a set of items, for fixed-radius
+ * neighbour searches. The cells of the finest grid are about as large as the search radius they
+ * are built for, on both axes: their longitude span is widened by the latitude of the center of
+ * the items, so that they stay about square on the ground. Each coarser grid has cells a few times
+ * larger, and each item goes in the finest grid where it only covers a few cells, so long items
+ * like motorways are kept in a coarse grid instead of being tested by every search. A search then
+ * only visits a handful of cells per grid.
+ * <p>
+ * An item covering several cells is only reported from the cell holding the lower left corner of
+ * the overlap of its bounds with the searched box, so searches need no set of visited items.
+ * <p>
+ * Each cell keeps the indices of its items in a primitive array, and the bounds of the items are
+ * kept in primitive arrays too. The grid is immutable once built, and can be searched from multiple
+ * threads.
+ *
+ * @author agent
+ * @param <T>
+ *            the type of the items
+ */
+public final class UniformGrid<T>
+{
+    /**
+     * One grid of the hierarchy, with its cell size and the items of each cell
+     *
+     * @author agent
+     */
+    private static final class Level
+    {
+        private final long longitudeCellSize;
+        private final long latitudeCellSize;
+        private final Map<Long, List<Integer>> buckets = new HashMap<>();
+        private Map<Long, int[]> cells;
+
+        Level(final long longitudeCellSize, final long latitudeCellSize)
+        {
+            this.longitudeCellSize = longitudeCellSize;
+            this.latitudeCellSize = latitudeCellSize;
+        }
+
+        long latitudeCell(final long dm7)
+        {
+            return Math.floorDiv(dm7, this.latitudeCellSize);
+        }
+
+        long longitudeCell(final long dm7)
+        {
+            return Math.floorDiv(dm7, this.longitudeCellSize);
+        }
+    }
+
+    // Items covering more cells go to a coarser grid
+    private static final int MAXIMUM_CELLS_PER_ITEM = 64;
+    // How much larger the cells of each grid are than the ones of the previous grid
+    private static final int LEVEL_FACTOR = 8;
+    // Keeps the longitude span of the cells bounded close to the poles
+    private static final double MINIMUM_COSINE = 0.01;
+    private static final int CELL_SHIFT = 32;
+    private static final long CELL_MASK = 0xFFFFFFFFL;
+
+    private final List<T> items = new ArrayList<>();
+    private final long[] minimumLongitudes;
+    private final long[] maximumLongitudes;
+    private final long[] minimumLatitudes;
+    private final long[] maximumLatitudes;
+    private final List<Level> levels = new ArrayList<>();
+    // Longitude span of one unit of latitude at the latitude of the items
+    private final double longitudeScale;
+
+    /**
+     * Builds a grid for items with a {@link Location}
+     *
+     * @param items
+     *            the items to index
+     * @param location
+     *            gets the {@link Location} of an item
+     * @param radius
+     *            the typical search radius, which sets the size of the cells
+     * @param <T>
+     *            the type of the items
+     * @return the grid of the items
+     */
+    public static <T> UniformGrid<T> forLocations(final Iterable<T> items,
+            final Function<T, Location> location, final Distance radius)
+    {
+        return new UniformGrid<>(items, item -> location.apply(item).bounds(), radius);
+    }
+
+    private static long cellKey(final long longitudeCell, final long latitudeCell)
+    {
+        return longitudeCell << CELL_SHIFT | latitudeCell & CELL_MASK;
+    }
+
+    /**
+     * Builds a grid for items with bounds
+     *
+     * @param items
+     *            the items to index
+     * @param bounds
+     *            gets the bounds of an item
+     * @param radius
+     *            the typical search radius, which sets the size of the cells
+     */
+    public UniformGrid(final Iterable<T> items, final Function<T, Rectangle> bounds,
+            final Distance radius)
+    {
+        items.forEach(this.items::add);
+        final int size = this.items.size();
+        this.minimumLongitudes = new long[size];
+        this.maximumLongitudes = new long[size];
+        this.minimumLatitudes = new long[size];
+        this.maximumLatitudes = new long[size];
+        long southmost = Long.MAX_VALUE;
+        long northmost = Long.MIN_VALUE;
+        for (int index = 0; index < size; index++)
+        {
+            final Rectangle rectangle = bounds.apply(this.items.get(index));
+            this.minimumLongitudes[index] = rectangle.lowerLeft().getLongitude().asDm7();
+            this.maximumLongitudes[index] = rectangle.upperRight().getLongitude().asDm7();
+            this.minimumLatitudes[index] = rectangle.lowerLeft().getLatitude().asDm7();
+            this.maximumLatitudes[index] = rectangle.upperRight().getLatitude().asDm7();
+            southmost = Math.min(southmost, this.minimumLatitudes[index]);
+            northmost = Math.max(northmost, this.maximumLatitudes[index]);
+        }
+
+        final Rectangle cell = Location.CENTER.boxAround(radius);
+        final long latitudeCellSize = Math.max(1L, cell.upperRight().getLatitude().asDm7()
+                - cell.lowerLeft().getLatitude().asDm7());
+        final double cosine = size == 0 ? 1.0
+                : Math.max(MINIMUM_COSINE,
+                        Math.cos(Latitude.dm7((southmost + northmost) / 2).asRadians()));
+        this.longitudeScale = 1.0 / cosine;
+        this.levels.add(new Level(Math.max(1L, Math.round(latitudeCellSize / cosine)),
+                latitudeCellSize));
+
+        for (int index = 0; index < size; index++)
+        {
+            Level level = this.levels.get(0);
+            long cellCount = this.cellCount(level, index);
+            for (int depth = 1; cellCount > MAXIMUM_CELLS_PER_ITEM; depth++)
+            {
+                if (depth == this.levels.size())
+                {
+                    this.levels.add(new Level(level.longitudeCellSize * LEVEL_FACTOR,
+                            level.latitudeCellSize * LEVEL_FACTOR));
+                }
+                level = this.levels.get(depth);
+                cellCount = this.cellCount(level, index);
+            }
+            for (long cellX = level.longitudeCell(this.minimumLongitudes[index]); cellX <= level
+                    .longitudeCell(this.maximumLongitudes[index]); cellX++)
+            {
+                for (long cellY = level.latitudeCell(this.minimumLatitudes[index]); cellY <= level
+                        .latitudeCell(this.maximumLatitudes[index]); cellY++)
+                {
+                    level.buckets.computeIfAbsent(cellKey(cellX, cellY), key -> new ArrayList<>())
+                            .add(index);
+                }
+            }
+        }
+        for (final Level level : this.levels)
+        {
+            level.cells = new HashMap<>(level.buckets.size());
+            level.buckets.forEach((key, bucket) -> level.cells.put(key,
+                    bucket.stream().mapToInt(Integer::intValue).toArray()));
+            level.buckets.clear();
+        }
+    }
+
+    /**
+     * Calls a consumer once for every pair of items whose bounds are less than a distance apart on
+     * both axes and that match a predicate. Each pair is found from the search around its item
+     * with the lowest index, and items are searched in parallel, so the predicate and the consumer
+     * have to be thread safe.
+     *
+     * @param distance
+     *            the largest distance between the bounds of the items of a pair
+     * @param matcher
+     *            filters the candidate pairs, usually with their actual distance
+     * @param consumer
+     *            called with every matching pair
+     */
+    public void forEachPair(final Distance distance, final BiPredicate<T, T> matcher,
+            final BiConsumer<T, T> consumer)
+    {
+        final Rectangle margin = Location.CENTER.boxAround(distance);
+        final long latitudeMargin = margin.upperRight().getLatitude().asDm7();
+        final long longitudeMargin = Math.round(latitudeMargin * this.longitudeScale);
+        IntStream.range(0, this.items.size()).parallel().forEach(first ->
+        {
+            final T item = this.items.get(first);
+            this.forEachOverlapping(this.minimumLongitudes[first] - longitudeMargin,
+                    this.maximumLongitudes[first] + longitudeMargin,
+                    this.minimumLatitudes[first] - latitudeMargin,
+                    this.maximumLatitudes[first] + latitudeMargin, second ->
+                    {
+                        if (second > first && matcher.test(item, this.items.get(second)))
+                        {
+                            consumer.accept(item, this.items.get(second));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Gets the items whose bounds overlap a box
+     *
+     * @param box
+     *            the box to search
+     * @return the items whose bounds overlap the box
+     */
+    public List<T> get(final Rectangle box)
+    {
+        return this.get(box, item -> true);
+    }
+
+    /**
+     * Gets the items whose bounds overlap a box and that match a predicate
+     *
+     * @param box
+     *            the box to search
+     * @param matcher
+     *            filters the items
+     * @return the items whose bounds overlap the box and that match the predicate
+     */
+    public List<T> get(final Rectangle box, final Predicate<T> matcher)
+    {
+        final List<T> result = new ArrayList<>();
+        this.forEachOverlapping(box.lowerLeft().getLongitude().asDm7(),
+                box.upperRight().getLongitude().asDm7(), box.lowerLeft().getLatitude().asDm7(),
+                box.upperRight().getLatitude().asDm7(), index ->
+                {
+                    if (matcher.test(this.items.get(index)))
+                    {
+                        result.add(this.items.get(index));
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * @return the number of items in the grid
+     */
+    public int size()
+    {
+        return this.items.size();
+    }
+
+    private long cellCount(final Level level, final int index)
+    {
+        return (level.longitudeCell(this.maximumLongitudes[index])
+                - level.longitudeCell(this.minimumLongitudes[index]) + 1)
+                * (level.latitudeCell(this.maximumLatitudes[index])
+                        - level.latitudeCell(this.minimumLatitudes[index]) + 1);
+    }
+
+    /**
+     * Calls a consumer once with the index of every item whose bounds overlap a box. An item is
+     * only reported from the cell holding the lower left corner of the overlap of its bounds with
+     * the box, which is a cell of both the item and the box.
+     *
+     * @param minimumLongitude
+     *            the west of the box, in dm7
+     * @param maximumLongitude
+     *            the east of the box, in dm7
+     * @param minimumLatitude
+     *            the south of the box, in dm7
+     * @param maximumLatitude
+     *            the north of the box, in dm7
+     * @param consumer
+     *            called with the index of every item overlapping the box
+     */
+    private void forEachOverlapping(final long minimumLongitude, final long maximumLongitude,
+            final long minimumLatitude, final long maximumLatitude, final IntConsumer consumer)
+    {
+        for (final Level level : this.levels)
+        {
+            for (long cellX = level.longitudeCell(minimumLongitude); cellX <= level
+                    .longitudeCell(maximumLongitude); cellX++)
+            {
+                for (long cellY = level.latitudeCell(minimumLatitude); cellY <= level
+                        .latitudeCell(maximumLatitude); cellY++)
+                {
+                    final int[] cell = level.cells.get(cellKey(cellX, cellY));
+                    if (cell == null)
+                    {
+                        continue;
+                    }
+                    for (final int index : cell)
+                    {
+                        if (this.overlaps(index, minimumLongitude, maximumLongitude,
+                                minimumLatitude, maximumLatitude)
+                                && level.longitudeCell(Math.max(this.minimumLongitudes[index],
+                                        minimumLongitude)) == cellX
+                                && level.latitudeCell(Math.max(this.minimumLatitudes[index],
+                                        minimumLatitude)) == cellY)
+                        {
+                            consumer.accept(index);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean overlaps(final int index, final long minimumLongitude,
+            final long maximumLongitude, final long minimumLatitude, final long maximumLatitude)
+    {
+        return this.minimumLongitudes[index] <= maximumLongitude
+                && minimumLongitude <= this.maximumLongitudes[index]
+                && this.minimumLatitudes[index] <= maximumLatitude
+                && minimumLatitude <= this.maximumLatitudes[index];
+    }
+}
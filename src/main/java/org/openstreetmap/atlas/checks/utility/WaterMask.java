@@ -0,0 +1,313 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Rectangle;
+
+/**
+ * A quadtree raster of land and water over some bounds, built from water surfaces like ocean
+ * areas, and from boundary lines like coastlines. Each cell is split in four until it is either
+ * {@link Cover#LAND}, touching no surface and no line, or {@link Cover#WATER}, fully covered by
+ * one surface and touching no line. The cells that are still {@link Cover#MIXED} at the maximum
+ * depth are the ones along the boundaries, where the exact geometries have to be tested. Cells are
+ * tested with a small margin, so a cell next to a boundary is never classified as land or water.
+ * <p>
+ * The quadtree is kept in primitive arrays, and is immutable once built, so it can be queried from
+ * multiple threads.
+ *
+ * @author agent
+ */
+public final class WaterMask
+{
+    /**
+     * What covers a cell, a {@link Location} or a {@link Rectangle}
+     *
+     * @author agent
+     */
+    public enum Cover
+    {
+        LAND,
+        WATER,
+        MIXED
+    }
+
+    /**
+     * The default maximum depth of the quadtree, which gives cells of about 100 meters for a one
+     * degree shard
+     */
+    public static final int MAXIMUM_DEPTH_DEFAULT = 10;
+    // Cells are tested that much larger, in dm7, to stay away from the boundaries
+    private static final long MARGIN = 10L;
+    private static final long LATITUDE_LIMIT = 900_000_000L;
+    private static final long LONGITUDE_LIMIT = 1_800_000_000L;
+    private static final int LEAF = -1;
+    private static final int QUADRANTS = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Cover[] COVERS = Cover.values();
+
+    private final int maximumDepth;
+    private final long minimumLongitude;
+    private final long minimumLatitude;
+    private final long maximumLongitude;
+    private final long maximumLatitude;
+    // The index of the first of the four children of each node, or LEAF
+    private int[] children = new int[INITIAL_CAPACITY];
+    // The cover of each leaf
+    private byte[] covers = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    private static boolean intersects(final CachedGeometry<?> geometry,
+            final CachedGeometry<Polygon> cell)
+    {
+        // Small lines are tested through JTS, to also find the ones lying inside the cell
+        return geometry.isPrepared() ? geometry.intersects(cell)
+                : geometry.asJts().intersects(cell.asJts());
+    }
+
+    /**
+     * Builds a mask with the default maximum depth
+     *
+     * @param bounds
+     *            the bounds of the mask, usually the bounds of an atlas
+     * @param surfaces
+     *            the water surfaces
+     * @param lines
+     *            the boundary lines
+     */
+    public WaterMask(final Rectangle bounds, final Iterable<CachedGeometry<Polygon>> surfaces,
+            final Iterable<CachedGeometry<PolyLine>> lines)
+    {
+        this(bounds, surfaces, lines, MAXIMUM_DEPTH_DEFAULT);
+    }
+
+    /**
+     * Builds a mask
+     *
+     * @param bounds
+     *            the bounds of the mask, usually the bounds of an atlas
+     * @param surfaces
+     *            the water surfaces
+     * @param lines
+     *            the boundary lines
+     * @param maximumDepth
+     *            the maximum number of times cells are split
+     */
+    public WaterMask(final Rectangle bounds, final Iterable<CachedGeometry<Polygon>> surfaces,
+            final Iterable<CachedGeometry<PolyLine>> lines, final int maximumDepth)
+    {
+        this.maximumDepth = maximumDepth;
+        this.minimumLongitude = bounds.lowerLeft().getLongitude().asDm7();
+        this.minimumLatitude = bounds.lowerLeft().getLatitude().asDm7();
+        this.maximumLongitude = bounds.upperRight().getLongitude().asDm7();
+        this.maximumLatitude = bounds.upperRight().getLatitude().asDm7();
+        final List<CachedGeometry<Polygon>> surfaceList = new ArrayList<>();
+        surfaces.forEach(surfaceList::add);
+        final List<CachedGeometry<PolyLine>> lineList = new ArrayList<>();
+        lines.forEach(lineList::add);
+        this.build(this.allocate(1), new long[] { this.minimumLongitude, this.minimumLatitude,
+                this.maximumLongitude, this.maximumLatitude }, 0, surfaceList, lineList);
+        this.children = Arrays.copyOf(this.children, this.size);
+        this.covers = Arrays.copyOf(this.covers, this.size);
+    }
+
+    /**
+     * @param location
+     *            a {@link Location}
+     * @return what covers the cell of the location, or {@link Cover#MIXED} if it is outside of the
+     *         mask
+     */
+    public Cover cover(final Location location)
+    {
+        final long longitude = location.getLongitude().asDm7();
+        final long latitude = location.getLatitude().asDm7();
+        if (longitude < this.minimumLongitude || longitude > this.maximumLongitude
+                || latitude < this.minimumLatitude || latitude > this.maximumLatitude)
+        {
+            return Cover.MIXED;
+        }
+        final long[] cell = { this.minimumLongitude, this.minimumLatitude, this.maximumLongitude,
+                this.maximumLatitude };
+        int node = 0;
+        while (this.children[node] != LEAF)
+        {
+            final int quadrant = (longitude > middle(cell[0], cell[2]) ? 1 : 0)
+                    + (latitude > middle(cell[1], cell[3]) ? 2 : 0);
+            quarter(cell, quadrant);
+            node = this.children[node] + quadrant;
+        }
+        return COVERS[this.covers[node]];
+    }
+
+    /**
+     * @param bounds
+     *            a {@link Rectangle}
+     * @return {@link Cover#LAND} or {@link Cover#WATER} if all the cells overlapping the bounds are
+     *         covered the same way, {@link Cover#MIXED} otherwise, or if the bounds are not inside
+     *         the mask
+     */
+    public Cover cover(final Rectangle bounds)
+    {
+        final long[] query = { bounds.lowerLeft().getLongitude().asDm7(),
+                bounds.lowerLeft().getLatitude().asDm7(),
+                bounds.upperRight().getLongitude().asDm7(),
+                bounds.upperRight().getLatitude().asDm7() };
+        if (query[0] < this.minimumLongitude || query[2] > this.maximumLongitude
+                || query[1] < this.minimumLatitude || query[3] > this.maximumLatitude)
+        {
+            return Cover.MIXED;
+        }
+        return COVERS[this.cover(0, new long[] { this.minimumLongitude, this.minimumLatitude,
+                this.maximumLongitude, this.maximumLatitude }, query)];
+    }
+
+    /**
+     * @return the number of nodes in the quadtree
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    private static long middle(final long minimum, final long maximum)
+    {
+        return minimum + (maximum - minimum) / 2;
+    }
+
+    // Shrinks a cell {minimum longitude, minimum latitude, maximum longitude, maximum latitude} to
+    // one of its quadrants: 0 south west, 1 south east, 2 north west, 3 north east
+    private static void quarter(final long[] cell, final int quadrant)
+    {
+        final long longitude = middle(cell[0], cell[2]);
+        final long latitude = middle(cell[1], cell[3]);
+        if ((quadrant & 1) == 0)
+        {
+            cell[2] = longitude;
+        }
+        else
+        {
+            cell[0] = longitude;
+        }
+        if ((quadrant & 2) == 0)
+        {
+            cell[3] = latitude;
+        }
+        else
+        {
+            cell[1] = latitude;
+        }
+    }
+
+    private int allocate(final int count)
+    {
+        if (this.size + count > this.children.length)
+        {
+            final int capacity = Math.max(this.children.length * 2, this.size + count);
+            this.children = Arrays.copyOf(this.children, capacity);
+            this.covers = Arrays.copyOf(this.covers, capacity);
+        }
+        final int first = this.size;
+        this.size += count;
+        return first;
+    }
+
+    private void build(final int node, final long[] cell, final int depth,
+            final List<CachedGeometry<Polygon>> surfaces,
+            final List<CachedGeometry<PolyLine>> lines)
+    {
+        final Rectangle rectangle = Rectangle.forCorners(
+                new Location(Latitude.dm7(Math.max(cell[1] - MARGIN, -LATITUDE_LIMIT)),
+                        Longitude.dm7(Math.max(cell[0] - MARGIN, -LONGITUDE_LIMIT))),
+                new Location(Latitude.dm7(Math.min(cell[3] + MARGIN, LATITUDE_LIMIT)),
+                        Longitude.dm7(Math.min(cell[2] + MARGIN, LONGITUDE_LIMIT - 1))));
+        final CachedGeometry<Polygon> cellGeometry = AtlasGeometries.forPolygon(rectangle);
+        final List<CachedGeometry<Polygon>> touchingSurfaces = new ArrayList<>();
+        for (final CachedGeometry<Polygon> surface : surfaces)
+        {
+            if (surface.bounds().overlaps(rectangle) && intersects(surface, cellGeometry))
+            {
+                touchingSurfaces.add(surface);
+            }
+        }
+        final List<CachedGeometry<PolyLine>> touchingLines = new ArrayList<>();
+        for (final CachedGeometry<PolyLine> line : lines)
+        {
+            if (line.bounds().overlaps(rectangle) && intersects(line, cellGeometry))
+            {
+                touchingLines.add(line);
+            }
+        }
+
+        this.children[node] = LEAF;
+        if (touchingSurfaces.isEmpty() && touchingLines.isEmpty())
+        {
+            this.covers[node] = (byte) Cover.LAND.ordinal();
+        }
+        else if (touchingLines.isEmpty()
+                && touchingSurfaces.stream().anyMatch(surface -> surface.covers(cellGeometry)))
+        {
+            this.covers[node] = (byte) Cover.WATER.ordinal();
+        }
+        else if (depth >= this.maximumDepth)
+        {
+            this.covers[node] = (byte) Cover.MIXED.ordinal();
+        }
+        else
+        {
+            final int first = this.allocate(QUADRANTS);
+            boolean water = true;
+            for (int quadrant = 0; quadrant < QUADRANTS; quadrant++)
+            {
+                final long[] child = cell.clone();
+                quarter(child, quadrant);
+                this.build(first + quadrant, child, depth + 1, touchingSurfaces, touchingLines);
+                water &= this.children[first + quadrant] == LEAF
+                        && this.covers[first + quadrant] == Cover.WATER.ordinal();
+            }
+            if (water)
+            {
+                // Covered by different surfaces, but still all water. The children are the last
+                // nodes allocated, since leaves have no children.
+                this.size = first;
+                this.covers[node] = (byte) Cover.WATER.ordinal();
+            }
+            else
+            {
+                this.children[node] = first;
+            }
+        }
+    }
+
+    private int cover(final int node, final long[] cell, final long[] query)
+    {
+        if (this.children[node] == LEAF)
+        {
+            return this.covers[node];
+        }
+        int result = LEAF;
+        for (int quadrant = 0; quadrant < QUADRANTS; quadrant++)
+        {
+            final long[] child = cell.clone();
+            quarter(child, quadrant);
+            if (child[0] <= query[2] && query[0] <= child[2] && child[1] <= query[3]
+                    && query[1] <= child[3])
+            {
+                final int cover = this.cover(this.children[node] + quadrant, child, query);
+                if (cover == Cover.MIXED.ordinal() || result != LEAF && result != cover)
+                {
+                    return Cover.MIXED.ordinal();
+                }
+                result = cover;
+            }
+        }
+        return result;
+    }
+}
@@ -2,19 +2,23 @@ package org.openstreetmap.atlas.checks.validation.areas;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.checks.utility.IntersectionUtilities;
-import org.openstreetmap.atlas.geography.Polygon;
-import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.checks.utility.SpatialSelfJoin;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.tags.filters.TaggableFilter;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 
 /**
@@ -96,17 +100,15 @@ public class OverlappingAOIPolygonCheck extends BaseCheck<Long>
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
         final Area aoi = (Area) object;
-        final Polygon aoiPolygon = aoi.asPolygon();
-        final Rectangle aoiBounds = aoiPolygon.bounds();
         boolean hasOverlap = false;
 
-        // Set of overlapping area AOIs
-        final Set<Area> overlappingAreas = Iterables
-                .stream(object.getAtlas().areasIntersecting(aoiBounds,
-                        area -> area.getIdentifier() != aoi.getIdentifier()
-                                && !this.isFlagged(area.getIdentifier())
-                                && area.intersects(aoiPolygon) && aoiFiltersTest(area)))
-                .collectToSet();
+        // Set of overlapping area AOIs, from the AOIs of the atlas joined with themselves once
+        final Set<Area> overlappingAreas = AtlasLayers.forAtlas(object.getAtlas())
+                .derived(Arrays.asList(OverlappingAOIPolygonCheck.class, this.aoiFilters),
+                        this::findOverlappingAOIs)
+                .getOrDefault(aoi, Collections.emptySet()).stream()
+                .filter(area -> !this.isFlagged(area.getIdentifier()))
+                .collect(Collectors.toSet());
 
         final CheckFlag flag = new CheckFlag(this.getTaskIdentifier(object));
         flag.addObject(object);
@@ -115,8 +117,8 @@ public class OverlappingAOIPolygonCheck extends BaseCheck<Long>
         // the object
         for (final Area area : overlappingAreas)
         {
-            if (IntersectionUtilities.findIntersectionPercentage(aoiPolygon,
-                    area.asPolygon()) >= this.minimumIntersect && aoiFiltersTest(object, area))
+            if (IntersectionUtilities.isIntersectionPercentageAtLeast(aoi, area,
+                    this.minimumIntersect) && aoiFiltersTest(object, area))
             {
                 flag.addObject(area);
                 flag.addInstruction(this.getLocalizedInstruction(0, object.getOsmIdentifier(),
@@ -153,6 +155,20 @@ public class OverlappingAOIPolygonCheck extends BaseCheck<Long>
         return this.aoiFilters.stream().anyMatch(filter -> filter.test(object));
     }
 
+    /**
+     * Joins all the AOIs of an {@link Atlas} with themselves
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return for each AOI, the other AOIs intersecting its polygon
+     */
+    private Map<Area, Set<Area>> findOverlappingAOIs(final Atlas atlas)
+    {
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        return new SpatialSelfJoin<>(atlas.areas(this::aoiFiltersTest), Area::bounds)
+                .neighbours((aoi, area) -> area.intersects(geometries.polygon(aoi).asGeometry()));
+    }
+
     /**
      * Tests the input {@link AtlasObject} and {@link Area} against the list of
      * {@link TaggableFilter}s and each other.
@@ -2,13 +2,13 @@ package org.openstreetmap.atlas.checks.validation.areas;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.exception.CoreException;
@@ -17,15 +17,10 @@ import org.openstreetmap.atlas.geography.GeometricSurface;
 import org.openstreetmap.atlas.geography.MultiPolygon;
 import org.openstreetmap.atlas.geography.Polygon;
 import org.openstreetmap.atlas.geography.Rectangle;
-import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
-import org.openstreetmap.atlas.geography.atlas.items.complex.RelationOrAreaToMultiPolygonConverter;
-import org.openstreetmap.atlas.geography.index.PackedSpatialIndex;
-import org.openstreetmap.atlas.geography.index.RTree;
-import org.openstreetmap.atlas.geography.index.SpatialIndex;
 import org.openstreetmap.atlas.tags.BuildingLevelsTag;
 import org.openstreetmap.atlas.tags.BuildingMinLevelTag;
 import org.openstreetmap.atlas.tags.BuildingPartTag;
@@ -60,9 +55,6 @@ public class ShadowDetectionCheck extends BaseCheck<Long>
     // OSM standard level conversion factor
     private static final double LEVEL_TO_METERS_CONVERSION = 3.5;
     private static final String ZERO_STRING = "0";
-    private static final RelationOrAreaToMultiPolygonConverter MULTI_POLYGON_CONVERTER = new RelationOrAreaToMultiPolygonConverter();
-
-    private final Map<Atlas, SpatialIndex<Relation>> relationSpatialIndices = new HashMap<>();
 
     /**
      * The default constructor that must be supplied. The Atlas Checks framework will generate the
@@ -151,42 +143,6 @@ public class ShadowDetectionCheck extends BaseCheck<Long>
         return FALLBACK_INSTRUCTIONS;
     }
 
-    /**
-     * Create a new spatial index that pre filters building relations. Pre-filtering drastically
-     * decreases runtime by eliminating very large non-building relations. Copied from
-     * {@link org.openstreetmap.atlas.geography.atlas.AbstractAtlas}.
-     *
-     * @return A newly created spatial index
-     */
-    private SpatialIndex<Relation> buildRelationSpatialIndex(final Atlas atlas)
-    {
-        final SpatialIndex<Relation> index = new PackedSpatialIndex<Relation, Long>(new RTree<>())
-        {
-            private static final long serialVersionUID = -3139831928323333246L;
-
-            @Override
-            protected Long compress(final Relation item)
-            {
-                return item.getIdentifier();
-            }
-
-            @Override
-            protected boolean isValid(final Relation item, final Rectangle bounds)
-            {
-                return item.intersects(bounds);
-            }
-
-            @Override
-            protected Relation restore(final Long packed)
-            {
-                return atlas.relation(packed);
-            }
-        };
-        atlas.relations(relation -> relation.isMultiPolygon() && BuildingTag.isBuilding(relation))
-                .forEach(index::add);
-        return index;
-    }
-
     /**
      * Uses a BFS to gather all connected building parts and check for a connection to the ground.
      *
@@ -219,14 +175,10 @@ public class ShadowDetectionCheck extends BaseCheck<Long>
             neighboringParts
                     .addAll(Iterables.asSet(checking.getAtlas().areasIntersecting(checkingBounds,
                             area -> this.neighboringPart(area, checking, connectedParts))));
-            // Get Relations
-            if (!this.relationSpatialIndices.containsKey(checking.getAtlas()))
-            {
-                this.relationSpatialIndices.put(checking.getAtlas(),
-                        this.buildRelationSpatialIndex(checking.getAtlas()));
-            }
-            neighboringParts.addAll(Iterables
-                    .asSet(this.relationSpatialIndices.get(checking.getAtlas()).get(checkingBounds,
+            // Get Relations, from a layer that pre filters building relations. Pre-filtering
+            // drastically decreases runtime by eliminating very large non-building relations.
+            neighboringParts.addAll(Iterables.asSet(AtlasLayers.forAtlas(checking.getAtlas())
+                    .buildingRelations().intersecting(checkingBounds,
                             relation -> this.neighboringPart(relation, checking, connectedParts))));
             // Add the parts to the Set and Queue
             connectedParts.addAll(neighboringParts);
@@ -323,10 +275,12 @@ public class ShadowDetectionCheck extends BaseCheck<Long>
         {
             // Get the polygons of the parts, either single or multi
             final GeometricSurface partPolygon = part instanceof Area ? ((Area) part).asPolygon()
-                    : MULTI_POLYGON_CONVERTER.convert((Relation) part);
+                    : AtlasLayers.forAtlas(part.getAtlas()).geometries()
+                            .multiPolygon((Relation) part);
             final GeometricSurface objectPolygon = object instanceof Area
                     ? ((Area) object).asPolygon()
-                    : MULTI_POLYGON_CONVERTER.convert((Relation) object);
+                    : AtlasLayers.forAtlas(object.getAtlas()).geometries()
+                            .multiPolygon((Relation) object);
             // Check if it is a building part, and overlaps.
             return !checked.contains(object)
                     && (this.isBuildingOrPart(object) || this.isBuildingRelationMember(object))
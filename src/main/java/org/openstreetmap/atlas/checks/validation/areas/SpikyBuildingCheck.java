@@ -3,20 +3,16 @@ package org.openstreetmap.atlas.checks.validation.areas;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang3.tuple.Triple;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.Polygon;
-import org.openstreetmap.atlas.geography.Segment;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.ItemType;
@@ -52,6 +48,26 @@ public class SpikyBuildingCheck extends BaseCheck<Long>
     private final Angle minimumTotalCircularAngleThreshold;
     private final long minimumCircularPointsInCurve;
 
+    /**
+     * Gets the difference in headings between two segments, returning defaultAngle if either
+     * segment is a point.
+     *
+     * @param heading
+     *            the heading of the first segment, in degrees
+     * @param otherHeading
+     *            the heading of the second segment, in degrees
+     * @param defaultAngle
+     *            the default value to return
+     * @return the difference between the headings in degrees if neither segment is a single point
+     *         (same start and end nodes), or defaultAngle if either segment is a single point
+     */
+    private static double getDifferenceInHeadings(final double heading, final double otherHeading,
+            final Angle defaultAngle)
+    {
+        final double difference = PolyLineCoordinates.difference(heading, otherHeading);
+        return Double.isNaN(difference) ? defaultAngle.asDegrees() : difference;
+    }
+
     /**
      * Default constructor
      *
@@ -117,49 +133,44 @@ public class SpikyBuildingCheck extends BaseCheck<Long>
         return FALLBACK_INSTRUCTIONS;
     }
 
-    /**
-     * Returns a set of locations which correspond to interior angles of curved portions of a
-     * polygons' geometry, using some heuristics to define curved.
-     *
-     * @param segments
-     *            the cached results of a call to Polyline.segments()
-     * @return A set of all locations for which the heuristics hold true.
-     */
-    private Set<Location> getCurvedLocations(final List<Segment> segments)
+    @Override
+    protected boolean isLocal()
     {
-        final List<Triple<Integer, Segment, Segment>> curvedSections = this
-                .summarizeCurvedSections(this.getPotentiallyCircularPoints(segments)).stream()
-                // Has at least minimumCircularPointsInCurve
-                .filter(segment -> segment.getLeft() >= this.minimumCircularPointsInCurve)
-                // Changes heading by at least minimumTotalCircularAngleThreshold
-                .filter(segment -> this
-                        .getDifferenceInHeadings(segment.getMiddle(), segment.getRight(),
-                                Angle.MINIMUM)
-                        .isGreaterThanOrEqualTo(this.minimumTotalCircularAngleThreshold))
-                .collect(Collectors.toList());
-        return this.sectionsToLocations(curvedSections, segments);
+        return true;
     }
 
     /**
-     * Gets the difference in headings between firstSegment and secondSegment, returning
-     * defaultAngle if either segments are a point.
+     * Returns the shape points of a polygon which are in curved portions of its geometry, using
+     * some heuristics to define curved.
      *
-     * @param firstSegment
-     *            the first segment to compare
-     * @param secondSegment
-     *            the second segment to compare
-     * @param defaultAngle
-     *            the default value to return
-     * @return the difference between firstSegment.heading() and secondSegment.heading() if neither
-     *         segment is a single point (same start and end nodes), or defaultAngle if either
-     *         segment is a single point
+     * @param headings
+     *            the headings of the segments of the polygon, including the closing segment
+     * @return for each shape point, whether it is in a curved portion of the polygon
      */
-    private Angle getDifferenceInHeadings(final Segment firstSegment, final Segment secondSegment,
-            final Angle defaultAngle)
+    private boolean[] getCurvedPoints(final double[] headings)
     {
-        return firstSegment.heading()
-                .flatMap(first -> secondSegment.heading().map(first::difference))
-                .orElse(defaultAngle);
+        final int segments = headings.length;
+        final boolean[] curved = new boolean[segments];
+        for (final int[] section : this.summarizeCurvedSections(headings))
+        {
+            // Has at least minimumCircularPointsInCurve, and changes heading by at least
+            // minimumTotalCircularAngleThreshold
+            if (section[0] >= this.minimumCircularPointsInCurve
+                    && getDifferenceInHeadings(headings[section[1]], headings[section[2]],
+                            Angle.MINIMUM) >= this.minimumTotalCircularAngleThreshold.asDegrees())
+            {
+                // The points of a section are the ones after its first segment, up to the start
+                // of its last segment
+                int segment = section[1];
+                do
+                {
+                    segment = (segment + 1) % segments;
+                    curved[segment] = true;
+                }
+                while (segment != section[2]);
+            }
+        }
+        return curved;
     }
 
     /**
@@ -184,59 +195,10 @@ public class SpikyBuildingCheck extends BaseCheck<Long>
         return Stream.empty();
     }
 
-    /**
-     * Given a polygon, return a list of all points which have a change in heading less than
-     * circularAngleThreshold.
-     *
-     * @param segments
-     *            the cached results of a call to Polyline.segments()
-     * @return A List of Tuples containing two consecutive segments. We use this to refer to the
-     *         point between them, since other methods further down the pipeline need the
-     *         information about the segment.
-     */
-    private List<Tuple<Segment, Segment>> getPotentiallyCircularPoints(final List<Segment> segments)
-    {
-        return this.segmentPairsFrom(segments)
-                .filter(segmentTuple -> this.getDifferenceInHeadings(segmentTuple.getFirst(),
-                        segmentTuple.getSecond(), Angle.MAXIMUM)
-                        .isLessThan(this.circularAngleThreshold))
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * For an point defined by the two surrounding segments, return the angle and location of that
-     * point if that point is not part of a curve, and the angle between the two segments is less
-     * than headingThreshold.
-     *
-     * @param beforeAngle
-     *            the segment directly before the point in question
-     * @param afterAngle
-     *            the segment directly after the point in question
-     * @param curvedLocations
-     *            the locations of all curved segments in the polygon
-     * @return an empty optional if the point is part of a curve, or if the angle is greater than or
-     *         equal to headingThreshold. Otherwise, a tuple containing the location of the point
-     *         and the angle between beforeAnge and afterAngle
-     */
-    private Optional<Tuple<Angle, Location>> getSpikyAngleLocation(final Segment beforeAngle,
-            final Segment afterAngle, final Set<Location> curvedLocations)
-    {
-        if (!curvedLocations.contains(afterAngle.end())
-                && !curvedLocations.contains(beforeAngle.start()))
-        {
-            final Angle difference = this.getDifferenceInHeadings(beforeAngle,
-                    afterAngle.reversed(), Angle.MAXIMUM);
-            if (difference.isLessThan(this.headingThreshold))
-            {
-                return Optional.of(Tuple.createTuple(difference, afterAngle.start()));
-            }
-        }
-        return Optional.empty();
-    }
-
     /**
      * Finds curved sections of a polygon, then gets the location of all spiky angles inside of the
-     * polygon and composes them into a list.
+     * polygon and composes them into a list. A point is spiky if it is not next to a curved point,
+     * and the angle between the segments before and after it is less than headingThreshold.
      *
      * @param polygon
      *            any Polygon to analyze
@@ -245,12 +207,28 @@ public class SpikyBuildingCheck extends BaseCheck<Long>
      */
     private List<Tuple<Angle, Location>> getSpikyAngleLocations(final Polygon polygon)
     {
-        final List<Segment> segments = polygon.segments();
-        final Set<Location> curvedLocations = this.getCurvedLocations(segments);
-        return this.segmentPairsFrom(segments)
-                .map(segmentPair -> this.getSpikyAngleLocation(segmentPair.getFirst(),
-                        segmentPair.getSecond(), curvedLocations))
-                .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+        final PolyLineCoordinates coordinates = PolyLineCoordinates.forPolyLine(polygon);
+        final double[] headings = coordinates.segmentHeadings();
+        final int segments = headings.length;
+        final boolean[] curved = this.getCurvedPoints(headings);
+        final List<Tuple<Angle, Location>> spikyAngles = new ArrayList<>();
+        for (int before = 0; before < segments; before++)
+        {
+            // The point between the segment before and the segment after, which starts there
+            final int point = (before + 1) % segments;
+            if (curved[before] || curved[(point + 1) % segments])
+            {
+                continue;
+            }
+            final double difference = getDifferenceInHeadings(headings[before],
+                    coordinates.heading(point + 1, point), Angle.MAXIMUM);
+            if (difference < this.headingThreshold.asDegrees())
+            {
+                spikyAngles.add(
+                        Tuple.createTuple(Angle.degrees(difference), coordinates.location(point)));
+            }
+        }
+        return spikyAngles;
     }
 
     /**
@@ -268,138 +246,50 @@ public class SpikyBuildingCheck extends BaseCheck<Long>
     }
 
     /**
-     * Given an order list of summary stats for curved sections, and a list of all the segments in a
-     * polygon, traverse the polygon and return a set of all curved locations. Effectively a
-     * reversal of summarizeCurvedSections. Note that every segment listed in curvedSections should
-     * exist somewhere in allSegments!
+     * Finds the points with a change in heading less than circularAngleThreshold, and summarizes
+     * each section of consecutive such points into an array containing the number of points, the
+     * segment before the first point and the segment after the last point.
      *
-     * @param curvedSections
-     *            a list of summary stats for a polygon generated by summarizeCurvedSections
-     * @param allSegments
-     *            the cached results of a call to Polyline.segments()
-     * @return a set of all locations represented by the curvedSections data structure
+     * @param headings
+     *            the headings of the segments of the polygon, including the closing segment
+     * @return a list of summary stats for each curved section, containing the number of points,
+     *         the index of the segment before the first point, and the index of the segment after
+     *         the last point, in that order.
      */
-    private Set<Location> sectionsToLocations(
-            final List<Triple<Integer, Segment, Segment>> curvedSections,
-            final List<Segment> allSegments)
+    private List<int[]> summarizeCurvedSections(final double[] headings)
     {
-        if (curvedSections.isEmpty())
+        final int segments = headings.length;
+        final List<int[]> summaryStats = new ArrayList<>();
+        int start = -1;
+        for (int before = 0; before < segments; before++)
         {
-            return Collections.emptySet();
-        }
-        final Set<Location> locations = new HashSet<>();
-        boolean inMiddleOfSegment = false;
-        int curvedSectionIndex = 0;
-        Segment curvedSectionStart = curvedSections.get(curvedSectionIndex).getMiddle();
-        Segment curvedSectionEnd = curvedSections.get(curvedSectionIndex).getRight();
-        for (final Tuple<Segment, Segment> beforeAndAfter : this.segmentPairsFrom(allSegments)
-                .collect(Collectors.toList()))
-        {
-            if (inMiddleOfSegment)
+            final boolean circular = getDifferenceInHeadings(headings[before],
+                    headings[(before + 1) % segments], Angle.MAXIMUM) < this.circularAngleThreshold
+                            .asDegrees();
+            if (circular && start < 0)
             {
-                // Is this the end of the curved segment?
-                if (curvedSectionEnd.equals(beforeAndAfter.getSecond()))
-                {
-                    inMiddleOfSegment = false;
-                    locations.add(curvedSectionEnd.start());
-                    curvedSectionIndex++;
-                    if (curvedSectionIndex >= curvedSections.size())
-                    {
-                        break;
-                    }
-                    curvedSectionStart = curvedSections.get(curvedSectionIndex).getMiddle();
-                    curvedSectionEnd = curvedSections.get(curvedSectionIndex).getRight();
-                }
-                else
-                {
-                    locations.add(beforeAndAfter.getFirst().end());
-                }
+                start = before;
             }
-            else
+            else if (!circular && start >= 0)
             {
-                // Did we come across a new curved segment?
-                if (curvedSectionStart.equals(beforeAndAfter.getFirst()))
-                {
-                    inMiddleOfSegment = true;
-                    locations.add(curvedSectionStart.end());
-                }
-                // If not, do nothing
+                // The point before this segment was the last one of the section
+                summaryStats.add(new int[] { before - start, start, before });
+                start = -1;
             }
         }
-        return locations;
-    }
-
-    /**
-     * Given a polygon, return a stream consisting of all consecutive pairs of segments from this
-     * polygon. For example, given a polygon ABCD, returns a stream with: (AB), (BC), (CD), (DA)
-     *
-     * @param segments
-     *            The cached results of a call to Polyline.segments() for a polygon to decompose
-     * @return A stream containing all of the segment pairs in this polygon
-     */
-    private Stream<Tuple<Segment, Segment>> segmentPairsFrom(final List<Segment> segments)
-    {
-        return Stream.concat(
-                // Take the first segments
-                IntStream.range(1, segments.size())
-                        .mapToObj(secondIndex -> Tuple.createTuple(segments.get(secondIndex - 1),
-                                segments.get(secondIndex))),
-                // Don't forget about the closing segment!
-                Stream.of(Tuple.createTuple(segments.get(segments.size() - 1), segments.get(0))));
-    }
-
-    /**
-     * Given a list of potentially circular points, summarize each section into a triple containing
-     * the segment before the first point, the segment after the last point, and the number of
-     * points contained inside.
-     *
-     * @param curvedLocations
-     *            a list of points defined by the two segments connected to those points, as
-     *            generated by getPotentiallyCircularPoints.
-     * @return a list of summary stats for each curved segment, containing the number of points, the
-     *         segment before the first point, and the segment after the last point, in that order.
-     */
-    private List<Triple<Integer, Segment, Segment>> summarizeCurvedSections(
-            final List<Tuple<Segment, Segment>> curvedLocations)
-    {
-        if (curvedLocations.isEmpty())
-        {
-            return Collections.emptyList();
-        }
-        final List<Triple<Integer, Segment, Segment>> summaryStats = new ArrayList<>();
-        Tuple<Segment, Segment> start = curvedLocations.get(0);
-        Tuple<Segment, Segment> previous = curvedLocations.get(0);
-        int numPoints = 1;
-        for (final Tuple<Segment, Segment> location : curvedLocations.subList(1,
-                curvedLocations.size()))
+        if (start >= 0)
         {
-            // If this location doesn't share a segment with the previous location, we just finished
-            // a segment
-            if (!previous.getSecond().equals(location.getFirst()))
-            {
-                summaryStats.add(Triple.of(numPoints, start.getFirst(), previous.getSecond()));
-                numPoints = 1;
-                start = location;
-            }
-            // Otherwise, we're still part of the same curved section, so just increment numPoints
-            else
-            {
-                numPoints++;
-            }
-            // Always update previous
-            previous = location;
+            // Add the section ending with the closing segment
+            summaryStats.add(new int[] { segments - start, start, 0 });
         }
-        // Add the last triple
-        summaryStats.add(Triple.of(numPoints, start.getFirst(), previous.getSecond()));
-        // We might need to clean up a circular segment that wraps around 0.
-        if (summaryStats.get(0).getMiddle()
-                .equals(summaryStats.get(summaryStats.size() - 1).getRight()))
+        // A section going around the first point is split in two, so merge both halves
+        if (summaryStats.size() > 1
+                && summaryStats.get(0)[1] == summaryStats.get(summaryStats.size() - 1)[2])
         {
-            final Triple<Integer, Segment, Segment> first = summaryStats.get(0);
-            final Triple<Integer, Segment, Segment> last = summaryStats.get(0);
-
-            summaryStats.set(0, Triple.of(first.getLeft() + last.getLeft(), last.getMiddle(),
-                    first.getRight()));
+            final int[] first = summaryStats.get(0);
+            final int[] last = summaryStats.remove(summaryStats.size() - 1);
+            first[0] += last[0];
+            first[1] = last[1];
         }
         return summaryStats;
     }
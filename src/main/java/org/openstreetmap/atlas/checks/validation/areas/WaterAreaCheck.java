@@ -3,20 +3,27 @@ package org.openstreetmap.atlas.checks.validation.areas;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.checks.utility.IntersectionUtilities;
+import org.openstreetmap.atlas.checks.utility.SpatialSelfJoin;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.Segment;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Line;
@@ -249,17 +256,30 @@ public class WaterAreaCheck extends BaseCheck<Long>
     {
         CheckFlag returnFlag = flag;
 
+        // One candidate fetch per area, the segments are then only tested against the bounds of
+        // these candidates
+        final AtlasLayers layers = AtlasLayers.forAtlas(area.getAtlas());
+        final List<Area> candidates = layers
+                .derived(Arrays.asList(WaterAreaCheck.class, this.areaFilters),
+                        this::findIntersectingWaterAreas)
+                .getOrDefault(area, Collections.emptySet()).stream()
+                .sorted(Comparator.comparingLong(Area::getIdentifier))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty())
+        {
+            return returnFlag;
+        }
+        final AtlasGeometries geometries = layers.geometries();
         final List<Pair<Segment, List<Area>>> possibleAreaIntersections = area.getClosedGeometry()
-                .segments().stream()
-                .map(segment -> Pair.of(segment,
-                        Iterables
-                                .stream(area.getAtlas().areasIntersecting(segment.bounds(),
-                                        atlasObject -> matchesFilter(this.areaFilters, atlasObject)
-                                                && !area.equals(atlasObject)
-                                                && area.getClosedGeometry().intersects(
-                                                        atlasObject.getClosedGeometry())))
-                                .collectToList()))
-                .filter(pair -> !pair.getRight().isEmpty()).collect(Collectors.toList());
+                .segments().stream().map(segment ->
+                {
+                    final Rectangle bounds = segment.bounds();
+                    return Pair.of(segment,
+                            candidates.stream()
+                                    .filter(candidate -> geometries.polygon(candidate).bounds()
+                                            .overlaps(bounds))
+                                    .collect(Collectors.toList()));
+                }).filter(pair -> !pair.getRight().isEmpty()).collect(Collectors.toList());
 
         final List<Area> areaIntersections = possibleAreaIntersections.stream()
                 .flatMap(pair -> pair.getRight().stream()).distinct()
@@ -313,6 +333,23 @@ public class WaterAreaCheck extends BaseCheck<Long>
         return returnFlag;
     }
 
+    /**
+     * Joins the water areas of an {@link Atlas} with themselves
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return for each water area, the other water areas intersecting its boundary
+     */
+    private Map<Area, Set<Area>> findIntersectingWaterAreas(final Atlas atlas)
+    {
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        return new SpatialSelfJoin<>(
+                atlas.areas(atlasObject -> matchesFilter(this.areaFilters, atlasObject)),
+                (final Area area) -> geometries.polygon(area).bounds())
+                        .neighbours((area, otherArea) -> area.getClosedGeometry()
+                                .intersects(otherArea.getClosedGeometry()));
+    }
+
     /**
      * Get the intersections between two polylines. Unlike {@link PolyLine#intersections}, this does
      * not include points that are shared between the two lines.
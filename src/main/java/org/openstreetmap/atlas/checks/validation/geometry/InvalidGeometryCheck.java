@@ -74,4 +74,10 @@ public class InvalidGeometryCheck extends BaseCheck<Long>
         return FALLBACK_INSTRUCTIONS;
     }
 
+    @Override
+    protected boolean isLocal()
+    {
+        return true;
+    }
+
 }
@@ -7,6 +7,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayer;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.Location;
@@ -123,8 +125,11 @@ public class BuildingRoadIntersectionCheck extends BaseCheck<Long>
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
         final Area building = (Area) object;
-        final Iterable<Edge> intersectingEdges = Iterables.filter(building.getAtlas()
-                .edgesIntersecting(building.bounds(), this.intersectsCoreWayInvalidly(building)),
+        final AtlasLayers layers = AtlasLayers.forAtlas(building.getAtlas());
+        final AtlasLayer<Edge> roads = this.carNavigableEdgesOnly ? layers.carNavigableEdges()
+                : layers.coreWayEdges();
+        final Iterable<Edge> intersectingEdges = Iterables.filter(
+                roads.intersecting(building.bounds(), this.intersectsCoreWayInvalidly(building)),
                 ignoreTags());
         final CheckFlag flag = new CheckFlag(getTaskIdentifier(building));
         flag.addObject(building);
@@ -173,11 +178,9 @@ public class BuildingRoadIntersectionCheck extends BaseCheck<Long>
     private Predicate<Edge> intersectsCoreWayInvalidly(final Area building)
     {
         // An invalid intersection is determined by checking that its highway tag is car navigable
-        // or core way based on the configuration value
-        return edge -> (this.carNavigableEdgesOnly ? HighwayTag.isCarNavigableHighway(edge)
-                : HighwayTag.isCoreWay(edge))
-                // And if the edge intersects the building polygon
-                && edge.asPolyLine().intersects(building.asPolygon())
+        // or core way based on the configuration value, which is done by the layer the edges
+        // come from, and if the edge intersects the building polygon
+        return edge -> edge.asPolyLine().intersects(building.asPolygon())
                 // And ignore intersections where edge has highway=service and building has
                 // Amenity=fuel
                 && !(HIGHWAY_SERVICE_TAG.test(edge)
@@ -1,20 +1,25 @@
 package org.openstreetmap.atlas.checks.validation.intersections;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.atlas.predicates.TagPredicates;
 import org.openstreetmap.atlas.checks.atlas.predicates.TypePredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.BoundsSweep;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
-import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
@@ -30,7 +35,9 @@ import scala.Tuple2;
 /**
  * Flags edges that are crossing other edges invalidly. If two edges are crossing each other, then
  * they should have an intersection location shared in both edges. Otherwise, their layer tag should
- * tell the difference.
+ * tell the difference. In batch mode, all the invalid crossings of an atlas are found at once with
+ * a sweep over the bounds of the crossing edges, instead of querying the spatial index for each
+ * edge.
  *
  * @author mkalender, gpogulsky, bbreithaupt
  */
@@ -58,7 +65,9 @@ public class EdgeCrossingEdgeCheck extends BaseCheck<Long>
     private static final String MINIMUM_HIGHWAY_DEFAULT = HighwayTag.NO.toString();
     private static final Long OSM_LAYER_DEFAULT = 0L;
     private static final long serialVersionUID = 2146863485833228593L;
+    private static final boolean BATCH_DEFAULT = false;
     private final HighwayTag minimumHighwayType;
+    private final boolean batch;
 
     /**
      * Checks whether given {@link PolyLine}s can cross each other.
@@ -93,6 +102,7 @@ public class EdgeCrossingEdgeCheck extends BaseCheck<Long>
         super(configuration);
         this.minimumHighwayType = configurationValue(configuration, "minimum.highway.type",
                 MINIMUM_HIGHWAY_DEFAULT, str -> Enum.valueOf(HighwayTag.class, str.toUpperCase()));
+        this.batch = this.configurationValue(configuration, "batch", BATCH_DEFAULT);
     }
 
     @Override
@@ -194,6 +204,32 @@ public class EdgeCrossingEdgeCheck extends BaseCheck<Long>
         return edge1AsPolyLine.intersections(edge2AsPolyLine);
     }
 
+    /**
+     * Finds all the invalid crossings of an {@link Atlas} in one sweep over the bounds of its valid
+     * crossing edges
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return the identifiers of the edges crossing each edge invalidly
+     */
+    private Map<Long, Set<Long>> findInvalidCrossings(final Atlas atlas)
+    {
+        final Map<Long, Set<Long>> invalidCrossings = new HashMap<>();
+        BoundsSweep.forEachOverlappingPair(atlas.edges(this::isValidCrossingEdge), Edge::bounds,
+                (edge, crossingEdge) ->
+                {
+                    if (edge.getOsmIdentifier() != crossingEdge.getOsmIdentifier()
+                            && this.isInvalidCrossing(edge, crossingEdge))
+                    {
+                        invalidCrossings.computeIfAbsent(edge.getIdentifier(),
+                                identifier -> new HashSet<>()).add(crossingEdge.getIdentifier());
+                        invalidCrossings.computeIfAbsent(crossingEdge.getIdentifier(),
+                                identifier -> new HashSet<>()).add(edge.getIdentifier());
+                    }
+                });
+        return invalidCrossings;
+    }
+
     /**
      * A {@link Function} for an {@link EdgeWalker} that collects all connected invalid crossings.
      *
@@ -201,19 +237,23 @@ public class EdgeCrossingEdgeCheck extends BaseCheck<Long>
      */
     private Function<Edge, Stream<Edge>> getInvalidCrossingEdges()
     {
+        if (this.batch)
+        {
+            return edge ->
+            {
+                final Atlas atlas = edge.getAtlas();
+                final Map<Long, Set<Long>> invalidCrossings = AtlasLayers.forAtlas(atlas).derived(
+                        Arrays.asList(EdgeCrossingEdgeCheck.class, this.minimumHighwayType),
+                        this::findInvalidCrossings);
+                return invalidCrossings.getOrDefault(edge.getIdentifier(), Collections.emptySet())
+                        .stream().map(atlas::edge);
+            };
+        }
         return edge ->
         {
-            // Prepare the edge being tested for checks
-            final PolyLine edgeAsPolyLine = edge.asPolyLine();
-            final Rectangle edgeBounds = edge.bounds();
-            // If layer tag is present use its value, else use the OSM default
-            final Optional<Long> edgeLayer = Validators.hasValuesFor(edge, LayerTag.class)
-                    ? LayerTag.getTaggedValue(edge)
-                    : Optional.of(OSM_LAYER_DEFAULT);
-
             // Retrieve crossing edges
             final Atlas atlas = edge.getAtlas();
-            return Iterables.asList(atlas.edgesIntersecting(edgeBounds,
+            return Iterables.asList(atlas.edgesIntersecting(edge.bounds(),
                     // filter out the same edge and non-valid crossing edges
                     crossingEdge -> edge.getIdentifier() != crossingEdge.getIdentifier()
                             && this.isValidCrossingEdge(crossingEdge)))
@@ -228,20 +268,35 @@ public class EdgeCrossingEdgeCheck extends BaseCheck<Long>
                     // Therefore, if an OSM way crosses another OSM way multiple times in separate
                     // edges,
                     // then each edge will be marked explicitly.
-                    .filter(crossingEdge ->
-                    {
-                        final PolyLine crossingEdgeAsPolyLine = crossingEdge.asPolyLine();
-                        final Optional<Long> crossingEdgeLayer = Validators
-                                .hasValuesFor(crossingEdge, LayerTag.class)
-                                        ? LayerTag.getTaggedValue(crossingEdge)
-                                        : Optional.of(OSM_LAYER_DEFAULT);
-                        return edgeAsPolyLine.intersections(crossingEdgeAsPolyLine).stream()
-                                .anyMatch(intersection -> !canCross(edgeAsPolyLine, edgeLayer,
-                                        crossingEdgeAsPolyLine, crossingEdgeLayer, intersection));
-                    });
+                    .filter(crossingEdge -> this.isInvalidCrossing(edge, crossingEdge));
         };
     }
 
+    /**
+     * Checks whether two {@link Edge}s cross each other invalidly
+     *
+     * @param edge
+     *            {@link Edge} being crossed
+     * @param crossingEdge
+     *            Crossing {@link Edge}
+     * @return {@code true} if at least one of the crossings of the {@link Edge}s is invalid
+     */
+    private boolean isInvalidCrossing(final Edge edge, final Edge crossingEdge)
+    {
+        final PolyLine edgeAsPolyLine = edge.asPolyLine();
+        final PolyLine crossingEdgeAsPolyLine = crossingEdge.asPolyLine();
+        // If layer tag is present use its value, else use the OSM default
+        final Optional<Long> edgeLayer = Validators.hasValuesFor(edge, LayerTag.class)
+                ? LayerTag.getTaggedValue(edge)
+                : Optional.of(OSM_LAYER_DEFAULT);
+        final Optional<Long> crossingEdgeLayer = Validators.hasValuesFor(crossingEdge,
+                LayerTag.class) ? LayerTag.getTaggedValue(crossingEdge)
+                        : Optional.of(OSM_LAYER_DEFAULT);
+        return edgeAsPolyLine.intersections(crossingEdgeAsPolyLine).stream()
+                .anyMatch(intersection -> !canCross(edgeAsPolyLine, edgeLayer,
+                        crossingEdgeAsPolyLine, crossingEdgeLayer, intersection));
+    }
+
     /**
      * Validates given {@link AtlasObject} (assumed to be an {@link Edge}) whether it is a valid
      * crossing edge or not
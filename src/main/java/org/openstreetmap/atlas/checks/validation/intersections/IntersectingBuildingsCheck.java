@@ -1,13 +1,22 @@
 package org.openstreetmap.atlas.checks.validation.intersections;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.checks.utility.IntersectionUtilities;
+import org.openstreetmap.atlas.checks.utility.SpatialSelfJoin;
 import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.tags.BuildingTag;
@@ -79,6 +88,21 @@ public class IntersectingBuildingsCheck extends BaseCheck<String>
                         area.getIdentifier());
     }
 
+    /**
+     * Joins all the buildings of an {@link Atlas} with themselves
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return for each building, the other buildings intersecting its polygon
+     */
+    private static Map<Area, Set<Area>> findIntersectingBuildings(final Atlas atlas)
+    {
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        return new SpatialSelfJoin<>(atlas.areas(BuildingTag::isBuilding), Area::bounds)
+                .neighbours((building, otherBuilding) -> otherBuilding
+                        .intersects(geometries.polygon(building).asGeometry()));
+    }
+
     /**
      * Default constructor
      *
@@ -105,18 +129,20 @@ public class IntersectingBuildingsCheck extends BaseCheck<String>
         final Area building = (Area) object;
 
         // Fetch building's area as polygon and make sure it has at least 3 points
-        final Polygon buildingPolygon = building.asPolygon();
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(object.getAtlas()).geometries();
+        final CachedGeometry<Polygon> buildingGeometry = geometries.polygon(building);
+        final Polygon buildingPolygon = buildingGeometry.asGeometry();
         if (buildingPolygon.size() < MINIMUM_POINT_COUNT_FOR_POLYGON)
         {
             return Optional.empty();
         }
 
-        // Fetch possibly intersecting buildings
-        final Iterable<Area> possiblyIntersectingBuildings = object.getAtlas().areasIntersecting(
-                building.bounds(),
-                area -> BuildingTag.isBuilding(area)
-                        && building.getIdentifier() != area.getIdentifier()
-                        && area.intersects(buildingPolygon));
+        // Fetch possibly intersecting buildings, found for all the buildings of the atlas at once
+        final Iterable<Area> possiblyIntersectingBuildings = AtlasLayers
+                .forAtlas(object.getAtlas())
+                .derived(IntersectingBuildingsCheck.class,
+                        IntersectingBuildingsCheck::findIntersectingBuildings)
+                .getOrDefault(building, Collections.emptySet());
 
         // Assuming that we'd find intersections/overlaps below, create a flag
         final CheckFlag flag = new CheckFlag(this.getTaskIdentifier(object));
@@ -127,8 +153,9 @@ public class IntersectingBuildingsCheck extends BaseCheck<String>
         for (final Area otherBuilding : possiblyIntersectingBuildings)
         {
             // Fetch other building's area as polygon and make sure it has at least 3 points
-            final Polygon otherBuildingsPolygon = otherBuilding.asPolygon();
-            if (otherBuildingsPolygon.size() < MINIMUM_POINT_COUNT_FOR_POLYGON)
+            final CachedGeometry<Polygon> otherBuildingGeometry = geometries
+                    .polygon(otherBuilding);
+            if (otherBuildingGeometry.asGeometry().size() < MINIMUM_POINT_COUNT_FOR_POLYGON)
             {
                 continue;
             }
@@ -142,15 +169,15 @@ public class IntersectingBuildingsCheck extends BaseCheck<String>
             }
 
             // Find intersection type
-            final IntersectionType resultType = this.findIntersectionType(buildingPolygon,
-                    otherBuildingsPolygon);
+            final IntersectionType resultType = this.findIntersectionType(building,
+                    otherBuilding);
 
             // Flag based on intersection type
             if (resultType == IntersectionType.OVERLAP)
             {
                 // Get object and otherBuilding as a Surfaces
-                final Surface objectAsSurface = ((Area) object).asPolygon().surface();
-                final Surface otherBuildingAsSurface = otherBuilding.asPolygon().surface();
+                final Surface objectAsSurface = buildingGeometry.surface();
+                final Surface otherBuildingAsSurface = otherBuildingGeometry.surface();
                 // If object is larger than otherBuilding, the instruction states object contains
                 // otherBuilding
                 if (objectAsSurface.isLargerThan(otherBuildingAsSurface))
@@ -198,20 +225,26 @@ public class IntersectingBuildingsCheck extends BaseCheck<String>
     }
 
     /**
-     * Find {@link IntersectionType} for given {@link Polygon}s. There are some edge cases where
-     * there are minor boundary intersections. So we do additional area check to filter off the
-     * false positives.
+     * Find {@link IntersectionType} for given {@link Area}s. There are some edge cases where there
+     * are minor boundary intersections. So we do additional area check to filter off the false
+     * positives.
      *
-     * @param polygon
-     *            {@link Polygon} to check for intersection
-     * @param otherPolygon
-     *            Another {@link Polygon} to check against for intersection
-     * @return {@link IntersectionType} between given {@link Polygon}s
+     * @param area
+     *            {@link Area} to check for intersection
+     * @param otherArea
+     *            Another {@link Area} to check against for intersection
+     * @return {@link IntersectionType} between given {@link Area}s
      */
-    private IntersectionType findIntersectionType(final Polygon polygon, final Polygon otherPolygon)
+    private IntersectionType findIntersectionType(final Area area, final Area otherArea)
     {
-        final double proportion = IntersectionUtilities.findIntersectionPercentage(polygon,
-                otherPolygon);
+        // Most pairs do not overlap enough for either type, reject them without intersecting them
+        final OptionalDouble percentage = IntersectionUtilities.findIntersectionPercentage(area,
+                otherArea, Math.min(OVERLAP_LOWER_LIMIT, this.intersectionLowerLimit));
+        if (!percentage.isPresent())
+        {
+            return IntersectionType.NONE;
+        }
+        final double proportion = percentage.getAsDouble();
         if (proportion >= OVERLAP_LOWER_LIMIT)
         {
             return IntersectionType.OVERLAP;
@@ -12,6 +12,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.atlas.predicates.TypePredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
@@ -31,10 +32,8 @@ import org.openstreetmap.atlas.geography.atlas.items.Line;
 import org.openstreetmap.atlas.geography.atlas.items.LineItem;
 import org.openstreetmap.atlas.geography.atlas.items.Node;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
-import org.openstreetmap.atlas.geography.atlas.items.complex.RelationOrAreaToMultiPolygonConverter;
 import org.openstreetmap.atlas.tags.AdministrativeLevelTag;
 import org.openstreetmap.atlas.tags.BridgeTag;
-import org.openstreetmap.atlas.tags.BuildingTag;
 import org.openstreetmap.atlas.tags.FordTag;
 import org.openstreetmap.atlas.tags.HighwayTag;
 import org.openstreetmap.atlas.tags.ISOCountryTag;
@@ -252,7 +251,8 @@ public class LineCrossingWaterBodyCheck extends BaseCheck<Long>
         this.markAsFlagged(object.getOsmIdentifier());
         // First convert the waterbody to a GeometricSurface for use in querying
         final GeometricSurface waterbody = object instanceof Area ? ((Area) object).asPolygon()
-                : new RelationOrAreaToMultiPolygonConverter().convert((Relation) object);
+                : AtlasLayers.forAtlas(object.getAtlas()).geometries()
+                        .multiPolygon((Relation) object);
 
         if (waterbody instanceof MultiPolygon)
         {
@@ -271,9 +271,8 @@ public class LineCrossingWaterBodyCheck extends BaseCheck<Long>
         final Atlas atlas = object.getAtlas();
         final Iterable<AtlasItem> invalidCrossingItems = this.flagBuildings
                 ? new MultiIterable<>(collectOffendingLineItems(atlas, object, waterbody),
-                        atlas.areasIntersecting(waterbody,
-                                area -> BuildingTag.isBuilding(area)
-                                        && !NONOFFENDING_BUILDINGS.test(area)
+                        AtlasLayers.forAtlas(atlas).buildings().intersecting(waterbody,
+                                area -> !NONOFFENDING_BUILDINGS.test(area)
                                         && LevelTag.areOnSameLevel(object, area)
                                         && !this.getInteractionsPerWaterbodyComponent(waterbody,
                                                 object, area.asPolygon()).isEmpty()))
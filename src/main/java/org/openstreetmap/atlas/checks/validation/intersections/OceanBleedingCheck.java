@@ -10,22 +10,28 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.checks.utility.CommonTagFilters;
 import org.openstreetmap.atlas.checks.utility.IntersectionUtilities;
+import org.openstreetmap.atlas.checks.utility.WaterMask;
+import org.openstreetmap.atlas.checks.utility.WaterMask.Cover;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Area;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.LineItem;
 import org.openstreetmap.atlas.tags.AmenityTag;
 import org.openstreetmap.atlas.tags.BridgeTag;
-import org.openstreetmap.atlas.tags.BuildingTag;
 import org.openstreetmap.atlas.tags.HighwayTag;
 import org.openstreetmap.atlas.tags.filters.TaggableFilter;
+import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 
 /**
@@ -118,9 +124,14 @@ public class OceanBleedingCheck extends BaseCheck<Long>
         // offending land features
         final boolean oceanIsArea = object instanceof Area;
 
-        // Ocean boundary, make it a closed polygon
-        final Polygon oceanBoundary = oceanIsArea ? ((Area) object).asPolygon()
-                : new Polygon(((LineItem) object).asPolyLine());
+        // Ocean boundary, make it a closed polygon. Large ocean features are prepared once, and
+        // every land feature is then tested against the prepared geometry.
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(object.getAtlas()).geometries();
+        final CachedGeometry<Polygon> ocean = oceanIsArea ? geometries.polygon((Area) object)
+                : AtlasGeometries.forPolygon(new Polygon(((LineItem) object).asPolyLine()));
+        final Polygon oceanBoundary = ocean.asGeometry();
+        // Land features away from every ocean feature are rejected without testing the geometries
+        final WaterMask mask = this.oceanMask(object.getAtlas());
 
         // Differentiate between a coastline area (sometimes seen as islands) and a waterbody area
         final boolean oceanFeatureIsAWaterBody = this.validOceanTags.test(object);
@@ -141,10 +152,15 @@ public class OceanBleedingCheck extends BaseCheck<Long>
             // Collect invalid line items contained within and intersecting with the waterbody ocean
             // feature
             final Iterable<LineItem> intersectingLinearFeatures = object.getAtlas()
-                    .lineItemsIntersecting(oceanBoundary,
-                            isInvalidlyInteractingWithOcean(oceanBoundary));
-            final Iterable<Area> intersectingBuildingFeatures = object.getAtlas()
-                    .areasIntersecting(oceanBoundary, BuildingTag::isBuilding);
+                    .lineItemsIntersecting(oceanBoundary.bounds(),
+                            lineItem -> mask.cover(lineItem.bounds()) != Cover.LAND
+                                    && ocean.intersects(geometries.polyLine(lineItem))
+                                    && isInvalidlyInteractingWithOcean(oceanBoundary)
+                                            .test(lineItem));
+            final Iterable<Area> intersectingBuildingFeatures = AtlasLayers
+                    .forAtlas(object.getAtlas()).buildings().intersecting(oceanBoundary.bounds(),
+                            building -> mask.cover(building.bounds()) != Cover.LAND
+                                    && ocean.intersects(geometries.polygon(building)));
             intersectingLinearFeatures.forEach(offendingLineItems::add);
             intersectingBuildingFeatures.forEach(offendingBuildings::add);
         }
@@ -153,20 +169,36 @@ public class OceanBleedingCheck extends BaseCheck<Long>
             // Collect invalid buildings items intersecting the ocean feature, which is either a
             // coastline landmass or linear waterbody
             final Iterable<LineItem> intersectingLinearFeatures = object.getAtlas()
-                    .lineItemsIntersecting(oceanBoundary, lineItem -> (oceanIsArea
-                            && !oceanBoundary.fullyGeometricallyEncloses(lineItem.asPolyLine())
-                            || object instanceof LineItem && ((LineItem) object).asPolyLine()
-                                    .intersects(lineItem.asPolyLine()))
-                            && isInvalidlyInteractingWithOcean(
-                                    oceanIsArea ? oceanBoundary : ((LineItem) object).asPolyLine())
-                                            .test(lineItem));
-            final Iterable<Area> intersectingBuildingFeatures = object.getAtlas().areasIntersecting(
-                    oceanBoundary,
-                    area -> (oceanIsArea
-                            && !oceanBoundary.fullyGeometricallyEncloses(area.asPolygon())
-                            || object instanceof LineItem && ((LineItem) object).asPolyLine()
-                                    .intersects(area.asPolygon()))
-                            && BuildingTag.isBuilding(area));
+                    .lineItemsIntersecting(oceanBoundary.bounds(), lineItem ->
+                    {
+                        if (mask.cover(lineItem.bounds()) == Cover.LAND)
+                        {
+                            return false;
+                        }
+                        final CachedGeometry<PolyLine> line = geometries.polyLine(lineItem);
+                        return ocean.intersects(line)
+                                && (oceanIsArea && !ocean.covers(line)
+                                        || object instanceof LineItem && ((LineItem) object)
+                                                .asPolyLine().intersects(lineItem.asPolyLine()))
+                                && isInvalidlyInteractingWithOcean(oceanIsArea ? oceanBoundary
+                                        : ((LineItem) object).asPolyLine()).test(lineItem);
+                    });
+            final Iterable<Area> intersectingBuildingFeatures = AtlasLayers
+                    .forAtlas(object.getAtlas()).buildings().intersecting(oceanBoundary.bounds(),
+                            area ->
+                            {
+                                if (mask.cover(area.bounds()) == Cover.LAND)
+                                {
+                                    return false;
+                                }
+                                final CachedGeometry<Polygon> building = geometries
+                                        .polygon(area);
+                                return ocean.intersects(building)
+                                        && (oceanIsArea && !ocean.covers(building)
+                                                || object instanceof LineItem
+                                                        && ((LineItem) object).asPolyLine()
+                                                                .intersects(area.asPolygon()));
+                            });
             intersectingLinearFeatures.forEach(offendingLineItems::add);
             intersectingBuildingFeatures.forEach(offendingBuildings::add);
         }
@@ -263,6 +295,30 @@ public class OceanBleedingCheck extends BaseCheck<Long>
         };
     }
 
+    /**
+     * Gets a land and ocean mask of every ocean feature this check validates, built once per Atlas
+     * and shared by every ocean feature. A land feature intersecting an ocean feature always
+     * overlaps a cell of the mask that is not {@link Cover#LAND}.
+     *
+     * @param atlas
+     *            the Atlas
+     * @return the ocean mask of the Atlas
+     */
+    private WaterMask oceanMask(final Atlas atlas)
+    {
+        return AtlasLayers.forAtlas(atlas).derived(Arrays.asList(OceanBleedingCheck.class,
+                WaterMask.class, this.validOceanTags.toString(), this.invalidOceanTags.toString(),
+                this.oceanBoundaryTags.toString()), source ->
+                {
+                    final AtlasGeometries geometries = AtlasLayers.forAtlas(source).geometries();
+                    return new WaterMask(source.bounds(),
+                            Iterables.stream(source.areas(this::validCheckForObject))
+                                    .map(geometries::polygon).collectToList(),
+                            Iterables.stream(source.lineItems(this::validCheckForObject))
+                                    .map(geometries::polyLine).collectToList());
+                });
+    }
+
     /**
      * Validates the supplied street {@link Edge}
      *
@@ -1,6 +1,7 @@
 package org.openstreetmap.atlas.checks.validation.intersections;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -8,6 +9,7 @@ import java.util.Set;
 import org.openstreetmap.atlas.checks.atlas.predicates.TagPredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.MonotoneChains;
 import org.openstreetmap.atlas.checks.validation.GeometryValidator;
 import org.openstreetmap.atlas.exception.CoreException;
 import org.openstreetmap.atlas.geography.Location;
@@ -48,8 +50,10 @@ public class SelfIntersectingPolylineCheck extends BaseCheck<Long>
     private static final Logger logger = LoggerFactory
             .getLogger(SelfIntersectingPolylineCheck.class);
     private static final String MINIMUM_HIGHWAY_TYPE_DEFAULT = "SERVICE";
+    private static final long MONOTONE_CHAINS_POINTS_MINIMUM_DEFAULT = 500;
     private static final long serialVersionUID = 2722288442633787006L;
     private final HighwayTag minimumHighwayType;
+    private final long monotoneChainsPointsMinimum;
 
     /**
      * Default constructor
@@ -63,6 +67,9 @@ public class SelfIntersectingPolylineCheck extends BaseCheck<Long>
         // Retrieve minimum highway type from the config
         this.minimumHighwayType = this.configurationValue(configuration, "minimum.highway.type",
                 MINIMUM_HIGHWAY_TYPE_DEFAULT, string -> HighwayTag.valueOf(string.toUpperCase()));
+        // Polylines with at least this many points are checked with monotone chains
+        this.monotoneChainsPointsMinimum = this.configurationValue(configuration,
+                "monotone.chains.points.minimum", MONOTONE_CHAINS_POINTS_MINIMUM_DEFAULT);
     }
 
     /**
@@ -121,8 +128,11 @@ public class SelfIntersectingPolylineCheck extends BaseCheck<Long>
             throw new CoreException("Invalid item type {}", object.getClass().toString());
         }
 
-        // First, find shape point intersections
-        final Set<Location> selfIntersections = polyline.selfIntersections();
+        // First, find shape point intersections. Comparing every pair of segments is quadratic, so
+        // long polylines only compare the segments of monotone chains with overlapping bounds
+        final Set<Location> selfIntersections = polyline.size() >= this.monotoneChainsPointsMinimum
+                ? MonotoneChains.selfIntersections(polyline)
+                : polyline.selfIntersections();
 
         if (selfIntersections.size() > 0)
         {
@@ -180,13 +190,13 @@ public class SelfIntersectingPolylineCheck extends BaseCheck<Long>
      */
     private boolean hasDuplicateSegments(final PolyLine polyline)
     {
-        final List<Segment> segments = polyline.segments();
+        final Set<Segment> segments = new HashSet<>();
 
         // Loop through Polyline Segments
-        for (final Segment segment : segments)
+        for (final Segment segment : polyline.segments())
         {
-            // Check if segment exists elsewhere in List
-            if (segments.indexOf(segment) != segments.lastIndexOf(segment))
+            // Check if segment already exists in the Polyline
+            if (!segments.add(segment))
             {
                 return true;
             }
@@ -6,8 +6,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
@@ -100,13 +102,15 @@ public class UnwalkableWaysCheck extends BaseCheck<Long>
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
         final Edge crossingEdge = (Edge) object;
+        final AtlasGraph graph = AtlasLayers.forAtlas(crossingEdge.getAtlas()).graph();
+        final int crossingIndex = graph.edgeIndex(crossingEdge.getIdentifier());
 
         // Filter the connected edges on either end of this edge to narrow down to potential
         // dual carriageways.
-        final Set<Edge> startEdges = filterConnectedEdgesToCandidates(
-                crossingEdge.start().connectedEdges(), crossingEdge);
-        final Set<Edge> endEdges = filterConnectedEdgesToCandidates(
-                crossingEdge.end().connectedEdges(), crossingEdge);
+        final Set<Edge> startEdges = filterConnectedEdgesToCandidates(graph,
+                graph.start(crossingIndex), crossingEdge);
+        final Set<Edge> endEdges = filterConnectedEdgesToCandidates(graph,
+                graph.end(crossingIndex), crossingEdge);
 
         // used for comparing directions of candidate edges to find ones in opposite directions
         // for the edges from the "start" edge
@@ -146,7 +150,7 @@ public class UnwalkableWaysCheck extends BaseCheck<Long>
                 // Based on that, we can then do a basic check if the original edge is also a dual
                 // carriageway.
                 if (!this.includeDualCrossingDualCarriageways
-                        && hasReverseCarriageway(crossingEdge))
+                        && hasReverseCarriageway(graph, crossingIndex, crossingEdge))
                 {
                     logger.trace("Skipping {} as possible dual carriageway.",
                             matchingEndEdge.get().getOsmIdentifier());
@@ -171,68 +175,93 @@ public class UnwalkableWaysCheck extends BaseCheck<Long>
     }
 
     /**
-     * Filter a set of candidate edges down edges that are potential dual carriageways and are not
-     * the same name as the original edge.
+     * Filter the edges connected to a node down to edges that are potential dual carriageways and
+     * are not the same name as the original edge. Edges less important than the minimum highway
+     * type are skipped on the graph, without being looked up.
      *
-     * @param edges
-     *            the set of candidate edges (from one end of original edge)
+     * @param graph
+     *            the graph of the atlas
+     * @param node
+     *            the index of the node at one end of the original edge
      * @param originalEdge
      *            the original edge
      * @return a set of filtered potential dual carriageway edges
      */
-    private Set<Edge> filterConnectedEdgesToCandidates(final Set<Edge> edges,
+    private Set<Edge> filterConnectedEdgesToCandidates(final AtlasGraph graph, final int node,
             final Edge originalEdge)
     {
         final Optional<String> originalEdgeName = NameTag.getNameOf(originalEdge);
-
-        return edges.stream().filter(candidate ->
+        final Set<Edge> candidates = new HashSet<>();
+        graph.forEachEdge(node, edge ->
         {
-            final Optional<String> candidateEdgeName = NameTag.getNameOf(candidate);
-
-            return !originalEdgeName.equals(candidateEdgeName) && !OneWayTag.isTwoWay(candidate)
-                    && candidate.highwayTag().isMoreImportantThanOrEqualTo(this.minimumHighwayType);
-
-        }).collect(Collectors.toSet());
+            if (graph.highway(edge).isMoreImportantThanOrEqualTo(this.minimumHighwayType))
+            {
+                final Edge candidate = graph.edge(edge);
+                if (!originalEdgeName.equals(NameTag.getNameOf(candidate))
+                        && !OneWayTag.isTwoWay(candidate))
+                {
+                    candidates.add(candidate);
+                }
+            }
+        });
+        return candidates;
     }
 
     /**
      * Attempt to check if the given edge is a dual carriageway once we think that edge crosses a
-     * dual carriageway. This method takes the edge, traverses to 2 levels deep on connected edges,
-     * then checks for one that could be the reverse edge (different id, same name, opposite
-     * heading). The assumption is this works for a typical crossing dual-carriageway, where roadA
-     * (possible dual carriageway currently being checked) crosses roadB (known dual carriageway)
+     * dual carriageway. This method takes the edge, traverses to 2 levels deep on connected edges
+     * of the graph, then checks for one that could be the reverse edge (different id, same name,
+     * opposite heading). The assumption is this works for a typical crossing dual-carriageway,
+     * where roadA (possible dual carriageway currently being checked) crosses roadB (known dual
+     * carriageway)
      *
+     * @param graph
+     *            the graph of the atlas
+     * @param originalIndex
+     *            the index of the possible dual carriageway
      * @param originalEdge
      *            the possible dual carriageway.
      * @return true if we think there is a reverse carriage way
      */
-    private boolean hasReverseCarriageway(final Edge originalEdge)
+    private boolean hasReverseCarriageway(final AtlasGraph graph, final int originalIndex,
+            final Edge originalEdge)
     {
         // first level deep edges
-        final Set<Edge> firstLevel = originalEdge.connectedEdges();
-
-        // second level deep edges
-        final Set<Edge> secondLevel = new HashSet<>();
-        firstLevel.forEach(firstLevelEdge -> secondLevel.addAll(firstLevelEdge.connectedEdges()));
-
-        // collect visited edges
-        final Set<Long> visitedEdgeIds = firstLevel.stream().map(Edge::getIdentifier)
-                .collect(Collectors.toSet());
-        visitedEdgeIds.add(originalEdge.getIdentifier());
+        final Set<Integer> firstLevel = new HashSet<>();
+        final IntConsumer firstLevelCollector = edge ->
+        {
+            if (edge != originalIndex)
+            {
+                firstLevel.add(edge);
+            }
+        };
+        graph.forEachEdge(graph.start(originalIndex), firstLevelCollector);
+        graph.forEachEdge(graph.end(originalIndex), firstLevelCollector);
 
-        // filter visited edges
-        final Set<Edge> filteredSecondLevel = secondLevel.stream().filter(
-                secondLevelEdge -> !visitedEdgeIds.contains(secondLevelEdge.getIdentifier()))
-                .collect(Collectors.toSet());
+        // second level deep edges, without the visited edges. Only the edges with the same
+        // highway type as the edge can match, so the others are not looked up.
+        final Set<Integer> filteredSecondLevel = new HashSet<>();
+        for (final int firstLevelEdge : firstLevel)
+        {
+            final IntConsumer secondLevelCollector = edge ->
+            {
+                if (edge != originalIndex && !firstLevel.contains(edge)
+                        && graph.highway(edge) == graph.highway(originalIndex))
+                {
+                    filteredSecondLevel.add(edge);
+                }
+            };
+            graph.forEachEdge(graph.start(firstLevelEdge), secondLevelCollector);
+            graph.forEachEdge(graph.end(firstLevelEdge), secondLevelCollector);
+        }
 
         // check for any edges with same name and road classification but different osmId as edge
         // and opposite direction
-        return filteredSecondLevel.stream()
+        return filteredSecondLevel.stream().map(graph::edge)
                 .anyMatch(filteredSecondLevelEdge -> NameTag.getNameOf(filteredSecondLevelEdge)
                         .equals(NameTag.getNameOf(originalEdge))
                         && filteredSecondLevelEdge.getTag(HighwayTag.KEY)
                                 .equals(originalEdge.getTag(HighwayTag.KEY))
-                        && filteredSecondLevelEdge.getIdentifier() != originalEdge.getIdentifier()
                         && EDGE_DIRECTION_COMPARATOR.isOppositeDirection(filteredSecondLevelEdge,
                                 originalEdge, false));
     }
@@ -11,8 +11,8 @@ import java.util.stream.IntStream;
 import org.openstreetmap.atlas.checks.atlas.predicates.TypePredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.Location;
-import org.openstreetmap.atlas.geography.Segment;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.tags.HighwayTag;
@@ -94,25 +94,27 @@ public class ApproximateWayCheck extends BaseCheck<Long>
     @Override
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
-        final List<Segment> segments = ((Edge) object).asPolyLine().segments();
+        final PolyLineCoordinates coordinates = PolyLineCoordinates
+                .forPolyLine(((Edge) object).asPolyLine());
 
-        if (segments.size() < 2)
+        if (coordinates.segmentCount() < 2)
         {
             return Optional.empty();
         }
 
-        final boolean isCrude = IntStream.range(0, segments.size() - 1).anyMatch(index ->
+        final double[] lengths = coordinates.segmentLengths();
+        final boolean isCrude = IntStream.range(0, lengths.length - 1).anyMatch(index ->
         {
-            final Segment seg1 = segments.get(index);
-            final Segment seg2 = segments.get(index + 1);
-            final double angle = findAngle(seg1, seg2);
+            final double angle = findAngle(lengths[index], lengths[index + 1],
+                    coordinates.distance(index, index + 2));
             // ignore sharp turns and almost straightaways
             if (angle < this.minAngle || angle > this.maxAngle)
             {
                 return false;
             }
-            final double distance = quadraticBezier(seg1.first(), seg2.first(), seg2.end());
-            final double legsLength = seg1.length().asMeters() + seg2.length().asMeters();
+            final double distance = quadraticBezier(coordinates.location(index),
+                    coordinates.location(index + 1), coordinates.location(index + 2));
+            final double legsLength = lengths[index] + lengths[index + 1];
             return distance > this.minDeviationLength.asMeters()
                     && distance / legsLength > this.maxDeviationRatio;
         });
@@ -142,16 +144,13 @@ public class ApproximateWayCheck extends BaseCheck<Long>
     }
 
     /**
-     * Calculates the angle between the two segments. Uses the Law of Cosines to find the angle.
-     * Assumes that the segments connect at an end point.
+     * Calculates the angle between two connected segments, from their lengths and the distance
+     * between their far ends. Uses the Law of Cosines to find the angle.
      * 
      * @return the angle between the two segments <= 180 degrees
      */
-    private double findAngle(final Segment seg1, final Segment seg2)
+    private double findAngle(final double aLength, final double bLength, final double cLength)
     {
-        final double aLength = seg1.length().asMeters();
-        final double bLength = seg2.length().asMeters();
-        final double cLength = new Segment(seg1.start(), seg2.end()).length().asMeters();
         return Math.toDegrees(Math.acos(
                 (pow(aLength, 2) + pow(bLength, 2) - pow(cLength, 2)) / (2 * aLength * bLength)));
     }
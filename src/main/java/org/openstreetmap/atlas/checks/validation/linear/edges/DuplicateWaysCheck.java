@@ -3,11 +3,15 @@ package org.openstreetmap.atlas.checks.validation.linear.edges;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.SegmentHashIndex;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.tags.AreaTag;
@@ -30,10 +34,15 @@ public class DuplicateWaysCheck extends BaseCheck<Long>
     private static final List<String> FALLBACK_INSTRUCTIONS = Arrays
             .asList(DUPLICATE_EDGE_INSTRUCTIONS);
     private static final Distance ZERO_DISTANCE = Distance.ZERO;
+    private static final boolean SEGMENT_INDEX_DEFAULT = false;
+
+    private final boolean segmentIndex;
 
     public DuplicateWaysCheck(final Configuration configuration)
     {
         super(configuration);
+        this.segmentIndex = this.configurationValue(configuration, "segment.index",
+                SEGMENT_INDEX_DEFAULT);
     }
 
     @Override
@@ -56,11 +65,7 @@ public class DuplicateWaysCheck extends BaseCheck<Long>
         final Edge edge = (Edge) object;
         final PolyLine edgePoly = edge.asPolyLine();
 
-        final Rectangle bounds = edge.asPolyLine().bounds();
-        // Get Edges which are contained by or intersect the bounds, and then filter
-        // Out the non-main Edges as the bounds Edges are not guaranteed to be uni-directional
-        final Iterable<Edge> edgesInBounds = edge.getAtlas().edgesIntersecting(bounds,
-                Edge::isMainEdge);
+        final Iterable<Edge> edgesInBounds = this.candidates(edge);
 
         for (final Edge edgeInBounds : edgesInBounds)
         {
@@ -103,4 +108,31 @@ public class DuplicateWaysCheck extends BaseCheck<Long>
     {
         return FALLBACK_INSTRUCTIONS;
     }
+
+    /**
+     * Gets the main {@link Edge}s that may duplicate an {@link Edge}. With the segment index, they
+     * are the main {@link Edge}s sharing at least one segment with it, from the segment hashes of
+     * the atlas computed once, in identifier order. Otherwise, they are all the main {@link Edge}s
+     * intersecting its bounds.
+     *
+     * @param edge
+     *            the {@link Edge} to find duplicates of
+     * @return candidate duplicate {@link Edge}s
+     */
+    private Iterable<Edge> candidates(final Edge edge)
+    {
+        final Atlas atlas = edge.getAtlas();
+        if (this.segmentIndex)
+        {
+            return AtlasLayers.forAtlas(atlas)
+                    .derived(SegmentHashIndex.class,
+                            source -> new SegmentHashIndex(source.edges(Edge::isMainEdge)))
+                    .candidates(edge.asPolyLine()).stream().sorted().map(atlas::edge)
+                    .collect(Collectors.toList());
+        }
+        final Rectangle bounds = edge.asPolyLine().bounds();
+        // Get Edges which are contained by or intersect the bounds, and then filter
+        // Out the non-main Edges as the bounds Edges are not guaranteed to be uni-directional
+        return atlas.edgesIntersecting(bounds, Edge::isMainEdge);
+    }
 }
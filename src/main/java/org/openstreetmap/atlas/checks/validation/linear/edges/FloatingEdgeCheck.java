@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.atlas.predicates.TypePredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
@@ -51,6 +53,41 @@ public class FloatingEdgeCheck extends BaseCheck<Long>
     // check if floating edge is connected to construction road
     private final boolean checkConstructionRoad;
 
+    /**
+     * Checks that all the edges starting or ending at a node are the same edge
+     *
+     * @param graph
+     *            the graph of the atlas
+     * @param node
+     *            a node index
+     * @param edge
+     *            an edge index
+     * @param reverse
+     *            the index of the reverse edge, or {@link AtlasGraph#NONE}
+     * @return {@code true} if the node has no other edge than the edge or its reverse
+     */
+    private static boolean hasOnlyEdge(final AtlasGraph graph, final int node, final int edge,
+            final int reverse)
+    {
+        for (int position = 0; position < graph.outDegree(node); position++)
+        {
+            final int other = graph.outEdge(node, position);
+            if (other != edge && other != reverse)
+            {
+                return false;
+            }
+        }
+        for (int position = 0; position < graph.inDegree(node); position++)
+        {
+            final int other = graph.inEdge(node, position);
+            if (other != edge && other != reverse)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Checks if the {@link Edge} intersects with/is within an airport.
      *
@@ -164,18 +201,13 @@ public class FloatingEdgeCheck extends BaseCheck<Long>
      */
     private boolean hasNoConnectedEdges(final Edge edge)
     {
-        // Loop through all edges that are connected to the edge you are looking at
-        final Iterable<Edge> connectedEdges = edge.connectedEdges();
-        for (final Edge connectedEdge : connectedEdges)
-        {
-            // if edge is not null (ie. valid) and not the reverse edge then immediately return
-            // false, and it can safely assumed that this particular edge is not a floating edge
-            if (connectedEdge != null && !edge.isReversedEdge(connectedEdge))
-            {
-                return false;
-            }
-        }
-        return true;
+        // Walk the edges starting or ending at both nodes of the edge on the shared graph of the
+        // atlas, instead of building the set of connected edges
+        final AtlasGraph graph = AtlasLayers.forAtlas(edge.getAtlas()).graph();
+        final int index = graph.edgeIndex(edge.getIdentifier());
+        final int reverse = graph.reverse(index);
+        return hasOnlyEdge(graph, graph.start(index), index, reverse)
+                && hasOnlyEdge(graph, graph.end(index), index, reverse);
     }
 
     /**
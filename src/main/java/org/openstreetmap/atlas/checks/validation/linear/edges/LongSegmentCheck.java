@@ -6,7 +6,7 @@ import java.util.Optional;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
-import org.openstreetmap.atlas.geography.Segment;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.tags.RouteTag;
@@ -54,14 +54,17 @@ public class LongSegmentCheck extends BaseCheck<Long>
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
         final Edge edge = (Edge) object;
+        final PolyLineCoordinates coordinates = PolyLineCoordinates.forPolyLine(edge.asPolyLine());
+        final double minimumMeters = this.minimumLength.asMeters();
 
-        final Optional<Segment> segment = edge.asPolyLine().segments().stream()
-                .filter(s -> s.length().isGreaterThanOrEqualTo(this.minimumLength)).findFirst();
-
-        if (segment.isPresent())
+        for (int segment = 0; segment < coordinates.segmentCount(); segment++)
         {
-            return Optional.of(createFlag(object, this.getLocalizedInstruction(0,
-                    edge.getOsmIdentifier(), segment.get().length().asKilometers())));
+            final double length = coordinates.distance(segment, segment + 1);
+            if (length >= minimumMeters)
+            {
+                return Optional.of(createFlag(object, this.getLocalizedInstruction(0,
+                        edge.getOsmIdentifier(), Distance.meters(length).asKilometers())));
+            }
         }
 
         return Optional.empty();
@@ -6,9 +6,12 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.SegmentHashIndex;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Rectangle;
@@ -46,12 +49,14 @@ public class OverlappingEdgeCheck extends BaseCheck<Long>
     private static final String HIGHWAY_MINIMUM_PRIORITY_DEFAULT = HighwayTag.RESIDENTIAL
             .toString();
     private static final boolean FILTER_PEDESTRIAN_AREAS_DEFAULT = true;
+    private static final boolean SEGMENT_INDEX_DEFAULT = true;
     private static final String ZERO = "0";
     private static final Predicate<Edge> AREA_YES_TAG = edge -> Validators.isOfType(edge,
             AreaTag.class, AreaTag.YES);
 
     private final HighwayTag highwayMinimumPriority;
     private final boolean filterPedestrianAreas;
+    private final boolean segmentIndex;
 
     private static Predicate<Edge> notEqual(final AtlasObject object)
     {
@@ -66,6 +71,8 @@ public class OverlappingEdgeCheck extends BaseCheck<Long>
                         HIGHWAY_MINIMUM_PRIORITY_DEFAULT).toUpperCase());
         this.filterPedestrianAreas = this.configurationValue(configuration,
                 "pedestrian.areas.filter", FILTER_PEDESTRIAN_AREAS_DEFAULT);
+        this.segmentIndex = this.configurationValue(configuration, "segment.index",
+                SEGMENT_INDEX_DEFAULT);
     }
 
     @Override
@@ -87,11 +94,8 @@ public class OverlappingEdgeCheck extends BaseCheck<Long>
             {
                 if (start != null)
                 {
-                    // we only have to check one end for intersecting edges
-                    final Rectangle box = start.boxAround(Distance.meters(0));
                     // add all overlapping edges not yet flagged and not pedestrian areas
-                    overlappingItems.addAll(Iterables
-                            .stream(atlas.edgesIntersecting(box, Edge::isMainEdge))
+                    overlappingItems.addAll(Iterables.stream(this.candidates(atlas, start, end))
                             .filter(notEqual(object).and(notIn(object))
                                     .and(this.overlapsSegment(start, end))
                                     .and(this.filterPedestrianAreas ? edge -> !this.edgeIsArea(edge)
@@ -128,6 +132,35 @@ public class OverlappingEdgeCheck extends BaseCheck<Long>
         return FALLBACK_INSTRUCTIONS;
     }
 
+    /**
+     * Gets the main {@link Edge}s that may contain a segment. With the segment index, they come
+     * from the segment hashes of all the main {@link Edge}s of the atlas, computed once.
+     * Otherwise, they are the main {@link Edge}s intersecting one end of the segment.
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @param start
+     *            the start of the segment
+     * @param end
+     *            the end of the segment
+     * @return candidate {@link Edge}s for the segment
+     */
+    private Iterable<Edge> candidates(final Atlas atlas, final Location start,
+            final Location end)
+    {
+        if (this.segmentIndex)
+        {
+            return AtlasLayers.forAtlas(atlas)
+                    .derived(SegmentHashIndex.class,
+                            source -> new SegmentHashIndex(source.edges(Edge::isMainEdge)))
+                    .candidates(start, end).stream().map(atlas::edge)
+                    .collect(Collectors.toList());
+        }
+        // we only have to check one end for intersecting edges
+        final Rectangle box = start.boxAround(Distance.meters(0));
+        return atlas.edgesIntersecting(box, Edge::isMainEdge);
+    }
+
     /**
      * Checks if an {@link Edge} is a pedestrian area or service highway with area=yes tag. A
      * pedestrian area is defined here by a closed way or area=yes tag combined with
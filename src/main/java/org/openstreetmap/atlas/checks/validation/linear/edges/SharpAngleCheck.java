@@ -7,6 +7,7 @@ import java.util.Optional;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
@@ -58,15 +59,15 @@ public class SharpAngleCheck extends BaseCheck<Long>
     {
         final Edge edge = (Edge) object;
 
-        // Ignore all types less significant than Tertiary
-        if (edge.highwayTag().isLessImportantThan(HighwayTag.TERTIARY))
+        // Ignore all types less significant than Tertiary, and edges whose reverse was flagged
+        if (edge.highwayTag().isLessImportantThan(HighwayTag.TERTIARY) || hasBeenFlagged(edge))
         {
             return Optional.empty();
         }
 
-        final List<Tuple<Angle, Location>> offendingAngles = edge.asPolyLine()
-                .anglesGreaterThanOrEqualTo(this.threshold);
-        if (!offendingAngles.isEmpty() && !hasBeenFlagged(edge))
+        final List<Tuple<Angle, Location>> offendingAngles = PolyLineCoordinates
+                .forPolyLine(edge.asPolyLine()).anglesGreaterThanOrEqualTo(this.threshold);
+        if (!offendingAngles.isEmpty())
         {
             flagEdge(edge);
             final String checkMessage;
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.Node;
@@ -100,7 +101,8 @@ public class ShortSegmentCheck extends BaseCheck<Long>
                 && ((Edge) object).highwayTag().isMoreImportantThanOrEqualTo(
                         this.minimumHighwayPriority)
                 && ((Edge) object).isMainEdge()
-                && ((Edge) object).length().isLessThan(this.maximumLength);
+                && PolyLineCoordinates.forPolyLine(((Edge) object).asPolyLine())
+                        .length() < this.maximumLength.asMeters();
     }
 
     /**
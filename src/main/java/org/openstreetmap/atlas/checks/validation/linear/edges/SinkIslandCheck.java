@@ -1,7 +1,7 @@
 package org.openstreetmap.atlas.checks.validation.linear.edges;
 
 import java.util.ArrayDeque;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +11,11 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.atlas.predicates.TagPredicates;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.tags.AccessTag;
@@ -47,8 +49,8 @@ public class SinkIslandCheck extends BaseCheck<Long>
     private static final AmenityTag[] AMENITY_VALUES_TO_EXCLUDE = { AmenityTag.PARKING,
             AmenityTag.PARKING_SPACE, AmenityTag.MOTORCYCLE_PARKING, AmenityTag.PARKING_ENTRANCE };
     private static final String DEFAULT_MINIMUM_HIGHWAY_TYPE = "SERVICE";
-    private static final List<String> FALLBACK_INSTRUCTIONS = Collections
-            .singletonList("Road is impossible to get out of.");
+    private static final List<String> FALLBACK_INSTRUCTIONS = Arrays.asList(
+            "Road is impossible to get out of.", "Road is impossible to get into.");
     private static final float LOAD_FACTOR = 0.8f;
     private static final Predicate<AtlasObject> NAVIGABLE_HIGHWAYS = object -> Validators.isOfType(
             object, MotorVehicleTag.class, MotorVehicleTag.YES, MotorVehicleTag.DESIGNATED,
@@ -63,12 +65,17 @@ public class SinkIslandCheck extends BaseCheck<Long>
             .highwayTag().isMoreImportantThanOrEqualTo(HighwayTag.SERVICE);
     private static final long TREE_SIZE_DEFAULT = 50;
     private static final boolean DEFAULT_SERVICE_IN_PEDESTRIAN_FILTER = false;
+    private static final boolean COMPONENTS_ENABLED_DEFAULT = false;
     private static final long serialVersionUID = -1432150496331502258L;
     private final HighwayTag minimumHighwayType;
     private final int storeSize;
     private final int treeSize;
     // This can be turned on if we want to flag service roads surrounded by pedestrian networks.
     private final boolean serviceInPedestrianNetworkFilter;
+    // Finds the islands from the strongly connected components of the whole road network, instead
+    // of searching from each edge. This also flags islands impossible to get into, but can miss
+    // islands whose paths merge again, as their reach is overestimated.
+    private final boolean componentsEnabled;
 
     /**
      * Default constructor
@@ -91,6 +98,8 @@ public class SinkIslandCheck extends BaseCheck<Long>
         this.storeSize = (int) (this.treeSize / LOAD_FACTOR);
         this.serviceInPedestrianNetworkFilter = configurationValue(configuration,
                 "filter.pedestrian.network", DEFAULT_SERVICE_IN_PEDESTRIAN_FILTER);
+        this.componentsEnabled = configurationValue(configuration, "components.enabled",
+                COMPONENTS_ENABLED_DEFAULT);
     }
 
     @Override
@@ -107,6 +116,11 @@ public class SinkIslandCheck extends BaseCheck<Long>
     @Override
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
+        if (this.componentsEnabled)
+        {
+            return this.flagComponents((Edge) object);
+        }
+
         // Flag to keep track of whether we found an issue or not
         boolean haltedSearch = false;
 
@@ -204,6 +218,24 @@ public class SinkIslandCheck extends BaseCheck<Long>
         return FALLBACK_INSTRUCTIONS;
     }
 
+    /**
+     * Gets the islands of the road network of an {@link Atlas}, found once per atlas and shared by
+     * every edge
+     *
+     * @param atlas
+     *            an Atlas
+     * @return the islands of the road network
+     */
+    private SinkIslandComponents components(final Atlas atlas)
+    {
+        return AtlasLayers.forAtlas(atlas).derived(
+                Arrays.asList(SinkIslandCheck.class, this.treeSize,
+                        this.serviceInPedestrianNetworkFilter),
+                source -> new SinkIslandComponents(source, this::validEdge,
+                        edge -> this.excludedEdge(edge) || this.hasPedestrianExit(edge),
+                        this.treeSize));
+    }
+
     /**
      * This function checks an edge to determine whether it has certain characteristics that signify
      * to us that we do not want to keep examining this component of the network.
@@ -217,9 +249,21 @@ public class SinkIslandCheck extends BaseCheck<Long>
     {
         // If the edge has already been flagged by another process then we can break out of the
         // loop and assume that whether the check was a flag or not was handled by the other process
-        return this.isFlagged(edge.getIdentifier())
-                // We don't want to handle certain types of parking amenities
-                || this.endOrStartNodeHasAmenityTypeToExclude(edge)
+        return this.isFlagged(edge.getIdentifier()) || this.excludedEdge(edge);
+    }
+
+    /**
+     * Checks the characteristics of an edge that do not depend on the flags already made
+     *
+     * @param edge
+     *            An Edge we're examining
+     * @return {@code true} if the edge has an amenity type we want to exclude, ends in a boundary
+     *         node, or is a service road next to pedestrian ways, a building or an airport
+     */
+    private boolean excludedEdge(final Edge edge)
+    {
+        // We don't want to handle certain types of parking amenities
+        return this.endOrStartNodeHasAmenityTypeToExclude(edge)
                 // Ignore edges that have been way sectioned at the border, as has high probability
                 // of creating a false positive due to the sectioning of the way
                 || SyntheticBoundaryNodeTag.isBoundaryNode(edge.end())
@@ -251,6 +295,39 @@ public class SinkIslandCheck extends BaseCheck<Long>
                 || Validators.isOfType(edge.start(), AmenityTag.class, AmenityTag.PARKING_ENTRANCE);
     }
 
+    /**
+     * Flags the island of an edge, found from the strongly connected components of the road
+     * network. All the edges of the island are marked, so that it is flagged once.
+     *
+     * @param edge
+     *            the Edge to check
+     * @return a flag with all the edges of the island, if the edge belongs to one
+     */
+    private Optional<CheckFlag> flagComponents(final Edge edge)
+    {
+        return this.components(edge.getAtlas()).island(edge).map(island ->
+        {
+            island.getEdges().forEach(member -> this.markAsFlagged(member.getIdentifier()));
+            return this.createFlag(island.getEdges(),
+                    this.getLocalizedInstruction(island.isSink() ? 0 : 1));
+        });
+    }
+
+    /**
+     * Checks if a motor_vehicle=yes edge leads to a pedestrian way, which the search counts as a
+     * way out
+     *
+     * @param edge
+     *            any Edge
+     * @return true if the edge can be left through a pedestrian way
+     */
+    private boolean hasPedestrianExit(final Edge edge)
+    {
+        return edge.getTag(MotorVehicleTag.KEY).orElse(MotorVehicleTag.NO.name())
+                .equals(MotorVehicleTag.YES.name())
+                && edge.outEdges().stream().anyMatch(HighwayTag::isPedestrianNavigableHighway);
+    }
+
     /**
      * Checks if the edge is within or intersects airport polygon. Airport polygon is an atlas area
      * with {@link AerowayTag} tag.
@@ -0,0 +1,410 @@
+package org.openstreetmap.atlas.checks.validation.linear.edges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
+import org.openstreetmap.atlas.checks.utility.StronglyConnectedComponents;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+
+/**
+ * The sink and source islands of the road network of an {@link Atlas}, for the
+ * {@link SinkIslandCheck}. The strongly connected components of the directed {@link Edge} graph are
+ * computed once, and the islands are read from the graph of the components: a sink island is a set
+ * of components that can reach at most a given number of edges, none of them excluded, and a
+ * source island is the same in the reverse direction. The reach of a component is bounded by the
+ * sum of the reaches of its successors, which only overestimates it when paths merge again, so
+ * islands are never larger than expected.
+ * <p>
+ * Islands sharing components are merged, so that each one is flagged once. Islands are immutable
+ * once found, and can be read from multiple threads.
+ *
+ * @author agent
+ */
+final class SinkIslandComponents
+{
+    /**
+     * A set of edges impossible to get out of, or into
+     *
+     * @author agent
+     */
+    static final class Island
+    {
+        private final boolean sink;
+        private final Set<Edge> edges;
+
+        Island(final boolean sink, final Set<Edge> edges)
+        {
+            this.sink = sink;
+            this.edges = edges;
+        }
+
+        /**
+         * @return the edges of the island, by identifier
+         */
+        Set<Edge> getEdges()
+        {
+            return this.edges;
+        }
+
+        /**
+         * @return {@code true} for an island impossible to get out of, {@code false} for one
+         *         impossible to get into
+         */
+        boolean isSink()
+        {
+            return this.sink;
+        }
+    }
+
+    private static final int NONE = -1;
+
+    private final AtlasGraph graph;
+    // The road network edges, and the index of each edge of the graph among them, or NONE
+    private final List<Edge> edges = new ArrayList<>();
+    private final int[] nodes;
+    private final StronglyConnectedComponents components;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final Predicate<Edge> excluded;
+    private final int treeSize;
+    // 0 when not tested yet, 1 when included, 2 when excluded
+    private final byte[] exclusions;
+    // The island of each edge, or NONE
+    private final int[] edgeIslands;
+    private final List<Island> islands = new ArrayList<>();
+
+    /**
+     * Transposes a graph in compressed sparse row form
+     *
+     * @param offsets
+     *            the offsets of the successors of each node
+     * @param targets
+     *            the successors of all the nodes
+     * @return the offsets and the predecessors of the transposed graph
+     */
+    private static int[][] transpose(final int[] offsets, final int[] targets)
+    {
+        final int size = offsets.length - 1;
+        final int[] transposedOffsets = new int[size + 1];
+        for (final int target : targets)
+        {
+            transposedOffsets[target + 1]++;
+        }
+        for (int node = 0; node < size; node++)
+        {
+            transposedOffsets[node + 1] += transposedOffsets[node];
+        }
+        final int[] cursors = Arrays.copyOf(transposedOffsets, size);
+        final int[] transposedTargets = new int[targets.length];
+        for (int node = 0; node < size; node++)
+        {
+            for (int index = offsets[node]; index < offsets[node + 1]; index++)
+            {
+                transposedTargets[cursors[targets[index]]++] = node;
+            }
+        }
+        return new int[][] { transposedOffsets, transposedTargets };
+    }
+
+    /**
+     * @param parents
+     *            the parent of each walk, for merging
+     * @param walk
+     *            a walk
+     * @return the walk all the walks merged with this one are merged into
+     */
+    private static int root(final int[] parents, final int walk)
+    {
+        int root = walk;
+        while (parents[root] != root)
+        {
+            root = parents[root];
+        }
+        return root;
+    }
+
+    /**
+     * Finds the islands of an {@link Atlas}
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @param valid
+     *            selects the {@link Edge}s of the road network
+     * @param excluded
+     *            tells if an {@link Edge} prevents its island from being flagged, only tested on
+     *            the edges of small components
+     * @param treeSize
+     *            the maximum number of edges an island can reach
+     */
+    SinkIslandComponents(final Atlas atlas, final Predicate<Edge> valid,
+            final Predicate<Edge> excluded, final int treeSize)
+    {
+        this.graph = AtlasLayers.forAtlas(atlas).graph();
+        this.excluded = excluded;
+        this.treeSize = treeSize;
+
+        // The edges of the road network, numbered in the order of the graph of the atlas
+        this.nodes = new int[this.graph.edgeCount()];
+        Arrays.fill(this.nodes, NONE);
+        final int[] graphEdges = new int[this.graph.edgeCount()];
+        for (int edge = 0; edge < this.graph.edgeCount(); edge++)
+        {
+            final Edge entity = this.graph.edge(edge);
+            if (valid.test(entity))
+            {
+                graphEdges[this.edges.size()] = edge;
+                this.nodes[edge] = this.edges.size();
+                this.edges.add(entity);
+            }
+        }
+        final int size = this.edges.size();
+        this.exclusions = new byte[size];
+        this.edgeIslands = new int[size];
+        Arrays.fill(this.edgeIslands, NONE);
+
+        // The directed graph of these edges, each one leading to the ones starting at its end
+        final int[] offsets = new int[size + 1];
+        int[] targets = new int[size];
+        for (int node = 0; node < size; node++)
+        {
+            offsets[node + 1] = offsets[node];
+            final int end = this.graph.end(graphEdges[node]);
+            for (int position = 0; position < this.graph.outDegree(end); position++)
+            {
+                final int next = this.nodes[this.graph.outEdge(end, position)];
+                if (next != NONE)
+                {
+                    if (offsets[node + 1] == targets.length)
+                    {
+                        targets = Arrays.copyOf(targets, targets.length * 2);
+                    }
+                    targets[offsets[node + 1]++] = next;
+                }
+            }
+        }
+        targets = Arrays.copyOf(targets, offsets[size]);
+
+        // The graph of the components, where edges go from higher to lower components
+        this.components = new StronglyConnectedComponents(offsets, targets);
+        final int[][] grouped = this.components.members();
+        this.memberOffsets = grouped[0];
+        this.members = grouped[1];
+        final int count = this.components.count();
+        final int[] componentOffsets = new int[count + 1];
+        int[] componentTargets = new int[count];
+        final int[] seen = new int[count];
+        Arrays.fill(seen, NONE);
+        for (int component = 0; component < count; component++)
+        {
+            componentOffsets[component + 1] = componentOffsets[component];
+            final int end = this.memberOffsets[component + 1];
+            for (int member = this.memberOffsets[component]; member < end; member++)
+            {
+                final int node = this.members[member];
+                for (int index = offsets[node]; index < offsets[node + 1]; index++)
+                {
+                    final int next = this.components.component(targets[index]);
+                    if (next != component && seen[next] != component)
+                    {
+                        seen[next] = component;
+                        if (componentOffsets[component + 1] == componentTargets.length)
+                        {
+                            componentTargets = Arrays.copyOf(componentTargets,
+                                    componentTargets.length * 2);
+                        }
+                        componentTargets[componentOffsets[component + 1]++] = next;
+                    }
+                }
+            }
+        }
+        componentTargets = Arrays.copyOf(componentTargets, componentOffsets[count]);
+
+        // Successors have lower numbers, so sinks are found going up, and sources going down
+        this.collect(componentOffsets, componentTargets, true);
+        final int[][] reversed = transpose(componentOffsets, componentTargets);
+        this.collect(reversed[0], reversed[1], false);
+    }
+
+    /**
+     * @param edge
+     *            an {@link Edge}
+     * @return the island of the edge, if it belongs to one
+     */
+    Optional<Island> island(final Edge edge)
+    {
+        final int index = this.graph.edgeIndex(edge.getIdentifier());
+        final int node = index == AtlasGraph.NONE ? NONE : this.nodes[index];
+        return node == NONE || this.edgeIslands[node] == NONE ? Optional.empty()
+                : Optional.of(this.islands.get(this.edgeIslands[node]));
+    }
+
+    /**
+     * Finds the islands in one direction of the graph of the components, and keeps the ones with
+     * edges that are not in an island yet
+     *
+     * @param offsets
+     *            the offsets of the neighbours of each component
+     * @param targets
+     *            the neighbours of all the components, in the direction of the islands
+     * @param sink
+     *            {@code true} for sink islands, where neighbours have lower numbers
+     */
+    private void collect(final int[] offsets, final int[] targets, final boolean sink)
+    {
+        final int count = offsets.length - 1;
+        final boolean[] trapped = this.trapped(offsets, targets, sink);
+
+        // Islands start from trapped components that no other trapped component leads to
+        final boolean[] reached = new boolean[count];
+        for (int component = 0; component < count; component++)
+        {
+            if (trapped[component])
+            {
+                for (int index = offsets[component]; index < offsets[component + 1]; index++)
+                {
+                    reached[targets[index]] = true;
+                }
+            }
+        }
+        // Walks the neighbours of each start, merging the walks that meet
+        final int[] walks = new int[count];
+        Arrays.fill(walks, NONE);
+        final int[] parents = new int[count];
+        final int[] stack = new int[count];
+        int walkCount = 0;
+        for (int start = 0; start < count; start++)
+        {
+            if (!trapped[start] || reached[start])
+            {
+                continue;
+            }
+            final int walk = walkCount++;
+            parents[walk] = walk;
+            walks[start] = walk;
+            int depth = 0;
+            stack[depth++] = start;
+            while (depth > 0)
+            {
+                final int component = stack[--depth];
+                for (int index = offsets[component]; index < offsets[component + 1]; index++)
+                {
+                    final int next = targets[index];
+                    if (walks[next] == NONE)
+                    {
+                        walks[next] = walk;
+                        stack[depth++] = next;
+                    }
+                    else
+                    {
+                        parents[root(parents, walks[next])] = root(parents, walk);
+                    }
+                }
+            }
+        }
+
+        // Groups the edges of the merged walks, by identifier
+        final int[] walkIslands = new int[walkCount];
+        Arrays.fill(walkIslands, NONE);
+        final List<Set<Edge>> islandEdges = new ArrayList<>();
+        final boolean[] fresh = new boolean[walkCount];
+        for (int node = 0; node < this.edges.size(); node++)
+        {
+            final int walk = walks[this.components.component(node)];
+            if (walk != NONE)
+            {
+                final int root = root(parents, walk);
+                if (walkIslands[root] == NONE)
+                {
+                    walkIslands[root] = islandEdges.size();
+                    islandEdges.add(new LinkedHashSet<>());
+                }
+                islandEdges.get(walkIslands[root]).add(this.edges.get(node));
+                fresh[walkIslands[root]] |= this.edgeIslands[node] == NONE;
+            }
+        }
+        // Islands covered by the ones already found are dropped
+        final int[] islandIndices = new int[islandEdges.size()];
+        for (int island = 0; island < islandEdges.size(); island++)
+        {
+            islandIndices[island] = fresh[island] ? this.islands.size() : NONE;
+            if (fresh[island])
+            {
+                this.islands.add(new Island(sink, islandEdges.get(island)));
+            }
+        }
+        for (int node = 0; node < this.edges.size(); node++)
+        {
+            final int walk = walks[this.components.component(node)];
+            if (walk != NONE && this.edgeIslands[node] == NONE)
+            {
+                this.edgeIslands[node] = islandIndices[walkIslands[root(parents, walk)]];
+            }
+        }
+    }
+
+    /**
+     * @param node
+     *            an edge of the graph
+     * @return {@code true} if the edge prevents its island from being flagged
+     */
+    private boolean isExcluded(final int node)
+    {
+        if (this.exclusions[node] == 0)
+        {
+            this.exclusions[node] = (byte) (this.excluded.test(this.edges.get(node)) ? 2 : 1);
+        }
+        return this.exclusions[node] == 2;
+    }
+
+    /**
+     * Tells which components can reach at most the tree size of edges, none of them excluded
+     *
+     * @param offsets
+     *            the offsets of the neighbours of each component
+     * @param targets
+     *            the neighbours of all the components
+     * @param ascending
+     *            {@code true} if neighbours have lower numbers, {@code false} if they have higher
+     *            numbers
+     * @return for each component, {@code true} if it is trapped
+     */
+    private boolean[] trapped(final int[] offsets, final int[] targets, final boolean ascending)
+    {
+        final int count = offsets.length - 1;
+        final int[] reaches = new int[count];
+        final boolean[] blocked = new boolean[count];
+        final boolean[] trapped = new boolean[count];
+        for (int step = 0; step < count; step++)
+        {
+            final int component = ascending ? step : count - 1 - step;
+            long reach = this.memberOffsets[component + 1] - this.memberOffsets[component];
+            boolean block = false;
+            for (int index = offsets[component]; index < offsets[component + 1]; index++)
+            {
+                reach += reaches[targets[index]];
+                block |= blocked[targets[index]];
+            }
+            // Capped, the reach of a component is only compared to the tree size
+            reaches[component] = (int) Math.min(reach, this.treeSize + 1L);
+            if (reaches[component] <= this.treeSize && !block)
+            {
+                for (int member = this.memberOffsets[component]; !block
+                        && member < this.memberOffsets[component + 1]; member++)
+                {
+                    block = this.isExcluded(this.members[member]);
+                }
+            }
+            blocked[component] = block;
+            trapped[component] = reaches[component] <= this.treeSize && !block;
+        }
+        return trapped;
+    }
+}
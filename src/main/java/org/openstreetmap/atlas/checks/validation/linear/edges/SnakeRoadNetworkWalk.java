@@ -6,19 +6,22 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.geography.Heading;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
-import org.openstreetmap.atlas.geography.atlas.items.Node;
 import org.openstreetmap.atlas.tags.names.NameTag;
 import org.openstreetmap.atlas.tags.names.ReferenceTag;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.scalars.Angle;
 
 /**
- * Keeps track of the network walk results for the {@link SnakeRoadCheck}
+ * Keeps track of the network walk results for the {@link SnakeRoadCheck}. Connections and valences
+ * are found on the shared {@link AtlasGraph} of the atlas, and only the connected edges the walk
+ * keeps are looked up as entities.
  *
  * @author mgostintsev
  */
@@ -29,6 +32,8 @@ public class SnakeRoadNetworkWalk
     private final Optional<String> refTag;
     private long greatestEncounteredValence;
     private final TreeSet<AtlasObject> visitedEdges;
+    private final Set<Long> visitedIdentifiers = new HashSet<>();
+    private final AtlasGraph graph;
     private final Angle edgeHeadingDifferenceThreshold;
 
     // Keeps track of the directly connected edges to process. Call these friends.
@@ -53,6 +58,8 @@ public class SnakeRoadNetworkWalk
             return Long.compare(one.getIdentifier(), two.getIdentifier());
         });
         this.visitedEdges.add(edge);
+        this.visitedIdentifiers.add(edge.getIdentifier());
+        this.graph = AtlasLayers.forAtlas(edge.getAtlas()).graph();
         this.directConnections = new LinkedList<>();
         this.oneLayerRemovedConnections = new HashSet<>();
         this.edgeHeadingDifferenceThreshold = threshold;
@@ -136,11 +143,12 @@ public class SnakeRoadNetworkWalk
      */
     protected Set<Edge> getConnectedMainEdgeOfTheSameWay(final Edge edge)
     {
-        return edge.connectedEdges().stream()
-                .filter(connection -> connection.isMainEdge()
-                        && connection.getOsmIdentifier() == edge.getOsmIdentifier()
-                        && !this.visitedEdges.contains(connection))
-                .collect(Collectors.toSet());
+        final int index = this.graph.edgeIndex(edge.getIdentifier());
+        return this.connectedMainEdges(index,
+                connection -> this.graph.osmIdentifier(connection) == this.graph
+                        .osmIdentifier(index)
+                        && !this.visitedIdentifiers
+                                .contains(this.graph.edgeIdentifier(connection)));
     }
 
     protected Queue<Edge> getDirectConnections()
@@ -184,8 +192,36 @@ public class SnakeRoadNetworkWalk
     protected void visitEdge(final Edge comingFrom, final Edge comingTo)
     {
         this.visitedEdges.add(comingTo);
-        this.setGreatestValence(comingTo.start());
-        this.setGreatestValence(comingTo.end());
+        this.visitedIdentifiers.add(comingTo.getIdentifier());
+        final int index = this.graph.edgeIndex(comingTo.getIdentifier());
+        this.setGreatestValence(this.graph.start(index));
+        this.setGreatestValence(this.graph.end(index));
+    }
+
+    /**
+     * Returns the connected main {@link Edge}s of an edge that pass a filter, like
+     * {@link Edge#connectedEdges()} but without looking up the ones filtered out
+     *
+     * @param edge
+     *            the index of the {@link Edge} for which we're seeking connections
+     * @param filter
+     *            a filter on the indices of the connected edges
+     * @return the {@link Set} of {@link Edge}s we found
+     */
+    private Set<Edge> connectedMainEdges(final int edge, final IntPredicate filter)
+    {
+        final Set<Edge> connections = new HashSet<>();
+        final IntConsumer collector = connection ->
+        {
+            if (connection != edge && this.graph.isMainEdge(connection)
+                    && filter.test(connection))
+            {
+                connections.add(this.graph.edge(connection));
+            }
+        };
+        this.graph.forEachEdge(this.graph.start(edge), collector);
+        this.graph.forEachEdge(this.graph.end(edge), collector);
+        return connections;
     }
 
     /**
@@ -198,8 +234,9 @@ public class SnakeRoadNetworkWalk
      */
     private Set<Edge> getMainEdgesForConnectedEdgesOfDifferentWays(final Edge edge)
     {
-        return Iterables.stream(edge.connectedEdges()).filter(candidate -> candidate.isMainEdge()
-                && candidate.getOsmIdentifier() != edge.getOsmIdentifier()).collectToSet();
+        final int index = this.graph.edgeIndex(edge.getIdentifier());
+        return this.connectedMainEdges(index, candidate -> this.graph
+                .osmIdentifier(candidate) != this.graph.osmIdentifier(index));
     }
 
     private Optional<String> getRefTag()
@@ -222,12 +259,26 @@ public class SnakeRoadNetworkWalk
         return this.roadName.isPresent();
     }
 
-    private void setGreatestValence(final Node node)
+    /**
+     * Updates the greatest valence with the number of main edges at a node, like
+     * {@link org.openstreetmap.atlas.geography.atlas.items.Node#valence()}
+     *
+     * @param node
+     *            a node index
+     */
+    private void setGreatestValence(final int node)
     {
-        final long valence = node.valence();
-        if (valence > this.greatestEncounteredValence)
+        final long[] valence = { 0L };
+        this.graph.forEachEdge(node, edge ->
+        {
+            if (this.graph.isMainEdge(edge))
+            {
+                valence[0]++;
+            }
+        });
+        if (valence[0] > this.greatestEncounteredValence)
         {
-            this.greatestEncounteredValence = valence;
+            this.greatestEncounteredValence = valence[0];
         }
     }
 
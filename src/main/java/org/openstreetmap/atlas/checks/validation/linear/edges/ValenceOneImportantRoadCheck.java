@@ -7,8 +7,9 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.Location;
@@ -162,12 +163,28 @@ public class ValenceOneImportantRoadCheck extends BaseCheck<Long>
             // boundary node
             return Long.MAX_VALUE;
         }
-        final Set<Node> candidates = Collections.singleton(node);
-        return node.connectedEdges().stream()
-                // filter by flow direction to flag opposing one-ways
-                .filter(otherEdge -> otherEdge.isConnectedAtStartTo(candidates) == outward)
-                // count and add one for the current edge, which was just filtered out
-                .count() + 1;
+        // Filter by flow direction to flag opposing one-ways, walking the shared graph of the atlas
+        // instead of building the set of connected edges. Loops start at the node, so they only
+        // count as outward.
+        final AtlasGraph graph = AtlasLayers.forAtlas(node.getAtlas()).graph();
+        final int index = graph.nodeIndex(node.getIdentifier());
+        long valence = 0;
+        if (outward)
+        {
+            valence = graph.outDegree(index);
+        }
+        else
+        {
+            for (int position = 0; position < graph.inDegree(index); position++)
+            {
+                if (graph.start(graph.inEdge(index, position)) != index)
+                {
+                    valence++;
+                }
+            }
+        }
+        // Add one for the current edge, as the valence of the node in the other direction
+        return valence + 1;
     }
 
     /**
@@ -6,10 +6,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.PolyLineCoordinates;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.Segment;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
@@ -98,12 +98,16 @@ public class GeneralizedCoastlineCheck extends BaseCheck<Long>
     @Override
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
-        final double generalizedSegments = this.getGeneralizedSegmentPercentage((LineItem) object);
+        final PolyLineCoordinates coordinates = PolyLineCoordinates
+                .forPolyLine(((LineItem) object).asPolyLine());
+        final double[] lengths = coordinates.segmentLengths();
+        final double generalizedSegments = this.getGeneralizedSegmentPercentage(lengths);
         if (generalizedSegments >= this.percentageThreshold)
         {
             // Contains midpoints and sharp angle locations
-            final List<Location> pointsForFlagging = this.getPointsForFlagging((LineItem) object);
-            final List<Location> sharpAngles = this.getSharpAngleLocations((LineItem) object);
+            final List<Location> pointsForFlagging = this.getPointsForFlagging(coordinates,
+                    lengths);
+            final List<Location> sharpAngles = this.getSharpAngleLocations(coordinates);
             // If there were sharp angles
             if (!sharpAngles.isEmpty() && this.sharpAngleDegrees != SHARP_ANGLE_THRESHOLD_DEFAULT)
             {
@@ -131,47 +135,64 @@ public class GeneralizedCoastlineCheck extends BaseCheck<Long>
      * This method calculates the percentage of {@link Segment}s in the {@link LineItem} whose
      * lengths are greater than or equal to the minimumDistanceBetweenNodes configuration value
      *
-     * @param line
-     *            The LineItem whose segments are evaluated
+     * @param lengths
+     *            The lengths in meters of the segments of the LineItem
      * @return The percentage of generalized {@link Segment}s in the parameter {@link LineItem},
      *         0-100 inclusive.
      */
-    private double getGeneralizedSegmentPercentage(final LineItem line)
+    private double getGeneralizedSegmentPercentage(final double[] lengths)
     {
-        final List<Segment> segments = line.asPolyLine().segments();
-        final double innerCount = segments.stream().filter(segment -> segment.length()
-                .isGreaterThanOrEqualTo(this.minimumDistanceBetweenNodes)).count();
-        return segments.isEmpty() ? 0.0 : HUNDRED_PERCENT * (innerCount / segments.size());
+        final double minimumMeters = this.minimumDistanceBetweenNodes.asMeters();
+        double innerCount = 0;
+        for (final double length : lengths)
+        {
+            if (length >= minimumMeters)
+            {
+                innerCount++;
+            }
+        }
+        return lengths.length == 0 ? 0.0 : HUNDRED_PERCENT * (innerCount / lengths.length);
     }
 
     /**
      * Retrieve a list of {@link Location}s along a coastline, which can be used to indicate where
      * editing should happen.
      *
-     * @param line
-     *            The LineItem whose midpoints are flagged
+     * @param coordinates
+     *            The coordinates of the LineItem whose midpoints are flagged
+     * @param lengths
+     *            The lengths in meters of the segments of the LineItem
      * @return A {@link List} of {@link Location}s, each element of the list being the midpoint of
      *         generalized segments of the parameter coastline
      */
-    private List<Location> getPointsForFlagging(final LineItem line)
+    private List<Location> getPointsForFlagging(final PolyLineCoordinates coordinates,
+            final double[] lengths)
     {
-        return line.asPolyLine().segments().stream()
-                .filter(segment -> segment.length().asMeters() >= this.minimumDistanceBetweenNodes
-                        .asMeters())
-                .map(segment -> segment.start().midPoint(segment.end()))
-                .collect(Collectors.toList());
+        final double minimumMeters = this.minimumDistanceBetweenNodes.asMeters();
+        final List<Location> midPoints = new ArrayList<>();
+        for (int segment = 0; segment < lengths.length; segment++)
+        {
+            if (lengths[segment] >= minimumMeters)
+            {
+                midPoints.add(coordinates.location(segment)
+                        .midPoint(coordinates.location(segment + 1)));
+            }
+        }
+        return midPoints;
     }
 
     /**
-     * Given a coastline {@link LineItem}, extract the {@link Location}s of offending {@link Angle}s
+     * Given the coordinates of a coastline {@link LineItem}, extract the {@link Location}s of
+     * offending {@link Angle}s
      *
-     * @param coast
-     *            The {@link LineItem} from which offending angle locations are extracted
+     * @param coordinates
+     *            The coordinates of the {@link LineItem} from which offending angle locations are
+     *            extracted
      * @return A List of {@link Location}s of offending angles if any; else an empty list
      */
-    private List<Location> getSharpAngleLocations(final LineItem coast)
+    private List<Location> getSharpAngleLocations(final PolyLineCoordinates coordinates)
     {
-        final List<Tuple<Angle, Location>> offendingAngles = coast.asPolyLine()
+        final List<Tuple<Angle, Location>> offendingAngles = coordinates
                 .anglesGreaterThanOrEqualTo(this.sharpAngleThreshold);
         if (!offendingAngles.isEmpty())
         {
@@ -14,10 +14,15 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.checks.utility.CommonTagFilters;
 import org.openstreetmap.atlas.checks.utility.ElevationUtilities;
+import org.openstreetmap.atlas.checks.utility.WaterMask;
+import org.openstreetmap.atlas.checks.utility.WaterMask.Cover;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Segment;
@@ -200,16 +205,34 @@ public class WaterWayCheck extends BaseCheck<Long>
     {
         final PolyLine linePolyline = line.asPolyLine();
         final Location last = linePolyline.last();
-        if (atlas.areasCovering(last, this.validOceanTags::test).iterator().hasNext()
-                || atlas.areasCovering(last, this.oceanBoundaryTags::test).iterator().hasNext())
+        // The mask settles most lines far from the coast without testing the ocean geometries
+        final WaterMask mask = this.oceanMask(atlas);
+        final Cover lastCover = mask.cover(last);
+        if (lastCover == Cover.WATER)
         {
             return true;
         }
+        // Oceans and coastlines can be very large, so test against their prepared geometries
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        if (lastCover == Cover.MIXED && atlas.areasIntersecting(last.bounds(),
+                area -> (this.validOceanTags.test(area) || this.oceanBoundaryTags.test(area))
+                        && geometries.polygon(area).covers(last))
+                .iterator().hasNext())
+        {
+            return true;
+        }
+        // No coastline is near a line that is all land or all water
+        if (mask.cover(linePolyline.bounds()) != Cover.MIXED)
+        {
+            return false;
+        }
+        final CachedGeometry<PolyLine> lineGeometry = AtlasGeometries.forPolyLine(linePolyline);
         final List<LineItem> lines = new ArrayList<>();
         atlas.lineItemsIntersecting(line.asPolyLine().bounds(), this.oceanBoundaryTags::test)
                 .forEach(lines::add);
         final LineItem[] intersecting = lines.stream()
-                .filter(l -> l.asPolyLine().intersects(linePolyline)).toArray(LineItem[]::new);
+                .filter(l -> geometries.polyLine(l).intersects(lineGeometry))
+                .toArray(LineItem[]::new);
         final SegmentIndexComparator segmentComparator = new SegmentIndexComparator(linePolyline);
         for (final LineItem lineItem : intersecting)
         {
@@ -264,8 +287,10 @@ public class WaterWayCheck extends BaseCheck<Long>
                 .collectToSet();
         return Stream.concat(nodes.stream(), points.stream())
                 .anyMatch(this.waterwaySinkTagFilter::test)
-                || atlas.areasCovering(lineItem.asPolyLine().last(),
-                        this.waterwaySinkTagFilter::test).iterator().hasNext();
+                || atlas.areasIntersecting(last.bounds(),
+                        area -> this.waterwaySinkTagFilter.test(area) && AtlasLayers
+                                .forAtlas(atlas).geometries().polygon(area).covers(last))
+                        .iterator().hasNext();
     }
 
     /**
@@ -369,6 +394,10 @@ public class WaterWayCheck extends BaseCheck<Long>
      */
     private boolean doesLineCrossCoast(final Atlas atlas, final LineItem line)
     {
+        if (this.oceanMask(atlas).cover(line.bounds()) != Cover.MIXED)
+        {
+            return false;
+        }
         final List<LineItem> lines = new ArrayList<>();
         atlas.lineItemsIntersecting(line.asPolyLine().bounds(), this.oceanBoundaryTags::test)
                 .forEach(lines::add);
@@ -482,16 +511,21 @@ public class WaterWayCheck extends BaseCheck<Long>
          * I would expect the resolution of the dataset to be ~1m, but good results may be had with
          * more than 1m resolution.
          */
+        // Only the two ends are looked up, so the tiles in between are never loaded
         final double incline = this.elevationUtils.getIncline(first, last);
         final boolean uphill = !Double.isNaN(incline) && incline > 0
                 && last.distanceTo(first).isGreaterThan(this.minDistanceStartEndElevationUphill);
-        if (uphill && this.minResolutionDistance
-                .isGreaterThanOrEqualTo(this.elevationUtils.getResolution(first)))
+        if (!uphill)
+        {
+            return flag;
+        }
+        final Distance resolution = this.elevationUtils.getResolution(first);
+        if (this.minResolutionDistance.isGreaterThanOrEqualTo(resolution))
         {
             final CheckFlag returnFlag = flag;
             final String instruction = this.getLocalizedInstruction(
                     FALLBACK_INSTRUCTIONS.indexOf(GOES_UPHILL), line.getOsmIdentifier(),
-                    this.elevationUtils.getResolution(first).asMeters());
+                    resolution.asMeters());
             if (returnFlag == null)
             {
                 return createFlag(line, instruction);
@@ -561,6 +595,31 @@ public class WaterWayCheck extends BaseCheck<Long>
         return sameLayerWays;
     }
 
+    /**
+     * Gets a land and ocean mask of the ocean areas and coastlines, built once per Atlas and shared
+     * by every waterway.
+     *
+     * @param atlas
+     *            An Atlas
+     * @return the ocean mask of the Atlas
+     */
+    private WaterMask oceanMask(final Atlas atlas)
+    {
+        return AtlasLayers.forAtlas(atlas).derived(
+                Arrays.asList(WaterWayCheck.class, WaterMask.class,
+                        this.validOceanTags.toString(), this.oceanBoundaryTags.toString()),
+                source ->
+                {
+                    final AtlasGeometries geometries = AtlasLayers.forAtlas(source).geometries();
+                    return new WaterMask(source.bounds(),
+                            Iterables.stream(source.areas(area -> this.validOceanTags.test(area)
+                                    || this.oceanBoundaryTags.test(area)))
+                                    .map(geometries::polygon).collectToList(),
+                            Iterables.stream(source.lineItems(this.oceanBoundaryTags::test))
+                                    .map(geometries::polyLine).collectToList());
+                });
+    }
+
     /**
      * Check if two waterways are connected
      *
@@ -2,12 +2,13 @@ package org.openstreetmap.atlas.checks.validation.points;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.StreetNameIndex;
 import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.ItemType;
@@ -17,7 +18,6 @@ import org.openstreetmap.atlas.tags.AddressStreetTag;
 import org.openstreetmap.atlas.tags.RelationTypeTag;
 import org.openstreetmap.atlas.tags.annotations.validation.Validators;
 import org.openstreetmap.atlas.tags.names.NameTag;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 import org.openstreetmap.atlas.utilities.scalars.Distance;
 
@@ -91,16 +91,17 @@ public class AddressPointMatchCheck extends BaseCheck<Object>
         // Get all Points in the bounding box, remove Points that have null as their
         // street name or do not have the street name key tag, and get a set of candidate street
         // names
-        final Set<String> points = Iterables.stream(point.getAtlas().pointsWithin(box))
-                .map(nearbyPoint -> nearbyPoint.tag(AddressStreetTag.KEY)).filter(Objects::nonNull)
-                .collectToSet();
+        final StreetNameIndex streetNames = StreetNameIndex.forAtlas(point.getAtlas());
+        final Set<String> points = streetNames.addressPoints(box).stream()
+                .map(nearbyPoint -> nearbyPoint.tag(AddressStreetTag.KEY))
+                .collect(Collectors.toSet());
 
         // Get all Edges intersecting the bounding box, remove Edges that have null as their
         // street name or do not have the street name key tag, and get a set of candidate street
         // names
-        final Set<String> edges = Iterables.stream(point.getAtlas().edgesIntersecting(box))
-                .map(nearbyEdge -> nearbyEdge.tag(NameTag.KEY)).filter(Objects::nonNull)
-                .collectToSet();
+        final Set<String> edges = streetNames.namedEdges(box).stream()
+                .filter(nearbyEdge -> nearbyEdge.getTag(NameTag.KEY).isPresent())
+                .map(nearbyEdge -> nearbyEdge.tag(NameTag.KEY)).collect(Collectors.toSet());
 
         // If there are no Points or Edges in the bounding box
         if (points.isEmpty() && edges.isEmpty())
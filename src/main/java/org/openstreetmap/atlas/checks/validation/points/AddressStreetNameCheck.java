@@ -3,17 +3,16 @@ package org.openstreetmap.atlas.checks.validation.points;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.StreetNameIndex;
+import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.Point;
 import org.openstreetmap.atlas.tags.AddressStreetTag;
 import org.openstreetmap.atlas.tags.annotations.validation.Validators;
-import org.openstreetmap.atlas.tags.names.NameTag;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 import org.openstreetmap.atlas.utilities.scalars.Distance;
 
@@ -73,18 +72,13 @@ public class AddressStreetNameCheck extends BaseCheck<Long>
     @Override
     protected Optional<CheckFlag> flag(final AtlasObject object)
     {
-        // Gather the values of all name tags of all edges that are within the search distance
-        final Set<String> streetNameValues = Iterables
-                .stream(object.getAtlas().edgesIntersecting(
-                        ((Point) object).getLocation().boxAround(this.searchDistance),
-                        Edge::isMainEdge))
-                .flatMap(edge -> edge.getTags(tag -> tag.startsWith(NameTag.KEY)).values())
-                .collectToSet();
+        final Rectangle box = ((Point) object).getLocation().boxAround(this.searchDistance);
+        final StreetNameIndex streetNames = StreetNameIndex.forAtlas(object.getAtlas());
 
-        // Flag the object if there are edges within the search distance and the addr:street values
-        // is not present in the set of Edge name tag values
-        return !streetNameValues.isEmpty()
-                && !streetNameValues.contains(object.tag(AddressStreetTag.KEY))
+        // Flag the object if there are named edges within the search distance, but none of them
+        // has the addr:street value in its name tags
+        return streetNames.edgesNamed(object.tag(AddressStreetTag.KEY), box).isEmpty()
+                && !streetNames.namedEdges(box).isEmpty()
                         ? Optional
                                 .of(this.createFlag(object,
                                         this.getLocalizedInstruction(0, object.getOsmIdentifier(),
@@ -10,14 +10,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.UniformGrid;
 import org.openstreetmap.atlas.geography.Heading;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.PolyLine;
 import org.openstreetmap.atlas.geography.Rectangle;
 import org.openstreetmap.atlas.geography.Snapper;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.Node;
@@ -49,6 +53,8 @@ public class ConnectivityCheck extends BaseCheck<Long>
             .asList("Node {0,number,#} is likely supposed to be connected to: {1}");
     private static final double NEARBY_EDGE_THRESHOLD_DISTANCE_METERS_DEFAULT = 2.0;
     private static final double THRESHOLD_SCALE = 1.5;
+    // Edges are much larger than the search box, so their grid has larger cells
+    private static final double EDGE_GRID_CELL_METERS = 50.0;
     private static final int MAXIMUM_ANGLE = 180;
     // Highways to be ignored
     private static final String DEFAULT_DENYLISTED_HIGHWAYS_TAG_FILTER = "highway->no";
@@ -87,7 +93,7 @@ public class ConnectivityCheck extends BaseCheck<Long>
         final Map<Long, Set<Edge>> nodeLayerMap = this.getLayerMap(node);
         // Get nearby Edges, ignoring ones that have a level tag or for whom themselves or their
         // connected edges cross over or under a connected Edge of the node
-        final Iterable<Edge> nearbyEdges = object.getAtlas().edgesIntersecting(box,
+        final Iterable<Edge> nearbyEdges = this.edgesIntersecting(object.getAtlas(), box,
                 edge -> !LevelTag.getTaggedValue(edge).isPresent()
                         && nodeLayerMap
                                 .containsKey(LayerTag.getTaggedOrImpliedValue(edge, LayerTag.ZERO))
@@ -98,7 +104,7 @@ public class ConnectivityCheck extends BaseCheck<Long>
         connectivityFlag.addObject(object);
         // Check nearby Nodes, ignoring ones that have connected Edges that have level tags or cross
         // over or under connected edges of the object node
-        for (final Node nodeNearby : object.getAtlas().nodesWithin(box,
+        for (final Node nodeNearby : this.nodesWithin(object.getAtlas(), box,
                 nearbyNode -> !this.connectedEdgesHaveLevelTags(nearbyNode)
                         && !this.differentLayersIntersect(nodeLayerMap, nearbyNode.connectedEdges())
                         && this.getLayerMap(nearbyNode).keySet().stream()
@@ -200,6 +206,29 @@ public class ConnectivityCheck extends BaseCheck<Long>
         return edges.stream().anyMatch(edge -> this.differentLayersIntersect(nodeLayerMap, edge));
     }
 
+    /**
+     * Gets the {@link Edge}s intersecting a box, from a grid of the {@link Edge}s of the atlas
+     * built once and shared by every {@link Node}.
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @param box
+     *            the box around a {@link Node}
+     * @param matcher
+     *            a filter on the {@link Edge}s
+     * @return the {@link Edge}s intersecting the box and matching the filter
+     */
+    private List<Edge> edgesIntersecting(final Atlas atlas, final Rectangle box,
+            final Predicate<Edge> matcher)
+    {
+        final Distance cellSize = Distance
+                .meters(Math.max(EDGE_GRID_CELL_METERS, this.threshold.asMeters()));
+        return AtlasLayers.forAtlas(atlas)
+                .derived(Arrays.asList(ConnectivityCheck.class, Edge.class, cellSize),
+                        source -> new UniformGrid<>(source.edges(), Edge::bounds, cellSize))
+                .get(box, edge -> edge.intersects(box) && matcher.test(edge));
+    }
+
     /**
      * Gets a heading from one {@link Location} to another by creating a {@link PolyLine}.
      *
@@ -520,6 +549,28 @@ public class ConnectivityCheck extends BaseCheck<Long>
         return false;
     }
 
+    /**
+     * Gets the {@link Node}s within a box, from a grid of the {@link Node}s of the atlas built once
+     * and shared by every {@link Node}.
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @param box
+     *            the box around a {@link Node}
+     * @param matcher
+     *            a filter on the {@link Node}s
+     * @return the {@link Node}s within the box and matching the filter
+     */
+    private List<Node> nodesWithin(final Atlas atlas, final Rectangle box,
+            final Predicate<Node> matcher)
+    {
+        return AtlasLayers.forAtlas(atlas)
+                .derived(Arrays.asList(ConnectivityCheck.class, Node.class, this.threshold),
+                        source -> UniformGrid.forLocations(source.nodes(), Node::getLocation,
+                                this.threshold))
+                .get(box, node -> node.intersects(box) && matcher.test(node));
+    }
+
     /**
      * Helper function for filtering {@link Edge}s. This is to detect {@link Edge}s that are too
      * complex to currently be handled by this check.
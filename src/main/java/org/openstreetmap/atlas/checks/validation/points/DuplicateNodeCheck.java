@@ -1,19 +1,24 @@
 package org.openstreetmap.atlas.checks.validation.points;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Node;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 
 /**
@@ -28,6 +33,23 @@ public class DuplicateNodeCheck extends BaseCheck<Location>
             .asList("Nodes {0} are duplicates at {1}.");
     private static final long serialVersionUID = 1055616456230649593L;
 
+    /**
+     * Groups the {@link Node}s of an {@link Atlas} by {@link Location} in a single pass, instead
+     * of one spatial query per {@link Node}.
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return the {@link Node}s of each {@link Location} with more than one {@link Node}
+     */
+    private static Map<Location, List<Node>> findDuplicates(final Atlas atlas)
+    {
+        final Map<Location, List<Node>> locations = new HashMap<>();
+        atlas.nodes().forEach(node -> locations
+                .computeIfAbsent(node.getLocation(), location -> new ArrayList<>()).add(node));
+        locations.values().removeIf(nodes -> nodes.size() < 2);
+        return locations;
+    }
+
     /**
      * Default constructor
      *
@@ -51,8 +73,9 @@ public class DuplicateNodeCheck extends BaseCheck<Location>
         final Node node = (Node) object;
         this.markAsFlagged(node.getLocation());
 
-        final List<Node> duplicates = Iterables
-                .asList(object.getAtlas().nodesAt(node.getLocation()));
+        final List<Node> duplicates = AtlasLayers.forAtlas(object.getAtlas())
+                .derived(DuplicateNodeCheck.class, DuplicateNodeCheck::findDuplicates)
+                .getOrDefault(node.getLocation(), Collections.singletonList(node));
         if (duplicates.size() > 1)
         {
             final List<Long> duplicateIdentifiers = duplicates.stream()
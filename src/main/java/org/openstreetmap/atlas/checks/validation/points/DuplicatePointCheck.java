@@ -1,17 +1,22 @@
 package org.openstreetmap.atlas.checks.validation.points;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Point;
-import org.openstreetmap.atlas.utilities.collections.Iterables;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 
 /**
@@ -25,6 +30,23 @@ public class DuplicatePointCheck extends BaseCheck<Location>
             .asList("Nodes {0} are duplicates at {1}");
     private static final long serialVersionUID = 8624313405718452123L;
 
+    /**
+     * Groups the {@link Point}s of an {@link Atlas} by {@link Location} in a single pass, instead
+     * of one spatial query per {@link Point}.
+     *
+     * @param atlas
+     *            the {@link Atlas} to search
+     * @return the {@link Point}s of each {@link Location} with more than one {@link Point}
+     */
+    private static Map<Location, List<Point>> findDuplicates(final Atlas atlas)
+    {
+        final Map<Location, List<Point>> locations = new HashMap<>();
+        atlas.points().forEach(point -> locations
+                .computeIfAbsent(point.getLocation(), location -> new ArrayList<>()).add(point));
+        locations.values().removeIf(points -> points.size() < 2);
+        return locations;
+    }
+
     /**
      * Default constructor
      *
@@ -48,8 +70,9 @@ public class DuplicatePointCheck extends BaseCheck<Location>
     {
         final Point point = (Point) object;
 
-        final List<Point> duplicates = Iterables
-                .asList(object.getAtlas().pointsAt(point.getLocation()));
+        final List<Point> duplicates = AtlasLayers.forAtlas(object.getAtlas())
+                .derived(DuplicatePointCheck.class, DuplicatePointCheck::findDuplicates)
+                .getOrDefault(point.getLocation(), Collections.singletonList(point));
         if (duplicates.size() > 1)
         {
             this.markAsFlagged(point.getLocation());
@@ -3,15 +3,15 @@ package org.openstreetmap.atlas.checks.validation.points;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGraph;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.base.Check;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
 import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.Node;
-import org.openstreetmap.atlas.tags.HighwayTag;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
 
 /**
@@ -32,6 +32,39 @@ public class NodeValenceCheck extends BaseCheck<Long>
     private static final long serialVersionUID = -6518944438651833609L;
     private final long maximumConnections;
 
+    /**
+     * Gets the car navigable main {@link Edge}s starting or ending at a node, from the shared graph
+     * of the atlas
+     *
+     * @param graph
+     *            the graph of the atlas
+     * @param node
+     *            a node index
+     * @return the edge indices, loops only once
+     */
+    private static int[] connectedCarNavigableEdges(final AtlasGraph graph, final int node)
+    {
+        final int[] edges = new int[graph.outDegree(node) + graph.inDegree(node)];
+        int count = 0;
+        for (int position = 0; position < graph.outDegree(node); position++)
+        {
+            final int edge = graph.outEdge(node, position);
+            if (graph.isMainEdge(edge) && graph.isCarNavigable(edge))
+            {
+                edges[count++] = edge;
+            }
+        }
+        for (int position = 0; position < graph.inDegree(node); position++)
+        {
+            final int edge = graph.inEdge(node, position);
+            if (graph.start(edge) != node && graph.isMainEdge(edge) && graph.isCarNavigable(edge))
+            {
+                edges[count++] = edge;
+            }
+        }
+        return Arrays.copyOf(edges, count);
+    }
+
     public NodeValenceCheck(final Configuration configuration)
     {
         super(configuration);
@@ -51,14 +84,15 @@ public class NodeValenceCheck extends BaseCheck<Long>
         final Node node = (Node) object;
 
         // Count car navigable connections
-        final List<Edge> connectedCarNavigableEdges = node.connectedEdges().stream()
-                .filter(edge -> edge.isMainEdge() && HighwayTag.isCarNavigableHighway(edge))
-                .collect(Collectors.toList());
-        final int valence = connectedCarNavigableEdges.size();
+        final AtlasGraph graph = AtlasLayers.forAtlas(node.getAtlas()).graph();
+        final int[] connectedCarNavigableEdges = connectedCarNavigableEdges(graph,
+                graph.nodeIndex(node.getIdentifier()));
+        final int valence = connectedCarNavigableEdges.length;
         if (valence > this.maximumConnections)
         {
             final CheckFlag flag = new CheckFlag(String.valueOf(object.getIdentifier()));
-            connectedCarNavigableEdges.forEach(flag::addObject);
+            Arrays.stream(connectedCarNavigableEdges).mapToObj(graph::edge)
+                    .forEach(flag::addObject);
             flag.addObject(object, this.getLocalizedInstruction(0, node.getOsmIdentifier(), valence,
                     this.maximumConnections));
             return Optional.of(flag);
@@ -5,15 +5,24 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.locationtech.jts.geom.Geometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries.CachedGeometry;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.utility.BoundsSweep;
 import org.openstreetmap.atlas.exception.CoreException;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.MultiPolygon;
@@ -24,9 +33,7 @@ import org.openstreetmap.atlas.geography.atlas.items.ItemType;
 import org.openstreetmap.atlas.geography.atlas.items.Line;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
 import org.openstreetmap.atlas.geography.atlas.items.RelationMember;
-import org.openstreetmap.atlas.geography.atlas.items.complex.RelationOrAreaToMultiPolygonConverter;
 import org.openstreetmap.atlas.geography.converters.MultiplePolyLineToPolygonsConverter;
-import org.openstreetmap.atlas.geography.converters.jts.JtsPolygonConverter;
 import org.openstreetmap.atlas.tags.RelationTypeTag;
 import org.openstreetmap.atlas.tags.SyntheticInvalidGeometryTag;
 import org.openstreetmap.atlas.tags.SyntheticRelationMemberAdded;
@@ -79,14 +86,13 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
             MISSING_OUTER_INSTRUCTION_FORMAT, INVALID_ROLE_INSTRUCTION_FORMAT,
             INVALID_OSM_TYPE_INSTRUCTION_FORMAT, INVALID_OVERLAP_INSTRUCTION_FORMAT,
             INNER_MISSING_OUTER_INSTRUCTION_FORMAT, GENERIC_INVALID_GEOMETRY_INSTRUCTION_FORMAT);
-    private static final RelationOrAreaToMultiPolygonConverter RELATION_OR_AREA_TO_MULTI_POLYGON_CONVERTER = new RelationOrAreaToMultiPolygonConverter();
     private static final EnumMap<ItemType, String> atlasToOsmType = new EnumMap<>(ItemType.class);
     private static final Logger logger = LoggerFactory
             .getLogger(InvalidMultiPolygonRelationCheck.class);
 
-    private static final JtsPolygonConverter JTS_POLYGON_CONVERTER = new JtsPolygonConverter();
     private static final long OVERLAP_MINIMUM_POINTS_DEFAULT = 0;
-    private static final long OVERLAP_MAMIMUM_POINTS_DEFAULT = 2000000;
+    // Only rings with overlapping bounds are compared, so large relations do not need to be skipped
+    private static final long OVERLAP_MAXIMUM_POINTS_DEFAULT = Long.MAX_VALUE;
 
     static
     {
@@ -125,7 +131,7 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
         this.overlapMinimumPoints = this.configurationValue(configuration, "overlap.points.minimum",
                 OVERLAP_MINIMUM_POINTS_DEFAULT);
         this.overlapMaximumPoints = this.configurationValue(configuration, "overlap.points.maximum",
-                OVERLAP_MAMIMUM_POINTS_DEFAULT);
+                OVERLAP_MAXIMUM_POINTS_DEFAULT);
     }
 
     @Override
@@ -198,10 +204,11 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
         // don't overlap.
         try
         {
-            final MultiPolygon multiPolygon = RELATION_OR_AREA_TO_MULTI_POLYGON_CONVERTER
-                    .convert(multipolygonRelation);
+            final MultiPolygon multiPolygon = AtlasLayers
+                    .forAtlas(multipolygonRelation.getAtlas()).geometries()
+                    .multiPolygon(multipolygonRelation);
             // Skip the overlap checks for multipolygons outside the configurable range of shape
-            // points
+            // points, there is no maximum by default
             final long shapePoints = multiPolygon.getOuterToInners().entrySet().stream()
                     .mapToInt(entry -> entry.getKey().size()
                             + entry.getValue().stream().mapToInt(PolyLine::size).sum())
@@ -277,43 +284,38 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
 
     /**
      * Check that inner polygons do not intersect any outers and do not overlap other inners. Inners
-     * are allowed to touch other inners.
+     * are allowed to touch other inners. Only the inners with overlapping bounds are compared, each
+     * pair once.
      *
      * @param outerToInners
      *            {@link MultiMap} of outer {@link Polygon}s to inner {@link Polygon}s
+     * @param geometries
+     *            the cached geometries of the inner {@link Polygon}s
      * @return a {@link Set} of {@link Tuple}s containing {@link Polygon}s that invalidly overlap
      */
     private Set<Tuple<Polygon, Polygon>> checkInnerOverlap(
-            final MultiMap<Polygon, Polygon> outerToInners)
+            final MultiMap<Polygon, Polygon> outerToInners,
+            final Map<Polygon, CachedGeometry<Polygon>> geometries)
     {
         final Set<Tuple<Polygon, Polygon>> problematicPolygons = new HashSet<>();
 
         outerToInners.forEach((key, value) ->
         {
-            // Loop through each combination of inner polygons only once to check for overlap
-            for (int index1 = 0; index1 < value.size() - 1; index1++)
+            this.forEachOverlappingPair(value, (polygon1, polygon2) ->
             {
-                for (int index2 = index1 + 1; index2 < value.size(); index2++)
+                if (this.innersOverlap(geometries.get(polygon1), geometries.get(polygon2)))
                 {
-                    final Polygon polygon1 = value.get(index1);
-                    final Polygon polygon2 = value.get(index2);
-                    final org.locationtech.jts.geom.Polygon jtsPolygon1 = JTS_POLYGON_CONVERTER
-                            .convert(polygon1);
-                    final org.locationtech.jts.geom.Polygon jtsPolygon2 = JTS_POLYGON_CONVERTER
-                            .convert(polygon2);
-                    // Inner polygons are unioned and and their areas are compared to the sum of the
-                    // un-unioned polygons. The areas should be the same (accounting for rounding
-                    // errors) if the polygons don't overlap but can touch.
-                    if (Math.abs(jtsPolygon1.union(jtsPolygon2).getArea()
-                            - (jtsPolygon1.getArea() + jtsPolygon2.getArea())) > 1.0
-                                    / Angle.DM7_PER_DEGREE)
-                    {
-                        problematicPolygons.add(Tuple.createTuple(polygon1, polygon2));
-                    }
+                    problematicPolygons.add(Tuple.createTuple(polygon1, polygon2));
                 }
-            }
-            // Check that no inner intersects its outer
-            value.stream().filter(polygon -> polygon.intersects(key))
+            });
+            // Check that no inner intersects its outer. Rings of large outers are prepared, and
+            // skip the inners they do not even touch.
+            final CachedGeometry<PolyLine> outerRing = AtlasGeometries
+                    .forPolyLine(key.closedLoop());
+            value.stream()
+                    .filter(polygon -> (!outerRing.isPrepared() || outerRing
+                            .intersects(AtlasGeometries.forPolyLine(polygon.closedLoop())))
+                            && polygon.intersects(key))
                     .forEach(polygon -> problematicPolygons.add(Tuple.createTuple(polygon, key)));
         });
 
@@ -322,7 +324,7 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
 
     /**
      * Check that outer polygons do not overlap unless one is contained by the inner of the outer
-     * that overlaps it.
+     * that overlaps it. Only the outers with overlapping bounds are compared, each pair once.
      *
      * @param outerToInners
      *            {@link MultiMap} of outer {@link Polygon}s to inner {@link Polygon}s
@@ -333,28 +335,24 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
     {
         final Set<Tuple<Polygon, Polygon>> problematicPolygons = new HashSet<>();
 
-        final List<Polygon> outersList = new ArrayList<>(outerToInners.keySet());
-        // Loop through each combination of polygons only once
-        for (int index1 = 0; index1 < outersList.size() - 1; index1++)
-        {
-            for (int index2 = index1 + 1; index2 < outersList.size(); index2++)
-            {
-                final Polygon polygon1 = outersList.get(index1);
-                final Polygon polygon2 = outersList.get(index2);
-                if (polygon1.overlaps(polygon2)
-                        // An outer can only be contained by another outer if it is also contained
-                        // by one of the other outer's inners
-                        && !((polygon1.fullyGeometricallyEncloses(polygon2)
-                                && outerToInners.get(polygon1).stream().anyMatch(
-                                        inner -> inner.fullyGeometricallyEncloses(polygon2)))
-                                || (polygon2.fullyGeometricallyEncloses(polygon1) && outerToInners
-                                        .get(polygon2).stream().anyMatch(inner -> inner
-                                                .fullyGeometricallyEncloses(polygon1)))))
+        this.forEachOverlappingPair(new ArrayList<>(outerToInners.keySet()),
+                (polygon1, polygon2) ->
                 {
-                    problematicPolygons.add(Tuple.createTuple(polygon1, polygon2));
-                }
-            }
-        }
+                    if (polygon1.overlaps(polygon2)
+                            // An outer can only be contained by another outer if it is also
+                            // contained by one of the other outer's inners
+                            && !((polygon1.fullyGeometricallyEncloses(polygon2)
+                                    && outerToInners.get(polygon1).stream().anyMatch(
+                                            inner -> inner.fullyGeometricallyEncloses(polygon2)))
+                                    || (polygon2.fullyGeometricallyEncloses(polygon1)
+                                            && outerToInners.get(polygon2).stream()
+                                                    .anyMatch(inner -> inner
+                                                            .fullyGeometricallyEncloses(
+                                                                    polygon1)))))
+                    {
+                        problematicPolygons.add(Tuple.createTuple(polygon1, polygon2));
+                    }
+                });
 
         return problematicPolygons;
     }
@@ -373,15 +371,9 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
     private Tuple<Set<String>, Set<Location>> checkOverlap(final MultiPolygon multiPolygon,
             final Long osmIdentifier)
     {
-        final Set<Tuple<Polygon, Polygon>> problematicPolygons = new HashSet<>();
-
-        final MultiMap<Polygon, Polygon> outerToInners = multiPolygon.getOuterToInners();
-        problematicPolygons.addAll(this.checkOuterOverlap(outerToInners));
-        problematicPolygons.addAll(this.checkInnerOverlap(outerToInners));
-
         final Set<String> instructions = new HashSet<>();
         final Set<Location> locations = new HashSet<>();
-        problematicPolygons.forEach(tuple ->
+        this.overlappingPolygons(multiPolygon).forEach(tuple ->
         {
             final Location firstCentroid = tuple.getFirst().center();
             final Location secondCentroid = tuple.getFirst().center();
@@ -448,4 +440,71 @@ public class InvalidMultiPolygonRelationCheck extends BaseCheck<Long>
                 .filter(entity -> entity instanceof Line).map(entity -> (Line) entity)
                 .filter(line -> line.asPolyLine().contains(location));
     }
+
+    /**
+     * Calls a consumer with each pair of {@link Polygon}s with overlapping bounds, ordered as in
+     * the list. The pairs are found by a single sweep over the bounds, on the calling thread, as
+     * checks already run in parallel.
+     *
+     * @param polygons
+     *            the {@link Polygon}s to join
+     * @param consumer
+     *            a consumer of the pairs
+     */
+    private void forEachOverlappingPair(final List<Polygon> polygons,
+            final BiConsumer<Polygon, Polygon> consumer)
+    {
+        BoundsSweep.forEachOverlappingPair(
+                IntStream.range(0, polygons.size()).boxed().collect(Collectors.toList()),
+                index -> polygons.get(index).bounds(),
+                (index1, index2) -> consumer.accept(polygons.get(Math.min(index1, index2)),
+                        polygons.get(Math.max(index1, index2))));
+    }
+
+    /**
+     * Inner polygons are unioned and their areas are compared to the sum of the un-unioned
+     * polygons. The areas should be the same (accounting for rounding errors) if the polygons don't
+     * overlap but can touch.
+     *
+     * @param geometry1
+     *            an inner {@link Polygon}
+     * @param geometry2
+     *            another inner {@link Polygon}
+     * @return true if the inner polygons overlap
+     */
+    private boolean innersOverlap(final CachedGeometry<Polygon> geometry1,
+            final CachedGeometry<Polygon> geometry2)
+    {
+        // Large inners are tested against their prepared geometry first, to skip the union
+        if ((geometry1.isPrepared() && !geometry1.intersects(geometry2))
+                || (geometry2.isPrepared() && !geometry2.intersects(geometry1)))
+        {
+            return false;
+        }
+        final Geometry jtsPolygon1 = geometry1.asJts();
+        final Geometry jtsPolygon2 = geometry2.asJts();
+        return Math.abs(jtsPolygon1.union(jtsPolygon2).getArea()
+                - (jtsPolygon1.getArea() + jtsPolygon2.getArea())) > 1.0 / Angle.DM7_PER_DEGREE;
+    }
+
+    /**
+     * Finds the sub polygons of a {@link MultiPolygon} that invalidly overlap: outers overlapping
+     * other outers, inners intersecting their outer, and inners overlapping other inners.
+     *
+     * @param multiPolygon
+     *            {@link MultiPolygon} to check
+     * @return a {@link Set} of {@link Tuple}s containing {@link Polygon}s that invalidly overlap
+     */
+    Set<Tuple<Polygon, Polygon>> overlappingPolygons(final MultiPolygon multiPolygon)
+    {
+        final MultiMap<Polygon, Polygon> outerToInners = multiPolygon.getOuterToInners();
+        // Convert each inner once, identical rings are still different members
+        final Map<Polygon, CachedGeometry<Polygon>> geometries = new IdentityHashMap<>();
+        outerToInners.forEach((outer, inners) -> inners
+                .forEach(inner -> geometries.put(inner, AtlasGeometries.forPolygon(inner))));
+        final Set<Tuple<Polygon, Polygon>> problematicPolygons = new HashSet<>();
+        problematicPolygons.addAll(this.checkOuterOverlap(outerToInners));
+        problematicPolygons.addAll(this.checkInnerOverlap(outerToInners, geometries));
+        return problematicPolygons;
+    }
 }
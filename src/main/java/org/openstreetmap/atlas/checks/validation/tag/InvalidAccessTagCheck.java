@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
 import org.openstreetmap.atlas.geography.MultiPolygon;
@@ -14,7 +15,6 @@ import org.openstreetmap.atlas.geography.atlas.items.Edge;
 import org.openstreetmap.atlas.geography.atlas.items.Line;
 import org.openstreetmap.atlas.geography.atlas.items.LineItem;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
-import org.openstreetmap.atlas.geography.atlas.items.complex.RelationOrAreaToMultiPolygonConverter;
 import org.openstreetmap.atlas.geography.atlas.walker.OsmWayWalker;
 import org.openstreetmap.atlas.geography.converters.MultiplePolyLineToPolygonsConverter;
 import org.openstreetmap.atlas.tags.AccessTag;
@@ -138,8 +138,8 @@ public class InvalidAccessTagCheck extends BaseCheck<Long>
         {
             try
             {
-                final MultiPolygon relationPolygon = new RelationOrAreaToMultiPolygonConverter()
-                        .convert(relation);
+                final MultiPolygon relationPolygon = AtlasLayers.forAtlas(relation.getAtlas())
+                        .geometries().multiPolygon(relation);
                 if (object.intersects(relationPolygon)
                         || relationPolygon.fullyGeometricallyEncloses(object.asPolyLine()))
                 {
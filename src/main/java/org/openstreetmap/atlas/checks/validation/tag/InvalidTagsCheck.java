@@ -240,6 +240,18 @@ public class InvalidTagsCheck extends BaseCheck<String>
         return FALLBACK_INSTRUCTIONS;
     }
 
+    @Override
+    protected boolean isLocal()
+    {
+        return true;
+    }
+
+    @Override
+    protected void restoreCachedFlag(final AtlasObject object)
+    {
+        this.markAsFlagged(this.getUniqueOSMIdentifier(object));
+    }
+
     /**
      * From the config file, create a list of Tuples with atlas entity and corresponding list of
      * taggable filters
@@ -191,6 +191,18 @@ public class MixedCaseNameCheck extends BaseCheck<String>
         return FALLBACK_INSTRUCTIONS;
     }
 
+    @Override
+    protected boolean isLocal()
+    {
+        return true;
+    }
+
+    @Override
+    protected void restoreCachedFlag(final AtlasObject object)
+    {
+        this.markAsFlagged(this.getUniqueOSMIdentifier(object));
+    }
+
     /**
      * Tests each word in a string for proper use of case in a name.
      *
@@ -6,6 +6,7 @@ import java.util.function.Consumer;
 
 import org.junit.Assert;
 import org.junit.rules.Verifier;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.base.Check;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
@@ -46,6 +47,7 @@ public class ConsumerBasedExpectedCheckVerifier extends Verifier
     public void actual(final Atlas atlas, final BaseCheck<?> check)
     {
         Iterables.addAll(this.generatedFlags, check.flags(atlas));
+        AtlasLayers.release(atlas);
         check.clear();
     }
 
@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.junit.Assert;
 import org.junit.rules.Verifier;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.base.BaseCheck;
 import org.openstreetmap.atlas.checks.base.Check;
 import org.openstreetmap.atlas.checks.flag.CheckFlag;
@@ -45,6 +46,7 @@ public class ExpectedCheckVerifier extends Verifier
     public void actual(final Atlas atlas, final BaseCheck<?> check)
     {
         Iterables.addAll(this.actual, check.flags(atlas));
+        AtlasLayers.release(atlas);
     }
 
     /**
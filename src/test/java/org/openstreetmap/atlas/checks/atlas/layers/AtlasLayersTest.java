@@ -0,0 +1,226 @@
+package org.openstreetmap.atlas.checks.atlas.layers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openstreetmap.atlas.checks.validation.intersections.IntersectingBuildingsTestCaseRule;
+import org.openstreetmap.atlas.checks.validation.linear.edges.SinkIslandCheckTestRule;
+import org.openstreetmap.atlas.checks.validation.relations.InvalidMultiPolygonRelationCheckTestRule;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.MultiPolygon;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Area;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.geography.atlas.items.Relation;
+import org.openstreetmap.atlas.geography.converters.MultiplePolyLineToPolygonsConverter;
+import org.openstreetmap.atlas.tags.BuildingTag;
+import org.openstreetmap.atlas.utilities.collections.Iterables;
+
+/**
+ * Tests for {@link AtlasLayers}
+ *
+ * @author agent
+ */
+public class AtlasLayersTest
+{
+    private static final int CIRCLE_POINTS = 1000;
+
+    @Rule
+    public IntersectingBuildingsTestCaseRule setup = new IntersectingBuildingsTestCaseRule();
+
+    @Rule
+    public InvalidMultiPolygonRelationCheckTestRule relations = new InvalidMultiPolygonRelationCheckTestRule();
+
+    @Rule
+    public SinkIslandCheckTestRule roads = new SinkIslandCheckTestRule();
+
+    @Test
+    public void testBuildingsLayer()
+    {
+        final Atlas atlas = this.setup.neighborBuildingsAtlas();
+        final AtlasLayer<Area> buildings = AtlasLayers.forAtlas(atlas).buildings();
+        Assert.assertEquals(Iterables.size(atlas.areas(BuildingTag::isBuilding)),
+                buildings.size());
+        for (final Area building : atlas.areas())
+        {
+            Assert.assertEquals(
+                    Iterables.asSet(atlas.areasIntersecting(building.bounds(),
+                            BuildingTag::isBuilding)),
+                    Iterables.asSet(buildings.intersecting(building.bounds())));
+            Assert.assertEquals(
+                    Iterables.asSet(atlas.areasIntersecting(building.asPolygon(),
+                            BuildingTag::isBuilding)),
+                    Iterables.asSet(buildings.intersecting(building.asPolygon(), area -> true)));
+        }
+    }
+
+    @Test
+    public void testGeometriesAreCached()
+    {
+        final Atlas atlas = this.setup.neighborBuildingsAtlas();
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        for (final Area building : atlas.areas())
+        {
+            final AtlasGeometries.CachedGeometry<Polygon> geometry = geometries
+                    .polygon(building);
+            Assert.assertSame(geometry, geometries.polygon(building));
+            Assert.assertEquals(building.asPolygon(), geometry.asGeometry());
+            Assert.assertEquals(building.asPolygon().surface(), geometry.surface());
+            Assert.assertEquals(building.bounds(), geometry.bounds());
+            Assert.assertTrue(geometry.asJts().isValid());
+        }
+    }
+
+    @Test
+    public void testGraph()
+    {
+        final Atlas atlas = this.roads.getTestAtlas();
+        final AtlasGraph graph = AtlasLayers.forAtlas(atlas).graph();
+        Assert.assertSame(graph, AtlasLayers.forAtlas(atlas).graph());
+        Assert.assertEquals(atlas.numberOfEdges(), graph.edgeCount());
+        Assert.assertEquals(atlas.numberOfNodes(), graph.nodeCount());
+        for (final Edge edge : atlas.edges())
+        {
+            final int index = graph.edgeIndex(edge.getIdentifier());
+            Assert.assertEquals(edge, graph.edge(index));
+            Assert.assertEquals(edge.start(), graph.node(graph.start(index)));
+            Assert.assertEquals(edge.end(), graph.node(graph.end(index)));
+            Assert.assertEquals(edge.highwayTag(), graph.highway(index));
+            Assert.assertEquals(edge.isMainEdge(), graph.isMainEdge(index));
+            Assert.assertEquals(edge.hasReverseEdge(), graph.reverse(index) != AtlasGraph.NONE);
+            Assert.assertEquals(edge.getOsmIdentifier(), graph.osmIdentifier(index));
+
+            final List<Edge> connectedEdges = new ArrayList<>();
+            graph.forEachEdge(graph.start(index),
+                    connected -> connectedEdges.add(graph.edge(connected)));
+            Assert.assertEquals(edge.start().connectedEdges().size(), connectedEdges.size());
+            Assert.assertEquals(edge.start().connectedEdges(), Iterables.asSet(connectedEdges));
+
+            final List<Edge> outEdges = new ArrayList<>();
+            for (int position = 0; position < graph.outDegree(graph.end(index)); position++)
+            {
+                outEdges.add(graph.edge(graph.outEdge(graph.end(index), position)));
+            }
+            Assert.assertEquals(edge.end().outEdges(), Iterables.asSet(outEdges));
+            final List<Edge> inEdges = new ArrayList<>();
+            for (int position = 0; position < graph.inDegree(graph.start(index)); position++)
+            {
+                inEdges.add(graph.edge(graph.inEdge(graph.start(index), position)));
+            }
+            Assert.assertEquals(edge.start().inEdges(), Iterables.asSet(inEdges));
+        }
+        Assert.assertEquals(AtlasGraph.NONE, graph.edgeIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testMultiPolygonsAreCached()
+    {
+        final Atlas atlas = this.relations.getValidRelation();
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        for (final Relation relation : atlas.relations(Relation::isMultiPolygon))
+        {
+            final MultiPolygon multiPolygon = geometries.multiPolygon(relation);
+            Assert.assertFalse(multiPolygon.outers().isEmpty());
+            Assert.assertSame(multiPolygon, geometries.multiPolygon(relation));
+        }
+    }
+
+    @Test
+    public void testMultiPolygonFailuresAreCached()
+    {
+        final Atlas atlas = this.relations.getOpenRelation();
+        final AtlasGeometries geometries = AtlasLayers.forAtlas(atlas).geometries();
+        final Relation relation = atlas.relations(Relation::isMultiPolygon).iterator().next();
+        final List<RuntimeException> failures = new ArrayList<>();
+        for (int attempt = 0; attempt < 2; attempt++)
+        {
+            try
+            {
+                geometries.multiPolygon(relation);
+            }
+            catch (final MultiplePolyLineToPolygonsConverter.OpenPolygonException exception)
+            {
+                failures.add(exception);
+            }
+        }
+        Assert.assertEquals(2, failures.size());
+        Assert.assertSame(failures.get(0), failures.get(1));
+    }
+
+    @Test
+    public void testPreparedGeometries()
+    {
+        // A circle with enough points to be prepared
+        final List<Location> circle = new ArrayList<>();
+        for (int index = 0; index < CIRCLE_POINTS; index++)
+        {
+            final double angle = 2 * Math.PI * index / CIRCLE_POINTS;
+            circle.add(new Location(Latitude.degrees(Math.sin(angle)),
+                    Longitude.degrees(Math.cos(angle))));
+        }
+        final Polygon polygon = new Polygon(circle);
+        final AtlasGeometries.CachedGeometry<Polygon> prepared = AtlasGeometries
+                .forPolygon(polygon);
+        Assert.assertTrue(prepared.isPrepared());
+
+        final Location inside = new Location(Latitude.degrees(0.5), Longitude.degrees(0.5));
+        final Location outside = new Location(Latitude.degrees(1.5), Longitude.degrees(0.5));
+        Assert.assertTrue(prepared.covers(inside));
+        Assert.assertFalse(prepared.covers(outside));
+
+        final AtlasGeometries.CachedGeometry<PolyLine> crossing = AtlasGeometries
+                .forPolyLine(new PolyLine(inside, outside));
+        final AtlasGeometries.CachedGeometry<PolyLine> contained = AtlasGeometries
+                .forPolyLine(new PolyLine(Location.CENTER, inside));
+        Assert.assertFalse(crossing.isPrepared());
+        Assert.assertTrue(prepared.intersects(crossing));
+        Assert.assertFalse(prepared.covers(crossing));
+        Assert.assertTrue(prepared.intersects(contained));
+        Assert.assertTrue(prepared.covers(contained));
+        Assert.assertEquals(polygon.overlaps(crossing.asGeometry()),
+                prepared.intersects(crossing));
+        Assert.assertEquals(polygon.fullyGeometricallyEncloses(contained.asGeometry()),
+                prepared.covers(contained));
+    }
+
+    @Test
+    public void testLayersAreBuiltOnce()
+    {
+        final Atlas atlas = this.setup.neighborBuildingsAtlas();
+        Assert.assertSame(AtlasLayers.forAtlas(atlas), AtlasLayers.forAtlas(atlas));
+        Assert.assertSame(AtlasLayers.forAtlas(atlas).buildings(),
+                AtlasLayers.forAtlas(atlas).buildings());
+        Assert.assertNotSame(AtlasLayers.forAtlas(atlas).buildings(),
+                AtlasLayers.forAtlas(this.setup.duplicateBuildingsAtlas()).buildings());
+    }
+
+    @Test
+    public void testDerivedValuesCanBeNested()
+    {
+        final Atlas atlas = this.setup.neighborBuildingsAtlas();
+        final AtlasLayers layers = AtlasLayers.forAtlas(atlas);
+        final String outer = layers.derived("outer",
+                source -> layers.derived("inner", other -> "inner") + " outer");
+        Assert.assertEquals("inner outer", outer);
+        Assert.assertSame(outer, layers.derived("outer", source -> "rebuilt"));
+    }
+
+    @Test
+    public void testReleasedLayersAreRebuilt()
+    {
+        final Atlas atlas = this.setup.neighborBuildingsAtlas();
+        final AtlasLayers layers = AtlasLayers.forAtlas(atlas);
+        final AtlasLayer<Area> buildings = layers.buildings();
+        AtlasLayers.release(atlas);
+        Assert.assertNotSame(layers, AtlasLayers.forAtlas(atlas));
+        Assert.assertNotSame(buildings, AtlasLayers.forAtlas(atlas).buildings());
+        Assert.assertEquals(buildings.size(), AtlasLayers.forAtlas(atlas).buildings().size());
+    }
+}
@@ -0,0 +1,183 @@
+package org.openstreetmap.atlas.checks.base;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
+import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.validation.tag.MixedCaseNameCheck;
+import org.openstreetmap.atlas.checks.validation.tag.MixedCaseNameCheckTestRule;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
+import org.openstreetmap.atlas.utilities.collections.Iterables;
+import org.openstreetmap.atlas.utilities.configuration.Configuration;
+
+/**
+ * Tests for {@link CheckResultCache}
+ *
+ * @author agent
+ */
+public class CheckResultCacheTest
+{
+    /**
+     * A {@link MixedCaseNameCheck} counting the objects it actually checks, to tell cache hits from
+     * computed results
+     *
+     * @author agent
+     */
+    private static final class CountingCheck extends MixedCaseNameCheck
+    {
+        private static final long serialVersionUID = -2771456932862330617L;
+        private final AtomicInteger computed = new AtomicInteger();
+
+        CountingCheck(final Configuration configuration)
+        {
+            super(configuration);
+        }
+
+        @Override
+        protected Optional<CheckFlag> flag(final AtlasObject object)
+        {
+            this.computed.incrementAndGet();
+            return super.flag(object);
+        }
+
+        int computed()
+        {
+            return this.computed.get();
+        }
+    }
+
+    // Checks are configured under their class name
+    private static final String CHECK_NAME = CountingCheck.class.getSimpleName();
+    private static final String ENTITY = "Edge1000000";
+
+    @Rule
+    public MixedCaseNameCheckTestRule setup = new MixedCaseNameCheckTestRule();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testCachedFlagsMatchComputedFlags()
+    {
+        final Configuration configuration = this.configuration("name:en");
+
+        final CountingCheck firstRun = new CountingCheck(configuration);
+        final List<CheckFlag> computed = Iterables
+                .asList(firstRun.flags(this.setup.invalidNameEdgeAtlas()));
+        firstRun.clear();
+        Assert.assertTrue(firstRun.computed() > 0);
+
+        final CountingCheck secondRun = new CountingCheck(configuration);
+        final List<CheckFlag> cached = Iterables
+                .asList(secondRun.flags(this.setup.invalidNameEdgeAtlas()));
+        secondRun.clear();
+        // Every object was restored from the cache
+        Assert.assertEquals(0, secondRun.computed());
+
+        Assert.assertEquals(1, computed.size());
+        Assert.assertEquals(1, cached.size());
+        Assert.assertEquals(computed.get(0).getIdentifier(), cached.get(0).getIdentifier());
+        Assert.assertEquals(computed.get(0).getInstructions(), cached.get(0).getInstructions());
+    }
+
+    @Test
+    public void testConfigurationChangeInvalidatesResults()
+    {
+        final CountingCheck firstRun = new CountingCheck(this.configuration("name:en"));
+        Iterables.asList(firstRun.flags(this.setup.invalidNameEdgeAtlas()));
+        firstRun.clear();
+
+        final CountingCheck otherRun = new CountingCheck(this.configuration("name:el"));
+        Iterables.asList(otherRun.flags(this.setup.invalidNameEdgeAtlas()));
+        otherRun.clear();
+        // Nothing was restored from the results of the other configuration
+        Assert.assertTrue(otherRun.computed() > 0);
+        Assert.assertEquals(firstRun.computed(), otherRun.computed());
+    }
+
+    @Test
+    public void testCacheVersionInvalidatesResults()
+    {
+        final CountingCheck firstRun = new CountingCheck(this.configuration("name:en", 1));
+        Iterables.asList(firstRun.flags(this.setup.invalidNameEdgeAtlas()));
+        firstRun.clear();
+
+        final CountingCheck sameVersion = new CountingCheck(this.configuration("name:en", 1));
+        Iterables.asList(sameVersion.flags(this.setup.invalidNameEdgeAtlas()));
+        sameVersion.clear();
+        Assert.assertEquals(0, sameVersion.computed());
+
+        final CountingCheck newVersion = new CountingCheck(this.configuration("name:en", 2));
+        Iterables.asList(newVersion.flags(this.setup.invalidNameEdgeAtlas()));
+        newVersion.clear();
+        Assert.assertEquals(firstRun.computed(), newVersion.computed());
+    }
+
+    @Test
+    public void testCountryChangeInvalidatesResults()
+    {
+        final String directory = this.tempFolder.getRoot().getAbsolutePath();
+        final CheckResultCache cache = new CheckResultCache(directory, CHECK_NAME, "ABC", 1L);
+        cache.put(ENTITY, 2L, Optional.empty());
+        cache.persist();
+
+        Assert.assertTrue(
+                new CheckResultCache(directory, CHECK_NAME, "ABC", 1L).contains(ENTITY, 2L));
+        Assert.assertFalse(
+                new CheckResultCache(directory, CHECK_NAME, "DEF", 1L).contains(ENTITY, 2L));
+        Assert.assertFalse(
+                new CheckResultCache(directory, CHECK_NAME, "ABC", 3L).contains(ENTITY, 2L));
+        Assert.assertFalse(
+                new CheckResultCache(directory, CHECK_NAME, "ABC", 1L).contains(ENTITY, 4L));
+    }
+
+    @Test
+    public void testCacheFilePerConfiguration()
+    {
+        final CountingCheck check = new CountingCheck(this.configuration("name:en"));
+        Iterables.asList(check.flags(this.setup.invalidNameLineAtlas()));
+        check.clear();
+        final CountingCheck otherCheck = new CountingCheck(this.configuration("name:el"));
+        Iterables.asList(otherCheck.flags(this.setup.invalidNameLineAtlas()));
+        otherCheck.clear();
+
+        final File[] cacheFiles = this.tempFolder.getRoot().listFiles();
+        Assert.assertNotNull(cacheFiles);
+        Assert.assertEquals(2, cacheFiles.length);
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        final CountingCheck check = new CountingCheck(
+                ConfigurationResolver.emptyConfiguration());
+        Iterables.asList(check.flags(this.setup.invalidNameLineAtlas()));
+        check.clear();
+
+        final File[] cacheFiles = this.tempFolder.getRoot().listFiles();
+        Assert.assertNotNull(cacheFiles);
+        Assert.assertEquals(0, cacheFiles.length);
+    }
+
+    private Configuration configuration(final String languageKey)
+    {
+        return ConfigurationResolver.inlineConfiguration(String.format(
+                "{\"CheckResultCache\":{\"directory\":\"%s\"},\"%s\":{\"name.language.keys\":[\"%s\"]}}",
+                this.tempFolder.getRoot().getAbsolutePath(), CHECK_NAME, languageKey));
+    }
+
+    private Configuration configuration(final String languageKey, final long cacheVersion)
+    {
+        return ConfigurationResolver.inlineConfiguration(String.format(
+                "{\"CheckResultCache\":{\"directory\":\"%s\"},\"%s\":{\"name.language.keys\":[\"%s\"],\"cache.version\":%d}}",
+                this.tempFolder.getRoot().getAbsolutePath(), CHECK_NAME, languageKey,
+                cacheVersion));
+    }
+}
@@ -0,0 +1,106 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.checks.event.MetricEvent;
+
+/**
+ * Tests for {@link CheckCostModel}
+ *
+ * @author agent
+ */
+public class CheckCostModelTest
+{
+    @Test
+    public void testFit()
+    {
+        final CheckCostModel model = new CheckCostModel();
+        model.addRun(1000, this.runTimes(100, 10));
+        model.addRun(3000, this.runTimes(300, 30));
+
+        Assert.assertEquals(0.1, model.cost("SlowCheck"), 1e-9);
+        Assert.assertEquals(0.01, model.cost("FastCheck"), 1e-9);
+        Assert.assertEquals(1000, model.estimate("SlowCheck", 10000));
+        Assert.assertEquals(2, model.history("SlowCheck"));
+
+        // Checks without history cost the median of the others
+        Assert.assertEquals(0, model.history("NewCheck"));
+        Assert.assertEquals(0.1, model.cost("NewCheck"), 1e-9);
+    }
+
+    @Test
+    public void testLayoutPastWhichRuntimeStopsImproving()
+    {
+        // Eight tasks can use at most eight cores
+        final Optional<CheckCostModel.Layout> layout = this.shardedLayout(0L);
+        Assert.assertTrue(layout.isPresent());
+        Assert.assertEquals(4, layout.get().getExecutors());
+        Assert.assertEquals(2, layout.get().getCores());
+        Assert.assertEquals(10, layout.get().getRuntime());
+        Assert.assertEquals(2.0, layout.get().getMemory(), 1e-9);
+    }
+
+    @Test
+    public void testLayoutWithinMemory()
+    {
+        Assert.assertFalse(CheckCostModel.smallestLayout(10, 4, 0.5, 0L, cores -> 1.0,
+                (executors, cores) -> 0L).isPresent());
+    }
+
+    @Test
+    public void testLayoutWithTargetRuntime()
+    {
+        // Four cores are enough for 20 ms, and one executor of four cores needs too much memory
+        final Optional<CheckCostModel.Layout> layout = this.shardedLayout(20L);
+        Assert.assertTrue(layout.isPresent());
+        Assert.assertEquals(2, layout.get().getExecutors());
+        Assert.assertEquals(2, layout.get().getCores());
+        Assert.assertEquals(20, layout.get().getRuntime());
+    }
+
+    @Test
+    public void testMakespan()
+    {
+        Assert.assertEquals(7, CheckCostModel.makespan(Arrays.asList(5L, 4L, 3L, 2L), 2));
+        Assert.assertEquals(14, CheckCostModel.makespan(Arrays.asList(5L, 4L, 3L, 2L), 1));
+        Assert.assertEquals(5, CheckCostModel.makespan(Arrays.asList(5L, 4L, 3L, 2L), 10));
+        Assert.assertEquals(0, CheckCostModel.makespan(Collections.emptyList(), 2));
+    }
+
+    @Test
+    public void testParseRunTimes()
+    {
+        final Map<String, Long> runTimes = CheckCostModel.parseRunTimes(
+                Arrays.asList(MetricEvent.header(), "SlowCheck,100", "FastCheck,10",
+                        "SlowCheck.truncated.flags,100", "not a metric"));
+        Assert.assertEquals(2, runTimes.size());
+        Assert.assertEquals(Long.valueOf(100), runTimes.get("SlowCheck"));
+        Assert.assertEquals(Long.valueOf(10), runTimes.get("FastCheck"));
+    }
+
+    private Map<String, Long> runTimes(final long slow, final long fast)
+    {
+        final Map<String, Long> runTimes = new HashMap<>();
+        runTimes.put("SlowCheck", slow);
+        runTimes.put("FastCheck", fast);
+        return runTimes;
+    }
+
+    /**
+     * @return the layout of eight tasks of 10 ms, one per core, with executors of at most 3 GB
+     *         needing 1 GB per core
+     */
+    private Optional<CheckCostModel.Layout> shardedLayout(final long targetRuntime)
+    {
+        final List<Long> tasks = Collections.nCopies(8, 10L);
+        return CheckCostModel.smallestLayout(10, 4, 3.0, targetRuntime, cores -> cores * 1.0,
+                (executors, cores) -> CheckCostModel.makespan(tasks, executors * cores));
+    }
+}
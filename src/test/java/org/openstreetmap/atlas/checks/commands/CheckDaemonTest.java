@@ -0,0 +1,104 @@
+package org.openstreetmap.atlas.checks.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
+import org.openstreetmap.atlas.checks.validation.tag.MixedCaseNameCheck;
+import org.openstreetmap.atlas.checks.validation.tag.MixedCaseNameCheckTestRule;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests for {@link CheckDaemon}
+ *
+ * @author agent
+ */
+public class CheckDaemonTest
+{
+    @Rule
+    public MixedCaseNameCheckTestRule setup = new MixedCaseNameCheckTestRule();
+
+    @Test
+    public void testFlagsForBounds()
+    {
+        final Atlas atlas = this.setup.invalidNameLineAtlas();
+        final CheckDaemon daemon = this.daemon(atlas);
+
+        final JsonObject flags = daemon.flags(atlas.bounds());
+        Assert.assertEquals("FeatureCollection", flags.get("type").getAsString());
+        Assert.assertEquals(1, flags.getAsJsonArray("features").size());
+
+        // Requests are independent of each other
+        Assert.assertEquals(1, daemon.flags(atlas.bounds()).getAsJsonArray("features").size());
+        Assert.assertEquals(0, daemon.flags(Rectangle.forString("0,0:0.001,0.001"))
+                .getAsJsonArray("features").size());
+    }
+
+    @Test
+    public void testConcurrentRequests() throws InterruptedException, ExecutionException
+    {
+        final Atlas atlas = this.setup.invalidNameLineAtlas();
+        final CheckDaemon daemon = this.daemon(atlas);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            // Concurrent requests of the same check do not see what the others flagged
+            final List<Future<JsonObject>> requests = new ArrayList<>();
+            for (int request = 0; request < 16; request++)
+            {
+                requests.add(executor.submit(() -> daemon.flags(atlas.bounds())));
+            }
+            for (final Future<JsonObject> request : requests)
+            {
+                Assert.assertEquals(1, request.get().getAsJsonArray("features").size());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlagsForIdentifiers()
+    {
+        final Atlas atlas = this.setup.invalidNameLineAtlas();
+        final CheckDaemon daemon = this.daemon(atlas);
+        final long identifier = atlas.lines().iterator().next().getIdentifier();
+
+        Assert.assertEquals(1, daemon.flags(Collections.singletonList(identifier))
+                .getAsJsonArray("features").size());
+        Assert.assertEquals(0,
+                daemon.flags(Arrays.asList(identifier + 1)).getAsJsonArray("features").size());
+    }
+
+    @Test
+    public void testParseQuery()
+    {
+        final Map<String, String> parameters = CheckDaemon
+                .parseQuery("bounds=1%2C2%3A3%2C4&ids=5,6&empty");
+        Assert.assertEquals("1,2:3,4", parameters.get(CheckDaemon.BOUNDS_PARAMETER));
+        Assert.assertEquals("5,6", parameters.get(CheckDaemon.IDENTIFIERS_PARAMETER));
+        Assert.assertEquals(2, parameters.size());
+        Assert.assertTrue(CheckDaemon.parseQuery(null).isEmpty());
+    }
+
+    private CheckDaemon daemon(final Atlas atlas)
+    {
+        return new CheckDaemon(atlas, Collections.singleton(
+                new MixedCaseNameCheck(ConfigurationResolver.emptyConfiguration())));
+    }
+}
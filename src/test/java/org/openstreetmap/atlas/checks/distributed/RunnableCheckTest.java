@@ -0,0 +1,184 @@
+package org.openstreetmap.atlas.checks.distributed;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openstreetmap.atlas.checks.base.BaseCheck;
+import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
+import org.openstreetmap.atlas.checks.event.CheckFlagEvent;
+import org.openstreetmap.atlas.checks.event.MetricEvent;
+import org.openstreetmap.atlas.checks.flag.CheckFlag;
+import org.openstreetmap.atlas.checks.validation.tag.MixedCaseNameCheckTestRule;
+import org.openstreetmap.atlas.event.EventService;
+import org.openstreetmap.atlas.event.Processor;
+import org.openstreetmap.atlas.event.ShutdownEvent;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasObject;
+import org.openstreetmap.atlas.utilities.configuration.Configuration;
+import org.openstreetmap.atlas.utilities.scalars.Duration;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Tests for {@link RunnableCheck} budgets
+ *
+ * @author agent
+ */
+public class RunnableCheckTest
+{
+    /**
+     * Flags every object it is given
+     *
+     * @author agent
+     */
+    private static final class FlagEverythingCheck extends BaseCheck<Long>
+    {
+        private static final long serialVersionUID = -2395184733452816513L;
+
+        FlagEverythingCheck(final Configuration configuration)
+        {
+            super(configuration);
+        }
+
+        @Override
+        public boolean validCheckForObject(final AtlasObject object)
+        {
+            return true;
+        }
+
+        @Override
+        protected Optional<CheckFlag> flag(final AtlasObject object)
+        {
+            return Optional.of(this.createFlag(object, "Flagged"));
+        }
+    }
+
+    /**
+     * Flags every object it is given, slowly, with a runtime budget shorter than two objects
+     *
+     * @author agent
+     */
+    private static final class SlowCheck extends BaseCheck<Long>
+    {
+        private static final long serialVersionUID = 2879517326052337941L;
+        private static final long OBJECT_MILLISECONDS = 100;
+
+        SlowCheck(final Configuration configuration)
+        {
+            super(configuration);
+        }
+
+        @Override
+        public Optional<Duration> getMaximumRuntime()
+        {
+            return Optional.of(Duration.milliseconds(OBJECT_MILLISECONDS * 3 / 2));
+        }
+
+        @Override
+        public boolean validCheckForObject(final AtlasObject object)
+        {
+            return true;
+        }
+
+        @Override
+        protected Optional<CheckFlag> flag(final AtlasObject object)
+        {
+            Uninterruptibles.sleepUninterruptibly(OBJECT_MILLISECONDS, TimeUnit.MILLISECONDS);
+            return Optional.of(this.createFlag(object, "Flagged"));
+        }
+    }
+
+    /**
+     * Collects the events posted by a {@link RunnableCheck}
+     *
+     * @author agent
+     */
+    private static final class EventCollector implements Processor<CheckFlagEvent>
+    {
+        private final List<CheckFlagEvent> flags = new CopyOnWriteArrayList<>();
+        private final List<MetricEvent> metrics = new CopyOnWriteArrayList<>();
+
+        @Override
+        @Subscribe
+        @AllowConcurrentEvents
+        public void process(final CheckFlagEvent event)
+        {
+            this.flags.add(event);
+        }
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void process(final MetricEvent event)
+        {
+            this.metrics.add(event);
+        }
+
+        @Override
+        public void process(final ShutdownEvent event)
+        {
+            // no-op
+        }
+    }
+
+    @Rule
+    public MixedCaseNameCheckTestRule setup = new MixedCaseNameCheckTestRule();
+
+    @Test
+    public void testFlagBudget()
+    {
+        final EventCollector events = this.run("testFlagBudget",
+                "{\"FlagEverythingCheck\":{\"max.flags\":1}}");
+        Assert.assertEquals(1, events.flags.size());
+        Assert.assertEquals(2, events.metrics.size());
+        Assert.assertTrue(events.metrics.stream().anyMatch(metric -> metric.getName()
+                .equals(String.format(RunnableCheck.TRUNCATED_METRIC_FORMAT,
+                        "FlagEverythingCheck", RunnableCheck.FLAGS_BUDGET))));
+    }
+
+    @Test
+    public void testRuntimeBudget()
+    {
+        final EventCollector events = this.run("testRuntimeBudget",
+                new SlowCheck(ConfigurationResolver.emptyConfiguration()));
+        // The budget is checked between objects, so the check stops after the second one
+        Assert.assertEquals(2, events.flags.size());
+        Assert.assertEquals(2, events.metrics.size());
+        Assert.assertTrue(events.metrics.stream().anyMatch(metric -> metric.getName()
+                .equals(String.format(RunnableCheck.TRUNCATED_METRIC_FORMAT, "SlowCheck",
+                        RunnableCheck.RUNTIME_BUDGET))));
+    }
+
+    @Test
+    public void testUnlimitedBudget()
+    {
+        final Atlas atlas = this.setup.invalidNameEdgeAtlas();
+        final EventCollector events = this.run("testUnlimitedBudget", "{}");
+        Assert.assertEquals(atlas.numberOfNodes() + atlas.numberOfEdges(), events.flags.size());
+        Assert.assertEquals(1, events.metrics.size());
+        Assert.assertEquals("FlagEverythingCheck", events.metrics.get(0).getName());
+    }
+
+    private EventCollector run(final String name, final String configuration)
+    {
+        return this.run(name, new FlagEverythingCheck(
+                ConfigurationResolver.inlineConfiguration(configuration)));
+    }
+
+    private EventCollector run(final String name, final BaseCheck<Long> check)
+    {
+        final EventService eventService = EventService.get(name);
+        final EventCollector events = new EventCollector();
+        eventService.register(events);
+        new RunnableCheck(name, check, IntegrityChecksCommandArguments
+                .objectsToCheck(this.setup.invalidNameEdgeAtlas(), check), eventService).run();
+        eventService.complete();
+        return events;
+    }
+}
@@ -0,0 +1,92 @@
+package org.openstreetmap.atlas.checks.distributed;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openstreetmap.atlas.exception.CoreException;
+import org.openstreetmap.atlas.geography.atlas.items.AtlasEntity;
+import org.openstreetmap.atlas.geography.sharding.SlippyTile;
+
+/**
+ * Tests for {@link SamplingFilter}
+ *
+ * @author agent
+ */
+public class SamplingFilterTest
+{
+    private static final int ZOOM = 12;
+    private static final int SAMPLE_SIZE = 10000;
+    private static final double RATIO = 0.2;
+    private static final double TOLERANCE = 0.02;
+
+    @Test
+    public void testEstimate()
+    {
+        final SamplingFilter sampling = new SamplingFilter(RATIO, SamplingFilter.Mode.OBJECTS);
+        Assert.assertEquals(500.0, sampling.estimate(100), 0.0);
+        Assert.assertEquals(1.96 * Math.sqrt(80.0) / RATIO, sampling.marginOfError(100), 1e-9);
+        Assert.assertEquals(0.0, SamplingFilter.all().marginOfError(100), 0.0);
+    }
+
+    @Test(expected = CoreException.class)
+    public void testInvalidRatio()
+    {
+        new SamplingFilter(0.0, SamplingFilter.Mode.OBJECTS);
+    }
+
+    @Test
+    public void testIsSamplingShards()
+    {
+        Assert.assertTrue(new SamplingFilter(RATIO, SamplingFilter.Mode.SHARDS).isSamplingShards());
+        Assert.assertTrue(new SamplingFilter(Math.nextDown(1.0), SamplingFilter.Mode.SHARDS)
+                .isSamplingShards());
+        // Every shard is kept at a ratio of exactly 1.0
+        Assert.assertFalse(new SamplingFilter(1.0, SamplingFilter.Mode.SHARDS).isSamplingShards());
+        Assert.assertFalse(
+                new SamplingFilter(RATIO, SamplingFilter.Mode.OBJECTS).isSamplingShards());
+    }
+
+    @Test
+    public void testObjectSampling()
+    {
+        final SamplingFilter sampling = new SamplingFilter(RATIO, SamplingFilter.Mode.OBJECTS);
+        final long sampled = LongStream.range(0, SAMPLE_SIZE).mapToObj(this::entity)
+                .filter(sampling).count();
+        Assert.assertEquals(RATIO, (double) sampled / SAMPLE_SIZE, TOLERANCE);
+
+        // Deterministic, and shared by the entities of one OSM feature
+        final AtlasEntity entity = this.entity(123L);
+        final AtlasEntity section = this.entity(123L);
+        Assert.assertEquals(sampling.test(entity), sampling.test(section));
+        Assert.assertEquals(sampling.test(entity),
+                new SamplingFilter(RATIO, SamplingFilter.Mode.OBJECTS).test(entity));
+
+        // Objects are not sampled when sampling shards
+        Assert.assertTrue(LongStream.range(0, SAMPLE_SIZE).mapToObj(this::entity)
+                .allMatch(new SamplingFilter(RATIO, SamplingFilter.Mode.SHARDS)));
+    }
+
+    @Test
+    public void testShardSampling()
+    {
+        final SamplingFilter sampling = new SamplingFilter(RATIO, SamplingFilter.Mode.SHARDS);
+        final long sampled = IntStream.range(0, SAMPLE_SIZE)
+                .mapToObj(index -> new SlippyTile(index % (1 << ZOOM), index / (1 << ZOOM), ZOOM))
+                .filter(sampling::includes).count();
+        Assert.assertEquals(RATIO, (double) sampled / SAMPLE_SIZE, TOLERANCE);
+
+        // Shards are not sampled when sampling objects
+        Assert.assertTrue(new SamplingFilter(RATIO, SamplingFilter.Mode.OBJECTS)
+                .includes(new SlippyTile(1, 1, ZOOM)));
+    }
+
+    private AtlasEntity entity(final long osmIdentifier)
+    {
+        final AtlasEntity entity = Mockito.mock(AtlasEntity.class);
+        Mockito.when(entity.getOsmIdentifier()).thenReturn(osmIdentifier);
+        return entity;
+    }
+}
@@ -0,0 +1,132 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.Polygon;
+
+/**
+ * Tests for {@link ContainmentGrid}
+ *
+ * @author agent
+ */
+public class ContainmentGridTest
+{
+    private static final int STAR_POINTS = 400;
+    private static final int SAMPLES = 5000;
+    private static final int SQUARE_SIDE_POINTS = 40;
+    private static final double SQUARE_STEP = 0.001;
+    // A concave star, with a narrow spike every other shape point
+    private static final Polygon STAR = star();
+    private static final ContainmentGrid GRID = ContainmentGrid.forPolygon(STAR);
+
+    @Test
+    public void testBoundary()
+    {
+        assertBoundaryParity(STAR, GRID);
+    }
+
+    @Test
+    public void testBoundaryWithCollinearShapePoints()
+    {
+        // A square with many shape points along each of its sides, so that shape points and
+        // edges are on the horizontal and vertical lines the grid is classified along
+        final List<Location> locations = new ArrayList<>();
+        for (int index = 0; index < SQUARE_SIDE_POINTS; index++)
+        {
+            locations.add(location(0.0, index * SQUARE_STEP));
+        }
+        for (int index = 0; index < SQUARE_SIDE_POINTS; index++)
+        {
+            locations.add(location(index * SQUARE_STEP, SQUARE_SIDE_POINTS * SQUARE_STEP));
+        }
+        for (int index = SQUARE_SIDE_POINTS; index > 0; index--)
+        {
+            locations.add(location(SQUARE_SIDE_POINTS * SQUARE_STEP, index * SQUARE_STEP));
+        }
+        for (int index = SQUARE_SIDE_POINTS; index > 0; index--)
+        {
+            locations.add(location(index * SQUARE_STEP, 0.0));
+        }
+        final Polygon square = new Polygon(locations);
+        assertBoundaryParity(square, ContainmentGrid.forPolygon(square));
+    }
+
+    @Test
+    public void testOutsideBounds()
+    {
+        Assert.assertFalse(GRID.covers(location(2.0, 0.0)));
+        Assert.assertFalse(GRID.covers(location(0.0, -2.0)));
+    }
+
+    @Test
+    public void testRandomLocations()
+    {
+        final Random random = new Random(1);
+        for (int sample = 0; sample < SAMPLES; sample++)
+        {
+            final Location location = location(random.nextDouble() * 2.2 - 1.1,
+                    random.nextDouble() * 2.2 - 1.1);
+            Assert.assertEquals(location.toString(), STAR.fullyGeometricallyEncloses(location),
+                    GRID.covers(location));
+        }
+    }
+
+    /**
+     * Checks that the grid agrees with {@link Polygon#fullyGeometricallyEncloses(Location)} on
+     * every shape point, halfway along every edge, and next to every shape point
+     */
+    private static void assertBoundaryParity(final Polygon polygon, final ContainmentGrid grid)
+    {
+        for (int index = 0; index < polygon.size(); index++)
+        {
+            final Location start = polygon.get(index);
+            final Location end = polygon.get((index + 1) % polygon.size());
+            final List<Location> locations = new ArrayList<>();
+            locations.add(start);
+            // Halfway along an edge, when it falls on a dm7 location
+            final long longitude = start.getLongitude().asDm7() + end.getLongitude().asDm7();
+            final long latitude = start.getLatitude().asDm7() + end.getLatitude().asDm7();
+            if (longitude % 2 == 0 && latitude % 2 == 0)
+            {
+                locations.add(new Location(Latitude.dm7(latitude / 2),
+                        Longitude.dm7(longitude / 2)));
+            }
+            for (final long offset : new long[] { -1L, 1L })
+            {
+                locations.add(new Location(Latitude.dm7(start.getLatitude().asDm7() + offset),
+                        start.getLongitude()));
+                locations.add(new Location(start.getLatitude(),
+                        Longitude.dm7(start.getLongitude().asDm7() + offset)));
+            }
+            for (final Location location : locations)
+            {
+                Assert.assertEquals(location.toString(),
+                        polygon.fullyGeometricallyEncloses(location), grid.covers(location));
+            }
+        }
+    }
+
+    private static Location location(final double latitude, final double longitude)
+    {
+        return new Location(Latitude.degrees(latitude), Longitude.degrees(longitude));
+    }
+
+    private static Polygon star()
+    {
+        final List<Location> locations = new ArrayList<>();
+        for (int index = 0; index < STAR_POINTS; index++)
+        {
+            final double angle = 2 * Math.PI * index / STAR_POINTS;
+            final double radius = index % 2 == 0 ? 1.0 : 0.6;
+            locations.add(location(radius * Math.sin(angle), radius * Math.cos(angle)));
+        }
+        return new Polygon(locations);
+    }
+}
@@ -4,19 +4,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.Arrays;
-import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.io.FileUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
@@ -48,42 +47,23 @@ public class ElevationUtilitiesTest
     private static void prefillData()
     {
         // 4x4 array of shorts
-        final ByteBuffer byteBuffer = ByteBuffer.allocate(32);
-        byteBuffer.order(ByteOrder.BIG_ENDIAN);
+        final short[][] data = new short[4][4];
         for (short i = 0; i < 16; i++)
         {
-            byteBuffer.putShort(i);
-        }
-        try (InputStream inputStream = new ByteArrayInputStream(byteBuffer.array()))
-        {
-            final Method readStream = ElevationUtilities.class.getDeclaredMethod("readStream",
-                    InputStream.class);
-            readStream.setAccessible(true);
-            short[][] data = (short[][]) readStream.invoke(elevationUtilities, inputStream);
-
-            final Field loadedSrtmField = ElevationUtilities.class.getDeclaredField("loadedSrtm");
-            loadedSrtmField.setAccessible(true);
-            // This is the return value. If it changes, this needs to change.
-            @SuppressWarnings("unchecked")
-            final Map<Pair<Integer, Integer>, short[][]> loadedSrtm = (Map<Pair<Integer, Integer>, short[][]>) loadedSrtmField
-                    .get(elevationUtilities);
-            data[0][0] = 2;
-            loadedSrtm.put(Pair.of(-1, 0), data);
-            data = Arrays.copyOf(data, data.length);
-            data[0][0] = 1;
-            loadedSrtm.put(Pair.of(0, 0), data);
-            data = Arrays.copyOf(data, data.length);
-            data[0][0] = 3;
-            loadedSrtm.put(Pair.of(-1, -1), data);
-            data = Arrays.copyOf(data, data.length);
-            data[0][0] = 4;
-            loadedSrtm.put(Pair.of(0, -1), data);
-        }
-        catch (IOException | NoSuchMethodException | SecurityException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException | NoSuchFieldException e)
-        {
-            throw new AssertionError(e);
+            data[i / 4][i % 4] = i;
         }
+        data[0][0] = 2;
+        elevationUtilities.putMap(
+                new Location(Latitude.degrees(-0.5), Longitude.degrees(0.5)), data);
+        data[0][0] = 1;
+        elevationUtilities.putMap(new Location(Latitude.degrees(0.5), Longitude.degrees(0.5)),
+                data);
+        data[0][0] = 3;
+        elevationUtilities.putMap(
+                new Location(Latitude.degrees(-0.5), Longitude.degrees(-0.5)), data);
+        data[0][0] = 4;
+        elevationUtilities.putMap(
+                new Location(Latitude.degrees(0.5), Longitude.degrees(-0.5)), data);
     }
 
     /**
@@ -122,6 +102,50 @@ public class ElevationUtilitiesTest
         }
     }
 
+    /**
+     * Test that tiles are mapped from files, and that compressed tiles are decompressed into the
+     * cache directory first
+     *
+     * @throws IOException
+     *             when the temporary files cannot be written
+     */
+    @Test
+    public void testFileTiles() throws IOException
+    {
+        final Path directory = Files.createTempDirectory("elevation");
+        try
+        {
+            final Path cache = directory.resolve("cache");
+            final ElevationUtilities files = new ElevationUtilities(1.0, "hgt",
+                    directory.toString(), cache.toString(), 2);
+            final ByteBuffer byteBuffer = ByteBuffer.allocate(32);
+            byteBuffer.order(ByteOrder.BIG_ENDIAN);
+            for (short i = 0; i < 16; i++)
+            {
+                byteBuffer.putShort(i);
+            }
+            Files.write(directory.resolve(files.getSrtmFileName(0, 0)), byteBuffer.array());
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(
+                    directory.resolve(files.getSrtmFileName(-1, -1) + ".gz"))))
+            {
+                outputStream.write(byteBuffer.array());
+            }
+
+            final double degrees = 0.33;
+            assertEquals(9, files.getElevation(
+                    new Location(Latitude.degrees(degrees), Longitude.degrees(degrees))));
+            assertEquals(6, files.getElevation(
+                    new Location(Latitude.degrees(-degrees), Longitude.degrees(-degrees))));
+            assertTrue(Files.isRegularFile(cache.resolve(files.getSrtmFileName(-1, -1))));
+            assertEquals(ElevationUtilities.NO_ELEVATION, files.getElevation(
+                    new Location(Latitude.degrees(degrees), Longitude.degrees(-degrees))));
+        }
+        finally
+        {
+            FileUtils.deleteDirectory(directory.toFile());
+        }
+    }
+
     /**
      * Test method for {@link ElevationUtilities#getElevation(Location)}.
      */
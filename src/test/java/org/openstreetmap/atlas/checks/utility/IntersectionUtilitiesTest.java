@@ -1,10 +1,17 @@
 package org.openstreetmap.atlas.checks.utility;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashMap;
+
 import org.junit.Test;
 import org.openstreetmap.atlas.geography.Location;
 import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Area;
+import org.openstreetmap.atlas.geography.atlas.packed.PackedAtlasBuilder;
 
 /**
  * Tests for {@link IntersectionUtilities}
@@ -54,4 +61,34 @@ public class IntersectionUtilitiesTest
     {
         assertTrue(IntersectionUtilities.findIntersectionPercentage(POLYGON1, POLYGON1) >= 1);
     }
+
+    @Test
+    public void isIntersectionPercentageAtLeastTest()
+    {
+        final PackedAtlasBuilder builder = new PackedAtlasBuilder();
+        builder.addArea(1L, POLYGON1, new HashMap<>());
+        builder.addArea(2L, POLYGON2, new HashMap<>());
+        builder.addArea(3L, POLYGON3, new HashMap<>());
+        final Atlas atlas = builder.get();
+        final Area area1 = atlas.area(1L);
+        final Area area2 = atlas.area(2L);
+        final Area area3 = atlas.area(3L);
+
+        final double percentage = IntersectionUtilities.findIntersectionPercentage(area1, area2);
+        assertEquals(IntersectionUtilities.findIntersectionPercentage(POLYGON1, POLYGON2),
+                percentage, 1e-3);
+        assertTrue(IntersectionUtilities.isIntersectionPercentageAtLeast(area1, area2,
+                percentage / 2));
+        assertFalse(IntersectionUtilities.isIntersectionPercentageAtLeast(area1, area2,
+                Math.min(1.0, percentage * 2)));
+        // Disjoint bounds are rejected without intersecting the polygons
+        assertFalse(IntersectionUtilities.isIntersectionPercentageAtLeast(area1, area3, 0.01));
+        assertTrue(IntersectionUtilities.isIntersectionPercentageAtLeast(area1, area1, 1.0));
+
+        // The bounded search returns the exact percentage of the pairs it does not reject
+        assertEquals(percentage, IntersectionUtilities
+                .findIntersectionPercentage(area1, area2, percentage / 2).getAsDouble(), 1e-9);
+        assertFalse(IntersectionUtilities.findIntersectionPercentage(area1, area3, 0.01)
+                .isPresent());
+    }
 }
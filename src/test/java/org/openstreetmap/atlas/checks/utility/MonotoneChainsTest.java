@@ -0,0 +1,248 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+
+/**
+ * Tests for {@link MonotoneChains}
+ *
+ * @author agent
+ */
+public class MonotoneChainsTest
+{
+    // Long enough for SelfIntersectingPolylineCheck to use the chains
+    private static final int PARITY_POINTS = 600;
+    private static final int PARITY_RUNS = 5;
+    private static final int PARITY_STEP = 10_000;
+    private static final int SPIRAL_POINTS = 2000;
+    private static final double SPIRAL_STEP = 0.1;
+    private static final int SPIRAL_TURNS = (int) (SPIRAL_POINTS * SPIRAL_STEP / (2 * Math.PI));
+
+    @Test
+    public void testBacktrack()
+    {
+        final Set<Location> intersections = MonotoneChains
+                .selfIntersections(new PolyLine(this.location(0, 0), this.location(0, 10),
+                        this.location(0, 5)));
+        Assert.assertEquals(Collections.singleton(this.location(0, 5)), intersections);
+    }
+
+    @Test
+    public void testCollinearOverlapParity()
+    {
+        final Random random = new Random(1);
+        for (int run = 0; run < PARITY_RUNS; run++)
+        {
+            // Going back over part of the line, along the same segments
+            final List<Location> line = this.randomLine(random);
+            final int from = random.nextInt(PARITY_POINTS / 2);
+            for (int index = from + 20; index > from; index--)
+            {
+                line.add(line.get(index));
+            }
+            this.assertParity(new PolyLine(line));
+
+            // A straight line folding back on itself, with shape points between the ones it
+            // already has
+            final List<Location> fold = new ArrayList<>();
+            for (int index = 0; index < PARITY_POINTS; index++)
+            {
+                fold.add(this.location(0, index * 2L));
+            }
+            fold.add(this.location(0, random.nextInt(PARITY_POINTS) + 1L));
+            fold.add(this.location(0, 1));
+            this.assertParity(new PolyLine(fold));
+        }
+    }
+
+    @Test
+    public void testCrossing()
+    {
+        final Set<Location> intersections = MonotoneChains
+                .selfIntersections(new PolyLine(this.location(0, 0), this.location(10, 10),
+                        this.location(10, 0), this.location(0, 10)));
+        Assert.assertEquals(Collections.singleton(this.location(5, 5)), intersections);
+    }
+
+    @Test
+    public void testLongSpiral()
+    {
+        final List<Location> spiral = this.spiral();
+        Assert.assertTrue(MonotoneChains.selfIntersections(new PolyLine(spiral)).isEmpty());
+
+        // Going back to the center crosses every full turn of the spiral once
+        final List<Location> crossing = new ArrayList<>(spiral);
+        crossing.add(this.location(0, 0));
+        final Set<Location> intersections = MonotoneChains
+                .selfIntersections(new PolyLine(crossing));
+        Assert.assertEquals(SPIRAL_TURNS, intersections.size());
+    }
+
+    @Test
+    public void testPolygon()
+    {
+        Assert.assertTrue(MonotoneChains
+                .selfIntersections(new Polygon(this.location(0, 0), this.location(0, 10),
+                        this.location(10, 10), this.location(10, 0)))
+                .isEmpty());
+        Assert.assertEquals(Collections.singleton(this.location(5, 5)),
+                MonotoneChains.selfIntersections(new Polygon(this.location(0, 0),
+                        this.location(10, 10), this.location(10, 0), this.location(0, 10))));
+    }
+
+    @Test
+    public void testRandomLinesParity()
+    {
+        final Random random = new Random(0);
+        for (int run = 0; run < PARITY_RUNS; run++)
+        {
+            final List<Location> line = this.randomLine(random);
+            this.assertParity(new PolyLine(line));
+            this.assertParity(new Polygon(line));
+        }
+    }
+
+    @Test
+    public void testRepeatedVerticesParity()
+    {
+        final Random random = new Random(2);
+        for (int run = 0; run < PARITY_RUNS; run++)
+        {
+            final List<Location> line = this.randomLine(random);
+            final List<Location> repeated = new ArrayList<>();
+            for (final Location location : line)
+            {
+                repeated.add(location);
+                // Consecutive duplicates
+                if (random.nextInt(10) == 0)
+                {
+                    repeated.add(location);
+                }
+            }
+            this.assertParity(new PolyLine(repeated));
+        }
+    }
+
+    @Test
+    public void testShapePointTouch()
+    {
+        final Set<Location> intersections = MonotoneChains.selfIntersections(
+                new PolyLine(this.location(0, 0), this.location(10, 0), this.location(10, 10),
+                        this.location(5, 0), this.location(5, -10)));
+        Assert.assertEquals(Collections.singleton(this.location(5, 0)), intersections);
+    }
+
+    @Test
+    public void testSharedVertexParity()
+    {
+        final Random random = new Random(3);
+        for (int run = 0; run < PARITY_RUNS; run++)
+        {
+            // Coming back to earlier shape points, without crossing there
+            final List<Location> line = this.randomLine(random);
+            for (int count = 0; count < 10; count++)
+            {
+                line.add(line.get(random.nextInt(line.size() - 1)));
+            }
+            this.assertParity(new PolyLine(line));
+
+            // A comb of teeth touching its spine at its shape points
+            final List<Location> comb = new ArrayList<>();
+            for (int index = 0; index < PARITY_POINTS / 3; index++)
+            {
+                comb.add(this.location(0, index * 10L));
+            }
+            // Each tooth comes back down on a shape point of the spine
+            for (int index = PARITY_POINTS / 3 - 1; index > 1; index--)
+            {
+                comb.add(this.location(10, index * 10L - 5));
+                comb.add(this.location(0, (index - 1) * 10L));
+            }
+            this.assertParity(new PolyLine(comb));
+        }
+    }
+
+    /**
+     * Asserts that the chains find the same self-intersections as {@link PolyLine}, up to the
+     * rounding of crossings between shape points
+     */
+    private void assertParity(final PolyLine polyLine)
+    {
+        Assert.assertTrue(polyLine.size() >= 500);
+        final Set<Location> expected = polyLine.selfIntersections();
+        // Every case has self-intersections, so that an empty result cannot pass
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected,
+                this.closeTo(MonotoneChains.selfIntersections(polyLine), expected));
+    }
+
+    /**
+     * @return the locations, each replaced by the expected location within one dm7 of it if any
+     */
+    private Set<Location> closeTo(final Set<Location> locations, final Set<Location> expected)
+    {
+        final Set<Location> result = new HashSet<>();
+        for (final Location location : locations)
+        {
+            if (expected.contains(location))
+            {
+                result.add(location);
+                continue;
+            }
+            result.add(expected.stream()
+                    .filter(other -> Math.abs(
+                            other.getLatitude().asDm7() - location.getLatitude().asDm7()) <= 1
+                            && Math.abs(other.getLongitude().asDm7()
+                                    - location.getLongitude().asDm7()) <= 1)
+                    .findFirst().orElse(location));
+        }
+        return result;
+    }
+
+    private Location location(final long latitude, final long longitude)
+    {
+        return new Location(Latitude.dm7(latitude * 1000), Longitude.dm7(longitude * 1000));
+    }
+
+    /**
+     * @return a random walk, which crosses itself a few times
+     */
+    private List<Location> randomLine(final Random random)
+    {
+        final List<Location> line = new ArrayList<>();
+        long latitude = 0;
+        long longitude = 0;
+        for (int index = 0; index < PARITY_POINTS; index++)
+        {
+            line.add(new Location(Latitude.dm7(latitude), Longitude.dm7(longitude)));
+            latitude += random.nextInt(2 * PARITY_STEP + 1) - PARITY_STEP;
+            longitude += random.nextInt(2 * PARITY_STEP + 1) - PARITY_STEP;
+        }
+        return line;
+    }
+
+    private List<Location> spiral()
+    {
+        final List<Location> spiral = new ArrayList<>();
+        for (int index = 0; index < SPIRAL_POINTS; index++)
+        {
+            final double angle = index * SPIRAL_STEP;
+            final double radius = 1.0 + angle * 10.0;
+            spiral.add(new Location(Latitude.dm7(Math.round(radius * Math.sin(angle) * 1000)),
+                    Longitude.dm7(Math.round(radius * Math.cos(angle) * 1000))));
+        }
+        return spiral;
+    }
+}
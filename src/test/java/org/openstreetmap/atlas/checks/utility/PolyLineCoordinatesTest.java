@@ -0,0 +1,94 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Segment;
+import org.openstreetmap.atlas.utilities.scalars.Angle;
+import org.openstreetmap.atlas.utilities.tuples.Tuple;
+
+/**
+ * Tests for {@link PolyLineCoordinates}
+ *
+ * @author agent
+ */
+public class PolyLineCoordinatesTest
+{
+    private static final double DEGREES_TOLERANCE = 1e-5;
+    private static final double METERS_TOLERANCE = 1e-3;
+    // Includes a sharp turn and a zero length segment
+    private static final PolyLine POLYLINE = new PolyLine(location(15.42, -61.33),
+            location(15.43, -61.32), location(15.425, -61.31), location(15.44, -61.305),
+            location(15.44, -61.305), location(15.45, -61.31));
+
+    @Test
+    public void testAngles()
+    {
+        final List<Location> expected = POLYLINE.anglesGreaterThanOrEqualTo(Angle.degrees(30))
+                .stream().map(Tuple::getSecond).collect(Collectors.toList());
+        final List<Location> actual = PolyLineCoordinates.forPolyLine(POLYLINE)
+                .anglesGreaterThanOrEqualTo(Angle.degrees(30)).stream().map(Tuple::getSecond)
+                .collect(Collectors.toList());
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDifference()
+    {
+        Assert.assertEquals(20.0, PolyLineCoordinates.difference(170.0, -170.0),
+                DEGREES_TOLERANCE);
+        Assert.assertEquals(90.0, PolyLineCoordinates.difference(-45.0, 45.0), DEGREES_TOLERANCE);
+        Assert.assertTrue(Double.isNaN(PolyLineCoordinates.difference(Double.NaN, 45.0)));
+    }
+
+    @Test
+    public void testPolygonClosingSegment()
+    {
+        final Polygon polygon = new Polygon(POLYLINE.first(), POLYLINE.get(1), POLYLINE.get(2));
+        final PolyLineCoordinates coordinates = PolyLineCoordinates.forPolyLine(polygon);
+        Assert.assertEquals(polygon.segments().size(), coordinates.segmentCount());
+        Assert.assertEquals(polygon.first(), coordinates.location(coordinates.size() - 1));
+        Assert.assertEquals(
+                polygon.segments().stream().mapToDouble(segment -> segment.length().asMeters())
+                        .sum(),
+                coordinates.length(), METERS_TOLERANCE);
+    }
+
+    @Test
+    public void testSegments()
+    {
+        final PolyLineCoordinates coordinates = PolyLineCoordinates.forPolyLine(POLYLINE);
+        final List<Segment> segments = POLYLINE.segments();
+        final double[] lengths = coordinates.segmentLengths();
+        final double[] headings = coordinates.segmentHeadings();
+        Assert.assertEquals(segments.size(), lengths.length);
+        for (int index = 0; index < segments.size(); index++)
+        {
+            final Segment segment = segments.get(index);
+            Assert.assertEquals(segment.length().asMeters(), lengths[index], METERS_TOLERANCE);
+            if (segment.heading().isPresent())
+            {
+                Assert.assertEquals(0.0, PolyLineCoordinates.difference(
+                        segment.heading().get().asDegrees(), headings[index]), DEGREES_TOLERANCE);
+            }
+            else
+            {
+                Assert.assertTrue(Double.isNaN(headings[index]));
+            }
+        }
+        Assert.assertEquals(POLYLINE.length().asMeters(), coordinates.length(), METERS_TOLERANCE);
+    }
+
+    private static Location location(final double latitude, final double longitude)
+    {
+        return new Location(Latitude.degrees(latitude), Longitude.degrees(longitude));
+    }
+}
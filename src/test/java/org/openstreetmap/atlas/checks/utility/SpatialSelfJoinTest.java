@@ -0,0 +1,115 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.Rectangle;
+
+/**
+ * Tests for {@link SpatialSelfJoin}
+ *
+ * @author agent
+ */
+public class SpatialSelfJoinTest
+{
+    private static final int ITEMS = 500;
+    private static final int TILE_CAPACITY = 8;
+    private static final long SEED = 42L;
+
+    @Test
+    public void testEachPairOnce()
+    {
+        final List<Rectangle> rectangles = this.rectangles();
+        final Set<String> expected = new HashSet<>();
+        for (int first = 0; first < rectangles.size(); first++)
+        {
+            for (int second = first + 1; second < rectangles.size(); second++)
+            {
+                if (this.overlap(rectangles.get(first), rectangles.get(second)))
+                {
+                    expected.add(this.pair(rectangles.get(first), rectangles.get(second)));
+                }
+            }
+        }
+
+        final Map<String, Integer> actual = new ConcurrentHashMap<>();
+        new SpatialSelfJoin<>(rectangles, rectangle -> rectangle, TILE_CAPACITY).forEachPair(
+                (rectangle, other) -> true,
+                (rectangle, other) -> actual.merge(this.pair(rectangle, other), 1, Integer::sum));
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, actual.keySet());
+        Assert.assertTrue(actual.values().stream().allMatch(count -> count == 1));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        final SpatialSelfJoin<Rectangle> join = new SpatialSelfJoin<>(new ArrayList<>(),
+                rectangle -> rectangle);
+        Assert.assertEquals(0, join.size());
+        Assert.assertTrue(join.neighbours((rectangle, other) -> true).isEmpty());
+    }
+
+    @Test
+    public void testNeighbours()
+    {
+        final List<Rectangle> rectangles = this.rectangles();
+        // Directed relation: a rectangle is a neighbour of the larger rectangles it overlaps
+        final Map<Rectangle, Set<Rectangle>> neighbours = new SpatialSelfJoin<>(rectangles,
+                rectangle -> rectangle, TILE_CAPACITY)
+                        .neighbours((rectangle, other) -> rectangle.surface()
+                                .isLargerThan(other.surface()));
+        neighbours.forEach((rectangle, others) -> others.forEach(other ->
+        {
+            Assert.assertTrue(this.overlap(rectangle, other));
+            Assert.assertTrue(rectangle.surface().isLargerThan(other.surface()));
+            Assert.assertFalse(neighbours.getOrDefault(other, new HashSet<>()).contains(rectangle));
+        }));
+    }
+
+    private boolean overlap(final Rectangle rectangle, final Rectangle other)
+    {
+        return rectangle.lowerLeft().getLongitude().asDm7() <= other.upperRight().getLongitude()
+                .asDm7()
+                && other.lowerLeft().getLongitude().asDm7() <= rectangle.upperRight()
+                        .getLongitude().asDm7()
+                && rectangle.lowerLeft().getLatitude().asDm7() <= other.upperRight().getLatitude()
+                        .asDm7()
+                && other.lowerLeft().getLatitude().asDm7() <= rectangle.upperRight().getLatitude()
+                        .asDm7();
+    }
+
+    private String pair(final Rectangle rectangle, final Rectangle other)
+    {
+        final String first = rectangle.toString();
+        final String second = other.toString();
+        return first.compareTo(second) < 0 ? first + "|" + second : second + "|" + first;
+    }
+
+    private List<Rectangle> rectangles()
+    {
+        final Random random = new Random(SEED);
+        final List<Rectangle> rectangles = new ArrayList<>();
+        for (int index = 0; index < ITEMS; index++)
+        {
+            final double latitude = random.nextDouble();
+            final double longitude = random.nextDouble();
+            final double size = random.nextDouble() * 0.05;
+            rectangles.add(Rectangle.forCorners(
+                    new Location(Latitude.degrees(latitude), Longitude.degrees(longitude)),
+                    new Location(Latitude.degrees(latitude + size),
+                            Longitude.degrees(longitude + size))));
+        }
+        return rectangles;
+    }
+}
@@ -0,0 +1,103 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.text.Normalizer;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.items.Edge;
+import org.openstreetmap.atlas.utilities.scalars.Distance;
+
+/**
+ * Tests for {@link StreetNameIndex}
+ *
+ * @author agent
+ */
+public class StreetNameIndexTest
+{
+    private static final String VITATORG = "Vítatorg";
+    private static final Distance SEARCH_DISTANCE = Distance.meters(50);
+    // Over a kilometer away from both ends of the main street
+    private static final Location MIDDLE = Location.forString("47.6001, -122.315");
+    private static final Location SIDE = Location.forString("47.6015, -122.331");
+    private static final Location NOWHERE = Location.forString("47.61, -122.25");
+
+    @Rule
+    public StreetNameIndexTestRule setup = new StreetNameIndexTestRule();
+
+    @Test
+    public void testAddressPoints()
+    {
+        final StreetNameIndex index = StreetNameIndex.forAtlas(this.setup.atlas());
+        Assert.assertEquals(1, index.addressPoints(MIDDLE.boxAround(SEARCH_DISTANCE)).size());
+        Assert.assertEquals(1000000L, index.addressPoints(MIDDLE.boxAround(SEARCH_DISTANCE))
+                .get(0).getIdentifier());
+        Assert.assertTrue(index.addressPoints(NOWHERE.boxAround(SEARCH_DISTANCE)).isEmpty());
+    }
+
+    @Test
+    public void testEdgesNamed()
+    {
+        final StreetNameIndex index = StreetNameIndex.forAtlas(this.setup.atlas());
+        final Rectangle middle = MIDDLE.boxAround(SEARCH_DISTANCE);
+        Assert.assertEquals(1, index.edgesNamed("Main Street", middle).size());
+        Assert.assertEquals(1000000L, index.edgesNamed(" Main  Street", middle).get(0)
+                .getIdentifier());
+        Assert.assertTrue(index.edgesNamed("main street", middle).isEmpty());
+        Assert.assertTrue(index.edgesNamed("Side Street", middle).isEmpty());
+        Assert.assertTrue(index.edgesNamed("Unknown Street", middle).isEmpty());
+        Assert.assertTrue(
+                index.edgesNamed("Main Street", NOWHERE.boxAround(SEARCH_DISTANCE)).isEmpty());
+
+        // Localized names match too, whatever their composition
+        final Rectangle side = SIDE.boxAround(SEARCH_DISTANCE);
+        Assert.assertEquals(2000000L, index.edgesNamed("Side Street", side).get(0)
+                .getIdentifier());
+        Assert.assertEquals(2000000L,
+                index.edgesNamed(Normalizer.normalize("Rue de côté", Normalizer.Form.NFD), side)
+                        .get(0).getIdentifier());
+    }
+
+    @Test
+    public void testNamedEdges()
+    {
+        final Atlas atlas = this.setup.atlas();
+        final StreetNameIndex index = StreetNameIndex.forAtlas(atlas);
+        // Only the main edge of the long street, and not the unnamed edge at its end
+        final List<Edge> middle = index.namedEdges(MIDDLE.boxAround(SEARCH_DISTANCE));
+        Assert.assertEquals(1, middle.size());
+        Assert.assertEquals(1000000L, middle.get(0).getIdentifier());
+        Assert.assertEquals(1,
+                index.namedEdges(atlas.edge(3000000L).start().getLocation()
+                        .boxAround(SEARCH_DISTANCE)).size());
+        Assert.assertEquals(2, index.namedEdges(atlas.bounds()).size());
+        Assert.assertTrue(index.namedEdges(NOWHERE.boxAround(SEARCH_DISTANCE)).isEmpty());
+    }
+
+    @Test
+    public void testNormalizeCase()
+    {
+        Assert.assertNotEquals(StreetNameIndex.normalize("1st St"),
+                StreetNameIndex.normalize("1st st"));
+    }
+
+    @Test
+    public void testNormalizeComposition()
+    {
+        // A precomposed accent, and a letter followed by a combining accent
+        Assert.assertEquals(StreetNameIndex.normalize(VITATORG),
+                StreetNameIndex.normalize(Normalizer.normalize(VITATORG, Normalizer.Form.NFD)));
+        Assert.assertNotEquals(StreetNameIndex.normalize(VITATORG),
+                StreetNameIndex.normalize("Vitatorg"));
+    }
+
+    @Test
+    public void testNormalizeSpacing()
+    {
+        Assert.assertEquals("Rue de adresse", StreetNameIndex.normalize(" Rue  de\tadresse "));
+    }
+}
@@ -0,0 +1,59 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.utilities.testing.CoreTestRule;
+import org.openstreetmap.atlas.utilities.testing.TestAtlas;
+import org.openstreetmap.atlas.utilities.testing.TestAtlas.Edge;
+import org.openstreetmap.atlas.utilities.testing.TestAtlas.Loc;
+import org.openstreetmap.atlas.utilities.testing.TestAtlas.Node;
+import org.openstreetmap.atlas.utilities.testing.TestAtlas.Point;
+
+/**
+ * Test Rule for {@link StreetNameIndexTest}
+ *
+ * @author agent
+ */
+public class StreetNameIndexTestRule extends CoreTestRule
+{
+    // A street about 2.25 kilometers long, and a short side street north of it
+    private static final String MAIN_START = "47.6000000, -122.3300000";
+    private static final String MAIN_END = "47.6000000, -122.3000000";
+    private static final String SIDE_START = "47.6010000, -122.3310000";
+    private static final String SIDE_END = "47.6020000, -122.3310000";
+    private static final String UNNAMED_END = "47.5990000, -122.3000000";
+    private static final String ADDRESS = "47.6005000, -122.3150000";
+    private static final String NO_ADDRESS = "47.6005000, -122.3140000";
+
+    @TestAtlas(
+            // nodes
+            nodes = { @Node(id = "1000000", coordinates = @Loc(value = MAIN_START)),
+                    @Node(id = "2000000", coordinates = @Loc(value = MAIN_END)),
+                    @Node(id = "3000000", coordinates = @Loc(value = SIDE_START)),
+                    @Node(id = "4000000", coordinates = @Loc(value = SIDE_END)),
+                    @Node(id = "5000000", coordinates = @Loc(value = UNNAMED_END)) },
+            // points
+            points = {
+                    @Point(id = "1000000", coordinates = @Loc(value = ADDRESS), tags = {
+                            "addr:street=Main Street", "addr:housenumber=10" }),
+                    @Point(id = "2000000", coordinates = @Loc(value = NO_ADDRESS), tags = {
+                            "amenity=bench" }) },
+            // edges
+            edges = {
+                    @Edge(id = "1000000", coordinates = { @Loc(value = MAIN_START),
+                            @Loc(value = MAIN_END) }, tags = { "highway=residential",
+                                    "name=Main Street" }),
+                    @Edge(id = "-1000000", coordinates = { @Loc(value = MAIN_END),
+                            @Loc(value = MAIN_START) }, tags = { "highway=residential",
+                                    "name=Main Street" }),
+                    @Edge(id = "2000000", coordinates = { @Loc(value = SIDE_START),
+                            @Loc(value = SIDE_END) }, tags = { "highway=residential",
+                                    "name=Side Street", "name:fr=Rue de côté" }),
+                    @Edge(id = "3000000", coordinates = { @Loc(value = MAIN_END),
+                            @Loc(value = UNNAMED_END) }, tags = { "highway=service" }) })
+    private Atlas atlas;
+
+    public Atlas atlas()
+    {
+        return this.atlas;
+    }
+}
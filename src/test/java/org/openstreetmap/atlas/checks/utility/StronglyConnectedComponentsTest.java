@@ -0,0 +1,127 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StronglyConnectedComponents}
+ *
+ * @author agent
+ */
+public class StronglyConnectedComponentsTest
+{
+    private static final int NODES = 200;
+    private static final int DEGREE = 2;
+
+    @Test
+    public void testComponents()
+    {
+        // 0 -> 1 -> 2 -> 0 is a cycle leading to 3 <-> 4, and 5 is alone
+        final int[] offsets = { 0, 1, 2, 4, 5, 6, 6 };
+        final int[] targets = { 1, 2, 0, 3, 4, 3 };
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(offsets,
+                targets);
+        Assert.assertEquals(3, components.count());
+        Assert.assertEquals(components.component(0), components.component(1));
+        Assert.assertEquals(components.component(0), components.component(2));
+        Assert.assertEquals(components.component(3), components.component(4));
+        // The sink is numbered before the cycle leading to it
+        Assert.assertTrue(components.component(3) < components.component(0));
+
+        final int[][] members = components.members();
+        final int cycle = components.component(0);
+        Assert.assertArrayEquals(new int[] { 0, 1, 2 },
+                Arrays.copyOfRange(members[1], members[0][cycle], members[0][cycle + 1]));
+    }
+
+    @Test
+    public void testEmptyGraph()
+    {
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(
+                new int[] { 0 }, new int[0]);
+        Assert.assertEquals(0, components.count());
+        Assert.assertEquals(0, components.size());
+    }
+
+    @Test
+    public void testLongPath()
+    {
+        // A path deep enough to overflow a recursive implementation
+        final int size = 100_000;
+        final int[] offsets = new int[size + 1];
+        final int[] targets = new int[size - 1];
+        for (int node = 0; node < size - 1; node++)
+        {
+            offsets[node + 1] = node + 1;
+            targets[node] = node + 1;
+        }
+        offsets[size] = size - 1;
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(offsets,
+                targets);
+        Assert.assertEquals(size, components.count());
+        Assert.assertEquals(0, components.component(size - 1));
+    }
+
+    @Test
+    public void testRandomGraphs()
+    {
+        final Random random = new Random(1);
+        final int[] offsets = new int[NODES + 1];
+        final int[] targets = new int[NODES * DEGREE];
+        for (int node = 0; node < NODES; node++)
+        {
+            offsets[node + 1] = offsets[node] + DEGREE;
+            for (int edge = 0; edge < DEGREE; edge++)
+            {
+                targets[node * DEGREE + edge] = random.nextInt(NODES);
+            }
+        }
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(offsets,
+                targets);
+        final boolean[][] reaches = reaches(offsets, targets);
+        for (int node = 0; node < NODES; node++)
+        {
+            for (int other = 0; other < NODES; other++)
+            {
+                Assert.assertEquals(reaches[node][other] && reaches[other][node],
+                        components.component(node) == components.component(other));
+                if (reaches[node][other])
+                {
+                    Assert.assertTrue(components.component(other) <= components.component(node));
+                }
+            }
+        }
+    }
+
+    private static boolean[][] reaches(final int[] offsets, final int[] targets)
+    {
+        final int size = offsets.length - 1;
+        final boolean[][] reaches = new boolean[size][size];
+        for (int node = 0; node < size; node++)
+        {
+            reaches[node][node] = true;
+            for (int index = offsets[node]; index < offsets[node + 1]; index++)
+            {
+                reaches[node][targets[index]] = true;
+            }
+        }
+        // Floyd-Warshall transitive closure
+        for (int middle = 0; middle < size; middle++)
+        {
+            for (int node = 0; node < size; node++)
+            {
+                if (reaches[node][middle])
+                {
+                    for (int other = 0; other < size; other++)
+                    {
+                        reaches[node][other] |= reaches[middle][other];
+                    }
+                }
+            }
+        }
+        return reaches;
+    }
+}
@@ -0,0 +1,167 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.Rectangle;
+import org.openstreetmap.atlas.utilities.scalars.Distance;
+
+/**
+ * Tests for {@link UniformGrid}
+ *
+ * @author agent
+ */
+public class UniformGridTest
+{
+    private static final int ITEMS = 500;
+    private static final long SEED = 42L;
+    private static final Distance RADIUS = Distance.meters(500);
+
+    @Test
+    public void testBoxQuery()
+    {
+        this.assertBoxQueries(this.rectangles(0.0, 0.2));
+    }
+
+    @Test
+    public void testBoxQueryAtHighLatitude()
+    {
+        this.assertBoxQueries(this.rectangles(70.0, 0.01));
+    }
+
+    @Test
+    public void testBoxQueryWithLongItems()
+    {
+        // Rectangles up to a degree long, spanning hundreds of cells
+        this.assertBoxQueries(this.rectangles(0.0, 1.0));
+    }
+
+    @Test
+    public void testOverlappingPairs()
+    {
+        this.assertPairs(this.rectangles(0.0, 0.2), Distance.ZERO);
+    }
+
+    @Test
+    public void testPairsAtHighLatitude()
+    {
+        this.assertPairs(this.rectangles(70.0, 0.01), RADIUS);
+    }
+
+    @Test
+    public void testPairsWithLongItems()
+    {
+        // Rectangles spanning hundreds of cells and several levels, near short ones
+        this.assertPairs(this.rectangles(0.0, 1.0), RADIUS);
+    }
+
+    private void assertPairs(final List<Rectangle> rectangles, final Distance distance)
+    {
+        final long margin = Location.CENTER.boxAround(distance).upperRight().getLatitude()
+                .asDm7();
+        final UniformGrid<Integer> grid = new UniformGrid<>(
+                IntStream.range(0, rectangles.size()).boxed().collect(Collectors.toList()),
+                rectangles::get, RADIUS);
+        final Set<List<Integer>> expected = new HashSet<>();
+        for (int first = 0; first < rectangles.size(); first++)
+        {
+            for (int second = first + 1; second < rectangles.size(); second++)
+            {
+                if (this.near(rectangles.get(first), rectangles.get(second), margin))
+                {
+                    expected.add(Arrays.asList(first, second));
+                }
+            }
+        }
+        final List<List<Integer>> actual = Collections.synchronizedList(new ArrayList<>());
+        grid.forEachPair(distance,
+                (first, second) -> this.near(rectangles.get(first), rectangles.get(second),
+                        margin),
+                (first, second) -> actual.add(Arrays.asList(first, second)));
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, new HashSet<>(actual));
+        // Each pair once, from its item with the lowest index
+        Assert.assertEquals(expected.size(), actual.size());
+    }
+
+    private void assertBoxQueries(final List<Rectangle> rectangles)
+    {
+        final UniformGrid<Rectangle> grid = new UniformGrid<>(rectangles, rectangle -> rectangle,
+                RADIUS);
+        Assert.assertEquals(ITEMS, grid.size());
+        for (final Rectangle rectangle : rectangles.subList(0, ITEMS / 10))
+        {
+            final Rectangle box = rectangle.center().boxAround(RADIUS);
+            final Set<Rectangle> expected = rectangles.stream()
+                    .filter(other -> this.overlap(box, other)).collect(Collectors.toSet());
+            final List<Rectangle> actual = grid.get(box);
+            Assert.assertEquals(expected, new HashSet<>(actual));
+            // No duplicates, even for rectangles covering multiple cells
+            Assert.assertEquals(expected.size(), actual.size());
+        }
+    }
+
+    /**
+     * @return {@code true} if the rectangles are at most a margin apart on both axes, in dm7
+     */
+    private boolean near(final Rectangle rectangle, final Rectangle other, final long margin)
+    {
+        return rectangle.lowerLeft().getLongitude().asDm7() <= other.upperRight().getLongitude()
+                .asDm7() + margin
+                && other.lowerLeft().getLongitude().asDm7() <= rectangle.upperRight()
+                        .getLongitude().asDm7() + margin
+                && rectangle.lowerLeft().getLatitude().asDm7() <= other.upperRight().getLatitude()
+                        .asDm7() + margin
+                && other.lowerLeft().getLatitude().asDm7() <= rectangle.upperRight().getLatitude()
+                        .asDm7() + margin;
+    }
+
+    private boolean overlap(final Rectangle rectangle, final Rectangle other)
+    {
+        return rectangle.lowerLeft().getLongitude().asDm7() <= other.upperRight().getLongitude()
+                .asDm7()
+                && other.lowerLeft().getLongitude().asDm7() <= rectangle.upperRight()
+                        .getLongitude().asDm7()
+                && rectangle.lowerLeft().getLatitude().asDm7() <= other.upperRight().getLatitude()
+                        .asDm7()
+                && other.lowerLeft().getLatitude().asDm7() <= rectangle.upperRight().getLatitude()
+                        .asDm7();
+    }
+
+    /**
+     * @param southmost
+     *            the latitude of the south of the rectangles, in degrees
+     * @param largeSize
+     *            the maximum size of one rectangle out of 50, in degrees
+     * @return random rectangles
+     */
+    private List<Rectangle> rectangles(final double southmost, final double largeSize)
+    {
+        final Random random = new Random(SEED);
+        final List<Rectangle> rectangles = new ArrayList<>();
+        for (int index = 0; index < ITEMS; index++)
+        {
+            final double latitude = southmost + random.nextDouble() * 0.2;
+            final double longitude = random.nextDouble() * 0.2;
+            // Some rectangles are large enough to go to coarser grids
+            final double size = random.nextDouble() * (index % 50 == 0 ? largeSize : 0.01);
+            rectangles.add(Rectangle.forCorners(
+                    new Location(Latitude.degrees(latitude), Longitude.degrees(longitude)),
+                    new Location(Latitude.degrees(latitude + size),
+                            Longitude.degrees(longitude + size))));
+        }
+        return rectangles;
+    }
+}
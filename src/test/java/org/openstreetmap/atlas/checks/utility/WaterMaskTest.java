@@ -0,0 +1,67 @@
+package org.openstreetmap.atlas.checks.utility;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasGeometries;
+import org.openstreetmap.atlas.checks.utility.WaterMask.Cover;
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
+import org.openstreetmap.atlas.geography.Rectangle;
+
+/**
+ * Tests for {@link WaterMask}
+ *
+ * @author agent
+ */
+public class WaterMaskTest
+{
+    private static final int DEPTH = 6;
+    // An ocean on the western part of the bounds, with its coastline on the eastern edge
+    private static final WaterMask MASK = new WaterMask(
+            Rectangle.forCorners(location(0.0, 0.0), location(1.0, 1.0)),
+            Collections.singletonList(AtlasGeometries.forPolygon(new Polygon(location(0.0, 0.0),
+                    location(1.0, 0.0), location(1.0, 0.3), location(0.0, 0.3)))),
+            Collections.singletonList(AtlasGeometries
+                    .forPolyLine(new PolyLine(location(0.0, 0.3), location(1.0, 0.3)))),
+            DEPTH);
+
+    @Test
+    public void testLocations()
+    {
+        Assert.assertEquals(Cover.WATER, MASK.cover(location(0.5, 0.1)));
+        Assert.assertEquals(Cover.LAND, MASK.cover(location(0.5, 0.8)));
+        Assert.assertEquals(Cover.MIXED, MASK.cover(location(0.5, 0.3)));
+        Assert.assertEquals(Cover.MIXED, MASK.cover(location(0.5, 1.5)));
+    }
+
+    @Test
+    public void testRectangles()
+    {
+        Assert.assertEquals(Cover.WATER, MASK.cover(
+                Rectangle.forCorners(location(0.4, 0.05), location(0.6, 0.15))));
+        Assert.assertEquals(Cover.LAND,
+                MASK.cover(Rectangle.forCorners(location(0.4, 0.7), location(0.6, 0.9))));
+        Assert.assertEquals(Cover.MIXED,
+                MASK.cover(Rectangle.forCorners(location(0.4, 0.2), location(0.6, 0.4))));
+        Assert.assertEquals(Cover.MIXED,
+                MASK.cover(Rectangle.forCorners(location(0.4, 0.9), location(0.6, 1.1))));
+    }
+
+    @Test
+    public void testSize()
+    {
+        // Only the cells along the edges of the ocean are split down to the maximum depth
+        final int cellsPerSide = 1 << DEPTH;
+        Assert.assertTrue(MASK.size() < cellsPerSide * cellsPerSide);
+    }
+
+    private static Location location(final double latitude, final double longitude)
+    {
+        return new Location(Latitude.degrees(latitude), Longitude.degrees(longitude));
+    }
+}
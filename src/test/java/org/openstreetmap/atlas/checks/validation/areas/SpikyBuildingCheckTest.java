@@ -71,6 +71,15 @@ public class SpikyBuildingCheckTest
         this.verifier.verifyExpectedSize(3);
     }
 
+    @Test
+    public void curveAroundFirstPointIsMerged()
+    {
+        // Neither half of the curve is long enough alone, so only the merged curve hides the spike
+        this.verifier.actual(this.setup.curveAroundFirstPointBuilding(),
+                new SpikyBuildingCheck(ConfigurationResolver.emptyConfiguration()));
+        this.verifier.verifyEmpty();
+    }
+
     @Test
     public void doesNotFindNormalBuilding()
     {
@@ -103,6 +112,16 @@ public class SpikyBuildingCheckTest
         this.verifier.verifyExpectedSize(1);
     }
 
+    @Test
+    public void singlePointCurveOnlyHidesItsNeighbours()
+    {
+        this.verifier.actual(this.setup.singleBentPointBuilding(),
+                new SpikyBuildingCheck(ConfigurationResolver.inlineConfiguration(
+                        "{\"SpikyBuildingCheck\":{\"curve.points.minimum\":1}}")));
+        this.verifier.verifyExpectedSize(1);
+        this.verifier.verify(flag -> Assert.assertEquals(1, flag.getPoints().size()));
+    }
+
     @Test
     public void smallConsecutiveCurves()
     {
@@ -52,6 +52,24 @@ public class SpikyBuildingCheckTestRule extends CoreTestRule
     private static final String V = "1.2799710, 103.8389356";
     private static final String V_PRIME = "1.27995015, 103.8385928";
 
+    private static final String CURVE_ONE = "47.6001688, -122.3300911";
+    private static final String CURVE_TWO = "47.6001797, -122.3300000";
+    private static final String CURVE_THREE = "47.6001688, -122.3299089";
+    private static final String CURVE_FOUR = "47.6001376, -122.3298287";
+    private static final String CURVE_FIVE = "47.6000898, -122.3297693";
+    private static final String CURVE_SIX = "47.6004042, -122.3300000";
+    private static final String CURVE_SEVEN = "47.6001347, -122.3302636";
+    private static final String CURVE_SPIKE = "47.5998953, -122.3303973";
+    private static final String CURVE_EIGHT = "47.6000898, -122.3302307";
+    private static final String CURVE_NINE = "47.6001376, -122.3301713";
+
+    private static final String BENT_ONE = "47.6000000, -122.3300000";
+    private static final String BENT_TWO = "47.6000000, -122.3297336";
+    private static final String BENT_THREE = "47.6000539, -122.3294671";
+    private static final String BENT_FOUR = "47.6002695, -122.3294671";
+    private static final String BENT_SPIKE = "47.6002785, -122.3303997";
+    private static final String BENT_FIVE = "47.6002964, -122.3300000";
+
     @TestAtlas(areas = { @Area(coordinates = { @Loc(value = ONE), @Loc(value = TWO_A),
             @Loc(value = TWO), @Loc(value = THREE) }, tags = "building=yes") })
     private Atlas spikyBuilding;
@@ -97,6 +115,19 @@ public class SpikyBuildingCheckTestRule extends CoreTestRule
             @Loc(value = L), @Loc(value = N) }, tags = "building=yes") })
     private Atlas twoShortConsecutiveCurvesBuilding;
 
+    // A curve going around the first point, with a spike next to the end of its second half
+    @TestAtlas(areas = { @Area(coordinates = { @Loc(value = CURVE_ONE), @Loc(value = CURVE_TWO),
+            @Loc(value = CURVE_THREE), @Loc(value = CURVE_FOUR), @Loc(value = CURVE_FIVE),
+            @Loc(value = CURVE_SIX), @Loc(value = CURVE_SEVEN), @Loc(value = CURVE_SPIKE),
+            @Loc(value = CURVE_EIGHT), @Loc(value = CURVE_NINE) }, tags = "building=yes") })
+    private Atlas curveAroundFirstPointBuilding;
+
+    // A single slightly bent point, away from a spike
+    @TestAtlas(areas = { @Area(coordinates = { @Loc(value = BENT_ONE), @Loc(value = BENT_TWO),
+            @Loc(value = BENT_THREE), @Loc(value = BENT_FOUR), @Loc(value = BENT_SPIKE),
+            @Loc(value = BENT_FIVE) }, tags = "building=yes") })
+    private Atlas singleBentPointBuilding;
+
     public Atlas badCase()
     {
         return this.badCase;
@@ -112,6 +143,11 @@ public class SpikyBuildingCheckTestRule extends CoreTestRule
         return this.circleBuilding;
     }
 
+    public Atlas curveAroundFirstPointBuilding()
+    {
+        return this.curveAroundFirstPointBuilding;
+    }
+
     public Atlas getNormalBuilding()
     {
         return this.normalBuilding;
@@ -132,6 +168,11 @@ public class SpikyBuildingCheckTestRule extends CoreTestRule
         return this.spikyBuilding;
     }
 
+    public Atlas singleBentPointBuilding()
+    {
+        return this.singleBentPointBuilding;
+    }
+
     public Atlas twoShortConsecutiveCurvesBuilding()
     {
         return this.twoShortConsecutiveCurvesBuilding;
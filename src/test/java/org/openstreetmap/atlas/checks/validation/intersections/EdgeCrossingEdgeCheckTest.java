@@ -17,6 +17,35 @@ public class EdgeCrossingEdgeCheckTest
     @Rule
     public ConsumerBasedExpectedCheckVerifier verifier = new ConsumerBasedExpectedCheckVerifier();
     private final Configuration configuration = ConfigurationResolver.emptyConfiguration();
+    private final Configuration batchConfiguration = ConfigurationResolver
+            .inlineConfiguration("{\"EdgeCrossingEdgeCheck\":{\"batch\":true}}");
+
+    @Test
+    public void testBatchInvalidCrossingItemsAtlas()
+    {
+        this.verifier.actual(this.setup.invalidCrossingItemsAtlas(),
+                new EdgeCrossingEdgeCheck(this.batchConfiguration));
+        this.verifier.globallyVerify(flags -> Assert.assertEquals(1, flags.size()));
+        this.verifier.verify(flag -> Assert.assertEquals(4, flag.getFlaggedObjects().size()));
+    }
+
+    @Test
+    public void testBatchInvalidCrossingItemsWithInvalidLayerTagAtlas()
+    {
+        this.verifier.actual(this.setup.invalidCrossingItemsWithInvalidLayerTagAtlas(),
+                new EdgeCrossingEdgeCheck(this.batchConfiguration));
+        this.verifier.verifyNotEmpty();
+        this.verifier.globallyVerify(flags -> Assert.assertEquals(1, flags.size()));
+        this.verifier.verify(flag -> Assert.assertEquals(3, flag.getFlaggedObjects().size()));
+    }
+
+    @Test
+    public void testBatchValidCrossingItemsAtlas()
+    {
+        this.verifier.actual(this.setup.validCrossingItemsAtlas(),
+                new EdgeCrossingEdgeCheck(this.batchConfiguration));
+        this.verifier.verifyEmpty();
+    }
 
     @Test
     public void testInvalidCrossingItemsAtlas()
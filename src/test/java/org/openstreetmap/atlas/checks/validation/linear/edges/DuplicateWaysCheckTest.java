@@ -51,6 +51,24 @@ public class DuplicateWaysCheckTest
         this.verifier.globallyVerify(flags -> Assert.assertEquals(1, flags.size()));
     }
 
+    @Test
+    public void duplicateEdgeCompleteCoverageTwoEdgesSegmentIndex()
+    {
+        this.verifier.actual(this.setup.duplicateEdgeCompleteCoverageTwoEdges(),
+                new DuplicateWaysCheck(ConfigurationResolver.inlineConfiguration(
+                        "{\"DuplicateWaysCheck\":{\"segment.index\":true}}")));
+        this.verifier.globallyVerify(flags -> Assert.assertEquals(1, flags.size()));
+    }
+
+    @Test
+    public void duplicateEdgeCompleteCoverageThreeEdgesSegmentIndex()
+    {
+        this.verifier.actual(this.setup.duplicateEdgeCompleteCoverageThreeEdges(),
+                new DuplicateWaysCheck(ConfigurationResolver.inlineConfiguration(
+                        "{\"DuplicateWaysCheck\":{\"segment.index\":true}}")));
+        this.verifier.globallyVerify(flags -> Assert.assertEquals(2, flags.size()));
+    }
+
     @Test
     public void duplicateEdgeCompleteCoverageTwoEdgesArea()
     {
@@ -156,6 +156,34 @@ public class SinkIslandCheckTest
         this.verifier.globallyVerify(flags -> Assert.assertEquals(1, flags.size()));
     }
 
+    @Test
+    public void testSinkDetectionComponents()
+    {
+        this.verifier.actual(this.setup.getTestAtlas(),
+                new SinkIslandCheck(ConfigurationResolver.inlineConfiguration(
+                        "{\"SinkIslandCheck\": {\"tree.size\": 3, "
+                                + "\"components.enabled\": true}}")));
+        this.verifier.verifyExpectedSize(1);
+        // The two one-ways leading to the two-way dead end are merged into one island
+        this.verifier.verify(flag -> Assert.assertEquals(4, flag.getFlaggedObjects().size()));
+    }
+
+    @Test
+    public void testSourceDetectionComponents()
+    {
+        this.verifier.actual(this.setup.getSourceIsland(),
+                new SinkIslandCheck(ConfigurationResolver.inlineConfiguration(
+                        "{\"SinkIslandCheck\": {\"tree.size\": 3, "
+                                + "\"components.enabled\": true}}")));
+        this.verifier.verifyExpectedSize(1);
+        // The loop can be left, but the two one-ways leading to it cannot be entered
+        this.verifier.verify(flag ->
+        {
+            Assert.assertEquals(2, flag.getFlaggedObjects().size());
+            Assert.assertTrue(flag.getInstructions().contains("impossible to get into"));
+        });
+    }
+
     @Test
     public void testTrackAndPrimarySinkIsland()
     {
@@ -234,6 +234,36 @@ public class SinkIslandCheckTestRule extends CoreTestRule
                             "highway=primary", "oneway=yes", "vehicle=permissive" }), })
     private Atlas permittedSelectAccessAtlas;
 
+    // Two one-ways leading into a two-way loop, that nothing leads to
+    @TestAtlas(nodes = { @Node(coordinates = @Loc(value = TEST_9)),
+            @Node(coordinates = @Loc(value = TEST_10)), @Node(coordinates = @Loc(value = TEST_11)),
+            @Node(coordinates = @Loc(value = TEST_12)), @Node(coordinates = @Loc(value = TEST_13)),
+            @Node(coordinates = @Loc(value = TEST_14)) },
+
+            edges = {
+                    @Edge(id = "100000001", coordinates = { @Loc(value = TEST_10),
+                            @Loc(value = TEST_11) }, tags = { "highway=primary" }),
+                    @Edge(id = "-100000001", coordinates = { @Loc(value = TEST_11),
+                            @Loc(value = TEST_10) }, tags = { "highway=primary" }),
+                    @Edge(id = "200000001", coordinates = { @Loc(value = TEST_11),
+                            @Loc(value = TEST_12) }, tags = { "highway=primary" }),
+                    @Edge(id = "-200000001", coordinates = { @Loc(value = TEST_12),
+                            @Loc(value = TEST_11) }, tags = { "highway=primary" }),
+                    @Edge(id = "300000001", coordinates = { @Loc(value = TEST_12),
+                            @Loc(value = TEST_13) }, tags = { "highway=primary" }),
+                    @Edge(id = "-300000001", coordinates = { @Loc(value = TEST_13),
+                            @Loc(value = TEST_12) }, tags = { "highway=primary" }),
+                    @Edge(id = "400000001", coordinates = { @Loc(value = TEST_13),
+                            @Loc(value = TEST_10) }, tags = { "highway=primary" }),
+                    @Edge(id = "-400000001", coordinates = { @Loc(value = TEST_10),
+                            @Loc(value = TEST_13) }, tags = { "highway=primary" }),
+                    @Edge(id = "500000001", coordinates = { @Loc(value = TEST_9),
+                            @Loc(value = TEST_14) }, tags = { "highway=primary", "oneway=yes" }),
+                    @Edge(id = "600000001", coordinates = { @Loc(value = TEST_14),
+                            @Loc(value = TEST_10) }, tags = { "highway=primary",
+                                    "oneway=yes" }) })
+    private Atlas sourceIslandAtlas;
+
     public Atlas getEdgeConnectedToPedestrianNetwork()
     {
         return this.pedestrianNetwork;
@@ -294,6 +324,11 @@ public class SinkIslandCheckTestRule extends CoreTestRule
         return this.singleEdgeWithAmenityAtlas;
     }
 
+    public Atlas getSourceIsland()
+    {
+        return this.sourceIslandAtlas;
+    }
+
     public Atlas getTestAtlas()
     {
         return this.testAtlas;
@@ -2,12 +2,18 @@ package org.openstreetmap.atlas.checks.validation.linear.lines;
 
 import java.lang.reflect.Field;
 
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
+import org.openstreetmap.atlas.checks.atlas.layers.AtlasLayers;
 import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
 import org.openstreetmap.atlas.checks.utility.ElevationUtilities;
 import org.openstreetmap.atlas.checks.validation.verifier.ConsumerBasedExpectedCheckVerifier;
+import org.openstreetmap.atlas.geography.Latitude;
 import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.utilities.collections.Iterables;
 
 /**
  * WaterWayCheck test
@@ -16,6 +22,7 @@ import org.openstreetmap.atlas.geography.Location;
  */
 public class WaterWayCheckTest
 {
+    private static final int LARGE_SINKHOLE_SIDE_POINTS = 20;
 
     /** The rule to get atlases from */
     @Rule
@@ -214,6 +221,35 @@ public class WaterWayCheckTest
         this.verifier.verifyExpectedSize(1);
     }
 
+    /**
+     * Check that a waterway ending on the shoreline of a sinkhole large enough to be tested through
+     * a containment grid gets the same verdict as with a sinkhole of the same shape and only four
+     * shape points
+     */
+    @Test
+    public void testSinkholeShorelineWaterway()
+    {
+        // A shape point of the large sinkhole, and a location between two of its shape points
+        final double step = WaterWayCheckTestRule.SINKHOLE_SIDE / LARGE_SINKHOLE_SIDE_POINTS;
+        for (final double offset : new double[] { step * 2, step * 2.5 })
+        {
+            final Location end = new Location(
+                    Latitude.degrees(WaterWayCheckTestRule.SINKHOLE_LATITUDE),
+                    Longitude.degrees(WaterWayCheckTestRule.SINKHOLE_LONGITUDE + offset));
+            final Atlas small = this.atlases.getWaterwayEndingNearSquareSinkhole(1, end);
+            final Atlas large = this.atlases
+                    .getWaterwayEndingNearSquareSinkhole(LARGE_SINKHOLE_SIDE_POINTS, end);
+            Assert.assertTrue(large.area(1L).asPolygon().size() >= 64);
+            Assert.assertEquals(end.toString(),
+                    Iterables.size(new WaterWayCheck(ConfigurationResolver.emptyConfiguration())
+                            .flags(small)),
+                    Iterables.size(new WaterWayCheck(ConfigurationResolver.emptyConfiguration())
+                            .flags(large)));
+            AtlasLayers.release(small);
+            AtlasLayers.release(large);
+        }
+    }
+
     /**
      * Check that a waterway that ends with a sinkhole point is not flagged
      */
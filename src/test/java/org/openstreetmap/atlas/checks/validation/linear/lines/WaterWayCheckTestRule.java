@@ -1,6 +1,16 @@
 package org.openstreetmap.atlas.checks.validation.linear.lines;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openstreetmap.atlas.geography.Latitude;
+import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.PolyLine;
+import org.openstreetmap.atlas.geography.Polygon;
 import org.openstreetmap.atlas.geography.atlas.Atlas;
+import org.openstreetmap.atlas.geography.atlas.packed.PackedAtlasBuilder;
 import org.openstreetmap.atlas.utilities.testing.CoreTestRule;
 import org.openstreetmap.atlas.utilities.testing.TestAtlas;
 import org.openstreetmap.atlas.utilities.testing.TestAtlas.Area;
@@ -16,6 +26,10 @@ import org.openstreetmap.atlas.utilities.testing.TestAtlas.Node;
  */
 public class WaterWayCheckTestRule extends CoreTestRule
 {
+    // The south west corner and the side of the square sinkhole, in degrees
+    public static final double SINKHOLE_LATITUDE = 39.2;
+    public static final double SINKHOLE_LONGITUDE = -105.4;
+    public static final double SINKHOLE_SIDE = 0.02;
     @TestAtlas(nodes = {
             @Node(id = "-101752", coordinates = @Loc(value = "28.92414725033,-89.42596868149")),
             @Node(id = "-101754", coordinates = @Loc(value = "28.93350332367,-89.41806350699")),
@@ -429,4 +443,51 @@ public class WaterWayCheckTestRule extends CoreTestRule
     {
         return this.waterwayEndingOnOtherWaterway;
     }
+
+    /**
+     * Get a waterway coming from the south and ending at a location, next to a square sinkhole
+     * area. The sinkhole has the same shape whatever the number of its shape points.
+     *
+     * @param pointsPerSide
+     *            the number of shape points on each side of the sinkhole
+     * @param end
+     *            the last location of the waterway
+     * @return A waterway ending at a location, and a sinkhole
+     */
+    public Atlas getWaterwayEndingNearSquareSinkhole(final int pointsPerSide, final Location end)
+    {
+        final double step = SINKHOLE_SIDE / pointsPerSide;
+        final List<Location> shoreline = new ArrayList<>();
+        for (int index = 0; index < pointsPerSide; index++)
+        {
+            shoreline.add(location(SINKHOLE_LATITUDE, SINKHOLE_LONGITUDE + index * step));
+        }
+        for (int index = 0; index < pointsPerSide; index++)
+        {
+            shoreline.add(location(SINKHOLE_LATITUDE + index * step,
+                    SINKHOLE_LONGITUDE + SINKHOLE_SIDE));
+        }
+        for (int index = pointsPerSide; index > 0; index--)
+        {
+            shoreline.add(location(SINKHOLE_LATITUDE + SINKHOLE_SIDE,
+                    SINKHOLE_LONGITUDE + index * step));
+        }
+        for (int index = pointsPerSide; index > 0; index--)
+        {
+            shoreline.add(location(SINKHOLE_LATITUDE + index * step, SINKHOLE_LONGITUDE));
+        }
+        final PackedAtlasBuilder builder = new PackedAtlasBuilder();
+        builder.addArea(1L, new Polygon(shoreline),
+                Collections.singletonMap("natural", "sinkhole"));
+        builder.addLine(2L,
+                new PolyLine(new Location(Latitude.degrees(SINKHOLE_LATITUDE - SINKHOLE_SIDE),
+                        end.getLongitude()), end),
+                Collections.singletonMap("waterway", "stream"));
+        return builder.get();
+    }
+
+    private static Location location(final double latitude, final double longitude)
+    {
+        return new Location(Latitude.degrees(latitude), Longitude.degrees(longitude));
+    }
 }
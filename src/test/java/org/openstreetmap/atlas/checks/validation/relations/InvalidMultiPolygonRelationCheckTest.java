@@ -3,6 +3,7 @@ package org.openstreetmap.atlas.checks.validation.relations;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -13,10 +14,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.openstreetmap.atlas.checks.configuration.ConfigurationResolver;
 import org.openstreetmap.atlas.checks.validation.verifier.ConsumerBasedExpectedCheckVerifier;
+import org.openstreetmap.atlas.geography.Latitude;
 import org.openstreetmap.atlas.geography.Location;
+import org.openstreetmap.atlas.geography.Longitude;
+import org.openstreetmap.atlas.geography.MultiPolygon;
+import org.openstreetmap.atlas.geography.Polygon;
 import org.openstreetmap.atlas.geography.atlas.Atlas;
 import org.openstreetmap.atlas.geography.atlas.items.Relation;
+import org.openstreetmap.atlas.geography.converters.jts.JtsPolygonConverter;
 import org.openstreetmap.atlas.utilities.configuration.Configuration;
+import org.openstreetmap.atlas.utilities.maps.MultiMap;
+import org.openstreetmap.atlas.utilities.scalars.Angle;
 import org.openstreetmap.atlas.utilities.tuples.Tuple;
 
 /**
@@ -27,6 +35,8 @@ import org.openstreetmap.atlas.utilities.tuples.Tuple;
  */
 public class InvalidMultiPolygonRelationCheckTest
 {
+    // Rings of more than 500 points
+    private static final int POINTS_PER_SIDE = 130;
     private static final String PARTIAL_OVERLAP_INSTRUCTION = "Relation %s has members with centroids";
 
     private static final InvalidMultiPolygonRelationCheck referenceDefaultLocaleCheck = new InvalidMultiPolygonRelationCheck(
@@ -131,6 +141,65 @@ public class InvalidMultiPolygonRelationCheckTest
                 Collections.singletonList(String.format(PARTIAL_OVERLAP_INSTRUCTION, "1")));
     }
 
+    @Test
+    public void testLargeInnerTouchingOuterParity()
+    {
+        final MultiMap<Polygon, Polygon> outerToInners = new MultiMap<>();
+        final Polygon outer = this.square(0.0, 0.0, 1.0);
+        // Touching the outer along a side, inside it
+        outerToInners.add(outer, this.square(0.0, 0.5, 0.5));
+        // Touching the outer at a corner, inside it
+        outerToInners.add(outer, this.square(0.75, 0.75, 0.25));
+        // Crossing the outer
+        outerToInners.add(outer, this.square(0.25, -0.25, 0.5));
+        this.assertOverlapParity(outerToInners);
+    }
+
+    @Test
+    public void testLargeNestedOutersParity()
+    {
+        final MultiMap<Polygon, Polygon> outerToInners = new MultiMap<>();
+        final Polygon outer = this.square(0.0, 0.0, 1.0);
+        outerToInners.add(outer, this.square(0.25, 0.25, 0.5));
+        // An island in the hole of the first outer
+        outerToInners.put(this.square(0.375, 0.375, 0.25), new ArrayList<>());
+        // An island in the first outer, outside of its hole
+        outerToInners.put(this.square(0.05, 0.05, 0.1), new ArrayList<>());
+        // An island touching the hole of the first outer from inside
+        outerToInners.put(this.square(0.25, 0.3, 0.1), new ArrayList<>());
+        this.assertOverlapParity(outerToInners);
+    }
+
+    @Test
+    public void testLargeOverlappingOutersParity()
+    {
+        final MultiMap<Polygon, Polygon> outerToInners = new MultiMap<>();
+        outerToInners.put(this.square(0.0, 0.0, 1.0), new ArrayList<>());
+        outerToInners.put(this.square(0.5, 0.5, 1.0), new ArrayList<>());
+        // Touching the first outer along a side
+        outerToInners.put(this.square(0.0, 1.0, 0.5), new ArrayList<>());
+        outerToInners.put(this.square(3.0, 3.0, 0.5), new ArrayList<>());
+        this.assertOverlapParity(outerToInners);
+    }
+
+    @Test
+    public void testLargeTouchingInnersParity()
+    {
+        final MultiMap<Polygon, Polygon> outerToInners = new MultiMap<>();
+        final Polygon outer = this.square(0.0, 0.0, 1.0);
+        // Touching along a side
+        outerToInners.add(outer, this.square(0.1, 0.1, 0.2));
+        outerToInners.add(outer, this.square(0.1, 0.3, 0.2));
+        // Touching at a corner
+        outerToInners.add(outer, this.square(0.3, 0.5, 0.2));
+        // Overlapping the first inner
+        outerToInners.add(outer, this.square(0.2, 0.2, 0.2));
+        // Identical to the last inner
+        outerToInners.add(outer, this.square(0.6, 0.6, 0.2));
+        outerToInners.add(outer, this.square(0.6, 0.6, 0.2));
+        this.assertOverlapParity(outerToInners);
+    }
+
     @Test
     public void testNoOuter()
     {
@@ -225,6 +294,99 @@ public class InvalidMultiPolygonRelationCheckTest
                 ConfigurationResolver.emptyConfiguration(), 0, Collections.emptyList());
     }
 
+    /**
+     * Asserts that the overlaps found by the check are the ones found by comparing every pair of
+     * rings, as the check used to.
+     */
+    private void assertOverlapParity(final MultiMap<Polygon, Polygon> outerToInners)
+    {
+        final Set<Tuple<Polygon, Polygon>> expected = this.pairwiseOverlaps(outerToInners);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected,
+                referenceDefaultLocaleCheck.overlappingPolygons(new MultiPolygon(outerToInners)));
+    }
+
+    private Location location(final double latitude, final double longitude)
+    {
+        return new Location(Latitude.degrees(latitude), Longitude.degrees(longitude));
+    }
+
+    private Set<Tuple<Polygon, Polygon>> pairwiseOverlaps(
+            final MultiMap<Polygon, Polygon> outerToInners)
+    {
+        final Set<Tuple<Polygon, Polygon>> overlaps = new HashSet<>();
+        final List<Polygon> outers = new ArrayList<>(outerToInners.keySet());
+        for (int index1 = 0; index1 < outers.size() - 1; index1++)
+        {
+            for (int index2 = index1 + 1; index2 < outers.size(); index2++)
+            {
+                final Polygon polygon1 = outers.get(index1);
+                final Polygon polygon2 = outers.get(index2);
+                if (polygon1.overlaps(polygon2)
+                        && !((polygon1.fullyGeometricallyEncloses(polygon2)
+                                && outerToInners.get(polygon1).stream()
+                                        .anyMatch(inner -> inner
+                                                .fullyGeometricallyEncloses(polygon2)))
+                                || (polygon2.fullyGeometricallyEncloses(polygon1)
+                                        && outerToInners.get(polygon2).stream()
+                                                .anyMatch(inner -> inner
+                                                        .fullyGeometricallyEncloses(polygon1)))))
+                {
+                    overlaps.add(Tuple.createTuple(polygon1, polygon2));
+                }
+            }
+        }
+        final JtsPolygonConverter converter = new JtsPolygonConverter();
+        outerToInners.forEach((outer, inners) ->
+        {
+            for (int index1 = 0; index1 < inners.size() - 1; index1++)
+            {
+                for (int index2 = index1 + 1; index2 < inners.size(); index2++)
+                {
+                    final org.locationtech.jts.geom.Polygon jtsPolygon1 = converter
+                            .convert(inners.get(index1));
+                    final org.locationtech.jts.geom.Polygon jtsPolygon2 = converter
+                            .convert(inners.get(index2));
+                    if (Math.abs(jtsPolygon1.union(jtsPolygon2).getArea()
+                            - (jtsPolygon1.getArea() + jtsPolygon2.getArea())) > 1.0
+                                    / Angle.DM7_PER_DEGREE)
+                    {
+                        overlaps.add(Tuple.createTuple(inners.get(index1), inners.get(index2)));
+                    }
+                }
+            }
+            inners.stream().filter(inner -> inner.intersects(outer))
+                    .forEach(inner -> overlaps.add(Tuple.createTuple(inner, outer)));
+        });
+        return overlaps;
+    }
+
+    /**
+     * A square ring with {@link #POINTS_PER_SIDE} points on each side, from its south west corner
+     */
+    private Polygon square(final double latitude, final double longitude, final double side)
+    {
+        final List<Location> locations = new ArrayList<>();
+        final double step = side / POINTS_PER_SIDE;
+        for (int index = 0; index < POINTS_PER_SIDE; index++)
+        {
+            locations.add(this.location(latitude, longitude + index * step));
+        }
+        for (int index = 0; index < POINTS_PER_SIDE; index++)
+        {
+            locations.add(this.location(latitude + index * step, longitude + side));
+        }
+        for (int index = 0; index < POINTS_PER_SIDE; index++)
+        {
+            locations.add(this.location(latitude + side, longitude + side - index * step));
+        }
+        for (int index = 0; index < POINTS_PER_SIDE; index++)
+        {
+            locations.add(this.location(latitude + side - index * step, longitude));
+        }
+        return new Polygon(locations);
+    }
+
     private void verifyCheck(final Atlas atlas, final Configuration configuration,
             final int numberFlags, final List<String> instructions)
     {